@@ -0,0 +1,75 @@
+#!/usr/bin/env bash
+#
+# Startup benchmark: time to first HTTP response and resident memory after startup,
+# for the plain JAR, the AOT + CDS build and, when present, the native image.
+#
+#   ./mvnw -DskipTests package && cp target/api-0.0.1-SNAPSHOT.jar target/plain.jar
+#   ./mvnw -Pcds -DskipTests package
+#   ./mvnw -Pnative -DskipTests native:compile   # optional, needs GraalVM
+#   scripts/benchmark-startup.sh [runs]
+#
+# Each variant is started <runs> times (default 5) with the prod profile. MySQL does not need
+# to be running: migrations and query plan checks, which need it at startup, are disabled, and the
+# first response is the rejection (403) of an unauthenticated request.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+PORT=${BENCHMARK_PORT:-3091}
+URL="http://localhost:${PORT}/api/auth/me"
+JAR=api-0.0.1-SNAPSHOT.jar
+
+export SPRING_PROFILES_ACTIVE=prod
+export SERVER_PORT=${PORT}
+export FLYWAY_MIGRATE_ON_STARTUP=false
+export QUERY_PLAN_CHECK=off
+
+now_ms() {
+  date +%s%3N
+}
+
+# Start a command, wait for the first response, then print "<startup ms> <rss MB>"
+measure() {
+  local start pid elapsed rss
+  start=$(now_ms)
+  "$@" >/dev/null 2>&1 &
+  pid=$!
+  until curl -s -o /dev/null "${URL}"; do
+    if ! kill -0 "${pid}" 2>/dev/null; then
+      echo "failed to start: $*" >&2
+      return 1
+    fi
+    sleep 0.02
+  done
+  elapsed=$(( $(now_ms) - start ))
+  rss=$(awk '/VmRSS/ { print int($2 / 1024) }' "/proc/${pid}/status")
+  kill "${pid}"
+  wait "${pid}" 2>/dev/null || true
+  echo "${elapsed} ${rss}"
+}
+
+benchmark() {
+  local name=$1
+  shift
+  local total_ms=0 total_rss=0 result
+  for _ in $(seq "${RUNS}"); do
+    result=$(measure "$@")
+    total_ms=$(( total_ms + ${result% *} ))
+    total_rss=$(( total_rss + ${result#* } ))
+  done
+  printf "%-12s %10d ms %10d MB\n" "${name}" $(( total_ms / RUNS )) $(( total_rss / RUNS ))
+}
+
+printf "%-12s %13s %13s\n" "variant" "first response" "rss"
+
+if [[ -f target/plain.jar ]]; then
+  benchmark "jar" java -jar target/plain.jar
+fi
+if [[ -f target/app/application.jsa ]]; then
+  benchmark "aot+cds" bash -c "cd target/app && exec java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar ${JAR}"
+fi
+if [[ -x target/api ]]; then
+  benchmark "native" target/api
+fi
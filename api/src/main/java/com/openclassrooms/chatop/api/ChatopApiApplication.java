@@ -3,17 +3,31 @@ package com.openclassrooms.chatop.api;
 import io.github.cdimascio.dotenv.Dotenv;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@ConfigurationPropertiesScan
 public class ChatopApiApplication {
 
+    // Enough for every startup step of this application (~4000), older steps are dropped beyond it
+    private static final int STARTUP_STEPS_CAPACITY = 10_000;
+
     public static void main(String[] args) {
-        Dotenv dotenv = Dotenv.load();
+        // Containers and build-time runs (AOT, CDS training) get their configuration from the environment
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
         dotenv.entries().forEach(entry ->
                 System.setProperty(entry.getKey(), entry.getValue())
         );
 
-        SpringApplication.run(ChatopApiApplication.class, args);
+        SpringApplication application = new SpringApplication(ChatopApiApplication.class);
+        // Record startup steps for the report logged by StartupConfig (STARTUP_REPORT=true)
+        if (Boolean.parseBoolean(System.getProperty("STARTUP_REPORT", System.getenv("STARTUP_REPORT")))) {
+            application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY));
+        }
+        application.run(args);
     }
 
 }
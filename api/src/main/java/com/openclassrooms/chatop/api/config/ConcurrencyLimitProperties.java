@@ -0,0 +1,40 @@
+package com.openclassrooms.chatop.api.config;
+
+import com.openclassrooms.chatop.api.filter.EndpointGroup;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Adaptive concurrency limit configuration (app.concurrency-limit.*).
+ * Each endpoint group is a bulkhead whose limit moves between min and max with measured latency;
+ * groups without limits are not limited.
+ *
+ * @param enabled          whether concurrency limiting is active
+ * @param backoffRatio     factor applied to a limit when latency signals overload
+ * @param latencyTolerance latency over no-load baseline ratio considered overload
+ * @param limits           limit bounds per endpoint group
+ */
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+public record ConcurrencyLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("0.9") double backoffRatio,
+        @DefaultValue("2.0") double latencyTolerance,
+        Map<EndpointGroup, Limit> limits
+) {
+
+    public ConcurrencyLimitProperties {
+        limits = limits != null ? Map.copyOf(limits) : Map.of();
+    }
+
+    /**
+     * Limit bounds of one endpoint group. With min equal to max the limit is fixed.
+     *
+     * @param initial the limit at startup
+     * @param min     the lowest limit
+     * @param max     the highest limit
+     */
+    public record Limit(int initial, int min, int max) {
+    }
+}
@@ -0,0 +1,112 @@
+package com.openclassrooms.chatop.api.config;
+
+import com.openclassrooms.chatop.api.datasource.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data source configuration: the primary (spring.datasource.*) and optional read replicas
+ * (app.datasource.read-replicas.*), behind a router sending read-only transactions to the replicas.
+ *
+ * <p>The application data source is lazy: a connection is only taken from a pool when the first
+ * statement runs. Transactions answered from the second-level cache never hold one, and the router
+ * sees the read-only flag of the transaction.</p>
+ */
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Primary connection pool, configured like Boot's default one (spring.datasource.*, spring.datasource.hikari.*).
+     *
+     * @param properties the spring.datasource properties
+     * @return the primary data source
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Router between the primary and the replicas.
+     *
+     * @param primaryDataSource the primary data source
+     * @param properties        the spring.datasource properties, for the driver
+     * @param replicaProperties the replica settings
+     * @param meterRegistry     registry of the replica pool and lag metrics
+     * @return the routing data source
+     */
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(HikariDataSource primaryDataSource,
+                                                        DataSourceProperties properties,
+                                                        ReadReplicaProperties replicaProperties,
+                                                        MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<String> urls = replicaProperties.urls();
+        for (int i = 0; i < urls.size(); i++) {
+            String name = "replica-" + (i + 1);
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName(name);
+            replica.setJdbcUrl(urls.get(i));
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setUsername(replicaProperties.username());
+            replica.setPassword(replicaProperties.password());
+            replica.setMaximumPoolSize(replicaProperties.poolSize());
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(name, replica);
+        }
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+                primaryDataSource,
+                replicas,
+                replicaProperties.maxLag(),
+                replicaProperties.stickiness(),
+                DataSourceConfig::currentUser
+        );
+        replicas.keySet().forEach(name -> Gauge.builder("datasource.replica.lag", routing,
+                        router -> router.replicaLag(name).map(Duration::toMillis).orElse(-1L))
+                .tag("replica", name)
+                .baseUnit("milliseconds")
+                .description("Last measured replication lag, -1 when unknown")
+                .register(meterRegistry));
+        return routing;
+    }
+
+    /**
+     * The data source used by JPA and JDBC.
+     *
+     * @param routingDataSource the routing data source
+     * @return the lazy data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,37 @@
+package com.openclassrooms.chatop.api.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Flyway configuration.
+ *
+ * <p>spring.flyway.enabled is a bean condition, fixed at build time in AOT builds: an AOT application
+ * built with Flyway always has it. Whether migrations run at startup is therefore decided here, at run
+ * time (app.flyway.migrate-on-startup), which lets the CDS training run start without a database.</p>
+ */
+@Slf4j
+@Configuration
+public class FlywayConfig {
+
+    /**
+     * Migrate at startup unless disabled.
+     *
+     * @param migrateOnStartup whether pending migrations are applied at startup
+     * @return the migration strategy
+     */
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(
+            @Value("${app.flyway.migrate-on-startup:true}") boolean migrateOnStartup) {
+        return flyway -> {
+            if (migrateOnStartup) {
+                flyway.migrate();
+            } else {
+                log.info("Database migrations skipped (app.flyway.migrate-on-startup=false)");
+            }
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package com.openclassrooms.chatop.api.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.openclassrooms.chatop.api.datasource.ReplicaLagTimestampsCacheFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.CacheSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level cache configuration.
+ * Regions are JCache caches backed by Caffeine, local to each instance, created from
+ * {@link HibernateCacheProperties} and published as cache metrics (cache.gets with result=hit|miss, per region).
+ *
+ * <p>Each instance only sees its own writes: another instance may serve a cached entity or query
+ * result for up to the region time to live. Concurrent rental edits still conflict on the version column.</p>
+ *
+ * <p>With read replicas, a table written on this instance keeps its query results out of the cache
+ * for the replica lag limit (see {@link ReplicaLagTimestampsCacheFactory}).</p>
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    // Last write time per table, checked against every cached query result: it must never be evicted first
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+    private static final HibernateCacheProperties.Region UPDATE_TIMESTAMPS = new HibernateCacheProperties.Region(10_000, null);
+
+    /**
+     * Create the cache regions and hand them to Hibernate.
+     *
+     * @param properties        region settings
+     * @param replicaProperties read replica settings
+     * @param meterRegistry     registry of the region metrics
+     * @return the customizer passing the cache manager to Hibernate
+     */
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(HibernateCacheProperties properties,
+                                                                  ReadReplicaProperties replicaProperties,
+                                                                  MeterRegistry meterRegistry) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        properties.regions().forEach((name, region) -> createRegion(cacheManager, meterRegistry, name, region));
+        createRegion(cacheManager, meterRegistry, UPDATE_TIMESTAMPS_REGION, UPDATE_TIMESTAMPS);
+
+        return hibernateProperties -> {
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+            if (!replicaProperties.urls().isEmpty()) {
+                hibernateProperties.put(CacheSettings.QUERY_CACHE_FACTORY,
+                        new ReplicaLagTimestampsCacheFactory(replicaProperties.maxLag()));
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void createRegion(CacheManager cacheManager, MeterRegistry meterRegistry,
+                                     String name, HibernateCacheProperties.Region region) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>()
+                // Entries are immutable disassembled state, copying them on every read is wasted work
+                .setStoreByValue(false)
+                .setNativeStatisticsEnabled(true)
+                .setMaximumSize(OptionalLong.of(region.maxSize()));
+        if (region.ttl() != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(region.ttl().toNanos()));
+        }
+
+        // The caching provider is shared by the JVM: a previous application context may have left the region behind
+        if (cacheManager.getCache(name) != null) {
+            cacheManager.destroyCache(name);
+        }
+        Cache<Object, Object> cache = cacheManager.createCache(name, configuration);
+        CaffeineCacheMetrics.monitor(meterRegistry,
+                cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class), "hibernate." + name);
+    }
+}
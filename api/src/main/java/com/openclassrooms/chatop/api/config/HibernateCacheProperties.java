@@ -0,0 +1,33 @@
+package com.openclassrooms.chatop.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Hibernate second-level cache configuration (app.hibernate-cache.*).
+ * Every region named by an entity, natural id or cacheable query must be listed here:
+ * Hibernate fails at startup on a region that does not exist.
+ *
+ * @param regions size and time to live per cache region
+ */
+@ConfigurationProperties(prefix = "app.hibernate-cache")
+public record HibernateCacheProperties(
+        Map<String, Region> regions
+) {
+
+    public HibernateCacheProperties {
+        regions = regions != null ? Map.copyOf(regions) : Map.of();
+    }
+
+    /**
+     * Cache region settings.
+     *
+     * @param maxSize maximum number of entries, least valuable ones are evicted beyond it
+     * @param ttl     how long an entry is kept after being written, null to keep it until evicted
+     */
+    public record Region(@DefaultValue("10000") long maxSize, Duration ttl) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.openclassrooms.chatop.api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.MultipartConfigFactory;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+
+/**
+ * Upload limits of bulk imports.
+ * Multipart limits are enforced by the servlet container per servlet, so POST /rentals/import is
+ * served by its own dispatcher servlet (same application context and controllers) with the import
+ * limits, while every other endpoint keeps the spring.servlet.multipart ones.
+ */
+@Configuration
+public class ImportUploadConfig {
+
+    /**
+     * Register the dispatcher servlet of the import endpoint.
+     *
+     * @param context        the application context, shared with the main dispatcher servlet
+     * @param maxFileSize    the largest import or pictures archive
+     * @param maxRequestSize the largest import request
+     * @return the servlet registration
+     */
+    @Bean
+    public ServletRegistrationBean<DispatcherServlet> importDispatcherServlet(
+            WebApplicationContext context,
+            @Value("${app.import.max-file-size:200MB}") DataSize maxFileSize,
+            @Value("${app.import.max-request-size:400MB}") DataSize maxRequestSize
+    ) {
+        MultipartConfigFactory multipart = new MultipartConfigFactory();
+        multipart.setMaxFileSize(maxFileSize);
+        multipart.setMaxRequestSize(maxRequestSize);
+        // Spooled to disk so large imports don't grow the heap
+        multipart.setFileSizeThreshold(DataSize.ofBytes(0));
+
+        ServletRegistrationBean<DispatcherServlet> registration =
+                new ServletRegistrationBean<>(new DispatcherServlet(context), "/rentals/import");
+        registration.setName("importDispatcherServlet");
+        registration.setMultipartConfig(multipart.createMultipartConfig());
+        registration.setLoadOnStartup(1);
+        return registration;
+    }
+}
@@ -0,0 +1,59 @@
+package com.openclassrooms.chatop.api.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.openclassrooms.chatop.api.dto.MessageDTO;
+import com.openclassrooms.chatop.api.dto.RentalDTO;
+import com.openclassrooms.chatop.api.dto.RentalSummaryDTO;
+import com.openclassrooms.chatop.api.dto.UserDTO;
+import com.openclassrooms.chatop.api.dto.response.OwnerDashboardResponse;
+import com.openclassrooms.chatop.api.dto.response.RentalListResponse;
+import com.openclassrooms.chatop.api.serialization.MessageDTOSerializer;
+import com.openclassrooms.chatop.api.serialization.OwnerDashboardResponseSerializer;
+import com.openclassrooms.chatop.api.serialization.RentalDTOSerializer;
+import com.openclassrooms.chatop.api.serialization.RentalListResponseSerializer;
+import com.openclassrooms.chatop.api.serialization.RentalSummaryDTOSerializer;
+import com.openclassrooms.chatop.api.serialization.UserDTOSerializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Jackson configuration.
+ * Registers hand-written serializers for the DTOs returned in bulk, replacing
+ * reflection and per-date pattern formatting on the hot list endpoints.
+ * Spring Boot adds every Module bean to the auto-configured ObjectMapper.
+ *
+ * <p>Clients may also negotiate binary encodings with the Accept header (application/cbor,
+ * application/x-jackson-smile). Their converters are built from Boot's ObjectMapper builder so
+ * they share the JSON settings and serializers; they replace Spring MVC's default ones.</p>
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module dtoSerializationModule() {
+        SimpleModule module = new SimpleModule("ChatopDtoSerializers");
+        module.addSerializer(RentalDTO.class, new RentalDTOSerializer());
+        module.addSerializer(RentalListResponse.class, new RentalListResponseSerializer());
+        module.addSerializer(UserDTO.class, new UserDTOSerializer());
+        module.addSerializer(MessageDTO.class, new MessageDTOSerializer());
+        module.addSerializer(RentalSummaryDTO.class, new RentalSummaryDTOSerializer());
+        module.addSerializer(OwnerDashboardResponse.class, new OwnerDashboardResponseSerializer());
+        return module;
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,122 @@
+package com.openclassrooms.chatop.api.config;
+
+import com.openclassrooms.chatop.api.security.BoundedPasswordEncoder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password hashing configuration.
+ * New hashes use the configured algorithm and cost, stored with an {id} prefix
+ * (e.g. {argon2}, {bcrypt}) so the policy can change without invalidating existing passwords.
+ * Hashes created before the prefix existed are plain BCrypt and still match.
+ * Outdated hashes are re-encoded at the next successful login (see CustomUserDetailsService).
+ */
+@Slf4j
+@Configuration
+public class PasswordHashingConfig {
+
+    // Hashes timed at startup to size the queue, the fastest one is kept (the first runs cold)
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    private static final String BCRYPT = "bcrypt";
+    private static final String ARGON2 = "argon2";
+
+    @Value("${app.password.algorithm:bcrypt}")
+    private String algorithm;
+
+    @Value("${app.password.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    @Value("${app.password.argon2.memory-kb:19456}")
+    private int argon2MemoryKb;
+
+    @Value("${app.password.argon2.iterations:2}")
+    private int argon2Iterations;
+
+    @Value("${app.password.hashing.threads:0}")
+    private int hashingThreads;
+
+    @Value("${app.password.hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.password.hashing.timeout:5s}")
+    private Duration timeout;
+
+    /**
+     * Configure the password encoder.
+     * Delegates to the configured algorithm and runs on a bounded hashing executor.
+     * The executor is owned by the encoder (not a bean, which would replace Boot's task executor).
+     *
+     * @return the PasswordEncoder
+     */
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = Map.of(
+                BCRYPT, bcrypt,
+                ARGON2, new Argon2PasswordEncoder(16, 32, 1, argon2MemoryKb, argon2Iterations)
+        );
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalStateException(
+                    "Unsupported app.password.algorithm '" + algorithm + "', expected one of " + encoders.keySet());
+        }
+
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(algorithm, encoders);
+        // Existing hashes have no {id} prefix, they were all produced by BCryptPasswordEncoder
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        return new BoundedPasswordEncoder(delegating, hashingExecutor(encoders.get(algorithm)), timeout);
+    }
+
+    /**
+     * Dedicated executor for password hashing.
+     * Defaults to half the available cores so hashing never takes every CPU from the rest of the API.
+     */
+    private ThreadPoolExecutor hashingExecutor(PasswordEncoder encoder) {
+        int threads = hashingThreads > 0
+                ? hashingThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        return new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity(encoder, threads)),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * Queue capacity the pool hashes within the timeout, capped by app.password.hashing.queue-capacity.
+     * A timeout does not stop a hash that started (see BoundedPasswordEncoder): a longer queue would
+     * make callers wait past the timeout while their hashes still run, spending CPU on 503 responses.
+     */
+    private int queueCapacity(PasswordEncoder encoder, int threads) {
+        long cost = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            cost = Math.min(cost, System.nanoTime() - start);
+        }
+        // The last queued hash waits for the queue ahead of it, then runs
+        long hashesPerThread = timeout.toNanos() / Math.max(1, cost);
+        long drainable = threads * (hashesPerThread - 1);
+        int capacity = (int) Math.max(1, Math.min(queueCapacity, drainable));
+        log.info("Password hashing: {} threads, {} ms per hash, queue capacity {}",
+                threads, TimeUnit.NANOSECONDS.toMillis(cost), capacity);
+        return capacity;
+    }
+}
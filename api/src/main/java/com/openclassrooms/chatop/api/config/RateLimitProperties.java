@@ -0,0 +1,37 @@
+package com.openclassrooms.chatop.api.config;
+
+import com.openclassrooms.chatop.api.filter.EndpointGroup;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Rate limiting configuration (app.rate-limit.*).
+ * Each endpoint group gets a token bucket per client; groups without limits are not rate limited.
+ *
+ * @param enabled            whether rate limiting is active
+ * @param maxTrackedClients  upper bound of buckets kept in memory, least recently used ones are dropped
+ * @param limits             bucket settings per endpoint group
+ */
+@ConfigurationProperties(prefix = "app.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100000") long maxTrackedClients,
+        Map<EndpointGroup, Limit> limits
+) {
+
+    public RateLimitProperties {
+        limits = limits != null ? Map.copyOf(limits) : Map.of();
+    }
+
+    /**
+     * Bucket settings: up to {@code capacity} requests at once, refilled over {@code period}.
+     *
+     * @param capacity the burst size
+     * @param period   the time to refill the whole bucket
+     */
+    public record Limit(int capacity, Duration period) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.openclassrooms.chatop.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read replica configuration (app.datasource.read-replicas.*).
+ * Read-only transactions are spread over the replicas; without replicas everything goes to spring.datasource.
+ *
+ * @param urls          JDBC URLs of the replicas, empty to disable routing
+ * @param username      replica user, needs REPLICATION CLIENT to report its lag
+ * @param password      replica password
+ * @param poolSize      maximum connections per replica
+ * @param maxLag        replication lag beyond which a replica stops receiving reads
+ * @param checkInterval how often replication lag is measured
+ * @param stickiness    how long a user's reads stay on the primary after one of their writes
+ */
+@ConfigurationProperties(prefix = "app.datasource.read-replicas")
+public record ReadReplicaProperties(
+        List<String> urls,
+        String username,
+        String password,
+        @DefaultValue("10") int poolSize,
+        @DefaultValue("2s") Duration maxLag,
+        @DefaultValue("5s") Duration checkInterval,
+        @DefaultValue("10s") Duration stickiness
+) {
+
+    public ReadReplicaProperties {
+        urls = urls != null ? urls.stream().filter(url -> !url.isBlank()).toList() : List.of();
+    }
+}
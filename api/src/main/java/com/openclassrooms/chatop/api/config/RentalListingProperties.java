@@ -0,0 +1,21 @@
+package com.openclassrooms.chatop.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Home page listings configuration (app.listings.*).
+ *
+ * @param size            number of rentals per listing
+ * @param refreshInterval delay between two rebuilds of every listing, which picks up other instances' writes
+ * @param rebuildDelay    delay between two rebuilds of the listings made stale by this instance's writes
+ */
+@ConfigurationProperties(prefix = "app.listings")
+public record RentalListingProperties(
+        @DefaultValue("20") int size,
+        @DefaultValue("1m") Duration refreshInterval,
+        @DefaultValue("2s") Duration rebuildDelay
+) {
+}
@@ -0,0 +1,20 @@
+package com.openclassrooms.chatop.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Rental view counting configuration (app.rental-views.*).
+ * Views are counted in memory and added to RENTALS.view_count in batches.
+ *
+ * @param flushInterval     delay between two flushes, views counted since the last flush are lost on a crash
+ * @param maxPendingRentals upper bound of rentals with unflushed views, views of further rentals are dropped until the next flush
+ */
+@ConfigurationProperties(prefix = "app.rental-views")
+public record RentalViewProperties(
+        @DefaultValue("5s") Duration flushInterval,
+        @DefaultValue("10000") int maxPendingRentals
+) {
+}
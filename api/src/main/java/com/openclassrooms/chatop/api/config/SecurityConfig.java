@@ -1,5 +1,7 @@
 package com.openclassrooms.chatop.api.config;
 
+import com.openclassrooms.chatop.api.filter.ConcurrencyLimitFilter;
+import com.openclassrooms.chatop.api.filter.RateLimitFilter;
 import com.openclassrooms.chatop.api.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,10 +14,9 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -33,10 +34,23 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
 
     @Value("${app.cors.allowed-origins:http://localhost:4200}")
     private String allowedOrigins;
 
+    /**
+     * Match the paths below as path patterns within the application.
+     * Without this bean, string matchers fail when several dispatcher servlets are registered (see ImportUploadConfig).
+     *
+     * @return the request matcher builder used by requestMatchers(String...)
+     */
+    @Bean
+    public PathPatternRequestMatcher.Builder pathPatternRequestMatcherBuilder() {
+        return PathPatternRequestMatcher.withDefaults();
+    }
+
     /**
      * Configure the security filter chain.
      * Defines which endpoints are public and which require authentication.
@@ -67,9 +81,11 @@ public class SecurityConfig {
                         // Allow all OPTIONS requests (CORS preflight)
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         // Allow public access to authentication endpoints (no /api prefix!)
-                        .requestMatchers("/auth/register", "/auth/login").permitAll()
+                        .requestMatchers("/auth/register", "/auth/login", "/auth/refresh", "/auth/logout").permitAll()
                         // Allow public access to static files (images)
                         .requestMatchers("/uploads/**").permitAll()
+                        // Direct uploads to the local object store stand-in are authorized by their URL signature
+                        .requestMatchers(HttpMethod.PUT, "/storage/**").permitAll()
                         // Allow public access to Swagger/OpenAPI documentation
                         // NOTE: /v3/api-docs (without /**) must be explicitly listed
                         .requestMatchers(
@@ -85,7 +101,13 @@ public class SecurityConfig {
                 )
 
                 // Add JWT filter before UsernamePasswordAuthenticationFilter
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+
+                // Rate limit before authenticating, so rejected requests cost as little as possible
+                .addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class)
+
+                // Shed load first: a saturated endpoint group is rejected before any other work
+                .addFilterBefore(concurrencyLimitFilter, RateLimitFilter.class);
 
         return http.build();
     }
@@ -127,6 +149,7 @@ public class SecurityConfig {
      * Spring Security 6.x auto-configures the authentication provider when it detects
      * UserDetailsService and PasswordEncoder beans, so we don't need to explicitly
      * create a DaoAuthenticationProvider anymore.
+     * The PasswordEncoder is defined in PasswordHashingConfig.
      *
      * @param config the authentication configuration
      * @return the AuthenticationManager
@@ -136,15 +159,4 @@ public class SecurityConfig {
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
         return config.getAuthenticationManager();
     }
-
-    /**
-     * Configure the password encoder.
-     * Uses BCrypt for hashing passwords.
-     *
-     * @return the PasswordEncoder
-     */
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
 }
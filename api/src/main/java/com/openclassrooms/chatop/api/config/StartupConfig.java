@@ -0,0 +1,86 @@
+package com.openclassrooms.chatop.api.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+/**
+ * Startup configuration.
+ *
+ * <p>With lazy initialization (spring.main.lazy-initialization, on in the prod profile) beans are
+ * created on first use, so an instance is ready for traffic sooner and the first requests pay for
+ * the beans they need. Beans with @Scheduled methods stay eager, their jobs are only registered
+ * when the bean is created, and so do migrations, which must not wait for the first request.</p>
+ *
+ * <p>When started with STARTUP_REPORT=true, the slowest bean initializations are logged once the
+ * application is ready.</p>
+ */
+@Slf4j
+@Configuration
+public class StartupConfig {
+
+    private static final String BEAN_INSTANTIATION_STEP = "spring.beans.instantiate";
+
+    @Value("${app.startup.report.top-beans:20}")
+    private int reportedBeans;
+
+    /**
+     * Keep beans with scheduled jobs, and the migrations, eager under lazy initialization.
+     *
+     * @return the exclude filter
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerBeansExcludeFilter() {
+        return (beanName, beanDefinition, beanType) ->
+                FlywayMigrationInitializer.class.isAssignableFrom(beanType)
+                        || Arrays.stream(ReflectionUtils.getUniqueDeclaredMethods(beanType))
+                        .anyMatch(method -> AnnotatedElementUtils.hasAnnotation(method, Scheduled.class));
+    }
+
+    /**
+     * Log the startup time and the slowest bean initializations.
+     * Bean durations include the beans they depend on, so a slow dependency shows up under its dependents too.
+     */
+    @EventListener
+    public void reportStartup(ApplicationReadyEvent event) {
+        if (!(event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup startup)) {
+            return;
+        }
+        List<TimelineEvent> beans = startup.drainBufferedTimeline().getEvents().stream()
+                .filter(step -> BEAN_INSTANTIATION_STEP.equals(step.getStartupStep().getName()))
+                .sorted(Comparator.comparing(TimelineEvent::getDuration).reversed())
+                .limit(reportedBeans)
+                .toList();
+
+        StringBuilder report = new StringBuilder();
+        for (TimelineEvent bean : beans) {
+            report.append(String.format("%n%8d ms  %s", bean.getDuration().toMillis(), beanName(bean.getStartupStep())));
+        }
+        log.info("Application ready in {} ms, slowest bean initializations:{}",
+                event.getTimeTaken().toMillis(), report);
+    }
+
+    private static String beanName(StartupStep step) {
+        return StreamSupport.stream(step.getTags().spliterator(), false)
+                .filter(tag -> "beanName".equals(tag.getKey()))
+                .map(StartupStep.Tag::getValue)
+                .findFirst()
+                .orElse("?");
+    }
+}
@@ -0,0 +1,78 @@
+package com.openclassrooms.chatop.api.config;
+
+import com.openclassrooms.chatop.api.storage.CachingStorageBackend;
+import com.openclassrooms.chatop.api.storage.LocalObjectStore;
+import com.openclassrooms.chatop.api.storage.LocalStorageBackend;
+import com.openclassrooms.chatop.api.storage.ObjectStore;
+import com.openclassrooms.chatop.api.storage.ObjectStoreBackend;
+import com.openclassrooms.chatop.api.storage.S3ObjectStore;
+import com.openclassrooms.chatop.api.storage.SigV4Signer;
+import com.openclassrooms.chatop.api.storage.StorageBackend;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.net.http.HttpClient;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.HexFormat;
+
+/**
+ * Picture storage configuration.
+ * app.storage.type selects the S3-compatible client or the local filesystem stand-in, and the
+ * matching storage backend behind IFileStorageService and /uploads/**.
+ */
+@Configuration
+public class StorageConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.storage.type", havingValue = "local", matchIfMissing = true)
+    public LocalObjectStore localObjectStore(StorageProperties properties) {
+        StorageProperties.Local local = properties.local();
+        // Without a configured secret, URLs are only valid until the next restart
+        String secretKey = local.secretKey();
+        if (!StringUtils.hasText(secretKey)) {
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            secretKey = HexFormat.of().formatHex(random);
+        }
+        return new LocalObjectStore(
+                Paths.get(local.root()),
+                new SigV4Signer(local.accessKey(), secretKey, local.region()),
+                Clock.systemUTC()
+        );
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
+    public ObjectStore s3ObjectStore(StorageProperties properties) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(properties.s3().timeout())
+                .build();
+        return new S3ObjectStore(properties.s3(), httpClient, Clock.systemUTC());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.storage.type", havingValue = "local", matchIfMissing = true)
+    public StorageBackend localStorageBackend(
+            @Value("${file.upload-dir:uploads}") String uploadDir,
+            @Value("${file.staging-dir:uploads-staging}") String stagingDir
+    ) {
+        return new LocalStorageBackend(Paths.get(uploadDir), Paths.get(stagingDir));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
+    public StorageBackend s3StorageBackend(ObjectStore s3ObjectStore, StorageProperties properties) {
+        // Every read would otherwise be a round trip to the store
+        StorageProperties.Cache cache = properties.cache();
+        return new CachingStorageBackend(
+                new ObjectStoreBackend(s3ObjectStore),
+                Paths.get(cache.dir()),
+                cache.maxSize().toBytes()
+        );
+    }
+}
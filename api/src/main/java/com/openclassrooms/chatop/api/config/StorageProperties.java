@@ -0,0 +1,103 @@
+package com.openclassrooms.chatop.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Picture object store configuration (app.storage.*).
+ * The local store is a filesystem stand-in speaking the same presigned URL protocol as S3,
+ * so the direct upload flow works offline.
+ *
+ * @param type         the object store implementation
+ * @param uploadUrlTtl how long presigned upload URLs stay valid
+ * @param uploadKeyTtl how long an issued picture key can be used; unused uploads are deleted after it
+ * @param local        local stand-in settings
+ * @param s3           S3-compatible store settings
+ * @param cache        local disk cache in front of the S3-compatible store
+ * @param hotCache     in-memory cache of the most viewed pictures
+ */
+@ConfigurationProperties(prefix = "app.storage")
+public record StorageProperties(
+        @DefaultValue("local") Type type,
+        @DefaultValue("15m") Duration uploadUrlTtl,
+        @DefaultValue("1h") Duration uploadKeyTtl,
+        @DefaultValue Local local,
+        @DefaultValue S3 s3,
+        @DefaultValue Cache cache,
+        @DefaultValue HotCache hotCache
+) {
+
+    public enum Type {
+        LOCAL,
+        S3
+    }
+
+    /**
+     * Local stand-in: objects are files under {@code root}, uploaded through /storage/** with SigV4 presigned URLs.
+     *
+     * @param root      the directory holding the objects (served under /uploads/**)
+     * @param accessKey the access key presigned URLs are issued for
+     * @param secretKey the key presigned URLs are signed with
+     * @param region    the region of the signing scope
+     */
+    public record Local(
+            @DefaultValue("uploads") String root,
+            @DefaultValue("local") String accessKey,
+            String secretKey,
+            @DefaultValue("us-east-1") String region
+    ) {
+    }
+
+    /**
+     * S3-compatible store (AWS S3, MinIO, ...).
+     *
+     * @param endpoint  the service URL, e.g. https://s3.eu-west-3.amazonaws.com or http://localhost:9000
+     * @param region    the bucket region
+     * @param bucket    the bucket name
+     * @param accessKey the access key id
+     * @param secretKey the secret access key
+     * @param pathStyle whether the bucket goes in the path (MinIO) rather than the host name
+     * @param publicUrl base URL pictures are served from (bucket website, CDN), defaults to /uploads/** on this API
+     * @param timeout   timeout of API-side calls to the store
+     */
+    public record S3(
+            String endpoint,
+            @DefaultValue("us-east-1") String region,
+            String bucket,
+            String accessKey,
+            String secretKey,
+            @DefaultValue("false") boolean pathStyle,
+            String publicUrl,
+            @DefaultValue("10s") Duration timeout
+    ) {
+    }
+
+    /**
+     * Read-through disk cache serving /uploads/** when pictures are in the S3-compatible store.
+     *
+     * @param dir     the cache directory, kept across restarts
+     * @param maxSize the disk budget, least valuable pictures are evicted beyond it
+     */
+    public record Cache(
+            @DefaultValue("storage-cache") String dir,
+            @DefaultValue("1GB") DataSize maxSize
+    ) {
+    }
+
+    /**
+     * Memory-mapped cache of the most viewed pictures, in front of /uploads/**.
+     *
+     * @param maxSize        the off-heap memory budget, 0 disables the cache
+     * @param maxPictureSize larger pictures are always read from disk
+     * @param minRequests    requests of a picture served from disk before it is mapped
+     */
+    public record HotCache(
+            @DefaultValue("64MB") DataSize maxSize,
+            @DefaultValue("2MB") DataSize maxPictureSize,
+            @DefaultValue("3") int minRequests
+    ) {
+    }
+}
@@ -7,14 +7,19 @@ import io.swagger.v3.oas.annotations.security.SecurityScheme;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Contact;
 import io.swagger.v3.oas.models.info.Info;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 
 /**
  * Configuration for Swagger/OpenAPI documentation.
  * Sets up API documentation with JWT authentication support.
+ * The documentation is only built when first requested, and not at all when disabled (SWAGGER_ENABLED=false).
  */
+@Lazy
 @Configuration
+@ConditionalOnProperty(name = "springdoc.api-docs.enabled", matchIfMissing = true)
 @OpenAPIDefinition(
         security = @SecurityRequirement(name = "bearerAuth") // appliqué globalement
 )
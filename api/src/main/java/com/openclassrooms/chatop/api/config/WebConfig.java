@@ -1,29 +1,42 @@
 package com.openclassrooms.chatop.api.config;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.openclassrooms.chatop.api.storage.HotPictureResolver;
+import com.openclassrooms.chatop.api.storage.StorageBackend;
+import com.openclassrooms.chatop.api.storage.StorageResourceResolver;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.ResourceChainRegistration;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import java.nio.file.Path;
-import java.nio.file.Paths;
-
 /**
  * Web configuration for serving static files.
- * Configures Spring to serve uploaded images from the uploads directory.
+ * Serves uploaded images from the storage backend (upload directory, or object store through its disk cache),
+ * with the most viewed ones kept in memory.
  */
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
-    @Value("${file.upload-dir:uploads}")
-    private String uploadDir;
+    private final StorageBackend storageBackend;
+    private final StorageProperties storageProperties;
+    private final MeterRegistry meterRegistry;
 
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        Path uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
-        String uploadPathStr = uploadPath.toUri().toString();
+        ResourceChainRegistration chain = registry.addResourceHandler("/uploads/**")
+                .resourceChain(false);
 
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations(uploadPathStr);
+        StorageProperties.HotCache hotCache = storageProperties.hotCache();
+        if (hotCache.maxSize().toBytes() > 0) {
+            chain.addResolver(new HotPictureResolver(
+                    hotCache.maxSize().toBytes(),
+                    hotCache.maxPictureSize().toBytes(),
+                    hotCache.minRequests(),
+                    meterRegistry
+            ));
+        }
+        chain.addResolver(new StorageResourceResolver(storageBackend));
     }
 }
@@ -2,6 +2,7 @@ package com.openclassrooms.chatop.api.controller;
 
 import com.openclassrooms.chatop.api.dto.UserDTO;
 import com.openclassrooms.chatop.api.dto.request.AuthRequest.LoginRequest;
+import com.openclassrooms.chatop.api.dto.request.AuthRequest.RefreshRequest;
 import com.openclassrooms.chatop.api.dto.request.AuthRequest.RegisterRequest;
 import com.openclassrooms.chatop.api.dto.response.AuthResponse;
 import com.openclassrooms.chatop.api.service.interfaces.IAuthService;
@@ -14,13 +15,14 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirements;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 /**
  * REST controller for authentication endpoints.
- * Handles user registration, login, and current user information retrieval.
+ * Handles user registration, login, token refresh, logout, and current user information retrieval.
  */
 @RestController
 @RequestMapping("/auth")
@@ -95,6 +97,67 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Refresh the JWT token.
+     * Exchanges a refresh token for a new JWT token and a new refresh token; the old one becomes unusable.
+     *
+     * @param request the refresh request with the current refresh token
+     * @return AuthResponse with new tokens
+     */
+    @PostMapping("/refresh")
+    @SecurityRequirements()
+    @Operation(
+            summary = "Refresh tokens",
+            description = "Exchanges a refresh token for a new JWT token and refresh token. Each refresh token can be used once; "
+                    + "presenting it again revokes the whole session. No authentication required."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Tokens refreshed successfully",
+                    content = @Content(schema = @Schema(implementation = AuthResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Refresh token invalid, expired, revoked or reused",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+            )
+    })
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshRequest request) {
+        AuthResponse response = authService.refresh(request);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Log out.
+     * Revokes the refresh token and every token issued from the same login,
+     * and the JWT token sent in the Authorization header if any.
+     *
+     * @param request       the refresh request with the refresh token to revoke
+     * @param authorization the Authorization header, optional
+     * @return empty response
+     */
+    @PostMapping("/logout")
+    @SecurityRequirements()
+    @Operation(
+            summary = "User logout",
+            description = "Revokes the refresh token and every token issued from the same login. "
+                    + "The JWT token sent in the Authorization header, if any, is revoked too. No authentication required."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Logged out")
+    })
+    public ResponseEntity<Void> logout(
+            @Valid @RequestBody RefreshRequest request,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization
+    ) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+        authService.logout(request, accessToken);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Get current authenticated user information.
      * Requires a valid JWT token in the Authorization header.
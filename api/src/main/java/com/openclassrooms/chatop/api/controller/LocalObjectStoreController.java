@@ -0,0 +1,59 @@
+package com.openclassrooms.chatop.api.controller;
+
+import com.openclassrooms.chatop.api.exception.InvalidTokenException;
+import com.openclassrooms.chatop.api.storage.LocalObjectStore;
+import io.swagger.v3.oas.annotations.Hidden;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+/**
+ * Upload endpoint of the local object store stand-in.
+ * Accepts the presigned PUT requests issued by {@link LocalObjectStore}, like an S3 bucket would.
+ * Authentication is the URL signature, not a JWT token.
+ */
+@Hidden
+@RestController
+@RequestMapping("/storage")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalObjectStoreController {
+
+    private static final long MAX_OBJECT_SIZE = 10 * 1024 * 1024; // 10MB
+
+    private final LocalObjectStore localObjectStore;
+
+    /**
+     * Store the request body under the key following /storage/.
+     *
+     * @param request the presigned upload request
+     * @return 200 once the object is stored
+     * @throws IOException if the body cannot be read
+     */
+    @PutMapping("/**")
+    public ResponseEntity<Void> putObject(HttpServletRequest request) throws IOException {
+        String query = request.getQueryString();
+        URI url = URI.create(request.getRequestURL() + (query != null ? "?" + query : ""));
+        if (!localObjectStore.isAuthorized("PUT", url, request::getHeader)) {
+            throw new InvalidTokenException("Upload URL is invalid or expired.");
+        }
+        if (request.getContentLengthLong() > MAX_OBJECT_SIZE) {
+            throw new MaxUploadSizeExceededException(MAX_OBJECT_SIZE);
+        }
+
+        String key = request.getRequestURI().substring((request.getContextPath() + "/storage/").length());
+        try (InputStream body = request.getInputStream()) {
+            localObjectStore.write(key, body, MAX_OBJECT_SIZE);
+        }
+        return ResponseEntity.ok().build();
+    }
+}
@@ -1,12 +1,28 @@
 package com.openclassrooms.chatop.api.controller;
 
 import com.openclassrooms.chatop.api.dto.RentalDTO;
+import com.openclassrooms.chatop.api.dto.request.RentalRequest.AttachPictureRequest;
+import com.openclassrooms.chatop.api.dto.request.RentalRequest.CreateRentalFromUploadRequest;
 import com.openclassrooms.chatop.api.dto.request.RentalRequest.CreateRentalRequest;
+import com.openclassrooms.chatop.api.dto.request.RentalRequest.PictureUploadRequest;
 import com.openclassrooms.chatop.api.dto.request.RentalRequest.UpdateRentalRequest;
+import com.openclassrooms.chatop.api.dto.response.OwnerDashboardResponse;
+import com.openclassrooms.chatop.api.dto.response.PictureUploadResponse;
+import com.openclassrooms.chatop.api.dto.response.RentalImportResponse;
 import com.openclassrooms.chatop.api.dto.response.RentalListResponse;
 import com.openclassrooms.chatop.api.dto.response.SuccessResponse;
+import com.openclassrooms.chatop.api.exception.BusinessValidationException;
+import com.openclassrooms.chatop.api.exception.PreconditionFailedException;
 import com.openclassrooms.chatop.api.exception.ResourceNotFoundException;
+import com.openclassrooms.chatop.api.service.interfaces.IPictureUploadService;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalExportService;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalImportService;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalListingService;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalListingService.Listing;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalListingService.EncodedBody;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalListingService.ListingSnapshot;
 import com.openclassrooms.chatop.api.service.interfaces.IRentalService;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalViewCounter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,6 +32,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
@@ -23,6 +40,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -36,18 +56,27 @@ import java.util.List;
 @Tag(name = "Rentals", description = "Rental management endpoints")
 public class RentalController {
 
+    private static final String SORT_BY_VIEWS = "views";
+
     private final IRentalService rentalService;
+    private final IRentalImportService rentalImportService;
+    private final IRentalExportService rentalExportService;
+    private final IPictureUploadService pictureUploadService;
+    private final IRentalViewCounter rentalViewCounter;
+    private final IRentalListingService rentalListingService;
 
     /**
      * Get all rentals.
-     * Returns a list of all rental properties.
+     * Returns a list of all rental properties, most viewed first when sorted by views.
      *
+     * @param sort optional sort order, only "views" is supported
      * @return ResponseEntity with RentalListResponse containing all rentals
      */
     @GetMapping
     @Operation(
             summary = "Get all rentals",
-            description = "Returns a list of all rental properties. Requires authentication."
+            description = "Returns a list of all rental properties. With sort=views, the most viewed come first "
+                    + "(view counts are updated every few seconds). Requires authentication."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -55,22 +84,40 @@ public class RentalController {
                     description = "Rentals retrieved successfully",
                     content = @Content(schema = @Schema(implementation = RentalListResponse.class))
             ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Unsupported sort order",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+            ),
             @ApiResponse(
                     responseCode = "401",
                     description = "Unauthorized - Invalid or missing JWT token",
                     content = @Content(schema = @Schema(implementation = ProblemDetail.class))
             )
     })
-    public ResponseEntity<RentalListResponse> getAllRentals() {
-        List<RentalDTO> rentals = rentalService.getAllRentals();
+    public ResponseEntity<RentalListResponse> getAllRentals(
+            @Parameter(description = "Sort order", example = "views")
+            @RequestParam(name = "sort", required = false) String sort
+    ) {
+        List<RentalDTO> rentals;
+        if (sort == null) {
+            rentals = rentalService.getAllRentals();
+        } else if (SORT_BY_VIEWS.equals(sort)) {
+            rentals = rentalService.getMostViewedRentals();
+        } else {
+            throw new BusinessValidationException("Unsupported sort '" + sort + "', expected '" + SORT_BY_VIEWS + "'.");
+        }
         return ResponseEntity.ok(new RentalListResponse(rentals));
     }
 
     /**
      * Get rental by ID.
-     * Returns details of a specific rental property.
+     * Returns details of a specific rental property, with its version as ETag.
+     * A matching If-None-Match header is answered with 304 Not Modified.
+     * Only a 200 counts as a view of the rental: a revalidation is the same client showing its cached copy.
      *
-     * @param id the rental ID to retrieve
+     * @param id         the rental ID to retrieve
+     * @param webRequest the current request, for the If-None-Match check
      * @return ResponseEntity with RentalDTO if found, 404 otherwise
      */
     @GetMapping("/{id}")
@@ -84,6 +131,10 @@ public class RentalController {
                     description = "Rental found successfully",
                     content = @Content(schema = @Schema(implementation = RentalDTO.class))
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Not modified - If-None-Match matches the current version"
+            ),
             @ApiResponse(
                     responseCode = "401",
                     description = "Unauthorized - Invalid or missing JWT token",
@@ -97,11 +148,113 @@ public class RentalController {
     })
     public ResponseEntity<RentalDTO> getRentalById(
             @Parameter(description = "Rental ID", required = true, example = "1")
-            @PathVariable Long id
+            @PathVariable Long id,
+
+            WebRequest webRequest
     ) {
         RentalDTO rental = rentalService.getRentalById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Rental", "id", id));
-        return ResponseEntity.ok(rental);
+        if (webRequest.checkNotModified(etag(rental))) {
+            // 304 and ETag already set on the response
+            return null;
+        }
+        rentalViewCounter.recordView(id);
+        return ResponseEntity.ok().eTag(etag(rental)).body(rental);
+    }
+
+    /**
+     * Get the dashboard of the authenticated owner.
+     * Returns its rentals with their message count and latest message date, read in a single query.
+     *
+     * @param userDetails authenticated user details
+     * @return ResponseEntity with OwnerDashboardResponse
+     */
+    @GetMapping("/dashboard")
+    @Operation(
+            summary = "Get the owner dashboard",
+            description = "Returns the rentals of the authenticated user, newest first, with the number of messages "
+                    + "received and the date of the latest one. Requires authentication."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Dashboard retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = OwnerDashboardResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized - Invalid or missing JWT token",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+            )
+    })
+    public ResponseEntity<OwnerDashboardResponse> getOwnerDashboard(
+            @AuthenticationPrincipal UserDetails userDetails
+    ) {
+        return ResponseEntity.ok(rentalService.getOwnerDashboard(userDetails));
+    }
+
+    /**
+     * Get a home page listing: newest, most messaged or best value rentals.
+     * The listing is precomputed and already serialized (and compressed), the response is written as is.
+     * A matching If-None-Match header is answered with 304 Not Modified.
+     *
+     * @param listing        the listing name
+     * @param acceptEncoding the content codings accepted by the client
+     * @return ResponseEntity with the listing as a RentalListResponse JSON document
+     */
+    @GetMapping(value = "/listings/{listing}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Get a home page listing",
+            description = "Returns the newest, most messaged or cheapest per square meter rentals. Listings are "
+                    + "refreshed a few seconds after a write. Requires authentication."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Listing retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = RentalListResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Not modified - If-None-Match matches the current listing"
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized - Invalid or missing JWT token",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Unknown listing",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Service Unavailable - The listing has not been built yet, retry after the Retry-After delay",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+            )
+    })
+    public ResponseEntity<byte[]> getListing(
+            @Parameter(description = "Listing name", required = true,
+                    schema = @Schema(allowableValues = {"newest", "most-messaged", "best-value"}))
+            @PathVariable String listing,
+
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        ListingSnapshot snapshot = Listing.fromSlug(listing)
+                .map(rentalListingService::getListing)
+                .orElseThrow(() -> new ResourceNotFoundException("Listing", "name", listing));
+        // Compressed once per rebuild; Tomcat and the zstd filter leave bodies with a Content-Encoding alone
+        EncodedBody representation = snapshot.select(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .eTag(representation.etag());
+        if (representation.coding() != null) {
+            response.header(HttpHeaders.CONTENT_ENCODING, representation.coding());
+        }
+        return response.body(representation.body());
     }
 
     /**
@@ -145,15 +298,19 @@ public class RentalController {
     /**
      * Update an existing rental.
      * Updates rental details, optionally including a new image.
+     * With an If-Match header, the update only applies if the rental is still at that version.
      *
      * @param id      rental ID to update
+     * @param ifMatch optional ETag returned by a previous read
      * @param request updated rental data
      * @return ResponseEntity with success message if updated, 404 if not found
      */
     @PutMapping(value = "/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(
             summary = "Update a rental",
-            description = "Updates an existing rental property. All fields are optional. Requires authentication."
+            description = "Updates an existing rental property. All fields are optional. "
+                    + "Send the ETag from GET /rentals/{id} as If-Match to avoid overwriting concurrent edits. "
+                    + "Requires authentication."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -175,16 +332,277 @@ public class RentalController {
                     responseCode = "404",
                     description = "Rental not found",
                     content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Conflict - The rental was updated concurrently",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+            ),
+            @ApiResponse(
+                    responseCode = "412",
+                    description = "Precondition failed - If-Match does not match the current version",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class))
             )
     })
     public ResponseEntity<SuccessResponse> updateRental(
             @Parameter(description = "Rental ID", required = true, example = "1")
             @PathVariable Long id,
 
+            @Parameter(description = "ETag of the version being edited", example = "\"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+
             @Valid @ModelAttribute UpdateRentalRequest request
     ) {
-        RentalDTO rentalDTO = rentalService.updateRental(id, request)
+        RentalDTO rentalDTO = rentalService.updateRental(id, request, parseIfMatch(ifMatch))
+                .orElseThrow(() -> new ResourceNotFoundException("Rental", "id", id));
+        return ResponseEntity.ok()
+                .eTag(etag(rentalDTO))
+                .body(new SuccessResponse("Rental updated !", rentalDTO));
+    }
+
+    /**
+     * Request a direct picture upload.
+     * Returns a short-lived presigned URL; the picture is then sent straight to the object store
+     * and referenced by its key, once, when creating the rental or replacing its picture.
+     *
+     * @param request     the picture type and size
+     * @param userDetails authenticated user details, the only user allowed to use the key
+     * @return ResponseEntity with the presigned upload
+     */
+    @PostMapping(value = "/uploads", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Request a picture upload URL",
+            description = "Returns a presigned URL to upload a picture directly to storage, without going through the API. "
+                    + "Requires authentication."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Upload URL issued",
+                    content = @Content(schema = @Schema(implementation = PictureUploadResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad request - Unsupported picture type or size",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized - Invalid or missing JWT token",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+            )
+    })
+    public ResponseEntity<PictureUploadResponse> createPictureUpload(
+            @Valid @RequestBody PictureUploadRequest request,
+            @AuthenticationPrincipal UserDetails userDetails
+    ) {
+        return ResponseEntity.ok(pictureUploadService.createUpload(request, userDetails));
+    }
+
+    /**
+     * Creates a new rental with a picture uploaded beforehand through POST /rentals/uploads.
+     *
+     * @param request     rental data with the picture key
+     * @param userDetails authenticated user details
+     * @return ResponseEntity with success message and created rental data
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Create a new rental from an uploaded picture",
+            description = "Creates a new rental property referencing a picture uploaded through POST /rentals/uploads. "
+                    + "Requires authentication."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "Rental created successfully",
+                    content = @Content(schema = @Schema(implementation = SuccessResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad request - Invalid input data, or picture missing or invalid",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized - Invalid or missing JWT token",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+            )
+    })
+    public ResponseEntity<SuccessResponse> createRentalFromUpload(
+            @Valid @RequestBody CreateRentalFromUploadRequest request,
+            @AuthenticationPrincipal UserDetails userDetails
+    ) {
+        RentalDTO rentalDto = rentalService.createRental(request, userDetails);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new SuccessResponse("Rental created !", rentalDto));
+    }
+
+    /**
+     * Replace the picture of a rental with one uploaded through POST /rentals/uploads.
+     *
+     * @param id          rental ID to update
+     * @param ifMatch     optional ETag returned by a previous read
+     * @param request     the picture key
+     * @param userDetails authenticated user details
+     * @return ResponseEntity with success message if updated, 404 if not found
+     */
+    @PutMapping(value = "/{id}/picture", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Attach an uploaded picture to a rental",
+            description = "Replaces the rental picture with one uploaded through POST /rentals/uploads. "
+                    + "Supports If-Match like PUT /rentals/{id}. Requires authentication."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Picture attached successfully",
+                    content = @Content(schema = @Schema(implementation = SuccessResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad request - Picture missing or invalid",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized - Invalid or missing JWT token",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Rental not found",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+            ),
+            @ApiResponse(
+                    responseCode = "412",
+                    description = "Precondition failed - If-Match does not match the current version",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+            )
+    })
+    public ResponseEntity<SuccessResponse> attachPicture(
+            @Parameter(description = "Rental ID", required = true, example = "1")
+            @PathVariable Long id,
+
+            @Parameter(description = "ETag of the version being edited", example = "\"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+
+            @Valid @RequestBody AttachPictureRequest request,
+            @AuthenticationPrincipal UserDetails userDetails
+    ) {
+        RentalDTO rentalDTO = rentalService.attachPicture(id, request.picture_key(), parseIfMatch(ifMatch), userDetails)
                 .orElseThrow(() -> new ResourceNotFoundException("Rental", "id", id));
-        return ResponseEntity.ok(new SuccessResponse("Rental updated !", rentalDTO));
+        return ResponseEntity.ok()
+                .eTag(etag(rentalDTO))
+                .body(new SuccessResponse("Rental updated !", rentalDTO));
+    }
+
+    /**
+     * Import rentals in bulk.
+     * Streams a CSV or NDJSON file and an optional ZIP archive of pictures, creating one rental per valid row.
+     *
+     * @param rentals     CSV or NDJSON file, one rental per line
+     * @param pictures    optional ZIP archive of pictures referenced by filename in the rows
+     * @param userDetails authenticated user details, owner of the imported rentals
+     * @return ResponseEntity with the import report
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(
+            summary = "Import rentals in bulk",
+            description = "Creates rentals from a CSV (text/csv) or NDJSON (application/x-ndjson) file with columns "
+                    + "name, surface, price, picture and description. Pictures are either absolute URLs or filenames "
+                    + "of the optional ZIP archive. Invalid rows are skipped and reported. Requires authentication."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Import processed, see the report for rejected rows",
+                    content = @Content(schema = @Schema(implementation = RentalImportResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad request - Unsupported file format, missing CSV columns or unreadable archive",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized - Invalid or missing JWT token",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+            )
+    })
+    public ResponseEntity<RentalImportResponse> importRentals(
+            @Parameter(description = "CSV or NDJSON file with one rental per line", required = true)
+            @RequestPart("rentals") MultipartFile rentals,
+
+            @Parameter(description = "ZIP archive of the pictures referenced by the rows")
+            @RequestPart(value = "pictures", required = false) MultipartFile pictures,
+
+            @AuthenticationPrincipal UserDetails userDetails
+    ) {
+        return ResponseEntity.ok(rentalImportService.importRentals(rentals, pictures, userDetails));
+    }
+
+    /**
+     * Export the full rental catalogue.
+     * Streams rentals as NDJSON (one JSON object per line) in id order.
+     *
+     * @param after last rental id already received, to resume an interrupted export
+     * @return ResponseEntity streaming the rentals
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Export all rentals",
+            description = "Streams every rental as NDJSON, one rental per line, ordered by id. "
+                    + "Pass the id of the last received rental as 'after' to resume an interrupted export. "
+                    + "Requires authentication."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Rentals streamed successfully",
+                    content = @Content(
+                            mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = RentalDTO.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized - Invalid or missing JWT token",
+                    content = @Content(schema = @Schema(implementation = ProblemDetail.class))
+            )
+    })
+    public ResponseEntity<StreamingResponseBody> exportRentals(
+            @Parameter(description = "Last rental id already received", example = "0")
+            @RequestParam(name = "after", defaultValue = "0") long after
+    ) {
+        StreamingResponseBody body = out -> rentalExportService.exportRentals(after, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private static String etag(RentalDTO rental) {
+        return "\"" + rental.version() + "\"";
+    }
+
+    /**
+     * Extract the expected version from an If-Match header.
+     * Only a single strong ETag (or "*") is accepted: anything else cannot match and fails the precondition.
+     *
+     * @return the expected version, or null when no check is requested
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.valueOf(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // Falls through to the precondition failure
+            }
+        }
+        throw new PreconditionFailedException("If-Match must be the ETag returned by GET /rentals/{id}.");
     }
 }
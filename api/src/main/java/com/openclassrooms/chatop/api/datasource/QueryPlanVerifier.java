@@ -0,0 +1,131 @@
+package com.openclassrooms.chatop.api.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Checks at startup, with EXPLAIN, that the critical queries use the indexes created for them
+ * (db/migration/V6__access_path_indexes.sql and later migrations).
+ *
+ * <p>A missing index is always reported. An existing index the optimizer does not pick is only reported
+ * on tables of at least {@value #MIN_TABLE_ROWS} rows: below that, MySQL rightly prefers a full scan.
+ * Problems are logged (app.query-plan-check.mode=warn), fail the startup (fail), or are not checked (off).</p>
+ */
+@Slf4j
+@Component
+public class QueryPlanVerifier {
+
+    private static final long MIN_TABLE_ROWS = 1000;
+
+    private static final List<Check> CHECKS = List.of(
+            new Check("rentals of an owner", "RENTALS", "RENTALS_owner_index",
+                    "SELECT id FROM RENTALS WHERE owner_id = 0 ORDER BY created_at DESC"),
+            new Check("newest rentals", "RENTALS", "RENTALS_created_index",
+                    "SELECT id FROM RENTALS ORDER BY created_at DESC, id DESC LIMIT 20"),
+            new Check("most viewed rentals", "RENTALS", "RENTALS_views_index",
+                    "SELECT id FROM RENTALS ORDER BY view_count DESC, id DESC LIMIT 20"),
+            new Check("message count and latest date of a rental", "MESSAGES", "MESSAGES_rental_index",
+                    "SELECT COUNT(*), MAX(created_at) FROM MESSAGES WHERE rental_id = 0"),
+            new Check("messages of a user", "MESSAGES", "MESSAGES_user_index",
+                    "SELECT id FROM MESSAGES WHERE user_id = 0 ORDER BY created_at DESC"),
+            new Check("user by email", "USERS", "USERS_index",
+                    "SELECT id FROM USERS WHERE email = ''"),
+            new Check("refresh token by hash", "REFRESH_TOKENS", "REFRESH_TOKENS_hash_index",
+                    "SELECT id FROM REFRESH_TOKENS WHERE token_hash = ''")
+    );
+
+    private static final String INDEX_EXISTS_SQL = """
+            SELECT COUNT(*) FROM information_schema.STATISTICS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Mode mode;
+
+    public QueryPlanVerifier(JdbcTemplate jdbcTemplate,
+                             @Value("${app.query-plan-check.mode:warn}") Mode mode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mode = mode;
+    }
+
+    public enum Mode {
+        OFF,
+        WARN,
+        FAIL
+    }
+
+    /**
+     * Run the checks once the application is ready (migrations applied).
+     *
+     * @throws IllegalStateException in fail mode, if a query does not use its index
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void verify() {
+        if (mode == Mode.OFF) {
+            return;
+        }
+        List<String> problems;
+        try {
+            problems = findProblems();
+        } catch (DataAccessException ex) {
+            log.warn("Could not check query plans: {}", ex.getMessage());
+            return;
+        }
+        if (problems.isEmpty()) {
+            log.info("Query plans checked: {} critical queries use their index", CHECKS.size());
+            return;
+        }
+        String report = String.join(System.lineSeparator(), problems);
+        if (mode == Mode.FAIL) {
+            throw new IllegalStateException("Query plan check failed:" + System.lineSeparator() + report);
+        }
+        log.warn("Query plan check found problems:{}{}", System.lineSeparator(), report);
+    }
+
+    /**
+     * @return one line per query not using its index
+     */
+    List<String> findProblems() {
+        List<String> problems = new ArrayList<>();
+        for (Check check : CHECKS) {
+            Integer indexes = jdbcTemplate.queryForObject(INDEX_EXISTS_SQL, Integer.class, check.table(), check.index());
+            if (indexes == null || indexes == 0) {
+                problems.add(String.format("- %s: index %s.%s is missing", check.name(), check.table(), check.index()));
+                continue;
+            }
+            Map<String, Object> plan = jdbcTemplate.queryForList("EXPLAIN " + check.sql()).get(0);
+            if (!usesIndex(plan, check.index()) && rows(plan) >= MIN_TABLE_ROWS) {
+                problems.add(String.format("- %s: expected %s, plan is type=%s key=%s rows=%s extra=%s",
+                        check.name(), check.index(), plan.get("type"), plan.get("key"), plan.get("rows"), plan.get("Extra")));
+            }
+        }
+        return problems;
+    }
+
+    private static boolean usesIndex(Map<String, Object> plan, String index) {
+        if (index.equals(plan.get("key"))) {
+            return true;
+        }
+        // Answered from the index statistics or a unique lookup that found nothing
+        String extra = Objects.toString(plan.get("Extra"), "").toLowerCase(Locale.ROOT);
+        return extra.contains("optimized away") || extra.contains("const table") || extra.contains("impossible where");
+    }
+
+    private static long rows(Map<String, Object> plan) {
+        return plan.get("rows") instanceof Number rows ? rows.longValue() : 0;
+    }
+
+    private record Check(String name, String table, String index, String sql) {
+    }
+}
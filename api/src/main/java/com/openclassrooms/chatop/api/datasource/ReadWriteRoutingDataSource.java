@@ -0,0 +1,189 @@
+package com.openclassrooms.chatop.api.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Routes read-only transactions to replicas and everything else to the primary.
+ *
+ * <p>A replica only receives reads while its replication lag, checked by {@link #checkReplicas()},
+ * stays within {@code maxLag}; when no replica qualifies, reads fall back to the primary.
+ * After a write is committed, the writing user's reads go to the primary during {@code stickiness}
+ * (read-your-writes); everyone else keeps reading from the replicas. Written entities are put in
+ * the second-level cache at commit, and {@link ReplicaLagTimestampsCacheFactory} keeps what a lagging
+ * replica returns for the written tables out of the query cache.</p>
+ *
+ * <p>The lookup key is read when a connection is first used, so the data source must be wrapped
+ * in a LazyConnectionDataSourceProxy: the transaction manager fetches its connection before
+ * the transaction is flagged read-only.</p>
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final String PRIMARY = "primary";
+
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final Supplier<String> currentUser;
+    private final Cache<String, Boolean> recentWriters;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param primary     the primary data source
+     * @param replicas    replica data sources by name, closed with this data source
+     * @param maxLag      the replication lag beyond which a replica stops receiving reads
+     * @param stickiness  how long a user's reads stay on the primary after one of their writes
+     * @param currentUser the name of the current user, null when anonymous
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                      Duration maxLag, Duration stickiness, Supplier<String> currentUser) {
+        this.replicas = replicas.entrySet().stream()
+                .map(entry -> new Replica(entry.getKey(), entry.getValue()))
+                .toList();
+        this.maxLag = maxLag;
+        this.currentUser = currentUser;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickiness)
+                .maximumSize(100_000)
+                .build();
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            stickOnCommit();
+            return PRIMARY;
+        }
+        String user = currentUser.get();
+        if (user != null && recentWriters.getIfPresent(user) != null) {
+            return PRIMARY;
+        }
+        return nextHealthyReplica().map(Replica::name).orElse(PRIMARY);
+    }
+
+    /**
+     * Measure the replication lag of every replica and update which ones receive reads.
+     * A replica that cannot be reached or whose replication is stopped is excluded.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.datasource.read-replicas.check-interval:5s}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            Optional<Duration> lag = measureLag(replica);
+            boolean healthy = lag.isPresent() && lag.get().compareTo(maxLag) <= 0;
+            if (healthy != replica.healthy) {
+                log.warn("Replica {} {} reads (lag: {})", replica.name(),
+                        healthy ? "back to serving" : "excluded from", lag.map(Duration::toString).orElse("unknown"));
+            }
+            replica.lag = lag.orElse(null);
+            replica.healthy = healthy;
+        }
+    }
+
+    /**
+     * @param name the replica name
+     * @return the last measured replication lag of the replica, empty if unknown
+     */
+    public Optional<Duration> replicaLag(String name) {
+        return replicas.stream()
+                .filter(replica -> replica.name().equals(name))
+                .findFirst()
+                .map(replica -> replica.lag);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Replica replica : replicas) {
+            if (replica.dataSource() instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void stickOnCommit() {
+        String user = currentUser.get();
+        if (user == null || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(user, Boolean.TRUE);
+            }
+        });
+    }
+
+    private Optional<Replica> nextHealthyReplica() {
+        int size = replicas.size();
+        int start = next.getAndIncrement();
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, size));
+            if (replica.healthy) {
+                return Optional.of(replica);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<Duration> measureLag(Replica replica) {
+        try (Connection connection = replica.dataSource().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet status = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (!status.next()) {
+                // Not replicating from anything (e.g. a second standalone instance in development)
+                return Optional.of(Duration.ZERO);
+            }
+            long seconds = status.getLong("Seconds_Behind_Source");
+            return status.wasNull() ? Optional.empty() : Optional.of(Duration.ofSeconds(seconds));
+        } catch (SQLException ex) {
+            log.debug("Could not check replica {}: {}", replica.name(), ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        // Unknown until the first check
+        private volatile boolean healthy;
+        private volatile Duration lag;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private String name() {
+            return name;
+        }
+
+        private DataSource dataSource() {
+            return dataSource;
+        }
+    }
+}
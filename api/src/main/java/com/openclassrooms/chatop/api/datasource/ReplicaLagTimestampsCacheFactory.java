@@ -0,0 +1,84 @@
+package com.openclassrooms.chatop.api.datasource;
+
+import org.hibernate.cache.internal.StandardTimestampsCacheFactory;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.cache.spi.TimestampsCacheFactory;
+import org.hibernate.cache.spi.TimestampsRegion;
+import org.hibernate.cache.spi.support.SimpleTimestamper;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Keeps query results over a written table out of the query cache until the replicas have caught up.
+ *
+ * <p>After a commit Hibernate records the time each written table changed, and a cached query result
+ * over that table is only served if it was computed later. A read-only query running right after the
+ * commit may still hit a replica that has not applied the write: recording the change {@code maxLag}
+ * in the future makes such results stale as well, while queries over untouched tables keep using
+ * the replicas and the cache.</p>
+ */
+public class ReplicaLagTimestampsCacheFactory implements TimestampsCacheFactory {
+
+    private final long lag;
+
+    /**
+     * @param maxLag the replication lag beyond which a replica stops receiving reads
+     */
+    public ReplicaLagTimestampsCacheFactory(Duration maxLag) {
+        // Region factory timestamps count 1/4096 ms
+        this.lag = maxLag.toMillis() * SimpleTimestamper.ONE_MS;
+    }
+
+    @Override
+    public TimestampsCache buildTimestampsCache(CacheImplementor cacheManager, TimestampsRegion timestampsRegion) {
+        return new ReplicaLagTimestampsCache(
+                StandardTimestampsCacheFactory.INSTANCE.buildTimestampsCache(cacheManager, timestampsRegion),
+                cacheManager.getRegionFactory(), lag);
+    }
+
+    private record ReplicaLagTimestampsCache(TimestampsCache delegate, RegionFactory regionFactory, long lag)
+            implements TimestampsCache {
+
+        @Override
+        public TimestampsRegion getRegion() {
+            return delegate.getRegion();
+        }
+
+        @Override
+        public void preInvalidate(String[] spaces, SharedSessionContractImplementor session) {
+            delegate.preInvalidate(spaces, session);
+        }
+
+        @Override
+        public void invalidate(String[] spaces, SharedSessionContractImplementor session) {
+            Long until = regionFactory.nextTimestamp() + lag;
+            for (String space : spaces) {
+                getRegion().putIntoCache(space, until, session);
+            }
+        }
+
+        @Override
+        public boolean isUpToDate(String[] spaces, Long timestamp, SharedSessionContractImplementor session) {
+            return delegate.isUpToDate(spaces, timestamp, session);
+        }
+
+        @Override
+        public boolean isUpToDate(Collection<String> spaces, Long timestamp, SharedSessionContractImplementor session) {
+            return delegate.isUpToDate(spaces, timestamp, session);
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+        }
+
+        @Override
+        public void destroy() {
+            delegate.destroy();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.openclassrooms.chatop.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO for picture metadata, embedded in RentalDTO.
+ * Lets clients reserve the picture's space and show a placeholder before any image bytes arrive.
+ */
+@Schema(description = "Picture metadata, extracted when the picture was stored")
+public record PictureMetadataDTO(
+        @Schema(description = "Width in pixels", example = "1920")
+        Integer width,
+
+        @Schema(description = "Height in pixels", example = "1280")
+        Integer height,
+
+        @Schema(description = "Image format", example = "jpeg")
+        String format,
+
+        @Schema(description = "Size in bytes", example = "348112")
+        Long size,
+
+        @Schema(description = "Most common color of the picture", example = "#8a9fb4")
+        String dominant_color,
+
+        @Schema(description = "BlurHash placeholder, see https://blurha.sh", example = "LKO2?U%2Tw=w]~RBVZRi};RPxuwH")
+        String blurhash
+) {
+}
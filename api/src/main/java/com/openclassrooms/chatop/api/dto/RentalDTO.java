@@ -9,7 +9,12 @@ import java.time.LocalDateTime;
 /**
  * DTO for rental information responses.
  * Used to expose rental data in API responses.
- * Mapping between Rental entity and RentalDTO is handled by MapStruct via RentalMapper.
+ * Read by JPQL constructor expressions, or mapped from a saved Rental by MapStruct via RentalMapper.
+ * Picture metadata is joined from PICTURE_METADATA by picture URL.
+ *
+ * <p>Written by the hand-written RentalDTOSerializer, not by reflection: the Jackson annotations
+ * describe the reference JSON that DtoSerializersTest holds the serializer to. A component added
+ * here must be added to the serializer, or that test fails.</p>
  */
 @Schema(description = "Rental property information")
 public record RentalDTO(
@@ -40,6 +45,27 @@ public record RentalDTO(
 
         @JsonFormat(pattern = "yyyy/MM/dd")
         @Schema(description = "Last property update date", example = "2024/01/15")
-        LocalDateTime updated_at
+        LocalDateTime updated_at,
+
+        @Schema(description = "Optimistic locking version, also sent as the ETag header", example = "0")
+        Long version,
+
+        @Schema(description = "Metadata of the picture, null if it was stored before metadata extraction")
+        PictureMetadataDTO picture_metadata
 ) {
+
+    /**
+     * Flat constructor for JPQL constructor expressions, which cannot build nested objects.
+     * The metadata columns come from a left join and are all null when there is no metadata row.
+     */
+    public RentalDTO(
+            Long id, String name, BigDecimal surface, BigDecimal price, String picture, String description,
+            Long owner_id, LocalDateTime created_at, LocalDateTime updated_at, Long version,
+            Integer pictureWidth, Integer pictureHeight, String pictureFormat, Long pictureSize,
+            String pictureDominantColor, String pictureBlurhash
+    ) {
+        this(id, name, surface, price, picture, description, owner_id, created_at, updated_at, version,
+                pictureSize == null ? null : new PictureMetadataDTO(
+                        pictureWidth, pictureHeight, pictureFormat, pictureSize, pictureDominantColor, pictureBlurhash));
+    }
 }
@@ -0,0 +1,42 @@
+package com.openclassrooms.chatop.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for a rental on its owner's dashboard.
+ * Built directly by a JPQL constructor expression, together with the message statistics of the rental.
+ *
+ * <p>Written by the hand-written RentalSummaryDTOSerializer, not by reflection: the Jackson annotations
+ * describe the reference JSON that DtoSerializersTest holds the serializer to. A component added
+ * here must be added to the serializer, or that test fails.</p>
+ */
+@Schema(description = "Rental of the authenticated owner, with its message statistics")
+public record RentalSummaryDTO(
+        @Schema(description = "Rental's unique identifier", example = "1")
+        Long id,
+
+        @Schema(description = "Rental name", example = "Beautiful apartment in Paris")
+        String name,
+
+        @Schema(description = "Rental price per night", example = "150.00")
+        BigDecimal price,
+
+        @Schema(description = "URL of the rental picture", example = "http://localhost:3001/api/uploads/abc123.jpg")
+        String picture,
+
+        @JsonFormat(pattern = "yyyy/MM/dd")
+        @Schema(description = "Rental creation date", example = "2024/01/15")
+        LocalDateTime created_at,
+
+        @Schema(description = "Number of messages received about the rental", example = "12")
+        Long message_count,
+
+        @JsonFormat(pattern = "yyyy/MM/dd")
+        @Schema(description = "Date of the latest message, null if none", example = "2024/03/02")
+        LocalDateTime last_message_at
+) {
+}
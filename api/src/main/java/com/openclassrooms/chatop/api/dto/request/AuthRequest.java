@@ -46,4 +46,16 @@ public class AuthRequest {
             String password
     ) {
     }
+
+    /**
+     * DTO for token refresh and logout requests.
+     * Contains the refresh token returned by login, registration or a previous refresh.
+     */
+    @Schema(description = "Refresh token request")
+    public record RefreshRequest(
+            @NotBlank(message = "Refresh token is required")
+            @Schema(description = "Refresh token", example = "q3Xl1fQv8d2bM9yC0tZKp7rJ4uE6wHs5aNgYiOxVjRc")
+            String refresh_token
+    ) {
+    }
 }
@@ -71,4 +71,88 @@ public class RentalRequest {
             String description
     ) {
     }
+
+    /**
+     * DTO for requesting a direct picture upload URL.
+     * The client then sends the picture straight to the object store.
+     */
+    @Schema(description = "Request for a presigned picture upload URL")
+    public record PictureUploadRequest(
+            @NotBlank(message = "Content type is required")
+            @Schema(description = "Picture MIME type", example = "image/jpeg")
+            String content_type,
+
+            @NotNull(message = "Size is required")
+            @Positive(message = "Size must be positive")
+            @Schema(description = "Picture size in bytes, the upload must have exactly this size", example = "245760")
+            Long size
+    ) {
+    }
+
+    /**
+     * DTO for creating a new rental whose picture was uploaded directly to the object store.
+     * Used to receive data from JSON POST requests.
+     */
+    @Schema(description = "Request to create a new rental property with a picture uploaded beforehand")
+    public record CreateRentalFromUploadRequest(
+            @NotBlank(message = "Name is required")
+            @Size(max = 255, message = "Name must not exceed 255 characters")
+            @Schema(description = "Property name", example = "Charming seaside apartment")
+            String name,
+
+            @NotNull(message = "Surface is required")
+            @Positive(message = "Surface must be positive")
+            @Schema(description = "Property surface area in square meters", example = "65.50")
+            BigDecimal surface,
+
+            @NotNull(message = "Price is required")
+            @Positive(message = "Price must be positive")
+            @Schema(description = "Rental price per night", example = "150.00")
+            BigDecimal price,
+
+            @NotBlank(message = "Picture key is required")
+            @Schema(description = "Key returned by POST /rentals/uploads", example = "pictures/3f2b8c1e-7d4a-4e0b-9a51-2c6d8e9f0a1b.jpg")
+            String picture_key,
+
+            @Size(max = 2000, message = "Description must not exceed 2000 characters")
+            @Schema(description = "Property description", example = "Beautiful apartment with ocean view, 2 bedrooms, fully equipped kitchen")
+            String description
+    ) {
+    }
+
+    /**
+     * DTO for replacing the picture of a rental with one uploaded directly to the object store.
+     */
+    @Schema(description = "Request to attach an uploaded picture to a rental")
+    public record AttachPictureRequest(
+            @NotBlank(message = "Picture key is required")
+            @Schema(description = "Key returned by POST /rentals/uploads", example = "pictures/3f2b8c1e-7d4a-4e0b-9a51-2c6d8e9f0a1b.jpg")
+            String picture_key
+    ) {
+    }
+
+    /**
+     * DTO for one row of a bulk rental import (CSV line or NDJSON object).
+     * Constraints are not declared here: rows are validated against the
+     * CreateRentalRequest constraints so both paths share the same rules.
+     * The picture is either a filename inside the uploaded pictures archive or an absolute URL.
+     */
+    @Schema(description = "One rental of a bulk import file")
+    public record ImportRentalRow(
+            @Schema(description = "Property name", example = "Charming seaside apartment")
+            String name,
+
+            @Schema(description = "Property surface area in square meters", example = "65.50")
+            BigDecimal surface,
+
+            @Schema(description = "Rental price per night", example = "150.00")
+            BigDecimal price,
+
+            @Schema(description = "Picture filename inside the pictures archive, or absolute picture URL", example = "seaside.jpg")
+            String picture,
+
+            @Schema(description = "Property description", example = "Beautiful apartment with ocean view")
+            String description
+    ) {
+    }
 }
@@ -4,11 +4,15 @@ import io.swagger.v3.oas.annotations.media.Schema;
 
 /**
  * DTO for authentication responses.
- * Returns the JWT token after successful login or registration.
+ * Returns a short-lived JWT access token and a refresh token after successful login,
+ * registration or token refresh.
  */
-@Schema(description = "Authentication response containing JWT token")
+@Schema(description = "Authentication response containing JWT and refresh tokens")
 public record AuthResponse(
         @Schema(description = "JWT token for authentication", example = "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9...")
-        String token
+        String token,
+
+        @Schema(description = "Single-use token to obtain a new JWT token from /auth/refresh", example = "q3Xl1fQv8d2bM9yC0tZKp7rJ4uE6wHs5aNgYiOxVjRc")
+        String refresh_token
 ) {
 }
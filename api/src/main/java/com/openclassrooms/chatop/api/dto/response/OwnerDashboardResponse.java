@@ -0,0 +1,23 @@
+package com.openclassrooms.chatop.api.dto.response;
+
+import com.openclassrooms.chatop.api.dto.RentalSummaryDTO;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO for the owner dashboard.
+ * Used for GET /api/rentals/dashboard endpoint.
+ */
+@Schema(description = "Rentals of the authenticated owner with their message statistics")
+public record OwnerDashboardResponse(
+        @Schema(description = "Number of rentals owned", example = "3")
+        long rental_count,
+
+        @Schema(description = "Number of messages received across all rentals", example = "27")
+        long message_count,
+
+        @Schema(description = "Rentals owned, newest first")
+        List<RentalSummaryDTO> rentals
+) {
+}
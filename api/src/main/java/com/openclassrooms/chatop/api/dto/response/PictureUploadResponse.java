@@ -0,0 +1,30 @@
+package com.openclassrooms.chatop.api.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * DTO for presigned picture uploads.
+ * The client sends the picture to upload_url with the given method and headers,
+ * then references picture_key when creating or updating the rental.
+ */
+@Schema(description = "Presigned picture upload")
+public record PictureUploadResponse(
+        @Schema(description = "Key to reference the picture once uploaded", example = "pictures/3f2b8c1e-7d4a-4e0b-9a51-2c6d8e9f0a1b.jpg")
+        String picture_key,
+
+        @Schema(description = "URL to send the picture to", example = "http://localhost:3001/api/storage/pictures/3f2b8c1e-7d4a-4e0b-9a51-2c6d8e9f0a1b.jpg?X-Amz-Algorithm=AWS4-HMAC-SHA256&...")
+        String upload_url,
+
+        @Schema(description = "HTTP method of the upload", example = "PUT")
+        String method,
+
+        @Schema(description = "Headers to send with the upload", example = "{\"Content-Type\": \"image/jpeg\"}")
+        Map<String, String> headers,
+
+        @Schema(description = "Time after which the upload URL is rejected", example = "2024-01-15T10:30:00Z")
+        Instant expires_at
+) {
+}
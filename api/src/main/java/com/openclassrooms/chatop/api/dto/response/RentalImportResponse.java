@@ -0,0 +1,38 @@
+package com.openclassrooms.chatop.api.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO for bulk rental import results.
+ * Reports how many rows were imported and why the other rows were rejected.
+ */
+@Schema(description = "Result of a bulk rental import")
+public record RentalImportResponse(
+        @Schema(description = "Number of rentals created", example = "4998")
+        long imported,
+
+        @Schema(description = "Number of rejected rows", example = "2")
+        long failed,
+
+        @Schema(description = "Rejected rows details (truncated to the first 1000 errors)")
+        List<RowError> errors
+) {
+
+    /**
+     * Describes why a single row of the import file was rejected.
+     */
+    @Schema(description = "Import error for a single row")
+    public record RowError(
+            @Schema(description = "Line number in the import file (0 for the pictures archive)", example = "12")
+            long line,
+
+            @Schema(description = "Field in error, if any", example = "price", nullable = true)
+            String field,
+
+            @Schema(description = "Reason why the row was rejected", example = "Price must be positive")
+            String reason
+    ) {
+    }
+}
@@ -2,6 +2,8 @@ package com.openclassrooms.chatop.api.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -76,6 +78,43 @@ public class GlobalExceptionHandler {
         return buildResponse(problemDetail);
     }
 
+    /**
+     * Handle PreconditionFailedException - when If-Match does not match the current version.
+     * Returns HTTP 412 Precondition Failed with RFC 9457 ProblemDetail.
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ProblemDetail> handlePreconditionFailedException(
+            PreconditionFailedException ex,
+            HttpServletRequest request
+    ) {
+        log.warn("Precondition failed: {}", ex.getMessage());
+
+        ProblemDetail problemDetail = ProblemType.PRECONDITION_FAILED
+                .createProblemDetail(ex.getMessage(), request.getRequestURI());
+
+        return buildResponse(problemDetail);
+    }
+
+    /**
+     * Handle OptimisticLockingFailureException - when another request updated the entity first.
+     * Returns HTTP 409 Conflict with RFC 9457 ProblemDetail.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ProblemDetail> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex,
+            HttpServletRequest request
+    ) {
+        log.warn("Concurrent modification: {}", ex.getMessage());
+
+        ProblemDetail problemDetail = ProblemType.CONCURRENT_MODIFICATION
+                .createProblemDetail(
+                        "The resource was modified by another request. Reload it and try again.",
+                        request.getRequestURI()
+                );
+
+        return buildResponse(problemDetail);
+    }
+
     /**
      * Handle InvalidFileException - when file upload validation fails.
      * Returns HTTP 400 Bad Request with RFC 9457 ProblemDetail.
@@ -166,6 +205,23 @@ public class GlobalExceptionHandler {
         return buildResponse(problemDetail);
     }
 
+    /**
+     * Handle InvalidTokenException - when a refresh token cannot be used.
+     * Returns HTTP 401 Unauthorized with RFC 9457 ProblemDetail.
+     */
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<ProblemDetail> handleInvalidTokenException(
+            InvalidTokenException ex,
+            HttpServletRequest request
+    ) {
+        log.warn("Invalid token: {}", ex.getMessage());
+
+        ProblemDetail problemDetail = ProblemType.INVALID_TOKEN
+                .createProblemDetail(ex.getMessage(), request.getRequestURI());
+
+        return buildResponse(problemDetail);
+    }
+
     /**
      * Handle MaxUploadSizeExceededException - when uploaded file exceeds size limit.
      * Returns HTTP 413 Payload Too Large with RFC 9457 ProblemDetail.
@@ -186,6 +242,25 @@ public class GlobalExceptionHandler {
         return buildResponse(problemDetail);
     }
 
+    /**
+     * Handle ServiceUnavailableException - when the server sheds load.
+     * Returns HTTP 503 Service Unavailable with RFC 9457 ProblemDetail and a Retry-After header.
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ProblemDetail> handleServiceUnavailableException(
+            ServiceUnavailableException ex,
+            HttpServletRequest request
+    ) {
+        log.warn("Service unavailable: {}", ex.getMessage());
+
+        ProblemDetail problemDetail = ProblemType.SERVICE_UNAVAILABLE
+                .createProblemDetail(ex.getMessage(), request.getRequestURI());
+
+        return ResponseEntity.status(problemDetail.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(problemDetail);
+    }
+
     /**
      * Handle all other unexpected exceptions.
      * Returns HTTP 500 Internal Server Error with RFC 9457 ProblemDetail.
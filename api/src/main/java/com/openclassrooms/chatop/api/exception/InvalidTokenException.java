@@ -0,0 +1,16 @@
+package com.openclassrooms.chatop.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a refresh token is unknown, expired, revoked or reused.
+ * This exception is mapped to HTTP 401 Unauthorized status.
+ */
+@ResponseStatus(HttpStatus.UNAUTHORIZED)
+public class InvalidTokenException extends RuntimeException {
+
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.openclassrooms.chatop.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when an If-Match header does not match the current version of a resource.
+ * This exception is mapped to HTTP 412 Precondition Failed status.
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -33,6 +33,24 @@ public enum ProblemType {
             HttpStatus.CONFLICT
     ),
 
+    /**
+     * Resource modified concurrently by another request (HTTP 409)
+     */
+    CONCURRENT_MODIFICATION(
+            "/concurrent-modification",
+            "Concurrent Modification",
+            HttpStatus.CONFLICT
+    ),
+
+    /**
+     * If-Match precondition does not match the current resource version (HTTP 412)
+     */
+    PRECONDITION_FAILED(
+            "/precondition-failed",
+            "Precondition Failed",
+            HttpStatus.PRECONDITION_FAILED
+    ),
+
     /**
      * Invalid file upload (HTTP 400)
      */
@@ -69,6 +87,15 @@ public enum ProblemType {
             HttpStatus.UNAUTHORIZED
     ),
 
+    /**
+     * Refresh token unknown, expired, revoked or reused (HTTP 401)
+     */
+    INVALID_TOKEN(
+            "/invalid-token",
+            "Invalid Token",
+            HttpStatus.UNAUTHORIZED
+    ),
+
     /**
      * File size exceeds maximum limit (HTTP 413)
      */
@@ -78,6 +105,24 @@ public enum ProblemType {
             HttpStatus.PAYLOAD_TOO_LARGE
     ),
 
+    /**
+     * Client exceeded its rate limit (HTTP 429)
+     */
+    TOO_MANY_REQUESTS(
+            "/too-many-requests",
+            "Too Many Requests",
+            HttpStatus.TOO_MANY_REQUESTS
+    ),
+
+    /**
+     * Server temporarily overloaded, retry later (HTTP 503)
+     */
+    SERVICE_UNAVAILABLE(
+            "/service-unavailable",
+            "Service Unavailable",
+            HttpStatus.SERVICE_UNAVAILABLE
+    ),
+
     /**
      * Internal server error (HTTP 500)
      */
@@ -0,0 +1,148 @@
+package com.openclassrooms.chatop.api.filter;
+
+import com.openclassrooms.chatop.api.config.ConcurrencyLimitProperties;
+import com.openclassrooms.chatop.api.exception.ProblemType;
+import com.openclassrooms.chatop.api.util.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Load shedding filter.
+ * Each endpoint group is a bulkhead with its own adaptive concurrency limit, so a storm of uploads
+ * or logins saturates its own group only and cheap reads keep their latency. Limits follow
+ * measured latency (see AdaptiveConcurrencyLimiter); requests over the limit are rejected at once
+ * with a 503 and Retry-After instead of queueing for a Tomcat thread.
+ */
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final ConcurrencyLimitProperties properties;
+    private final ProblemResponseWriter problemResponseWriter;
+    private final Map<EndpointGroup, AdaptiveConcurrencyLimiter> limiters = new EnumMap<>(EndpointGroup.class);
+    private final Map<EndpointGroup, Counter> rejectedCounters = new EnumMap<>(EndpointGroup.class);
+
+    public ConcurrencyLimitFilter(
+            ConcurrencyLimitProperties properties,
+            ProblemResponseWriter problemResponseWriter,
+            MeterRegistry meterRegistry
+    ) {
+        this.properties = properties;
+        this.problemResponseWriter = problemResponseWriter;
+
+        properties.limits().forEach((group, limit) -> {
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                    limit.initial(), limit.min(), limit.max(),
+                    properties.backoffRatio(), properties.latencyTolerance());
+            limiters.put(group, limiter);
+
+            String tag = group.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("chatop.concurrency_limit.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current concurrency limit")
+                    .tag("group", tag)
+                    .register(meterRegistry);
+            Gauge.builder("chatop.concurrency_limit.in_flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("Requests currently in progress")
+                    .tag("group", tag)
+                    .register(meterRegistry);
+            rejectedCounters.put(group, Counter.builder("chatop.concurrency_limit.rejected")
+                    .description("Requests shed because the concurrency limit was reached")
+                    .tag("group", tag)
+                    .register(meterRegistry));
+        });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !properties.enabled() || CorsUtils.isPreFlightRequest(request);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        EndpointGroup group = EndpointGroup.of(request);
+        AdaptiveConcurrencyLimiter limiter = limiters.get(group);
+        if (limiter == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (!limiter.tryAcquire()) {
+            rejectedCounters.get(group).increment();
+            problemResponseWriter.write(request, response, ProblemType.SERVICE_UNAVAILABLE,
+                    "The server is busy. Please retry shortly.", RETRY_AFTER_SECONDS);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+
+            // Streamed responses keep running after the filter returns, release when they complete
+            if (request.isAsyncStarted()) {
+                async = true;
+                request.getAsyncContext().addListener(new ReleasingListener(limiter, start, response));
+            }
+        } finally {
+            if (!async) {
+                release(limiter, start, response);
+            }
+        }
+    }
+
+    private static void release(AdaptiveConcurrencyLimiter limiter, long start, HttpServletResponse response) {
+        boolean overloaded = response.getStatus() == HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+        limiter.release(System.nanoTime() - start, overloaded);
+    }
+
+    /**
+     * Releases the limiter slot of an asynchronous request once it ends.
+     */
+    private record ReleasingListener(
+            AdaptiveConcurrencyLimiter limiter,
+            long start,
+            HttpServletResponse response
+    ) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(limiter, start, response);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // onComplete follows
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // onComplete follows
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Not re-registered on async restarts
+        }
+    }
+}
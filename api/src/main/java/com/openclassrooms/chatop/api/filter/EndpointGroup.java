@@ -0,0 +1,61 @@
+package com.openclassrooms.chatop.api.filter;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Endpoint classes sharing a traffic policy (rate limits, concurrency limits).
+ * Requests are grouped by cost: password hashing, large uploads, messages, cheap reads and other writes.
+ */
+public enum EndpointGroup {
+
+    /**
+     * Login, registration and token refresh (password hashing, token issuance)
+     */
+    AUTH,
+
+    /**
+     * Rental creation and update (multipart pictures), bulk imports and direct picture uploads
+     */
+    UPLOADS,
+
+    /**
+     * Message sending
+     */
+    MESSAGES,
+
+    /**
+     * GET and HEAD requests
+     */
+    READS,
+
+    /**
+     * Any other write
+     */
+    WRITES;
+
+    /**
+     * Classify a request. Paths are relative to the servlet context (no /api prefix).
+     *
+     * @param request the HTTP request
+     * @return the endpoint group of the request
+     */
+    public static EndpointGroup of(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+
+        if ("GET".equals(method) || "HEAD".equals(method)) {
+            return READS;
+        }
+        if (path.startsWith("/auth/") && !path.equals("/auth/logout")) {
+            return AUTH;
+        }
+        if (path.startsWith("/messages")) {
+            return MESSAGES;
+        }
+        if ((path.startsWith("/rentals") && ("POST".equals(method) || "PUT".equals(method)))
+                || (path.startsWith("/storage/") && "PUT".equals(method))) {
+            return UPLOADS;
+        }
+        return WRITES;
+    }
+}
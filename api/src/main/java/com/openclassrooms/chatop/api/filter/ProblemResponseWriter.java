@@ -0,0 +1,49 @@
+package com.openclassrooms.chatop.api.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.chatop.api.exception.ProblemType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Writes RFC 9457 error responses from servlet filters.
+ * Filters reject requests before they reach Spring MVC, so GlobalExceptionHandler can't render them.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProblemResponseWriter {
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Write a ProblemDetail response with a Retry-After header.
+     *
+     * @param request           the HTTP request
+     * @param response          the HTTP response
+     * @param type              the problem type, which also gives the status
+     * @param detail            human-readable explanation of the problem
+     * @param retryAfterSeconds the Retry-After value in seconds
+     * @throws IOException if the response can't be written
+     */
+    public void write(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            ProblemType type,
+            String detail,
+            long retryAfterSeconds
+    ) throws IOException {
+        ProblemDetail problemDetail = type.createProblemDetail(detail, request.getRequestURI());
+
+        response.setStatus(type.getStatus().value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), problemDetail);
+    }
+}
@@ -0,0 +1,130 @@
+package com.openclassrooms.chatop.api.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.chatop.api.config.RateLimitProperties;
+import com.openclassrooms.chatop.api.exception.ProblemType;
+import com.openclassrooms.chatop.api.security.JwtClaimsResolver;
+import com.openclassrooms.chatop.api.util.TokenBucket;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.cors.CorsUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiting filter.
+ * Runs before JwtAuthenticationFilter and gives each client a token bucket per endpoint group:
+ * authenticated requests are keyed by token subject, anonymous ones by client IP.
+ * Requests over the limit get a 429 with Retry-After, before any authentication or business work.
+ *
+ * <p>Buckets live in a size-bounded map and expire once idle long enough to be full again,
+ * so memory stays bounded whatever the number of clients. Behind a reverse proxy, set
+ * server.forward-headers-strategy so the client IP is taken from X-Forwarded-For.</p>
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final JwtClaimsResolver jwtClaimsResolver;
+    private final ProblemResponseWriter problemResponseWriter;
+    private final Cache<String, TokenBucket> buckets;
+    private final Map<EndpointGroup, Counter> allowedCounters = new EnumMap<>(EndpointGroup.class);
+    private final Map<EndpointGroup, Counter> rejectedCounters = new EnumMap<>(EndpointGroup.class);
+
+    public RateLimitFilter(
+            RateLimitProperties properties,
+            JwtClaimsResolver jwtClaimsResolver,
+            ProblemResponseWriter problemResponseWriter,
+            MeterRegistry meterRegistry
+    ) {
+        this.properties = properties;
+        this.jwtClaimsResolver = jwtClaimsResolver;
+        this.problemResponseWriter = problemResponseWriter;
+
+        Duration idleExpiry = properties.limits().values().stream()
+                .map(RateLimitProperties.Limit::period)
+                .max(Duration::compareTo)
+                .orElse(Duration.ofMinutes(1));
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.maxTrackedClients())
+                .expireAfterAccess(idleExpiry)
+                .build();
+
+        for (EndpointGroup group : EndpointGroup.values()) {
+            allowedCounters.put(group, counter(meterRegistry, group, "allowed"));
+            rejectedCounters.put(group, counter(meterRegistry, group, "rejected"));
+        }
+        Gauge.builder("chatop.rate_limit.tracked_clients", buckets, Cache::estimatedSize)
+                .description("Token buckets currently kept in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !properties.enabled() || CorsUtils.isPreFlightRequest(request);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        EndpointGroup group = EndpointGroup.of(request);
+        RateLimitProperties.Limit limit = properties.limits().get(group);
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(group + ":" + clientKey(request),
+                key -> new TokenBucket(limit.capacity(), limit.period(), now));
+        TokenBucket.Result result = bucket.tryConsume(now);
+
+        response.setHeader("RateLimit-Limit", String.valueOf(limit.capacity()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(result.remaining()));
+
+        if (!result.allowed()) {
+            rejectedCounters.get(group).increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(result.waitNanos() + 999_999_999L));
+            problemResponseWriter.write(request, response, ProblemType.TOO_MANY_REQUESTS,
+                    "Rate limit exceeded. Retry in " + retryAfterSeconds + " seconds.", retryAfterSeconds);
+            return;
+        }
+
+        allowedCounters.get(group).increment();
+        filterChain.doFilter(request, response);
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Claims claims = jwtClaimsResolver.resolve(request);
+        if (claims != null && claims.getSubject() != null) {
+            return "user:" + claims.getSubject();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static Counter counter(MeterRegistry registry, EndpointGroup group, String outcome) {
+        return Counter.builder("chatop.rate_limit.requests")
+                .description("Requests checked by the rate limiter")
+                .tag("group", group.name().toLowerCase(Locale.ROOT))
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
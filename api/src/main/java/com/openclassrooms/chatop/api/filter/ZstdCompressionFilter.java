@@ -0,0 +1,270 @@
+package com.openclassrooms.chatop.api.filter;
+
+import com.openclassrooms.chatop.api.util.AcceptEncoding;
+import io.airlift.compress.zstd.ZstdOutputStream;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Zstandard response compression filter.
+ * Tomcat only supports gzip (server.compression.*); this filter adds zstd, using the
+ * pure-Java aircompressor encoder, for clients that send "Accept-Encoding: zstd".
+ * It reuses the server.compression MIME types and minimum size so both encodings follow one policy.
+ *
+ * <p>The body is buffered until the minimum size is reached, then the filter either switches to
+ * zstd or writes it unchanged. Responses that already carry a Content-Encoding (e.g. precompressed
+ * bodies) and asynchronous responses (streamed exports) are left to Tomcat's gzip, and responses
+ * switching to non-blocking writes are passed through unwrapped.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.compression.zstd.enabled", havingValue = "true")
+public class ZstdCompressionFilter extends OncePerRequestFilter {
+
+    private static final String ZSTD = "zstd";
+
+    private final List<MediaType> compressibleTypes;
+    private final int minResponseSize;
+
+    public ZstdCompressionFilter(
+            @Value("${server.compression.mime-types:application/json}") String[] mimeTypes,
+            @Value("${server.compression.min-response-size:2KB}") DataSize minResponseSize
+    ) {
+        this.compressibleTypes = Arrays.stream(mimeTypes).map(MediaType::parseMediaType).toList();
+        this.minResponseSize = (int) minResponseSize.toBytes();
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        if ("HEAD".equals(request.getMethod()) || !acceptsZstd(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        ZstdResponseWrapper wrapper = new ZstdResponseWrapper(request, response);
+        filterChain.doFilter(request, wrapper);
+        wrapper.finish();
+    }
+
+    /**
+     * Check whether the Accept-Encoding header allows zstd (present with a non-zero quality).
+     */
+    static boolean acceptsZstd(String acceptEncoding) {
+        return AcceptEncoding.accepts(acceptEncoding, ZSTD);
+    }
+
+    private boolean isCompressible(HttpServletResponse response) {
+        if (response.getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+            return false;
+        }
+        int status = response.getStatus();
+        if (status == HttpServletResponse.SC_NO_CONTENT || status == HttpServletResponse.SC_NOT_MODIFIED) {
+            return false;
+        }
+        String contentType = response.getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        return compressibleTypes.stream().anyMatch(type -> type.includes(mediaType));
+    }
+
+    /**
+     * Response wrapper buffering the beginning of the body until the compression decision is made.
+     */
+    private class ZstdResponseWrapper extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        private OutputStream target;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+        private boolean compressing;
+
+        ZstdResponseWrapper(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (outputStream == null) {
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        write(new byte[]{(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(@NonNull byte[] b, int off, int len) throws IOException {
+                        ZstdResponseWrapper.this.write(b, off, len);
+                    }
+
+                    // Flushing before the decision keeps buffering, so small bodies still get a Content-Length
+                    @Override
+                    public void flush() throws IOException {
+                        if (target != null) {
+                            target.flush();
+                        }
+                    }
+
+                    // Buffered and compressed writes never block, non-blocking ones go straight to the container
+                    @Override
+                    public boolean isReady() {
+                        return target == null || compressing || ((ServletOutputStream) target).isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        ZstdResponseWrapper.this.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() {
+            if (writer == null) {
+                String encoding = getCharacterEncoding();
+                Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.ISO_8859_1;
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), charset));
+            }
+            return writer;
+        }
+
+        // Lengths set before the decision are dropped: a compressed body has a different length,
+        // and a body sent unchanged is either complete in the buffer or streamed after it.
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            if (target != null && !compressing) {
+                super.setContentLengthLong(len);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (target == null) {
+                decide(pending.size() >= minResponseSize);
+            }
+            target.flush();
+        }
+
+        /**
+         * Switch a non-blocking response to pass-through: the container's stream handles readiness
+         * and the listener callbacks, which a compressing stream in between could not honour.
+         */
+        private void setWriteListener(WriteListener writeListener) {
+            if (target == null) {
+                try {
+                    decide(false);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+            if (compressing) {
+                throw new IllegalStateException("Non-blocking writes cannot start once the response is compressed");
+            }
+            ((ServletOutputStream) target).setWriteListener(writeListener);
+        }
+
+        private void write(byte[] b, int off, int len) throws IOException {
+            if (target == null) {
+                pending.write(b, off, len);
+                if (pending.size() >= minResponseSize) {
+                    decide(true);
+                }
+                return;
+            }
+            target.write(b, off, len);
+        }
+
+        /**
+         * Choose between zstd and pass-through, then release the buffered bytes.
+         */
+        private void decide(boolean largeEnough) throws IOException {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            compressing = largeEnough && !request.isAsyncStarted() && isCompressible(response);
+
+            if (compressing) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, ZSTD);
+                response.setHeader(HttpHeaders.CONTENT_LENGTH, null);
+                // ZstdOutputStream closes its target when finished, the servlet stream must stay open
+                target = new ZstdOutputStream(new FilterOutputStream(response.getOutputStream()) {
+                    @Override
+                    public void write(@NonNull byte[] b, int off, int len) throws IOException {
+                        out.write(b, off, len);
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        flush();
+                    }
+                });
+            } else {
+                target = response.getOutputStream();
+            }
+            pending.writeTo(target);
+            pending.reset();
+        }
+
+        private void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            // Asynchronous responses keep writing after the filter returns, only their first bytes went through here
+            if (request.isAsyncStarted()) {
+                if (target == null) {
+                    decide(false);
+                }
+                return;
+            }
+            if (target == null) {
+                // The whole body is buffered, its length is known
+                getResponse().setContentLength(pending.size());
+                decide(false);
+                return;
+            }
+            if (compressing) {
+                target.close();
+            }
+        }
+    }
+}
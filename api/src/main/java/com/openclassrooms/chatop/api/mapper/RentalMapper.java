@@ -1,7 +1,9 @@
 package com.openclassrooms.chatop.api.mapper;
 
+import com.openclassrooms.chatop.api.dto.PictureMetadataDTO;
 import com.openclassrooms.chatop.api.dto.RentalDTO;
 import com.openclassrooms.chatop.api.dto.request.RentalRequest.*;
+import com.openclassrooms.chatop.api.model.PictureMetadata;
 import com.openclassrooms.chatop.api.model.Rental;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -24,8 +26,21 @@ public interface RentalMapper {
     @Mapping(source = "owner.id", target = "owner_id")
     @Mapping(source = "createdAt", target = "created_at")
     @Mapping(source = "updatedAt", target = "updated_at")
+    @Mapping(target = "picture_metadata", ignore = true)
     RentalDTO toDto(Rental rental);
 
+    @Mapping(source = "rental.id", target = "id")
+    @Mapping(source = "rental.version", target = "version")
+    @Mapping(source = "rental.owner.id", target = "owner_id")
+    @Mapping(source = "rental.createdAt", target = "created_at")
+    @Mapping(source = "rental.updatedAt", target = "updated_at")
+    @Mapping(source = "pictureMetadata", target = "picture_metadata")
+    RentalDTO toDto(Rental rental, PictureMetadata pictureMetadata);
+
+    @Mapping(source = "sizeBytes", target = "size")
+    @Mapping(source = "dominantColor", target = "dominant_color")
+    PictureMetadataDTO toDto(PictureMetadata pictureMetadata);
+
     List<RentalDTO> toDtoList(List<Rental> rentals);
 
     // -----------------------------
@@ -37,8 +52,19 @@ public interface RentalMapper {
     @Mapping(target = "picture", ignore = true) // Will be set in service
     @Mapping(target = "createdAt", ignore = true) // Handled by JPA
     @Mapping(target = "updatedAt", ignore = true) // Handled by JPA
+    @Mapping(target = "version", ignore = true) // Handled by JPA
+    @Mapping(target = "viewCount", ignore = true) // Counted by RentalViewCounter
     Rental toEntity(CreateRentalRequest request);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "owner", ignore = true)
+    @Mapping(target = "picture", ignore = true) // Resolved from picture_key in service
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "viewCount", ignore = true)
+    Rental toEntity(CreateRentalFromUploadRequest request);
+
     /**
      * Update an existing Rental entity from UpdateRentalRequest.
      * Only non-null fields in the request will overwrite the entity.
@@ -49,6 +75,8 @@ public interface RentalMapper {
     @Mapping(target = "picture", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "viewCount", ignore = true)
     @Mapping(target = "name", nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "surface", nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "price", nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
@@ -0,0 +1,61 @@
+package com.openclassrooms.chatop.api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * PictureMetadata entity representing the PICTURE_METADATA table in the database.
+ * Extracted once when a picture is stored, and keyed by the picture URL stored on rentals,
+ * so lists can render placeholders without downloading or decoding any picture.
+ */
+@Entity
+@Table(name = "PICTURE_METADATA")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class PictureMetadata implements Persistable<String> {
+
+    @Id
+    @EqualsAndHashCode.Include
+    private String url;
+
+    private Integer width;
+
+    private Integer height;
+
+    @Column(length = 16)
+    private String format;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "dominant_color", length = 7)
+    private String dominantColor;
+
+    @Column(length = 64)
+    private String blurhash;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Override
+    public String getId() {
+        return url;
+    }
+
+    /**
+     * Picture URLs are random and metadata is only ever inserted: saving persists without looking the URL up first.
+     */
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -0,0 +1,48 @@
+package com.openclassrooms.chatop.api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * PictureUpload entity representing the PICTURE_UPLOADS table in the database.
+ * Records a picture key issued for a direct upload, so only the user it was issued to can use it,
+ * once, before it expires. Rows are deleted when the key is used or, with the uploaded object, once expired.
+ */
+@Entity
+@Table(name = "PICTURE_UPLOADS")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString(exclude = "user")
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class PictureUpload implements Persistable<String> {
+
+    @Id
+    @Column(name = "picture_key", length = 64)
+    @EqualsAndHashCode.Include
+    private String pictureKey;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Override
+    public String getId() {
+        return pictureKey;
+    }
+
+    /**
+     * Keys are random and only ever inserted: saving persists without looking the key up first.
+     */
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -2,7 +2,10 @@ package com.openclassrooms.chatop.api.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
@@ -11,8 +14,17 @@ import java.time.LocalDateTime;
 /**
  * Rental entity representing the RENTALS table in the database.
  * This entity stores rental property information including details and owner reference.
+ *
+ * <p>The version column makes concurrent edits fail instead of overwriting each other,
+ * and dynamic updates only write the columns that actually changed.
+ * Rentals are kept in the second-level cache.</p>
+ *
+ * <p>The view count is only written in batches by RentalBatchRepository, never by Hibernate,
+ * so the value of a cached entity may be stale.</p>
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "rentals")
+@DynamicUpdate
 @Table(name = "RENTALS")
 @Getter
 @Setter
@@ -53,4 +65,11 @@ public class Rental {
     @UpdateTimestamp
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(name = "view_count", nullable = false, insertable = false, updatable = false)
+    private long viewCount;
 }
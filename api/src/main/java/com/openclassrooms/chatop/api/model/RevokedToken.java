@@ -0,0 +1,33 @@
+package com.openclassrooms.chatop.api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * RevokedToken entity representing the REVOKED_TOKENS table in the database.
+ * Lists access tokens (by their jti claim) revoked before they expire, e.g. at logout.
+ * Rows are deleted once the token would have expired anyway.
+ */
+@Entity
+@Table(name = "REVOKED_TOKENS")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class RevokedToken {
+
+    @Id
+    @Column(length = 36)
+    @EqualsAndHashCode.Include
+    private String jti;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+}
@@ -2,7 +2,11 @@ package com.openclassrooms.chatop.api.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -10,8 +14,12 @@ import java.time.LocalDateTime;
 /**
  * User entity representing the USERS table in the database.
  * This entity stores user account information including credentials.
+ *
+ * <p>Users are kept in the second-level cache, by id and by email (natural id).</p>
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-email")
 @Table(name = "USERS")
 @Getter
 @Setter
@@ -26,6 +34,7 @@ public class User {
     @EqualsAndHashCode.Include
     private Long id;
 
+    @NaturalId
     @Column(unique = true, nullable = false)
     private String email;
 
@@ -1,13 +1,28 @@
 package com.openclassrooms.chatop.api.repository;
 
 import com.openclassrooms.chatop.api.model.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Repository interface for Message entity.
  * Provides CRUD operations for message management.
  */
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
+
+    /**
+     * Find the IDs of the rentals that received the most messages.
+     * Messages are grouped by reading MESSAGES_rental_index alone, without touching the table rows.
+     *
+     * @param pageable the number of rentals to read
+     * @return List of rental IDs, by descending message count
+     */
+    @Query("SELECT m.rental.id FROM Message m WHERE m.rental.id IS NOT NULL "
+            + "GROUP BY m.rental.id ORDER BY COUNT(m.id) DESC, m.rental.id")
+    List<Long> findMostMessagedRentalIds(Pageable pageable);
 }
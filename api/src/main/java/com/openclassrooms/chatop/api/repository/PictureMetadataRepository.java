@@ -0,0 +1,12 @@
+package com.openclassrooms.chatop.api.repository;
+
+import com.openclassrooms.chatop.api.model.PictureMetadata;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for PictureMetadata entity, keyed by picture URL.
+ */
+@Repository
+public interface PictureMetadataRepository extends JpaRepository<PictureMetadata, String> {
+}
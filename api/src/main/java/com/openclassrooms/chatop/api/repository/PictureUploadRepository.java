@@ -0,0 +1,41 @@
+package com.openclassrooms.chatop.api.repository;
+
+import com.openclassrooms.chatop.api.model.PictureUpload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository interface for PictureUpload entity.
+ */
+@Repository
+public interface PictureUploadRepository extends JpaRepository<PictureUpload, String> {
+
+    /**
+     * Use a picture key: delete it if it was issued to the given user and has not expired.
+     * Concurrent uses of the same key delete it once.
+     *
+     * @param pictureKey the picture key
+     * @param userId     the user presenting the key
+     * @param now        the reference instant
+     * @return 1 if the key was used, 0 if it is unknown, expired, already used or issued to another user
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PictureUpload u WHERE u.pictureKey = :pictureKey AND u.user.id = :userId AND u.expiresAt > :now")
+    int consume(@Param("pictureKey") String pictureKey, @Param("userId") Long userId, @Param("now") Instant now);
+
+    /**
+     * Find keys that expired unused, oldest first.
+     *
+     * @param now the reference instant
+     * @return up to 500 expired keys
+     */
+    List<PictureUpload> findTop500ByExpiresAtBeforeOrderByExpiresAt(Instant now);
+}
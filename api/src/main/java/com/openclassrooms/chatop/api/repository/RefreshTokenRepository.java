@@ -0,0 +1,58 @@
+package com.openclassrooms.chatop.api.repository;
+
+import com.openclassrooms.chatop.api.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Repository interface for RefreshToken entity.
+ * Revocations are conditional bulk updates so concurrent rotations of the same token
+ * can be told apart by their update count.
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Find a refresh token by the hash of its value.
+     *
+     * @param tokenHash the SHA-256 hash of the token
+     * @return Optional containing the token if found, empty otherwise
+     */
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Revoke a token only if it is still active.
+     *
+     * @param tokenHash the SHA-256 hash of the token
+     * @return 1 if this call revoked the token, 0 if it was already revoked or unknown
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.tokenHash = :tokenHash AND t.revoked = false")
+    int revokeIfActive(@Param("tokenHash") String tokenHash);
+
+    /**
+     * Revoke every token of a family.
+     *
+     * @param familyId the family id
+     * @return the number of tokens revoked
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.familyId = :familyId AND t.revoked = false")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    /**
+     * Delete tokens that expired before the given instant.
+     *
+     * @param now the reference instant
+     * @return the number of tokens deleted
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
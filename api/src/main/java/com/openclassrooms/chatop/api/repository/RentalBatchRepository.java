@@ -0,0 +1,96 @@
+package com.openclassrooms.chatop.api.repository;
+
+import com.openclassrooms.chatop.api.model.Rental;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JDBC repository for bulk rental writes.
+ * Bypasses the persistence context: with IDENTITY ids Hibernate cannot batch inserts,
+ * whereas a JDBC batch is sent as a single multi-row INSERT when the MySQL driver
+ * runs with rewriteBatchedStatements=true.
+ *
+ * <p>View counts are added the same way, as a batch of relative UPDATEs that leave the version
+ * and update date untouched: counting a view is not an edit of the rental.</p>
+ *
+ * <p>Hibernate does not see these writes, so cached rental queries are evicted once they are committed.</p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class RentalBatchRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO RENTALS (name, surface, price, picture, description, owner_id, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String ADD_VIEWS_SQL = "UPDATE RENTALS SET view_count = view_count + ? WHERE id = ?";
+
+    private static final int VIEWS_BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Insert all rentals in a single JDBC batch and transaction.
+     * Rentals must have their owner set; ids are not read back.
+     *
+     * @param rentals the rentals to insert
+     */
+    @Transactional
+    public void insertAll(List<Rental> rentals) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, rentals, rentals.size(), (ps, rental) -> {
+            ps.setString(1, rental.getName());
+            ps.setBigDecimal(2, rental.getSurface());
+            ps.setBigDecimal(3, rental.getPrice());
+            ps.setString(4, rental.getPicture());
+            ps.setString(5, rental.getDescription());
+            ps.setLong(6, rental.getOwner().getId());
+            ps.setTimestamp(7, now);
+            ps.setTimestamp(8, now);
+        });
+        evictQueriesAfterCommit(RentalRepository.QUERY_CACHE_REGION, RentalRepository.VIEWS_QUERY_CACHE_REGION);
+    }
+
+    /**
+     * Add view counts to rentals, in batches of {@value #VIEWS_BATCH_SIZE} UPDATEs and a single transaction.
+     * Rentals are updated in id order, so concurrent flushes from several instances lock rows in the same order.
+     * Unknown rental ids are ignored.
+     *
+     * @param views number of views to add, by rental id
+     */
+    @Transactional
+    public void addViews(Map<Long, Long> views) {
+        List<Map.Entry<Long, Long>> rows = List.copyOf(new TreeMap<>(views).entrySet());
+        jdbcTemplate.batchUpdate(ADD_VIEWS_SQL, rows, VIEWS_BATCH_SIZE, (ps, row) -> {
+            ps.setLong(1, row.getValue());
+            ps.setLong(2, row.getKey());
+        });
+        evictQueriesAfterCommit(RentalRepository.VIEWS_QUERY_CACHE_REGION);
+    }
+
+    private void evictQueriesAfterCommit(String... regions) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+                for (String region : regions) {
+                    cache.evictQueryRegion(region);
+                }
+            }
+        });
+    }
+}
@@ -1,13 +1,21 @@
 package com.openclassrooms.chatop.api.repository;
 
+import com.openclassrooms.chatop.api.dto.RentalDTO;
+import com.openclassrooms.chatop.api.dto.RentalSummaryDTO;
 import com.openclassrooms.chatop.api.model.Rental;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Rental entity.
@@ -17,23 +25,128 @@ import java.util.Optional;
 public interface RentalRepository extends JpaRepository<Rental, Long> {
 
     /**
-     * Find all rentals with their owners loaded.
-     * This prevents N+1 query problem when converting to DTOs by fetching
-     * the owner relationship in a single SQL query using JOIN FETCH.
+     * Query cache region of the rental projections, invalidated by any write to RENTALS or PICTURE_METADATA.
+     */
+    String QUERY_CACHE_REGION = "rental-queries";
+
+    /**
+     * Query cache region of the rentals sorted by views. View counts are written by JDBC,
+     * unseen by Hibernate, so this region is also evicted after every view count flush.
+     */
+    String VIEWS_QUERY_CACHE_REGION = "rental-view-queries";
+
+    /**
+     * JPQL constructor expression selecting rental columns straight into RentalDTO.
+     * r.owner.id resolves to the owner_id foreign key column, so USERS is never joined
+     * and no entity is loaded into the persistence context. Picture metadata is left joined
+     * by primary key (the picture URL).
+     */
+    String RENTAL_DTO_PROJECTION = "SELECT new com.openclassrooms.chatop.api.dto.RentalDTO("
+            + "r.id, r.name, r.surface, r.price, r.picture, r.description, r.owner.id, r.createdAt, r.updatedAt, r.version, "
+            + "m.width, m.height, m.format, m.sizeBytes, m.dominantColor, m.blurhash) "
+            + "FROM Rental r LEFT JOIN PictureMetadata m ON m.url = r.picture ";
+
+    /**
+     * Find all rentals as DTOs.
+     * Reads only the RENTALS columns exposed by RentalDTO: no owner entity is joined,
+     * nothing is managed by the persistence context and nothing needs dirty-checking.
+     * The result is kept in the query cache until the tables are written to.
      *
-     * @return List of rentals with owners loaded
+     * @return List of all rentals as DTOs
      */
-    @Query("SELECT r FROM Rental r JOIN FETCH r.owner")
-    List<Rental> findAllWithOwner();
+    @Query(RENTAL_DTO_PROJECTION)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    List<RentalDTO> findAllProjected();
 
     /**
-     * Find a rental by ID with its owner loaded.
-     * This prevents N+1 query problem when converting to DTO by fetching
-     * the owner relationship in a single SQL query using JOIN FETCH.
+     * Find a rental by ID as a DTO.
+     * Same projection and caching as {@link #findAllProjected()}, restricted to a single rental.
      *
      * @param id Rental ID
-     * @return Optional rental with owner loaded
+     * @return Optional rental DTO
+     */
+    @Query(RENTAL_DTO_PROJECTION + "WHERE r.id = :id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    Optional<RentalDTO> findProjectedById(@Param("id") Long id);
+
+    /**
+     * Find all rentals as DTOs, most viewed first.
+     * Same projection as {@link #findAllProjected()}, cached in its own region until the next view count flush.
+     *
+     * @return List of all rentals as DTOs, by descending view count
+     */
+    @Query(RENTAL_DTO_PROJECTION + "ORDER BY r.viewCount DESC, r.id DESC")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = VIEWS_QUERY_CACHE_REGION)
+    })
+    List<RentalDTO> findAllProjectedByViews();
+
+    /**
+     * Find the newest rentals as DTOs, read through RENTALS_created_index.
+     *
+     * @param pageable the number of rentals to read
+     * @return List of rental DTOs, newest first
+     */
+    @Query(RENTAL_DTO_PROJECTION + "ORDER BY r.createdAt DESC, r.id DESC")
+    List<RentalDTO> findNewestProjected(Pageable pageable);
+
+    /**
+     * Find the cheapest rentals per square meter as DTOs.
+     * Sorting on a computed value scans RENTALS, only use it for precomputed listings.
+     *
+     * @param pageable the number of rentals to read
+     * @return List of rental DTOs, by ascending price per square meter
+     */
+    @Query(RENTAL_DTO_PROJECTION + "WHERE r.surface > 0 ORDER BY r.price / r.surface, r.id")
+    List<RentalDTO> findBestValueProjected(Pageable pageable);
+
+    /**
+     * Find rentals by ID as DTOs.
+     *
+     * @param ids Rental IDs
+     * @return List of rental DTOs, in no particular order
+     */
+    @Query(RENTAL_DTO_PROJECTION + "WHERE r.id IN :ids")
+    List<RentalDTO> findProjectedByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Stream rentals with an id greater than the given one, in id order.
+     * A fetch size of Integer.MIN_VALUE makes MySQL Connector/J stream rows one by one
+     * from a forward-only cursor instead of buffering the whole result set.
+     * Must be consumed within a transaction and closed after use.
+     *
+     * @param afterId last rental id already seen (0 to start from the beginning)
+     * @return Stream of rental DTOs
+     */
+    @Query(RENTAL_DTO_PROJECTION + "WHERE r.id > :afterId ORDER BY r.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    Stream<RentalDTO> streamAllAfter(@Param("afterId") long afterId);
+
+    /**
+     * Find the rentals of an owner with their message count and latest message date, newest first.
+     * A single grouped query: the owner is matched through the USERS email index, its rentals through
+     * RENTALS_owner_index and their messages through MESSAGES_rental_index, whatever the number of rentals.
+     * Not query-cached, every new message would invalidate it.
+     *
+     * @param email owner's email
+     * @return List of rental summaries, empty if the owner has no rental
      */
-    @Query("SELECT r FROM Rental r JOIN FETCH r.owner WHERE r.id = :id")
-    Optional<Rental> findByIdWithOwner(@Param("id") Long id);
+    @Query("SELECT new com.openclassrooms.chatop.api.dto.RentalSummaryDTO("
+            + "r.id, r.name, r.price, r.picture, r.createdAt, COUNT(m.id), MAX(m.createdAt)) "
+            + "FROM Rental r JOIN r.owner o LEFT JOIN Message m ON m.rental = r "
+            + "WHERE o.email = :email "
+            + "GROUP BY r.id, r.name, r.price, r.picture, r.createdAt "
+            + "ORDER BY r.createdAt DESC, r.id DESC")
+    List<RentalSummaryDTO> findOwnerSummaries(@Param("email") String email);
 }
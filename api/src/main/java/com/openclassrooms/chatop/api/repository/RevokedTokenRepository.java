@@ -0,0 +1,46 @@
+package com.openclassrooms.chatop.api.repository;
+
+import com.openclassrooms.chatop.api.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository interface for RevokedToken entity.
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /**
+     * Find revocations of tokens that have not expired yet.
+     *
+     * @param now the reference instant
+     * @return the revocations still relevant
+     */
+    List<RevokedToken> findByExpiresAtAfter(Instant now);
+
+    /**
+     * Find revocations recorded since the given instant (including other instances' ones).
+     *
+     * @param since the lower bound of the revocation time
+     * @return the recent revocations
+     */
+    List<RevokedToken> findByRevokedAtGreaterThanEqual(Instant since);
+
+    /**
+     * Delete revocations of tokens that expired before the given instant.
+     *
+     * @param now the reference instant
+     * @return the number of revocations deleted
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,22 @@
+package com.openclassrooms.chatop.api.repository;
+
+import com.openclassrooms.chatop.api.model.User;
+
+import java.util.Optional;
+
+/**
+ * User lookups by natural id (email), served from the second-level cache when possible.
+ * Implemented by {@link UserNaturalIdRepositoryImpl} and exposed through {@link UserRepository}.
+ */
+public interface UserNaturalIdRepository {
+
+    /**
+     * Find a user by their email address.
+     * Resolved through the natural id cache (email to id), then the entity cache:
+     * a cached user is returned without any database access.
+     *
+     * @param email the email to search for
+     * @return Optional containing the user if found, empty otherwise
+     */
+    Optional<User> findByEmail(String email);
+}
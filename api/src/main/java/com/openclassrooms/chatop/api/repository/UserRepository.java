@@ -4,28 +4,11 @@ import com.openclassrooms.chatop.api.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
-
 /**
  * Repository interface for User entity.
  * Provides database access methods for user operations.
+ * Lookups by id or email are served from the second-level cache when possible.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-
-    /**
-     * Find a user by their email address.
-     *
-     * @param email the email to search for
-     * @return Optional containing the user if found, empty otherwise
-     */
-    Optional<User> findByEmail(String email);
-
-    /**
-     * Check if a user exists with the given email.
-     *
-     * @param email the email to check
-     * @return true if a user exists with this email, false otherwise
-     */
-    boolean existsByEmail(String email);
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdRepository {
 }
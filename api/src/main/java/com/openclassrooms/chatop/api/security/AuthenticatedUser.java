@@ -0,0 +1,23 @@
+package com.openclassrooms.chatop.api.security;
+
+import lombok.Getter;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+
+/**
+ * Spring Security principal carrying the user's database id.
+ * Returned by CustomUserDetailsService so the login flow can issue tokens
+ * without querying the user a second time.
+ */
+@Getter
+public class AuthenticatedUser extends User {
+
+    private final Long id;
+
+    public AuthenticatedUser(Long id, String email, String password) {
+        // We use an empty list for authorities as we don't have role-based security yet
+        super(email, password, List.of());
+        this.id = id;
+    }
+}
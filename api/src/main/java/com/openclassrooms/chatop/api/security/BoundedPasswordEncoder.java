@@ -0,0 +1,102 @@
+package com.openclassrooms.chatop.api.security;
+
+import com.openclassrooms.chatop.api.exception.ServiceUnavailableException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * PasswordEncoder decorator running hashing on a dedicated, bounded executor.
+ * Password hashing is deliberately CPU-expensive; running it on request threads lets a login burst
+ * occupy every core. Here only the executor's threads hash, a bounded queue absorbs short bursts,
+ * and callers beyond that get a 503 with a Retry-After hint instead of waiting indefinitely.
+ *
+ * <p>A timeout does not stop a hash in progress: BCrypt and Argon2 never check the interrupt flag,
+ * so {@code cancel(true)} only prevents a queued hash from starting (it is also purged from the queue
+ * right away). A hash that started still occupies its thread until it completes, for a caller that
+ * already got its 503. The pool is therefore sized so that a full queue drains within the timeout
+ * (see PasswordHashingConfig): timeouts then only happen when hashing is slower than measured.</p>
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, ThreadPoolExecutor executor, Duration timeout) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Only parses the hash prefix and parameters, no need for the executor
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Stop the hashing executor, called when the application context closes.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException ex) {
+            throw overloaded();
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            giveUp(future);
+            throw overloaded();
+        } catch (InterruptedException ex) {
+            giveUp(future);
+            Thread.currentThread().interrupt();
+            throw overloaded();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", ex.getCause());
+        }
+    }
+
+    /**
+     * Cancel a hash nobody waits for. A queued hash never starts and frees its queue slot;
+     * a running one is not interrupted in practice and completes on its thread.
+     */
+    private void giveUp(Future<?> future) {
+        future.cancel(true);
+        executor.purge();
+    }
+
+    private ServiceUnavailableException overloaded() {
+        return new ServiceUnavailableException(
+                "Too many authentication requests in progress. Please retry shortly.",
+                Math.max(1, timeout.toSeconds())
+        );
+    }
+}
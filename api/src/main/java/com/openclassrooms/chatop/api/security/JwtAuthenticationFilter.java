@@ -1,6 +1,7 @@
 package com.openclassrooms.chatop.api.security;
 
-import com.openclassrooms.chatop.api.service.interfaces.IJwtService;
+import com.openclassrooms.chatop.api.service.interfaces.ITokenRevocationService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,25 +10,31 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * JWT Authentication Filter.
  * Intercepts every HTTP request to validate JWT tokens and set up Spring Security authentication.
  * This filter is executed once per request before the request reaches the controllers.
+ *
+ * <p>Access tokens are short-lived and verified in memory only (signature and expiry):
+ * the principal is built from the token claims without loading the user from the database.
+ * Account checks happen when the client exchanges its refresh token.
+ * Revoked tokens (e.g. after logout) are rejected through an in-memory revocation check.</p>
  */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final IJwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final JwtClaimsResolver jwtClaimsResolver;
+    private final ITokenRevocationService tokenRevocationService;
 
     /**
      * Filter method that processes each request to extract and validate JWT tokens.
@@ -44,47 +51,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
-        // Extract the Authorization header
-        final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String userEmail;
+        // Verified claims of the Bearer token, if any (shared with the rate limiting filter)
+        Claims claims = jwtClaimsResolver.resolve(request);
+        String userEmail = claims != null ? claims.getSubject() : null;
 
-        // Check if the Authorization header is present and starts with "Bearer "
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-
-        // Extract the JWT token (remove "Bearer " prefix)
-        jwt = authHeader.substring(7);
-
-        try {
-            // Extract username (email) from the token
-            userEmail = jwtService.extractUsername(jwt);
-
-            // If user is found in token and not already authenticated
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                // Load user details from database
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+        // If user is found in token, the token is not revoked and the user is not already authenticated
+        if (userEmail != null
+                && !tokenRevocationService.isRevoked(claims.getId())
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Build the principal from the token claims, no database access
+            UserDetails userDetails = new User(userEmail, "", List.of());
 
-                // Validate the token
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    // Create authentication token
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            // Create authentication token
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    userDetails,
+                    null,
+                    userDetails.getAuthorities()
+            );
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                    // Set authentication in SecurityContext
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
-            }
-        } catch (Exception e) {
-            // Log the exception (in production, use a logger)
-            // If token is invalid, we just don't authenticate the user
-            System.err.println("JWT validation error: " + e.getMessage());
+            // Set authentication in SecurityContext
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         // Continue with the filter chain
@@ -0,0 +1,54 @@
+package com.openclassrooms.chatop.api.security;
+
+import com.openclassrooms.chatop.api.service.interfaces.IJwtService;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the verified claims of the request's Bearer token.
+ * The result is kept as a request attribute so the filters that need the token
+ * (rate limiting, authentication) verify its signature only once per request.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JwtClaimsResolver {
+
+    private static final String CLAIMS_ATTRIBUTE = JwtClaimsResolver.class.getName() + ".claims";
+    private static final Object NO_CLAIMS = new Object();
+
+    private final IJwtService jwtService;
+
+    /**
+     * Get the claims of the Bearer token sent with the request.
+     *
+     * @param request the HTTP request
+     * @return the verified claims, or null if there is no token or it is invalid or expired
+     */
+    public Claims resolve(HttpServletRequest request) {
+        Object cached = request.getAttribute(CLAIMS_ATTRIBUTE);
+        if (cached != null) {
+            return cached instanceof Claims claims ? claims : null;
+        }
+
+        Claims claims = null;
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        // Check if the Authorization header is present and starts with "Bearer "
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                // The parser verifies the signature and rejects expired tokens
+                claims = jwtService.extractClaim(authHeader.substring(7), c -> c);
+            } catch (Exception e) {
+                // If token is invalid, we just don't authenticate the user
+                log.debug("JWT validation error: {}", e.getMessage());
+            }
+        }
+
+        request.setAttribute(CLAIMS_ATTRIBUTE, claims != null ? claims : NO_CLAIMS);
+        return claims;
+    }
+}
@@ -0,0 +1,58 @@
+package com.openclassrooms.chatop.api.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Fast writer for the API date format (yyyy/MM/dd).
+ * Writes the digits directly into a small char buffer instead of running a
+ * pattern-based formatter and building an intermediate String for every date.
+ */
+final class JsonDates {
+
+    /**
+     * Cached formatter, only used for years outside 0000-9999.
+     */
+    private static final DateTimeFormatter FALLBACK_FORMATTER = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+
+    private JsonDates() {
+    }
+
+    /**
+     * Write a date as a "yyyy/MM/dd" JSON string, or null.
+     *
+     * @param generator the generator to write to
+     * @param dateTime  the date to write, may be null
+     * @throws IOException if writing fails
+     */
+    static void writeDate(JsonGenerator generator, LocalDateTime dateTime) throws IOException {
+        if (dateTime == null) {
+            generator.writeNull();
+            return;
+        }
+
+        int year = dateTime.getYear();
+        if (year < 0 || year > 9999) {
+            generator.writeString(FALLBACK_FORMATTER.format(dateTime));
+            return;
+        }
+
+        int month = dateTime.getMonthValue();
+        int day = dateTime.getDayOfMonth();
+        char[] buffer = {
+                digit(year / 1000), digit(year / 100 % 10), digit(year / 10 % 10), digit(year % 10),
+                '/',
+                digit(month / 10), digit(month % 10),
+                '/',
+                digit(day / 10), digit(day % 10)
+        };
+        generator.writeString(buffer, 0, buffer.length);
+    }
+
+    private static char digit(int value) {
+        return (char) ('0' + value);
+    }
+}
@@ -0,0 +1,49 @@
+package com.openclassrooms.chatop.api.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.openclassrooms.chatop.api.dto.MessageDTO;
+
+import java.io.IOException;
+
+/**
+ * Hand-written serializer for MessageDTO.
+ * Produces the same JSON as the reflection-based serializer, with pre-encoded
+ * field names and the fast date writer.
+ */
+public class MessageDTOSerializer extends StdSerializer<MessageDTO> {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString MESSAGE = new SerializedString("message");
+    private static final SerializableString RENTAL_ID = new SerializedString("rental_id");
+    private static final SerializableString USER_ID = new SerializedString("user_id");
+    private static final SerializableString CREATED_AT = new SerializedString("created_at");
+    private static final SerializableString UPDATED_AT = new SerializedString("updated_at");
+
+    public MessageDTOSerializer() {
+        super(MessageDTO.class);
+    }
+
+    @Override
+    public void serialize(MessageDTO message, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(message);
+
+        generator.writeFieldName(ID);
+        JsonValues.writeNumber(generator, message.id());
+        generator.writeFieldName(MESSAGE);
+        generator.writeString(message.message());
+        generator.writeFieldName(RENTAL_ID);
+        JsonValues.writeNumber(generator, message.rental_id());
+        generator.writeFieldName(USER_ID);
+        JsonValues.writeNumber(generator, message.user_id());
+        generator.writeFieldName(CREATED_AT);
+        JsonDates.writeDate(generator, message.created_at());
+        generator.writeFieldName(UPDATED_AT);
+        JsonDates.writeDate(generator, message.updated_at());
+
+        generator.writeEndObject();
+    }
+}
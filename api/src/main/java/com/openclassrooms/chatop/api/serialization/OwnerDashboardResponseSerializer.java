@@ -0,0 +1,56 @@
+package com.openclassrooms.chatop.api.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.openclassrooms.chatop.api.dto.RentalSummaryDTO;
+import com.openclassrooms.chatop.api.dto.response.OwnerDashboardResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Hand-written serializer for OwnerDashboardResponse.
+ * Writes every rental with {@link RentalSummaryDTOSerializer} directly, skipping the
+ * per-element serializer lookup of the generic collection serializer.
+ */
+public class OwnerDashboardResponseSerializer extends StdSerializer<OwnerDashboardResponse> {
+
+    private static final SerializableString RENTAL_COUNT = new SerializedString("rental_count");
+    private static final SerializableString MESSAGE_COUNT = new SerializedString("message_count");
+    private static final SerializableString RENTALS = new SerializedString("rentals");
+
+    public OwnerDashboardResponseSerializer() {
+        super(OwnerDashboardResponse.class);
+    }
+
+    @Override
+    public void serialize(OwnerDashboardResponse response, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        generator.writeStartObject(response);
+        generator.writeFieldName(RENTAL_COUNT);
+        generator.writeNumber(response.rental_count());
+        generator.writeFieldName(MESSAGE_COUNT);
+        generator.writeNumber(response.message_count());
+        generator.writeFieldName(RENTALS);
+
+        List<RentalSummaryDTO> rentals = response.rentals();
+        if (rentals == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartArray(rentals, rentals.size());
+            for (RentalSummaryDTO rental : rentals) {
+                if (rental == null) {
+                    generator.writeNull();
+                } else {
+                    RentalSummaryDTOSerializer.INSTANCE.serialize(rental, generator, provider);
+                }
+            }
+            generator.writeEndArray();
+        }
+
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,94 @@
+package com.openclassrooms.chatop.api.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.openclassrooms.chatop.api.dto.PictureMetadataDTO;
+import com.openclassrooms.chatop.api.dto.RentalDTO;
+
+import java.io.IOException;
+
+/**
+ * Hand-written serializer for RentalDTO.
+ * Produces the same JSON as the reflection-based serializer, with pre-encoded
+ * field names and the fast date writer.
+ */
+public class RentalDTOSerializer extends StdSerializer<RentalDTO> {
+
+    static final RentalDTOSerializer INSTANCE = new RentalDTOSerializer();
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString SURFACE = new SerializedString("surface");
+    private static final SerializableString PRICE = new SerializedString("price");
+    private static final SerializableString PICTURE = new SerializedString("picture");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+    private static final SerializableString OWNER_ID = new SerializedString("owner_id");
+    private static final SerializableString CREATED_AT = new SerializedString("created_at");
+    private static final SerializableString UPDATED_AT = new SerializedString("updated_at");
+    private static final SerializableString VERSION = new SerializedString("version");
+    private static final SerializableString PICTURE_METADATA = new SerializedString("picture_metadata");
+    private static final SerializableString WIDTH = new SerializedString("width");
+    private static final SerializableString HEIGHT = new SerializedString("height");
+    private static final SerializableString FORMAT = new SerializedString("format");
+    private static final SerializableString SIZE = new SerializedString("size");
+    private static final SerializableString DOMINANT_COLOR = new SerializedString("dominant_color");
+    private static final SerializableString BLURHASH = new SerializedString("blurhash");
+
+    public RentalDTOSerializer() {
+        super(RentalDTO.class);
+    }
+
+    @Override
+    public void serialize(RentalDTO rental, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(rental);
+
+        generator.writeFieldName(ID);
+        JsonValues.writeNumber(generator, rental.id());
+        generator.writeFieldName(NAME);
+        generator.writeString(rental.name());
+        generator.writeFieldName(SURFACE);
+        generator.writeNumber(rental.surface());
+        generator.writeFieldName(PRICE);
+        generator.writeNumber(rental.price());
+        generator.writeFieldName(PICTURE);
+        generator.writeString(rental.picture());
+        generator.writeFieldName(DESCRIPTION);
+        generator.writeString(rental.description());
+        generator.writeFieldName(OWNER_ID);
+        JsonValues.writeNumber(generator, rental.owner_id());
+        generator.writeFieldName(CREATED_AT);
+        JsonDates.writeDate(generator, rental.created_at());
+        generator.writeFieldName(UPDATED_AT);
+        JsonDates.writeDate(generator, rental.updated_at());
+        generator.writeFieldName(VERSION);
+        JsonValues.writeNumber(generator, rental.version());
+        generator.writeFieldName(PICTURE_METADATA);
+        writePictureMetadata(generator, rental.picture_metadata());
+
+        generator.writeEndObject();
+    }
+
+    private static void writePictureMetadata(JsonGenerator generator, PictureMetadataDTO metadata) throws IOException {
+        if (metadata == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject(metadata);
+        generator.writeFieldName(WIDTH);
+        JsonValues.writeNumber(generator, metadata.width());
+        generator.writeFieldName(HEIGHT);
+        JsonValues.writeNumber(generator, metadata.height());
+        generator.writeFieldName(FORMAT);
+        generator.writeString(metadata.format());
+        generator.writeFieldName(SIZE);
+        JsonValues.writeNumber(generator, metadata.size());
+        generator.writeFieldName(DOMINANT_COLOR);
+        generator.writeString(metadata.dominant_color());
+        generator.writeFieldName(BLURHASH);
+        generator.writeString(metadata.blurhash());
+        generator.writeEndObject();
+    }
+}
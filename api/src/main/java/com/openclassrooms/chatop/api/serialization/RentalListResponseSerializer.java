@@ -0,0 +1,50 @@
+package com.openclassrooms.chatop.api.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.openclassrooms.chatop.api.dto.RentalDTO;
+import com.openclassrooms.chatop.api.dto.response.RentalListResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Hand-written serializer for RentalListResponse.
+ * Writes every rental with {@link RentalDTOSerializer} directly, skipping the
+ * per-element serializer lookup of the generic collection serializer.
+ */
+public class RentalListResponseSerializer extends StdSerializer<RentalListResponse> {
+
+    private static final SerializableString RENTALS = new SerializedString("rentals");
+
+    public RentalListResponseSerializer() {
+        super(RentalListResponse.class);
+    }
+
+    @Override
+    public void serialize(RentalListResponse response, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        generator.writeStartObject(response);
+        generator.writeFieldName(RENTALS);
+
+        List<RentalDTO> rentals = response.rentals();
+        if (rentals == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartArray(rentals, rentals.size());
+            for (RentalDTO rental : rentals) {
+                if (rental == null) {
+                    generator.writeNull();
+                } else {
+                    RentalDTOSerializer.INSTANCE.serialize(rental, generator, provider);
+                }
+            }
+            generator.writeEndArray();
+        }
+
+        generator.writeEndObject();
+    }
+}
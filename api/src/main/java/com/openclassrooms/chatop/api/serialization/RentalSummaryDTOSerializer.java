@@ -0,0 +1,55 @@
+package com.openclassrooms.chatop.api.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.openclassrooms.chatop.api.dto.RentalSummaryDTO;
+
+import java.io.IOException;
+
+/**
+ * Hand-written serializer for RentalSummaryDTO.
+ * Produces the same JSON as the reflection-based serializer, with pre-encoded
+ * field names and the fast date writer.
+ */
+public class RentalSummaryDTOSerializer extends StdSerializer<RentalSummaryDTO> {
+
+    static final RentalSummaryDTOSerializer INSTANCE = new RentalSummaryDTOSerializer();
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString PRICE = new SerializedString("price");
+    private static final SerializableString PICTURE = new SerializedString("picture");
+    private static final SerializableString CREATED_AT = new SerializedString("created_at");
+    private static final SerializableString MESSAGE_COUNT = new SerializedString("message_count");
+    private static final SerializableString LAST_MESSAGE_AT = new SerializedString("last_message_at");
+
+    public RentalSummaryDTOSerializer() {
+        super(RentalSummaryDTO.class);
+    }
+
+    @Override
+    public void serialize(RentalSummaryDTO rental, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        generator.writeStartObject(rental);
+
+        generator.writeFieldName(ID);
+        JsonValues.writeNumber(generator, rental.id());
+        generator.writeFieldName(NAME);
+        generator.writeString(rental.name());
+        generator.writeFieldName(PRICE);
+        generator.writeNumber(rental.price());
+        generator.writeFieldName(PICTURE);
+        generator.writeString(rental.picture());
+        generator.writeFieldName(CREATED_AT);
+        JsonDates.writeDate(generator, rental.created_at());
+        generator.writeFieldName(MESSAGE_COUNT);
+        JsonValues.writeNumber(generator, rental.message_count());
+        generator.writeFieldName(LAST_MESSAGE_AT);
+        JsonDates.writeDate(generator, rental.last_message_at());
+
+        generator.writeEndObject();
+    }
+}
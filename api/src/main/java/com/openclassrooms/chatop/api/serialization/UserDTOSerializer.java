@@ -0,0 +1,46 @@
+package com.openclassrooms.chatop.api.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.openclassrooms.chatop.api.dto.UserDTO;
+
+import java.io.IOException;
+
+/**
+ * Hand-written serializer for UserDTO.
+ * Produces the same JSON as the reflection-based serializer, with pre-encoded
+ * field names and the fast date writer.
+ */
+public class UserDTOSerializer extends StdSerializer<UserDTO> {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString EMAIL = new SerializedString("email");
+    private static final SerializableString CREATED_AT = new SerializedString("created_at");
+    private static final SerializableString UPDATED_AT = new SerializedString("updated_at");
+
+    public UserDTOSerializer() {
+        super(UserDTO.class);
+    }
+
+    @Override
+    public void serialize(UserDTO user, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(user);
+
+        generator.writeFieldName(ID);
+        JsonValues.writeNumber(generator, user.id());
+        generator.writeFieldName(NAME);
+        generator.writeString(user.name());
+        generator.writeFieldName(EMAIL);
+        generator.writeString(user.email());
+        generator.writeFieldName(CREATED_AT);
+        JsonDates.writeDate(generator, user.created_at());
+        generator.writeFieldName(UPDATED_AT);
+        JsonDates.writeDate(generator, user.updated_at());
+
+        generator.writeEndObject();
+    }
+}
@@ -1,21 +1,23 @@
 package com.openclassrooms.chatop.api.service;
 
 import com.openclassrooms.chatop.api.repository.UserRepository;
+import com.openclassrooms.chatop.api.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-
-import java.util.ArrayList;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Custom implementation of UserDetailsService for Spring Security.
  * Loads user-specific data from the database for authentication.
+ * Also stores re-encoded passwords when a hash no longer matches the hashing policy.
  */
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -32,12 +34,26 @@ public class CustomUserDetailsService implements UserDetailsService {
         var user = userRepository.findByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + username));
 
-        // Create Spring Security UserDetails object
-        // We use an empty list for authorities as we don't have role-based security yet
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                new ArrayList<>()
-        );
+        // Create Spring Security UserDetails object, keeping the id for token issuance
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getPassword());
+    }
+
+    /**
+     * Store a password re-encoded with the current hashing policy.
+     * Called by Spring Security after a successful login when the stored hash is outdated
+     * (older algorithm or lower cost), so passwords migrate without user action.
+     *
+     * @param user        the authenticated user
+     * @param newPassword the new encoded password
+     * @return UserDetails carrying the new encoded password
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        var entity = userRepository.findByEmail(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + user.getUsername()));
+        entity.setPassword(newPassword);
+
+        return new AuthenticatedUser(entity.getId(), entity.getEmail(), newPassword);
     }
 }
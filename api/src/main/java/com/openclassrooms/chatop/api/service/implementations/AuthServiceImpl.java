@@ -2,21 +2,29 @@ package com.openclassrooms.chatop.api.service.implementations;
 
 import com.openclassrooms.chatop.api.dto.UserDTO;
 import com.openclassrooms.chatop.api.dto.request.AuthRequest.LoginRequest;
+import com.openclassrooms.chatop.api.dto.request.AuthRequest.RefreshRequest;
 import com.openclassrooms.chatop.api.dto.request.AuthRequest.RegisterRequest;
 import com.openclassrooms.chatop.api.dto.response.AuthResponse;
+import com.openclassrooms.chatop.api.exception.InvalidTokenException;
 import com.openclassrooms.chatop.api.exception.ResourceAlreadyExistsException;
 import com.openclassrooms.chatop.api.exception.ResourceNotFoundException;
 import com.openclassrooms.chatop.api.mapper.UserMapper;
 import com.openclassrooms.chatop.api.model.User;
 import com.openclassrooms.chatop.api.repository.UserRepository;
+import com.openclassrooms.chatop.api.security.AuthenticatedUser;
 import com.openclassrooms.chatop.api.service.interfaces.IAuthService;
 import com.openclassrooms.chatop.api.service.interfaces.IJwtService;
+import com.openclassrooms.chatop.api.service.interfaces.IRefreshTokenService;
+import com.openclassrooms.chatop.api.service.interfaces.ITokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -24,72 +32,85 @@ import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service implementation handling authentication business logic.
- * Manages user registration, login, and user information retrieval.
+ * Manages user registration, login, token refresh, and user information retrieval.
+ * Every successful authentication returns a short-lived JWT and a rotating refresh token.
  * Uses MapStruct's UserMapper for entity-DTO conversions.
  */
 @Service
 @RequiredArgsConstructor
 public class AuthServiceImpl implements IAuthService {
 
+    /** Unique index on USERS.email (V1__baseline.sql) */
+    private static final String EMAIL_INDEX = "USERS_index";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final IJwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final IRefreshTokenService refreshTokenService;
+    private final ITokenRevocationService tokenRevocationService;
     private final UserMapper userMapper;
 
     @Override
     @Transactional
     public AuthResponse register(RegisterRequest request) {
-        // Check if email already exists
-        if (userRepository.existsByEmail(request.email())) {
-            throw new ResourceAlreadyExistsException("User", "email", request.email());
-        }
-
         // Create a new user
         User user = userMapper.toEntity(request);
         user.setPassword(passwordEncoder.encode(request.password()));
 
+        // Insert directly and let the unique constraint on email reject duplicates:
+        // one statement instead of an existence check followed by the insert (which could also race)
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException ex) {
+            if (!isDuplicateEmail(ex)) {
+                throw ex;
+            }
+            throw new ResourceAlreadyExistsException("User", "email", request.email());
+        }
 
-        // Save user to the database
-        userRepository.save(user);
-
-        // Generate JWT token
-        UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())
-                .password(user.getPassword())
-                .authorities("USER")
-                .build();
-
-        String token = jwtService.generateToken(userDetails);
-
-        return new AuthResponse(token);
+        return issueTokens(new AuthenticatedUser(user.getId(), user.getEmail(), user.getPassword()));
     }
 
     @Override
-    @Transactional
     public AuthResponse login(LoginRequest request) {
-        // Authenticate the user
-        authenticationManager.authenticate(
+        // Authenticate the user (loads it once through CustomUserDetailsService)
+        Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.email(),
                         request.password()
                 )
         );
 
-        // Load user details
-        User user = userRepository.findByEmail(request.email())
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        // Reuse the authenticated principal instead of querying the user again
+        return issueTokens((AuthenticatedUser) authentication.getPrincipal());
+    }
 
-        // Generate JWT token
-        UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())
-                .password(user.getPassword())
-                .authorities("USER")
-                .build();
+    @Override
+    public AuthResponse refresh(RefreshRequest request) {
+        // Not transactional here: the rotation commits on its own so a detected reuse stays revoked
+        IRefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.refresh_token());
 
-        String token = jwtService.generateToken(userDetails);
+        // The periodic check access tokens skip: the account must still exist
+        User user = userRepository.findById(rotation.userId())
+                .orElseThrow(() -> new InvalidTokenException("Refresh token is invalid or expired"));
 
-        return new AuthResponse(token);
+        String token = jwtService.generateToken(new AuthenticatedUser(user.getId(), user.getEmail(), user.getPassword()));
+        return new AuthResponse(token, rotation.refreshToken());
+    }
+
+    @Override
+    public void logout(RefreshRequest request, String accessToken) {
+        refreshTokenService.revoke(request.refresh_token());
+
+        if (accessToken != null) {
+            try {
+                Claims claims = jwtService.extractClaim(accessToken, c -> c);
+                tokenRevocationService.revoke(claims.getId(), claims.getExpiration().toInstant());
+            } catch (JwtException ex) {
+                // Expired or invalid: the token is already unusable
+            }
+        }
     }
 
     @Override
@@ -111,4 +132,30 @@ public class AuthServiceImpl implements IAuthService {
         // Convert to DTO using UserMapper
         return userMapper.toDto(user);
     }
+
+    /**
+     * Check whether an integrity violation comes from the unique email index, rather than from another
+     * constraint (a null or oversized column) that must not be reported as a duplicate account.
+     */
+    private static boolean isDuplicateEmail(DataIntegrityViolationException ex) {
+        Throwable cause = ex;
+        while (cause != null && !(cause instanceof ConstraintViolationException)) {
+            cause = cause.getCause();
+        }
+        if (cause == null || ((ConstraintViolationException) cause).getConstraintName() == null) {
+            return false;
+        }
+        // MySQL 8 reports the index qualified by its table ("USERS.USERS_index")
+        String constraint = ((ConstraintViolationException) cause).getConstraintName();
+        return constraint.equalsIgnoreCase(EMAIL_INDEX)
+                || constraint.toUpperCase().endsWith("." + EMAIL_INDEX.toUpperCase());
+    }
+
+    private AuthResponse issueTokens(AuthenticatedUser user) {
+        // Generate JWT token and open a new refresh token family
+        String token = jwtService.generateToken(user);
+        String refreshToken = refreshTokenService.issue(user.getId());
+
+        return new AuthResponse(token, refreshToken);
+    }
 }
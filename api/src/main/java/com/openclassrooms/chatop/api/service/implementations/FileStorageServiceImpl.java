@@ -1,18 +1,29 @@
 package com.openclassrooms.chatop.api.service.implementations;
 
 import com.openclassrooms.chatop.api.exception.InvalidFileException;
+import com.openclassrooms.chatop.api.model.PictureMetadata;
+import com.openclassrooms.chatop.api.repository.PictureMetadataRepository;
 import com.openclassrooms.chatop.api.service.interfaces.IFileStorageService;
+import com.openclassrooms.chatop.api.storage.StorageBackend;
+import com.openclassrooms.chatop.api.util.ImageMetadataExtractor;
+import com.openclassrooms.chatop.api.util.ImageMetadataExtractor.ImageMetadata;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
@@ -21,8 +32,15 @@ import java.util.UUID;
 /**
  * Service implementation for handling file storage operations.
  * Manages image uploads for rental properties.
+ * Files are validated here, then written through the configured storage backend.
+ * Picture metadata is extracted at the same time, so reads never decode pictures.
+ *
+ * <p>Staged files are written where they are not served, then promoted once the transaction
+ * referencing them commits. Staged files left behind by a crash are purged after a while.</p>
  */
+@Slf4j
 @Service
+@RequiredArgsConstructor
 public class FileStorageServiceImpl implements IFileStorageService {
 
     private static final List<String> ALLOWED_EXTENSIONS = Arrays.asList("jpg", "jpeg", "png", "gif", "webp");
@@ -30,39 +48,165 @@ public class FileStorageServiceImpl implements IFileStorageService {
             "image/jpeg", "image/jpg", "image/png", "image/gif", "image/webp"
     );
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
-    private final Path fileStorageLocation;
+    private final StorageBackend storageBackend;
+    private final PictureMetadataRepository pictureMetadataRepository;
 
-    public FileStorageServiceImpl(@Value("${file.upload-dir:uploads}") String uploadDir) {
-        this.fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
-        try {
-            Files.createDirectories(this.fileStorageLocation);
+    @Value("${file.staging-max-age:PT1H}")
+    private Duration stagingMaxAge = Duration.ofHours(1);
+
+    @Override
+    public StagedFile stageFile(MultipartFile file) {
+        String newFilename = newFilename(file);
+        // Decoded here, before the caller opens its transaction and before staging anything
+        ImageMetadata metadata = extractMetadata(file, newFilename);
+        try (InputStream content = file.getInputStream()) {
+            storageBackend.stage(newFilename, content, file.getSize());
         } catch (IOException ex) {
-            throw new InvalidFileException("Failed to create file storage directory", ex);
+            throw new InvalidFileException("Failed to store file. Please try again.", ex);
         }
+        return new StagedFile(newFilename, storageBackend.publicUrl(newFilename), metadata);
     }
 
     @Override
-    public String storeFile(MultipartFile file) {
+    public void promoteOnCommit(StagedFile stagedFile) {
+        // Joins the caller's transaction, the row rolls back with the rental
+        saveMetadata(stagedFile.url(), stagedFile.metadata());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            promote(stagedFile);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                promote(stagedFile);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    discard(stagedFile);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void discard(StagedFile stagedFile) {
+        try {
+            storageBackend.discard(stagedFile.filename());
+        } catch (RuntimeException ex) {
+            // Left for the stale staged files purge
+            log.warn("Failed to discard staged file {}", stagedFile.filename(), ex);
+        }
+    }
+
+    /**
+     * Delete staged files that were neither promoted nor discarded (e.g. the server stopped mid-request).
+     */
+    @Scheduled(
+            fixedDelayString = "${file.staging-max-age:PT1H}",
+            initialDelayString = "${file.staging-max-age:PT1H}"
+    )
+    public void purgeStaleStagedFiles() {
+        int deleted = storageBackend.purgeStaged(Instant.now().minus(stagingMaxAge));
+        if (deleted > 0) {
+            log.info("Purged {} stale staged files", deleted);
+        }
+    }
+
+    private String newFilename(MultipartFile file) {
         // Validate file
         validateFile(file);
 
         // Generate unique filename
         String originalFilename = StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename()));
-        String fileExtension = getFileExtension(originalFilename);
-        String newFilename = UUID.randomUUID() + "." + fileExtension;
+        return UUID.randomUUID() + "." + getFileExtension(originalFilename);
+    }
+
+    private ImageMetadata extractMetadata(MultipartFile file, String filename) {
+        try (InputStream content = file.getInputStream()) {
+            return ImageMetadataExtractor.extract(content, file.getSize(), getFileExtension(filename));
+        } catch (IOException ex) {
+            throw new InvalidFileException("Failed to store file. Please try again.", ex);
+        }
+    }
 
+    @Override
+    public void saveMetadata(String url, ImageMetadata metadata) {
+        if (metadata == null) {
+            return;
+        }
+        pictureMetadataRepository.save(new PictureMetadata(
+                url,
+                metadata.width(),
+                metadata.height(),
+                metadata.format(),
+                metadata.size(),
+                metadata.dominantColor(),
+                metadata.blurhash(),
+                null
+        ));
+    }
+
+    private void promote(StagedFile stagedFile) {
         try {
-            // Copy file to the target location
-            Path targetLocation = this.fileStorageLocation.resolve(newFilename);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-
-            // Build and return the file URL
-            return ServletUriComponentsBuilder.fromCurrentContextPath()
-                    .path("/uploads/")
-                    .path(newFilename)
-                    .toUriString();
+            storageBackend.promote(stagedFile.filename());
+        } catch (RuntimeException ex) {
+            // The transaction is already committed, the rental points to a missing picture
+            log.error("Failed to promote staged file {}", stagedFile.filename(), ex);
+        }
+    }
+
+    @Override
+    public StagedFile stageFile(String originalFilename, InputStream content) {
+        // Streams have no declared MIME type or size, so only the filename can be checked upfront
+        String filename = StringUtils.cleanPath(Objects.requireNonNull(originalFilename));
+        validateFilename(filename);
+
+        String newFilename = UUID.randomUUID() + "." + getFileExtension(filename);
+        Path buffer = null;
+
+        try {
+            // Copy with a size cap, the content may come from an untrusted archive.
+            // Backends need the length upfront (object stores), so the content is buffered to a temporary file.
+            buffer = Files.createTempFile("chatop-upload-", ".tmp");
+            long written = 0;
+            byte[] chunk = new byte[8192];
+            try (OutputStream out = Files.newOutputStream(buffer)) {
+                int read;
+                while ((read = content.read(chunk)) != -1) {
+                    written += read;
+                    if (written > MAX_FILE_SIZE) {
+                        throw new InvalidFileException("File size exceeds the maximum allowed limit of 10MB.");
+                    }
+                    out.write(chunk, 0, read);
+                }
+            }
+            if (written == 0) {
+                throw new InvalidFileException("No file selected. Please choose an image to upload.");
+            }
+            ImageMetadata metadata;
+            try (InputStream in = Files.newInputStream(buffer)) {
+                metadata = ImageMetadataExtractor.extract(in, written, getFileExtension(newFilename));
+            }
+            try (InputStream in = Files.newInputStream(buffer)) {
+                storageBackend.stage(newFilename, in, written);
+            }
+            return new StagedFile(newFilename, storageBackend.publicUrl(newFilename), metadata);
         } catch (IOException ex) {
             throw new InvalidFileException("Failed to store file. Please try again.", ex);
+        } finally {
+            if (buffer != null) {
+                deleteQuietly(buffer);
+            }
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Best effort cleanup of a temporary file
         }
     }
 
@@ -77,8 +221,22 @@ public class FileStorageServiceImpl implements IFileStorageService {
             throw new InvalidFileException("File size exceeds the maximum allowed limit of 10MB.");
         }
 
-        // Check filename for security
+        // Check filename and extension
         String filename = StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename()));
+        validateFilename(filename);
+
+        // Check MIME type to prevent file type spoofing (e.g., video renamed to .jpg)
+        String mimeType = file.getContentType();
+        if (mimeType == null || !ALLOWED_MIME_TYPES.contains(mimeType.toLowerCase())) {
+            throw new InvalidFileException(
+                    "Unauthorized file type. Only images are accepted. " +
+                            "Please verify that your file is an image and not a video or another file type."
+            );
+        }
+    }
+
+    private void validateFilename(String filename) {
+        // Check filename for security
         if (filename.contains("..")) {
             throw new InvalidFileException("Filename contains invalid characters.");
         }
@@ -90,15 +248,6 @@ public class FileStorageServiceImpl implements IFileStorageService {
                     "Unsupported file format. Only images are accepted (jpg, jpeg, png, gif, webp)."
             );
         }
-
-        // Check MIME type to prevent file type spoofing (e.g., video renamed to .jpg)
-        String mimeType = file.getContentType();
-        if (mimeType == null || !ALLOWED_MIME_TYPES.contains(mimeType.toLowerCase())) {
-            throw new InvalidFileException(
-                    "Unauthorized file type. Only images are accepted. " +
-                            "Please verify that your file is an image and not a video or another file type."
-            );
-        }
     }
 
     private String getFileExtension(String filename) {
@@ -12,6 +12,8 @@ import com.openclassrooms.chatop.api.repository.MessageRepository;
 import com.openclassrooms.chatop.api.repository.RentalRepository;
 import com.openclassrooms.chatop.api.repository.UserRepository;
 import com.openclassrooms.chatop.api.service.interfaces.IMessageService;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalListingService;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalListingService.Listing;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -30,6 +32,7 @@ public class MessageServiceImpl implements IMessageService {
     private final MessageMapper messageMapper;
     private final AuthServiceImpl authService;
     private final UserMapper userMapper;
+    private final IRentalListingService rentalListingService;
 
     @Override
     @Transactional
@@ -45,6 +48,7 @@ public class MessageServiceImpl implements IMessageService {
         Message message = messageMapper.toEntity(request);
         message.setUser(user);
         message.setRental(rental);
+        rentalListingService.markStale(Listing.MOST_MESSAGED);
 
         // Save message
         return messageMapper.toDto(messageRepository.save(message));
@@ -0,0 +1,162 @@
+package com.openclassrooms.chatop.api.service.implementations;
+
+import com.openclassrooms.chatop.api.config.StorageProperties;
+import com.openclassrooms.chatop.api.dto.request.RentalRequest.PictureUploadRequest;
+import com.openclassrooms.chatop.api.dto.response.PictureUploadResponse;
+import com.openclassrooms.chatop.api.exception.InvalidFileException;
+import com.openclassrooms.chatop.api.model.PictureUpload;
+import com.openclassrooms.chatop.api.model.User;
+import com.openclassrooms.chatop.api.repository.PictureUploadRepository;
+import com.openclassrooms.chatop.api.repository.UserRepository;
+import com.openclassrooms.chatop.api.service.interfaces.IFileStorageService.StoredFile;
+import com.openclassrooms.chatop.api.service.interfaces.IPictureUploadService;
+import com.openclassrooms.chatop.api.storage.ObjectStore;
+import com.openclassrooms.chatop.api.storage.ObjectStore.ObjectInfo;
+import com.openclassrooms.chatop.api.storage.ObjectStore.PresignedRequest;
+import com.openclassrooms.chatop.api.util.ImageMetadataExtractor;
+import com.openclassrooms.chatop.api.util.ImageMetadataExtractor.ImageMetadata;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Service implementation for direct picture uploads.
+ * Picture keys are random, so they cannot be guessed before the upload URL is issued, and recorded
+ * with the user they were issued to: a key is used up by the first rental referencing it.
+ * Uploaded pictures are read back once when verified, to extract their metadata.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PictureUploadServiceImpl implements IPictureUploadService {
+
+    private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/gif", "gif",
+            "image/webp", "webp"
+    );
+    private static final Pattern KEY_PATTERN = Pattern.compile("pictures/[0-9a-f-]{36}\\.(jpg|png|gif|webp)");
+
+    private final ObjectStore objectStore;
+    private final StorageProperties storageProperties;
+    private final PictureUploadRepository pictureUploadRepository;
+    private final UserRepository userRepository;
+
+    @Override
+    public PictureUploadResponse createUpload(PictureUploadRequest request, UserDetails userDetails) {
+        String contentType = normalize(request.content_type());
+        String extension = EXTENSIONS.get(contentType);
+        if (extension == null) {
+            throw new InvalidFileException(
+                    "Unsupported file format. Only images are accepted (jpg, jpeg, png, gif, webp)."
+            );
+        }
+        if (request.size() > MAX_FILE_SIZE) {
+            throw new InvalidFileException("File size exceeds the maximum allowed limit of 10MB.");
+        }
+
+        String key = "pictures/" + UUID.randomUUID() + "." + extension;
+        pictureUploadRepository.save(new PictureUpload(
+                key, findUser(userDetails), Instant.now().plus(storageProperties.uploadKeyTtl())));
+        PresignedRequest upload = objectStore.presignPut(key, contentType, request.size(), storageProperties.uploadUrlTtl());
+        return new PictureUploadResponse(key, upload.url().toString(), upload.method(), upload.headers(), upload.expiresAt());
+    }
+
+    @Override
+    public StoredFile verifyUpload(String pictureKey, UserDetails userDetails) {
+        if (pictureKey == null || !KEY_PATTERN.matcher(pictureKey).matches()) {
+            throw new InvalidFileException("Unknown picture key.");
+        }
+        // Checked before using up the key, so the client can retry once its upload has completed
+        ObjectInfo info = objectStore.head(pictureKey)
+                .orElseThrow(() -> new InvalidFileException("Picture has not been uploaded yet."));
+        if (pictureUploadRepository.consume(pictureKey, findUser(userDetails).getId(), Instant.now()) == 0) {
+            throw new InvalidFileException("Unknown picture key.");
+        }
+
+        // The store already enforced the signed type and size, this guards against misconfigured stores
+        if (info.size() == 0 || info.size() > MAX_FILE_SIZE || !EXTENSIONS.containsKey(normalize(info.contentType()))) {
+            objectStore.delete(pictureKey);
+            throw new InvalidFileException("Uploaded picture is empty, too large or not an image.");
+        }
+
+        // The API sees the bytes once, here
+        ImageMetadata metadata;
+        try {
+            metadata = objectStore.get(pictureKey)
+                    .map(content -> extractMetadata(content, info.size(), pictureKey))
+                    .orElse(null);
+        } catch (InvalidFileException ex) {
+            objectStore.delete(pictureKey);
+            throw ex;
+        }
+        return new StoredFile(objectStore.publicUrl(pictureKey), metadata);
+    }
+
+    @Override
+    public void discardUpload(String pictureKey) {
+        objectStore.delete(pictureKey);
+    }
+
+    /**
+     * Delete the pictures whose key expired unused, and their keys.
+     */
+    @Scheduled(
+            fixedDelayString = "${app.storage.upload-purge-interval:PT1H}",
+            initialDelayString = "${app.storage.upload-purge-interval:PT1H}"
+    )
+    public void purgeExpired() {
+        List<PictureUpload> expired = pictureUploadRepository.findTop500ByExpiresAtBeforeOrderByExpiresAt(Instant.now());
+        if (expired.isEmpty()) {
+            return;
+        }
+        // Keys never uploaded to have no object, deleting it does nothing
+        expired.forEach(upload -> objectStore.delete(upload.getPictureKey()));
+        pictureUploadRepository.deleteAllInBatch(expired);
+        log.info("Purged {} unused picture uploads", expired.size());
+    }
+
+    private User findUser(UserDetails userDetails) {
+        return userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+    }
+
+    private static ImageMetadata extractMetadata(InputStream content, long size, String pictureKey) {
+        try {
+            return ImageMetadataExtractor.extract(content, size, pictureKey.substring(pictureKey.lastIndexOf('.') + 1));
+        } finally {
+            try {
+                content.close();
+            } catch (IOException ex) {
+                // Closing a fully read stream, nothing to recover
+            }
+        }
+    }
+
+    private static String normalize(String contentType) {
+        if (contentType == null) {
+            return "";
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            String type = (mediaType.getType() + "/" + mediaType.getSubtype()).toLowerCase(Locale.ROOT);
+            return "image/jpg".equals(type) ? "image/jpeg" : type;
+        } catch (IllegalArgumentException ex) {
+            return "";
+        }
+    }
+}
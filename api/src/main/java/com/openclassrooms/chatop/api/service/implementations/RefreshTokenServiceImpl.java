@@ -0,0 +1,160 @@
+package com.openclassrooms.chatop.api.service.implementations;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.chatop.api.exception.InvalidTokenException;
+import com.openclassrooms.chatop.api.model.RefreshToken;
+import com.openclassrooms.chatop.api.repository.RefreshTokenRepository;
+import com.openclassrooms.chatop.api.repository.UserRepository;
+import com.openclassrooms.chatop.api.service.interfaces.IRefreshTokenService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Service implementation for refresh tokens.
+ * Tokens are random 256-bit values; the REFRESH_TOKENS table stores their SHA-256 hash.
+ *
+ * <p>An in-memory index keeps the immutable facts of recently seen tokens (owner, family, expiry),
+ * so unknown or expired tokens are rejected without a query and a rotation only runs the
+ * conditional revoke and the insert. Revocation state is never cached: the conditional update
+ * is the single source of truth and detects reuse.</p>
+ */
+@Slf4j
+@Service
+public class RefreshTokenServiceImpl implements IRefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final Duration refreshExpiration;
+    private final Cache<String, TokenFacts> index;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenServiceImpl(
+            RefreshTokenRepository refreshTokenRepository,
+            UserRepository userRepository,
+            @Value("${jwt.refresh-expiration}") long refreshExpirationMillis,
+            @Value("${app.auth.refresh-token.index-size:100000}") long indexSize
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.refreshExpiration = Duration.ofMillis(refreshExpirationMillis);
+        this.index = Caffeine.newBuilder()
+                .maximumSize(indexSize)
+                .expireAfterWrite(refreshExpiration)
+                .build();
+    }
+
+    @Override
+    @Transactional
+    public String issue(Long userId) {
+        return store(userId, UUID.randomUUID().toString());
+    }
+
+    @Override
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public Rotation rotate(String refreshToken) {
+        String tokenHash = hash(refreshToken);
+        TokenFacts facts = lookup(tokenHash);
+
+        if (facts == null || facts.expiresAt().isBefore(Instant.now())) {
+            throw new InvalidTokenException("Refresh token is invalid or expired");
+        }
+
+        if (refreshTokenRepository.revokeIfActive(tokenHash) == 0) {
+            // Already rotated or revoked: the token leaked or the client replayed it, end the whole session
+            int revoked = refreshTokenRepository.revokeFamily(facts.familyId());
+            log.warn("Refresh token reuse detected for user {}, revoked {} tokens of its family",
+                    facts.userId(), revoked);
+            throw new InvalidTokenException("Refresh token has already been used");
+        }
+
+        return new Rotation(facts.userId(), store(facts.userId(), facts.familyId()));
+    }
+
+    @Override
+    @Transactional
+    public void revoke(String refreshToken) {
+        TokenFacts facts = lookup(hash(refreshToken));
+        if (facts != null) {
+            refreshTokenRepository.revokeFamily(facts.familyId());
+        }
+    }
+
+    /**
+     * Delete expired tokens. Revoked tokens are kept until they expire so reuse can still be detected.
+     */
+    @Scheduled(
+            fixedDelayString = "${app.auth.refresh-token.purge-interval:PT1H}",
+            initialDelayString = "${app.auth.refresh-token.purge-interval:PT1H}"
+    )
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired refresh tokens", deleted);
+        }
+    }
+
+    private String store(Long userId, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String value = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        String tokenHash = hash(value);
+        Instant expiresAt = Instant.now().plus(refreshExpiration);
+
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(tokenHash);
+        token.setFamilyId(familyId);
+        token.setUser(userRepository.getReferenceById(userId));
+        token.setExpiresAt(expiresAt);
+        refreshTokenRepository.save(token);
+
+        index.put(tokenHash, new TokenFacts(userId, familyId, expiresAt));
+        return value;
+    }
+
+    private TokenFacts lookup(String tokenHash) {
+        TokenFacts cached = index.getIfPresent(tokenHash);
+        if (cached != null) {
+            return cached;
+        }
+        // Not indexed (e.g. after a restart): load it once from the table
+        return refreshTokenRepository.findByTokenHash(tokenHash)
+                .map(token -> {
+                    TokenFacts facts = new TokenFacts(token.getUser().getId(), token.getFamilyId(), token.getExpiresAt());
+                    index.put(tokenHash, facts);
+                    return facts;
+                })
+                .orElse(null);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    /**
+     * Immutable facts of a refresh token, safe to cache.
+     */
+    private record TokenFacts(Long userId, String familyId, Instant expiresAt) {
+    }
+}
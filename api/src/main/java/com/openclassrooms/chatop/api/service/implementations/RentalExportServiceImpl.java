@@ -0,0 +1,60 @@
+package com.openclassrooms.chatop.api.service.implementations;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.openclassrooms.chatop.api.dto.RentalDTO;
+import com.openclassrooms.chatop.api.repository.RentalRepository;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service implementation for rental catalogue exports.
+ * Rows are read from a streaming JDBC cursor and written one by one through
+ * Jackson's streaming generator, so neither the result set nor the document is held in memory.
+ */
+@Service
+@RequiredArgsConstructor
+public class RentalExportServiceImpl implements IRentalExportService {
+
+    private static final int FLUSH_EVERY = 500;
+
+    private final RentalRepository rentalRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportRentals(long afterId, OutputStream out) throws IOException {
+        long count = 0;
+        // The mapper flushes after every value by default, which would defeat the batched flushes below
+        ObjectWriter writer = objectMapper.writerFor(RentalDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (Stream<RentalDTO> rentals = rentalRepository.streamAllAfter(afterId);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // NDJSON: no separator between root values, each one ends with a line feed
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.setRootValueSeparator(null);
+
+            Iterator<RentalDTO> iterator = rentals.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+
+                // Push rows to the client regularly instead of at the end
+                if (++count % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return count;
+    }
+}
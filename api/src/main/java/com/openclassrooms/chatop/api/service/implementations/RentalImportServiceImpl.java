@@ -0,0 +1,512 @@
+package com.openclassrooms.chatop.api.service.implementations;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.openclassrooms.chatop.api.dto.request.RentalRequest.CreateRentalRequest;
+import com.openclassrooms.chatop.api.dto.request.RentalRequest.ImportRentalRow;
+import com.openclassrooms.chatop.api.dto.response.RentalImportResponse;
+import com.openclassrooms.chatop.api.dto.response.RentalImportResponse.RowError;
+import com.openclassrooms.chatop.api.exception.BusinessValidationException;
+import com.openclassrooms.chatop.api.exception.InvalidFileException;
+import com.openclassrooms.chatop.api.exception.ResourceNotFoundException;
+import com.openclassrooms.chatop.api.model.Rental;
+import com.openclassrooms.chatop.api.model.User;
+import com.openclassrooms.chatop.api.repository.RentalBatchRepository;
+import com.openclassrooms.chatop.api.repository.UserRepository;
+import com.openclassrooms.chatop.api.service.interfaces.IFileStorageService;
+import com.openclassrooms.chatop.api.service.interfaces.IFileStorageService.StagedFile;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalImportService;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalListingService;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalListingService.Listing;
+import com.openclassrooms.chatop.api.util.CsvRecordReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Service implementation for bulk rental imports.
+ * Streams the import file row by row, validates each row against the CreateRentalRequest
+ * constraints and inserts valid rows in JDBC batches. Only the current batch is kept in memory.
+ *
+ * <p>The pictures archive is only indexed upfront; a picture is staged when the first row
+ * referencing it is accepted, so rejected rows and unreferenced entries leave nothing behind.
+ * It is promoted when the batch of that row commits (its metadata is saved in the same transaction)
+ * and discarded if the batch rolls back or the import fails before the batch is written.
+ * The number of entries and the bytes extracted are capped against archive bombs.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RentalImportServiceImpl implements IRentalImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final List<String> VALIDATED_PROPERTIES = List.of("name", "surface", "price", "description");
+
+    private final RentalBatchRepository rentalBatchRepository;
+    private final UserRepository userRepository;
+    private final IFileStorageService fileStorageService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final IRentalListingService rentalListingService;
+    private final TransactionOperations transactionOperations;
+
+    @Value("${app.import.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${app.import.max-archive-entries:10000}")
+    private int maxArchiveEntries = 10_000;
+
+    @Value("${app.import.max-archive-size:1GB}")
+    private DataSize maxArchiveSize = DataSize.ofGigabytes(1);
+
+    @Override
+    public RentalImportResponse importRentals(MultipartFile rentals, MultipartFile pictures, UserDetails userDetails) {
+        ImportFormat format = detectFormat(rentals);
+
+        // Resolve the owner once for the whole import
+        User owner = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", userDetails.getUsername()));
+
+        Path archive = null;
+        try {
+            ImportContext context;
+            if (pictures != null && !pictures.isEmpty()) {
+                archive = Files.createTempFile("chatop-import-", ".zip");
+                pictures.transferTo(archive);
+                context = new ImportContext(owner, openArchive(archive));
+            } else {
+                context = new ImportContext(owner, null);
+            }
+
+            try (context; InputStream in = rentals.getInputStream()) {
+                if (format == ImportFormat.CSV) {
+                    readCsv(in, context);
+                } else {
+                    readNdjson(in, context);
+                }
+                return finish(context);
+            }
+        } catch (IOException ex) {
+            throw new BusinessValidationException("Failed to read import file: " + ex.getMessage());
+        } finally {
+            deleteQuietly(archive);
+        }
+    }
+
+    private RentalImportResponse finish(ImportContext context) {
+        context.flush();
+        if (context.imported > 0) {
+            rentalListingService.markStale(Listing.NEWEST, Listing.BEST_VALUE);
+        }
+
+        log.info("Imported {} rentals for user {} ({} rows rejected)",
+                context.imported, context.owner.getId(), context.failed);
+        return new RentalImportResponse(context.imported, context.failed, context.errors);
+    }
+
+    private ImportFormat detectFormat(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new BusinessValidationException("Import file is required.");
+        }
+        String contentType = file.getContentType() != null ? file.getContentType().toLowerCase(Locale.ROOT) : "";
+        String filename = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase(Locale.ROOT) : "";
+
+        if (contentType.startsWith("text/csv") || filename.endsWith(".csv")) {
+            return ImportFormat.CSV;
+        }
+        if (contentType.startsWith("application/x-ndjson") || filename.endsWith(".ndjson") || filename.endsWith(".jsonl")) {
+            return ImportFormat.NDJSON;
+        }
+        throw new BusinessValidationException(
+                "Unsupported import format. Use CSV (text/csv) or NDJSON (application/x-ndjson)."
+        );
+    }
+
+    /**
+     * Index the pictures of the archive by filename, without extracting them.
+     * Declared sizes are only used to reject oversized archives early, extracted bytes are counted as well.
+     */
+    private ZipFile openArchive(Path archive) {
+        ZipFile zip;
+        try {
+            zip = new ZipFile(archive.toFile());
+        } catch (IOException ex) {
+            throw new InvalidFileException("Failed to read pictures archive.", ex);
+        }
+        if (zip.size() > maxArchiveEntries) {
+            closeQuietly(zip);
+            throw new InvalidFileException("Pictures archive has more than " + maxArchiveEntries + " entries.");
+        }
+        long declaredSize = 0;
+        for (ZipEntry entry : Collections.list(zip.entries())) {
+            declaredSize += Math.max(entry.getSize(), 0);
+        }
+        if (declaredSize > maxArchiveSize.toBytes()) {
+            closeQuietly(zip);
+            throw new InvalidFileException("Pictures archive exceeds " + maxArchiveSize.toMegabytes() + "MB once extracted.");
+        }
+        return zip;
+    }
+    private void readCsv(InputStream in, ImportContext context) throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        List<String> header = reader.readRecord();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("name", "surface", "price", "picture")) {
+            if (!columns.containsKey(required)) {
+                throw new BusinessValidationException("CSV header is missing the '" + required + "' column.");
+            }
+        }
+
+        List<String> record;
+        while ((record = reader.readRecord()) != null) {
+            long line = reader.getRecordLineNumber();
+
+            // Ignore blank lines
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+
+            List<RowError> errors = new ArrayList<>();
+            ImportRentalRow row = new ImportRentalRow(
+                    column(record, columns, "name"),
+                    parseDecimal(line, "surface", column(record, columns, "surface"), errors),
+                    parseDecimal(line, "price", column(record, columns, "price"), errors),
+                    column(record, columns, "picture"),
+                    column(record, columns, "description")
+            );
+            processRow(line, row, errors, context);
+        }
+    }
+
+    private void readNdjson(InputStream in, ImportContext context) throws IOException {
+        ObjectReader rowReader = objectMapper.readerFor(ImportRentalRow.class);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        String json;
+        long line = 0;
+        while ((json = reader.readLine()) != null) {
+            line++;
+            if (json.isBlank()) {
+                continue;
+            }
+
+            ImportRentalRow row;
+            try {
+                row = rowReader.readValue(json);
+            } catch (JsonMappingException ex) {
+                String field = ex.getPath().isEmpty() ? null : ex.getPath().get(ex.getPath().size() - 1).getFieldName();
+                context.reject(List.of(new RowError(line, field,
+                        field != null ? "Invalid value for " + field : "Malformed JSON: " + ex.getOriginalMessage())));
+                continue;
+            } catch (JsonProcessingException ex) {
+                context.reject(List.of(new RowError(line, null, "Malformed JSON: " + ex.getOriginalMessage())));
+                continue;
+            }
+            processRow(line, row, new ArrayList<>(), context);
+        }
+    }
+
+    private void processRow(long line, ImportRentalRow row, List<RowError> errors, ImportContext context) {
+        // Reuse the single-rental creation constraints, property by property (the picture is not a file here)
+        for (String property : VALIDATED_PROPERTIES) {
+            // A value that could not be parsed is already reported, don't add "is required" on top
+            if (errors.stream().anyMatch(error -> property.equals(error.field()))) {
+                continue;
+            }
+            Set<ConstraintViolation<CreateRentalRequest>> violations =
+                    validator.validateValue(CreateRentalRequest.class, property, propertyValue(row, property));
+            for (ConstraintViolation<CreateRentalRequest> violation : violations) {
+                errors.add(new RowError(line, property, violation.getMessage()));
+            }
+        }
+
+        String picture = checkPicture(line, row.picture(), errors, context);
+
+        if (!errors.isEmpty()) {
+            context.reject(errors);
+            return;
+        }
+
+        // Only stored now that the row is accepted
+        String pictureUrl = resolvePicture(line, picture, errors, context);
+        if (pictureUrl == null) {
+            context.reject(errors);
+            return;
+        }
+
+        Rental rental = new Rental();
+        rental.setName(row.name());
+        rental.setSurface(row.surface());
+        rental.setPrice(row.price());
+        rental.setPicture(pictureUrl);
+        rental.setDescription(row.description());
+        rental.setOwner(context.owner);
+        context.add(line, rental);
+    }
+
+    private Object propertyValue(ImportRentalRow row, String property) {
+        return switch (property) {
+            case "name" -> row.name();
+            case "surface" -> row.surface();
+            case "price" -> row.price();
+            case "description" -> row.description();
+            default -> throw new IllegalArgumentException("Unknown property: " + property);
+        };
+    }
+
+    /**
+     * Check that a row references a picture: an absolute URL or an archive entry.
+     *
+     * @return the trimmed picture reference, null if missing
+     */
+    private String checkPicture(long line, String picture, List<RowError> errors, ImportContext context) {
+        if (picture == null || picture.isBlank()) {
+            errors.add(new RowError(line, "picture", "Picture is required"));
+            return null;
+        }
+        String trimmed = picture.trim();
+        if (!isUrl(trimmed) && !context.entries.containsKey(trimmed)) {
+            errors.add(new RowError(line, "picture", "Picture '" + trimmed + "' not found in pictures archive"));
+        }
+        return trimmed;
+    }
+
+    /**
+     * Return the URL of a checked picture, staging the archive entry the first time it is referenced.
+     *
+     * @return the picture URL, null if the entry could not be staged (reported in errors)
+     */
+    private String resolvePicture(long line, String picture, List<RowError> errors, ImportContext context) {
+        if (isUrl(picture)) {
+            return picture;
+        }
+        String url = context.pictureUrls.get(picture);
+        if (url != null) {
+            return url;
+        }
+        if (context.extracted > maxArchiveSize.toBytes()) {
+            errors.add(new RowError(line, "picture",
+                    "Pictures archive exceeds " + maxArchiveSize.toMegabytes() + "MB once extracted"));
+            return null;
+        }
+        try (InputStream entry = new CountingInputStream(context.archive.getInputStream(context.entries.get(picture)), context)) {
+            StagedFile staged = fileStorageService.stageFile(picture, entry);
+            url = staged.url();
+            context.pendingPictures.put(picture, staged);
+        } catch (InvalidFileException ex) {
+            errors.add(new RowError(line, "picture", picture + ": " + ex.getMessage()));
+            return null;
+        } catch (IOException ex) {
+            errors.add(new RowError(line, "picture", picture + ": Failed to read pictures archive."));
+            return null;
+        }
+        context.pictureUrls.put(picture, url);
+        return url;
+    }
+
+    private static boolean isUrl(String picture) {
+        return picture.startsWith("http://") || picture.startsWith("https://");
+    }
+
+    private static void closeQuietly(ZipFile zip) {
+        try {
+            zip.close();
+        } catch (IOException ex) {
+            // Read-only, nothing to flush
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Failed to delete temporary import file {}", file, ex);
+        }
+    }
+
+    private String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private BigDecimal parseDecimal(long line, String field, String value, List<RowError> errors) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException ex) {
+            errors.add(new RowError(line, field, StringUtils.capitalize(field) + " must be a number"));
+            return null;
+        }
+    }
+
+    private enum ImportFormat {
+        CSV,
+        NDJSON
+    }
+
+    /**
+     * Mutable state of one import: the pending batch, counters and reported errors.
+     */
+    private class ImportContext implements AutoCloseable {
+
+        private final User owner;
+        private final ZipFile archive;
+        // Pictures of the archive by filename, and URLs of those already stored
+        private final Map<String, ZipEntry> entries = new HashMap<>();
+        private final Map<String, String> pictureUrls = new HashMap<>();
+        // Pictures staged for the pending batch, promoted when it commits
+        private final Map<String, StagedFile> pendingPictures = new HashMap<>();
+        private final List<Rental> batch = new ArrayList<>();
+        private final List<Long> batchLines = new ArrayList<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+        private long extracted;
+
+        private ImportContext(User owner, ZipFile archive) {
+            this.owner = owner;
+            this.archive = archive;
+            if (archive == null) {
+                return;
+            }
+            for (ZipEntry entry : Collections.list(archive.entries())) {
+                String entryName = entry.getName();
+                String filename = StringUtils.getFilename(entryName);
+
+                // Skip folders and archiver metadata (e.g. __MACOSX/, .DS_Store)
+                if (entry.isDirectory() || filename == null || filename.startsWith(".")
+                        || entryName.startsWith("__MACOSX/")) {
+                    continue;
+                }
+                entries.putIfAbsent(filename, entry);
+            }
+        }
+
+        private void add(long line, Rental rental) {
+            batch.add(rental);
+            batchLines.add(line);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void reject(List<RowError> rowErrors) {
+            failed++;
+            rowErrors.forEach(this::reportError);
+        }
+
+        private void reportError(RowError error) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                transactionOperations.executeWithoutResult(status -> {
+                    pendingPictures.values().forEach(fileStorageService::promoteOnCommit);
+                    rentalBatchRepository.insertAll(List.copyOf(batch));
+                });
+                imported += batch.size();
+            } catch (DataAccessException ex) {
+                // The batch is rolled back as a whole, report every row it contained
+                log.warn("Import batch of {} rentals rejected by the database", batch.size(), ex);
+                batchLines.forEach(line -> reject(List.of(new RowError(line, null, "Rejected by the database"))));
+                // Their staged files are discarded on rollback, later rows stage these pictures again
+                pictureUrls.keySet().removeAll(pendingPictures.keySet());
+            }
+            batch.clear();
+            batchLines.clear();
+            pendingPictures.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Left by a failure before the batch was written; no-op for pictures already promoted or discarded
+            pendingPictures.values().forEach(fileStorageService::discard);
+            if (archive != null) {
+                archive.close();
+            }
+        }
+    }
+
+    /**
+     * Counts the bytes extracted from the archive, whatever the entries declare.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private final ImportContext context;
+
+        private CountingInputStream(InputStream in, ImportContext context) {
+            super(in);
+            this.context = context;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                context.extracted++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                context.extracted += read;
+            }
+            return read;
+        }
+    }
+}
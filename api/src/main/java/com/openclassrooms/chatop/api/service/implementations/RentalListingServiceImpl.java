@@ -0,0 +1,227 @@
+package com.openclassrooms.chatop.api.service.implementations;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.chatop.api.config.ReadReplicaProperties;
+import com.openclassrooms.chatop.api.config.RentalListingProperties;
+import com.openclassrooms.chatop.api.dto.RentalDTO;
+import com.openclassrooms.chatop.api.dto.response.RentalListResponse;
+import com.openclassrooms.chatop.api.exception.ServiceUnavailableException;
+import com.openclassrooms.chatop.api.repository.MessageRepository;
+import com.openclassrooms.chatop.api.repository.RentalRepository;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalListingService;
+import io.airlift.compress.zstd.ZstdOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service implementation for the home page rental listings.
+ * Each listing is read in a read-only transaction (routed to a replica, one consistent view for its
+ * queries), serialized and compressed once and kept as immutable byte arrays; a rebuild replaces
+ * the whole snapshot at once, so readers never see a partially built listing.
+ *
+ * <p>Writes of this instance mark the listings they affect as stale, which are rebuilt within
+ * app.listings.rebuild-delay. Until the replica lag limit has passed since such a write, a listing
+ * is rebuilt on the primary: a replica may not have applied the write yet, and the scheduler thread
+ * has no user for read-your-writes stickiness. Every listing is also rebuilt every app.listings.refresh-interval,
+ * for writes of other instances. A failed rebuild keeps the previous snapshot. Requests never wait
+ * for the database: until a listing is first built, it is answered with 503 and retried with the
+ * stale ones.</p>
+ */
+@Slf4j
+@Service
+public class RentalListingServiceImpl implements IRentalListingService {
+
+    private static final String GZIP = "gzip";
+    private static final String ZSTD = "zstd";
+
+    private final RentalRepository rentalRepository;
+    private final MessageRepository messageRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate primaryTransaction;
+    private final Duration maxLag;
+    private final Pageable page;
+    private final long retryAfterSeconds;
+    private final boolean gzip;
+    private final boolean zstd;
+    private final Map<Listing, ListingSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final Set<Listing> stale = ConcurrentHashMap.newKeySet();
+    // Last commit of this instance affecting each listing
+    private final Map<Listing, Instant> writtenAt = new ConcurrentHashMap<>();
+
+    public RentalListingServiceImpl(RentalRepository rentalRepository,
+                                    MessageRepository messageRepository,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager,
+                                    RentalListingProperties properties,
+                                    ReadReplicaProperties replicaProperties,
+                                    @Value("${server.compression.enabled:false}") boolean gzip,
+                                    @Value("${app.compression.zstd.enabled:false}") boolean zstd) {
+        this.rentalRepository = rentalRepository;
+        this.messageRepository = messageRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        // Without replicas every transaction already reads the primary
+        this.maxLag = replicaProperties.urls().isEmpty() ? Duration.ZERO : replicaProperties.maxLag();
+        this.page = PageRequest.of(0, properties.size());
+        this.retryAfterSeconds = Math.max(1, properties.rebuildDelay().toSeconds());
+        this.gzip = gzip;
+        this.zstd = zstd;
+    }
+
+    @Override
+    public ListingSnapshot getListing(Listing listing) {
+        ListingSnapshot snapshot = snapshots.get(listing);
+        if (snapshot == null) {
+            throw new ServiceUnavailableException("Listing is not available yet. Please try again.", retryAfterSeconds);
+        }
+        return snapshot;
+    }
+
+    @Override
+    public void markStale(Listing... listings) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    written(listings);
+                }
+            });
+        } else {
+            written(listings);
+        }
+    }
+
+    private void written(Listing... listings) {
+        Instant now = Instant.now();
+        for (Listing listing : listings) {
+            writtenAt.put(listing, now);
+            stale.add(listing);
+        }
+    }
+
+    /**
+     * Rebuild the listings made stale by writes since the previous run, and build those not built yet.
+     */
+    @Scheduled(fixedDelayString = "${app.listings.rebuild-delay:2s}")
+    public void rebuildStale() {
+        for (Listing listing : Listing.values()) {
+            if (stale.remove(listing) || !snapshots.containsKey(listing)) {
+                rebuildQuietly(listing);
+            }
+        }
+    }
+
+    /**
+     * Rebuild every listing. The first run happens right after startup on the scheduler thread.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.listings.refresh-interval:1m}")
+    public void refresh() {
+        for (Listing listing : Listing.values()) {
+            rebuildQuietly(listing);
+        }
+    }
+
+    private void rebuildQuietly(Listing listing) {
+        try {
+            rebuild(listing);
+        } catch (DataAccessException | TransactionException ex) {
+            // TransactionException: no connection could be opened
+            log.warn("Could not rebuild the {} listing, keeping the previous one: {}", listing.slug(), ex.getMessage());
+        }
+    }
+
+    // Serialized so a slow rebuild can't overwrite the snapshot of a newer one
+    private synchronized void rebuild(Listing listing) {
+        Instant written = writtenAt.get(listing);
+        boolean replicasMayLag = written != null && Instant.now().isBefore(written.plus(maxLag));
+        // Read-write transactions go to the primary
+        TransactionTemplate transaction = replicasMayLag ? primaryTransaction : readOnlyTransaction;
+        List<RentalDTO> rentals = transaction.execute(status -> switch (listing) {
+            case NEWEST -> rentalRepository.findNewestProjected(page);
+            case MOST_MESSAGED -> findMostMessaged();
+            case BEST_VALUE -> rentalRepository.findBestValueProjected(page);
+        });
+        snapshots.put(listing, serialize(rentals));
+    }
+
+    private List<RentalDTO> findMostMessaged() {
+        List<Long> ids = messageRepository.findMostMessagedRentalIds(page);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return rentalRepository.findProjectedByIdIn(ids).stream()
+                .sorted(Comparator.comparingInt(rental -> ids.indexOf(rental.id())))
+                .toList();
+    }
+
+    private ListingSnapshot serialize(List<RentalDTO> rentals) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(new RentalListResponse(rentals));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize rental listing", ex);
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(body);
+        String tag = Long.toHexString(checksum.getValue());
+
+        List<EncodedBody> encodings = new ArrayList<>();
+        if (zstd) {
+            addIfSmaller(encodings, ZSTD, body, tag, ZstdOutputStream::new);
+        }
+        if (gzip) {
+            addIfSmaller(encodings, GZIP, body, tag, GZIPOutputStream::new);
+        }
+        return new ListingSnapshot(body, "\"" + tag + "\"", List.copyOf(encodings));
+    }
+
+    /**
+     * Compress the body, keeping the result only if it saves bytes (small listings don't compress).
+     */
+    private static void addIfSmaller(List<EncodedBody> encodings, String coding, byte[] body, String tag,
+                                     Compressor compressor) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (OutputStream out = compressor.wrap(compressed)) {
+            out.write(body);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not compress rental listing", ex);
+        }
+        if (compressed.size() < body.length) {
+            encodings.add(new EncodedBody(coding, compressed.toByteArray(), "\"" + tag + "-" + coding + "\""));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Compressor {
+        OutputStream wrap(OutputStream out) throws IOException;
+    }
+}
@@ -1,19 +1,30 @@
 package com.openclassrooms.chatop.api.service.implementations;
 
 import com.openclassrooms.chatop.api.dto.RentalDTO;
+import com.openclassrooms.chatop.api.dto.RentalSummaryDTO;
+import com.openclassrooms.chatop.api.dto.request.RentalRequest.CreateRentalFromUploadRequest;
 import com.openclassrooms.chatop.api.dto.request.RentalRequest.CreateRentalRequest;
 import com.openclassrooms.chatop.api.dto.request.RentalRequest.UpdateRentalRequest;
+import com.openclassrooms.chatop.api.dto.response.OwnerDashboardResponse;
+import com.openclassrooms.chatop.api.exception.PreconditionFailedException;
 import com.openclassrooms.chatop.api.mapper.RentalMapper;
 import com.openclassrooms.chatop.api.model.Rental;
 import com.openclassrooms.chatop.api.model.User;
+import com.openclassrooms.chatop.api.repository.PictureMetadataRepository;
 import com.openclassrooms.chatop.api.repository.RentalRepository;
 import com.openclassrooms.chatop.api.repository.UserRepository;
 import com.openclassrooms.chatop.api.service.interfaces.IFileStorageService;
+import com.openclassrooms.chatop.api.service.interfaces.IFileStorageService.StagedFile;
+import com.openclassrooms.chatop.api.service.interfaces.IFileStorageService.StoredFile;
+import com.openclassrooms.chatop.api.service.interfaces.IPictureUploadService;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalListingService;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalListingService.Listing;
 import com.openclassrooms.chatop.api.service.interfaces.IRentalService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,64 +33,180 @@ import java.util.Optional;
  * Service implementation for rental operations.
  * Handles business logic for rental-related functionality.
  * Uses MapStruct's RentalMapper for entity-DTO conversions.
+ *
+ * <p>Writes stage their picture first and only then open a transaction, so a database
+ * connection is held for the SQL work alone. The picture is published when the transaction
+ * commits and deleted when it rolls back. Pictures uploaded directly to the object store
+ * are checked before the transaction as well, and deleted if it rolls back.</p>
  */
 @Service
 @RequiredArgsConstructor
 public class RentalServiceImpl implements IRentalService {
 
     private final RentalRepository rentalRepository;
+    private final PictureMetadataRepository pictureMetadataRepository;
     private final UserRepository userRepository;
     private final IFileStorageService fileStorageService;
     private final RentalMapper rentalMapper;
+    private final IPictureUploadService pictureUploadService;
+    private final TransactionOperations transactionOperations;
+    private final IRentalListingService rentalListingService;
 
     @Override
     @Transactional(readOnly = true)
     public List<RentalDTO> getAllRentals() {
-        return rentalMapper.toDtoList(rentalRepository.findAllWithOwner());
+        return rentalRepository.findAllProjected();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RentalDTO> getMostViewedRentals() {
+        return rentalRepository.findAllProjectedByViews();
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<RentalDTO> getRentalById(Long id) {
-        return rentalRepository.findByIdWithOwner(id).map(rentalMapper::toDto);
+        return rentalRepository.findProjectedById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OwnerDashboardResponse getOwnerDashboard(UserDetails userDetails) {
+        List<RentalSummaryDTO> rentals = rentalRepository.findOwnerSummaries(userDetails.getUsername());
+        long messageCount = rentals.stream().mapToLong(RentalSummaryDTO::message_count).sum();
+        return new OwnerDashboardResponse(rentals.size(), messageCount, rentals);
     }
 
     @Override
-    @Transactional
     public RentalDTO createRental(CreateRentalRequest request, UserDetails userDetails) {
-        // Get the owner (user authenticated) from the UserDetails
-        User owner = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        // Store the picture before opening the transaction (validation happens in FileStorageService)
+        StagedFile picture = fileStorageService.stageFile(request.picture());
 
-        // Store the picture and get its URL (validation happens in FileStorageService)
-        String pictureUrl = fileStorageService.storeFile(request.picture());
+        try {
+            return transactionOperations.execute(status -> {
+                fileStorageService.promoteOnCommit(picture);
 
-        // Map the request to a Rental entity and set values not handled by MapStruct
-        Rental rental = rentalMapper.toEntity(request);
-        rental.setOwner(owner);
-        rental.setPicture(pictureUrl);
+                // Get the owner (user authenticated) from the UserDetails
+                User owner = userRepository.findByEmail(userDetails.getUsername())
+                        .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
+                // Map the request to a Rental entity and set values not handled by MapStruct
+                Rental rental = rentalMapper.toEntity(request);
+                rental.setOwner(owner);
+                rental.setPicture(picture.url());
+                rentalListingService.markStale(Listing.NEWEST, Listing.BEST_VALUE);
 
-        // Save the rental and return the DTO
-        return rentalMapper.toDto(rentalRepository.save(rental));
+                // Save the rental and return the DTO
+                return toDto(rentalRepository.save(rental));
+            });
+        } catch (RuntimeException ex) {
+            // Covers failures before the transaction could register the cleanup
+            fileStorageService.discard(picture);
+            throw ex;
+        }
     }
 
     @Override
-    @Transactional
-    public Optional<RentalDTO> updateRental(Long id, UpdateRentalRequest request) {
-        return rentalRepository.findById(id).map(rental -> {
-            // MapStruct automatically updates only non-null fields from the request
-            rentalMapper.updateFromRequest(request, rental);
-
-            // Handle picture update if a new file is provided
-            if (request.picture() != null && !request.picture().isEmpty()) {
-                String pictureUrl = fileStorageService.storeFile(request.picture());
-                rental.setPicture(pictureUrl);
+    public Optional<RentalDTO> updateRental(Long id, UpdateRentalRequest request, Long expectedVersion) {
+        // Store a new picture, if provided, before opening the transaction
+        StagedFile picture = request.picture() != null && !request.picture().isEmpty()
+                ? fileStorageService.stageFile(request.picture())
+                : null;
+
+        try {
+            Optional<RentalDTO> updated = transactionOperations.execute(status -> rentalRepository.findById(id).map(rental -> {
+                checkVersion(rental, expectedVersion);
+
+                // MapStruct automatically updates only non-null fields from the request
+                rentalMapper.updateFromRequest(request, rental);
+                if (picture != null) {
+                    fileStorageService.promoteOnCommit(picture);
+                    rental.setPicture(picture.url());
+                }
+
+                // Flush now so the version is incremented in the returned DTO and conflicts surface here
+                // (only changed columns are written, updatedAt is auto-updated by @UpdateTimestamp)
+                Rental updatedRental = rentalRepository.saveAndFlush(rental);
+                rentalListingService.markStale(Listing.values());
+                return toDto(updatedRental);
+            }));
+            // Unknown rental: nothing refers to the picture
+            if (updated.isEmpty() && picture != null) {
+                fileStorageService.discard(picture);
+            }
+            return updated;
+        } catch (RuntimeException ex) {
+            if (picture != null) {
+                fileStorageService.discard(picture);
             }
+            throw ex;
+        }
+    }
+
+    @Override
+    public RentalDTO createRental(CreateRentalFromUploadRequest request, UserDetails userDetails) {
+        // Check the uploaded picture before opening the transaction (remote call to the object store)
+        StoredFile picture = pictureUploadService.verifyUpload(request.picture_key(), userDetails);
+
+        try {
+            return transactionOperations.execute(status -> {
+                User owner = userRepository.findByEmail(userDetails.getUsername())
+                        .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+                Rental rental = rentalMapper.toEntity(request);
+                rental.setOwner(owner);
+                rental.setPicture(picture.url());
+                // Rolls back with the rental
+                fileStorageService.saveMetadata(picture.url(), picture.metadata());
+                rentalListingService.markStale(Listing.NEWEST, Listing.BEST_VALUE);
+                return toDto(rentalRepository.save(rental));
+            });
+        } catch (RuntimeException ex) {
+            // The picture key is used up, nothing can refer to the picture anymore
+            pictureUploadService.discardUpload(request.picture_key());
+            throw ex;
+        }
+    }
+
+    @Override
+    public Optional<RentalDTO> attachPicture(Long id, String pictureKey, Long expectedVersion, UserDetails userDetails) {
+        StoredFile picture = pictureUploadService.verifyUpload(pictureKey, userDetails);
+
+        try {
+            Optional<RentalDTO> updated = transactionOperations.execute(status -> rentalRepository.findById(id).map(rental -> {
+                checkVersion(rental, expectedVersion);
+                rental.setPicture(picture.url());
+                fileStorageService.saveMetadata(picture.url(), picture.metadata());
+                rentalListingService.markStale(Listing.values());
+                return toDto(rentalRepository.saveAndFlush(rental));
+            }));
+            if (updated.isEmpty()) {
+                pictureUploadService.discardUpload(pictureKey);
+            }
+            return updated;
+        } catch (RuntimeException ex) {
+            pictureUploadService.discardUpload(pictureKey);
+            throw ex;
+        }
+    }
+
+    /**
+     * Map a saved rental with its picture metadata. Metadata saved in the same transaction
+     * is found in the persistence context without a query.
+     */
+    private RentalDTO toDto(Rental rental) {
+        return rentalMapper.toDto(rental, pictureMetadataRepository.findById(rental.getPicture()).orElse(null));
+    }
 
-            // Save the updated rental (updatedAt is auto-updated by @UpdateTimestamp)
-            Rental updatedRental = rentalRepository.save(rental);
-            return rentalMapper.toDto(updatedRental);
-        });
+    /**
+     * Reject the update if the client edited another version.
+     * A concurrent update after this check still fails on the version column.
+     */
+    private void checkVersion(Rental rental, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(rental.getVersion())) {
+            throw new PreconditionFailedException(
+                    "Rental " + rental.getId() + " is at version " + rental.getVersion() + ", not " + expectedVersion + ".");
+        }
     }
 }
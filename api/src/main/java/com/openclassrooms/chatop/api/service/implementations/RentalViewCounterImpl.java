@@ -0,0 +1,106 @@
+package com.openclassrooms.chatop.api.service.implementations;
+
+import com.openclassrooms.chatop.api.config.RentalViewProperties;
+import com.openclassrooms.chatop.api.repository.RentalBatchRepository;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalViewCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service implementation for rental view counting.
+ * A view only increments a LongAdder, striped across threads, so concurrent views of a popular
+ * rental do not contend. The deltas are added to RENTALS.view_count every few seconds
+ * (app.rental-views.flush-interval) with one batch of UPDATEs.
+ *
+ * <p>Counting is best effort: views of new rentals are dropped once
+ * app.rental-views.max-pending-rentals rentals wait for a flush, and views not yet flushed
+ * are lost on a crash. A failed flush keeps its deltas for the next one.</p>
+ */
+@Slf4j
+@Service
+public class RentalViewCounterImpl implements IRentalViewCounter {
+
+    private final RentalBatchRepository rentalBatchRepository;
+    private final int maxPendingRentals;
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    private final Counter droppedViews;
+
+    public RentalViewCounterImpl(RentalBatchRepository rentalBatchRepository,
+                                 RentalViewProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.rentalBatchRepository = rentalBatchRepository;
+        this.maxPendingRentals = properties.maxPendingRentals();
+        this.droppedViews = Counter.builder("rental.views.dropped")
+                .description("Rental views not counted because too many rentals were waiting for a flush")
+                .register(meterRegistry);
+        Gauge.builder("rental.views.pending", pending, Map::size)
+                .description("Rentals with views waiting for a flush")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void recordView(Long rentalId) {
+        LongAdder views = pending.get(rentalId);
+        if (views == null) {
+            // The size is only approximate under concurrency, the bound may be exceeded by a few entries
+            if (pending.size() >= maxPendingRentals) {
+                droppedViews.increment();
+                return;
+            }
+            views = pending.computeIfAbsent(rentalId, id -> new LongAdder());
+        }
+        views.increment();
+    }
+
+    /**
+     * Rentals without new views since the previous flush are forgotten, so the pending
+     * map only holds recently viewed rentals. A view landing between the reset of an idle
+     * rental and its removal is lost.
+     */
+    @Override
+    @Scheduled(
+            fixedDelayString = "${app.rental-views.flush-interval:5s}",
+            initialDelayString = "${app.rental-views.flush-interval:5s}"
+    )
+    public synchronized void flush() {
+        Map<Long, Long> deltas = new HashMap<>();
+        pending.forEach((rentalId, views) -> {
+            long delta = views.sumThenReset();
+            if (delta == 0) {
+                pending.remove(rentalId, views);
+            } else {
+                deltas.put(rentalId, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            rentalBatchRepository.addViews(deltas);
+        } catch (DataAccessException ex) {
+            log.warn("Could not flush the views of {} rentals, retrying on the next flush: {}",
+                    deltas.size(), ex.getMessage());
+            deltas.forEach((rentalId, delta) -> pending.computeIfAbsent(rentalId, id -> new LongAdder()).add(delta));
+        }
+    }
+
+    /**
+     * Flush the remaining views on a graceful shutdown.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
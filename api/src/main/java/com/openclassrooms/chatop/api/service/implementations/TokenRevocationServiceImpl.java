@@ -0,0 +1,134 @@
+package com.openclassrooms.chatop.api.service.implementations;
+
+import com.openclassrooms.chatop.api.model.RevokedToken;
+import com.openclassrooms.chatop.api.repository.RevokedTokenRepository;
+import com.openclassrooms.chatop.api.service.interfaces.ITokenRevocationService;
+import com.openclassrooms.chatop.api.util.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service implementation for access token revocation.
+ * Revocations are persisted in REVOKED_TOKENS and mirrored in memory:
+ * a Bloom filter answers the common case (token not revoked) in nanoseconds,
+ * and an exact map of jti to expiry settles the rare "possibly revoked" answers.
+ *
+ * <p>The memory view is loaded from the table when the application starts, then synchronized
+ * periodically to pick up revocations made by other instances. Until the first load succeeds every
+ * token is reported revoked: the server may already accept requests, and a token revoked before
+ * the restart must not be accepted meanwhile. Entries are dropped once the token has expired,
+ * which keeps both structures small since access tokens are short-lived.</p>
+ */
+@Slf4j
+@Service
+public class TokenRevocationServiceImpl implements ITokenRevocationService {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    // Revocations written by other instances around the previous sync must not be missed
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(5);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedEntries;
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+    private volatile Instant lastSync;
+
+    public TokenRevocationServiceImpl(
+            RevokedTokenRepository revokedTokenRepository,
+            @Value("${app.auth.revocation.expected-entries:100000}") int expectedEntries
+    ) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedEntries = expectedEntries;
+        this.bloomFilter = new BloomFilter(expectedEntries, FALSE_POSITIVE_RATE);
+    }
+
+    @Override
+    @Transactional
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || expiresAt.isBefore(Instant.now())) {
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(jti, expiresAt, Instant.now()));
+        remember(jti, expiresAt);
+    }
+
+    @Override
+    public boolean isRevoked(String jti) {
+        if (lastSync == null) {
+            // Fail closed until revocations are loaded
+            return true;
+        }
+        if (jti == null || !bloomFilter.mightContain(jti)) {
+            return false;
+        }
+        return revoked.containsKey(jti);
+    }
+
+    /**
+     * Load revocations from the table: all live ones on the first run, then the recent ones.
+     * The first run happens right after startup on the scheduler thread, so an unavailable
+     * database delays the load (and the acceptance of access tokens) instead of failing the startup.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.auth.revocation.sync-interval:PT30S}")
+    public void synchronize() {
+        Instant now = Instant.now();
+        try {
+            List<RevokedToken> tokens = lastSync == null
+                    ? revokedTokenRepository.findByExpiresAtAfter(now)
+                    : revokedTokenRepository.findByRevokedAtGreaterThanEqual(lastSync.minus(SYNC_OVERLAP));
+
+            tokens.forEach(token -> remember(token.getJti(), token.getExpiresAt()));
+            if (lastSync == null) {
+                log.info("Loaded {} revoked access tokens", tokens.size());
+            }
+            lastSync = now;
+        } catch (DataAccessException ex) {
+            log.warn("Could not synchronize revoked access tokens{}: {}",
+                    lastSync == null ? ", access tokens are rejected until they are loaded" : "", ex.getMessage());
+        }
+    }
+
+    /**
+     * Forget revocations of expired tokens, in memory and in the table.
+     */
+    @Scheduled(
+            fixedDelayString = "${app.auth.revocation.prune-interval:PT15M}",
+            initialDelayString = "${app.auth.revocation.prune-interval:PT15M}"
+    )
+    public void prune() {
+        Instant now = Instant.now();
+        if (revoked.values().removeIf(expiresAt -> expiresAt.isBefore(now))) {
+            rebuildBloomFilter();
+        }
+        try {
+            int deleted = revokedTokenRepository.deleteExpired(now);
+            if (deleted > 0) {
+                log.info("Pruned {} expired token revocations", deleted);
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Could not prune expired token revocations: {}", ex.getMessage());
+        }
+    }
+
+    // Writers are serialized so a revocation can't slip between a rebuild's copy and its swap
+    private synchronized void remember(String jti, Instant expiresAt) {
+        revoked.put(jti, expiresAt);
+        bloomFilter.put(jti);
+    }
+
+    private synchronized void rebuildBloomFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2), FALSE_POSITIVE_RATE);
+        revoked.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+    }
+}
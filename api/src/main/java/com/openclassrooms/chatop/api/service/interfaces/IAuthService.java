@@ -2,6 +2,7 @@ package com.openclassrooms.chatop.api.service.interfaces;
 
 import com.openclassrooms.chatop.api.dto.UserDTO;
 import com.openclassrooms.chatop.api.dto.request.AuthRequest.LoginRequest;
+import com.openclassrooms.chatop.api.dto.request.AuthRequest.RefreshRequest;
 import com.openclassrooms.chatop.api.dto.request.AuthRequest.RegisterRequest;
 import com.openclassrooms.chatop.api.dto.response.AuthResponse;
 
@@ -30,6 +31,23 @@ public interface IAuthService {
      */
     AuthResponse login(LoginRequest request);
 
+    /**
+     * Exchange a refresh token for a new JWT token and refresh token.
+     *
+     * @param request the refresh request containing the current refresh token
+     * @return AuthResponse with new tokens
+     * @throws RuntimeException if the refresh token is invalid, expired or reused
+     */
+    AuthResponse refresh(RefreshRequest request);
+
+    /**
+     * Revoke the session of a refresh token, and the current access token if given.
+     *
+     * @param request     the refresh request containing the refresh token to revoke
+     * @param accessToken the JWT token sent with the request, or null
+     */
+    void logout(RefreshRequest request, String accessToken);
+
     /**
      * Get current authenticated user information.
      *
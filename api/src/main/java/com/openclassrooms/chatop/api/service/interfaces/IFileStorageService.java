@@ -1,19 +1,79 @@
 package com.openclassrooms.chatop.api.service.interfaces;
 
+import com.openclassrooms.chatop.api.util.ImageMetadataExtractor.ImageMetadata;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+
 /**
  * Service interface for file storage operations.
  * Defines the contract for managing image uploads for rental properties.
+ * Picture metadata (dimensions, dominant color, BlurHash) is extracted when a file is staged.
  */
 public interface IFileStorageService {
 
     /**
-     * Store a file and return its URL.
+     * Validate a file read from a stream and write it to the staging area, outside of any transaction.
+     * Used when pictures do not arrive as individual multipart parts (e.g. ZIP archive entries).
+     * The stream is consumed but not closed.
+     *
+     * @param originalFilename the original filename, used to validate and keep the extension
+     * @param content          the file content
+     * @return the staged file, with the URL it will have once promoted
+     * @throws RuntimeException if the file is invalid or storage fails
+     */
+    StagedFile stageFile(String originalFilename, InputStream content);
+
+    /**
+     * Save the metadata of a stored picture in the current transaction.
+     *
+     * @param url      the picture URL
+     * @param metadata the picture metadata, nothing is saved if null
+     */
+    void saveMetadata(String url, ImageMetadata metadata);
+
+    /**
+     * Validate a file and write it to the staging area, outside of any transaction.
+     * The staged file is not served until it is promoted with {@link #promoteOnCommit(StagedFile)}.
+     *
+     * @param file the file to stage
+     * @return the staged file, with the URL it will have once promoted
+     * @throws RuntimeException if the file is invalid or storage fails
+     */
+    StagedFile stageFile(MultipartFile file);
+
+    /**
+     * Promote a staged file when the current transaction commits, and discard it if it rolls back.
+     * Without an active transaction the file is promoted immediately.
+     * Its metadata is saved in the current transaction.
+     *
+     * @param stagedFile the file returned by {@link #stageFile(MultipartFile)}
+     */
+    void promoteOnCommit(StagedFile stagedFile);
+
+    /**
+     * Delete a staged file that will not be promoted. Does nothing if it was already promoted or discarded.
+     *
+     * @param stagedFile the file returned by {@link #stageFile(MultipartFile)}
+     */
+    void discard(StagedFile stagedFile);
+
+    /**
+     * A file written to the staging area.
+     *
+     * @param filename the generated filename, identical in the staging area and once promoted
+     * @param url      the URL to access the file once promoted
+     * @param metadata the picture metadata extracted while staging, saved on promotion
+     */
+    record StagedFile(String filename, String url, ImageMetadata metadata) {
+    }
+
+    /**
+     * A file stored and served, whose metadata is not saved yet.
      *
-     * @param file the file to store
-     * @return the URL to access the file
-     * @throws RuntimeException if file storage fails
+     * @param url      the URL to access the file
+     * @param metadata the picture metadata extracted while storing
      */
-    String storeFile(MultipartFile file);
+    record StoredFile(String url, ImageMetadata metadata) {
+    }
 }
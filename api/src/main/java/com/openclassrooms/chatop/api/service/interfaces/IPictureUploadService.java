@@ -0,0 +1,47 @@
+package com.openclassrooms.chatop.api.service.interfaces;
+
+import com.openclassrooms.chatop.api.dto.request.RentalRequest.PictureUploadRequest;
+import com.openclassrooms.chatop.api.dto.response.PictureUploadResponse;
+import com.openclassrooms.chatop.api.service.interfaces.IFileStorageService.StoredFile;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Service interface for direct picture uploads.
+ * Pictures go from the client straight to the object store; the API only issues
+ * upload URLs and checks the uploaded objects before rentals reference them.
+ * A picture key can only be used once, by the user it was issued to.
+ */
+public interface IPictureUploadService {
+
+    /**
+     * Issue a presigned upload URL for a new picture.
+     *
+     * @param request     the picture type and size
+     * @param userDetails the details of the user uploading the picture
+     * @return the presigned upload
+     * @throws com.openclassrooms.chatop.api.exception.InvalidFileException if the type or size is not accepted
+     */
+    PictureUploadResponse createUpload(PictureUploadRequest request, UserDetails userDetails);
+
+    /**
+     * Check an uploaded picture, use up its key and return the URL to store on the rental.
+     * Invalid objects are deleted. The picture metadata is extracted but not saved: the caller
+     * saves it in the transaction referencing the picture.
+     *
+     * @param pictureKey  the key returned by {@link #createUpload(PictureUploadRequest, UserDetails)}
+     * @param userDetails the details of the user the key was issued to
+     * @return the public URL of the picture and its metadata
+     * @throws com.openclassrooms.chatop.api.exception.InvalidFileException if the key is unknown, expired, already used
+     *                                                                      or not issued to the user, or the picture is
+     *                                                                      missing or invalid
+     */
+    StoredFile verifyUpload(String pictureKey, UserDetails userDetails);
+
+    /**
+     * Delete a verified picture that ended up unused (e.g. the rental transaction rolled back).
+     * Its key is used up, so nothing else can refer to it.
+     *
+     * @param pictureKey the key passed to {@link #verifyUpload(String, UserDetails)}
+     */
+    void discardUpload(String pictureKey);
+}
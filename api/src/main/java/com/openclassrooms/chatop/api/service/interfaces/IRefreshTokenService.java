@@ -0,0 +1,42 @@
+package com.openclassrooms.chatop.api.service.interfaces;
+
+/**
+ * Service interface for refresh token operations.
+ * Defines the contract for issuing, rotating and revoking long-lived refresh tokens.
+ */
+public interface IRefreshTokenService {
+
+    /**
+     * Issue a refresh token starting a new token family (one per login).
+     *
+     * @param userId the owner of the token
+     * @return the opaque refresh token value
+     */
+    String issue(Long userId);
+
+    /**
+     * Exchange a refresh token for a new one of the same family.
+     * Presenting an already rotated token revokes the whole family.
+     *
+     * @param refreshToken the refresh token presented by the client
+     * @return the token owner and the new refresh token
+     * @throws com.openclassrooms.chatop.api.exception.InvalidTokenException if the token is unknown, expired or reused
+     */
+    Rotation rotate(String refreshToken);
+
+    /**
+     * Revoke the family of a refresh token (logout). Unknown tokens are ignored.
+     *
+     * @param refreshToken the refresh token presented by the client
+     */
+    void revoke(String refreshToken);
+
+    /**
+     * Result of a refresh token rotation.
+     *
+     * @param userId       the token owner
+     * @param refreshToken the new refresh token value
+     */
+    record Rotation(Long userId, String refreshToken) {
+    }
+}
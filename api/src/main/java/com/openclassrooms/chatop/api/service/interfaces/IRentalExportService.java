@@ -0,0 +1,22 @@
+package com.openclassrooms.chatop.api.service.interfaces;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Service interface for rental catalogue exports.
+ * Defines the contract for streaming the full rental catalogue to partners.
+ */
+public interface IRentalExportService {
+
+    /**
+     * Write all rentals with an id greater than afterId as NDJSON (one RentalDTO per line), in id order.
+     * Memory usage is constant regardless of the number of rentals.
+     *
+     * @param afterId last rental id already received by the client (0 for a full export)
+     * @param out     the stream to write to
+     * @return the number of rentals written
+     * @throws IOException if writing to the stream fails (e.g. client disconnected)
+     */
+    long exportRentals(long afterId, OutputStream out) throws IOException;
+}
@@ -0,0 +1,24 @@
+package com.openclassrooms.chatop.api.service.interfaces;
+
+import com.openclassrooms.chatop.api.dto.response.RentalImportResponse;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Service interface for bulk rental imports.
+ * Defines the contract for creating many rentals from a single CSV or NDJSON file.
+ */
+public interface IRentalImportService {
+
+    /**
+     * Import rentals from a CSV or NDJSON file, with an optional ZIP archive of pictures.
+     * Rows are streamed and inserted in batches; invalid rows are reported and skipped.
+     *
+     * @param rentals     the CSV (text/csv) or NDJSON (application/x-ndjson) file
+     * @param pictures    optional ZIP archive whose entries are referenced by the rows' picture field
+     * @param userDetails the details of the user owning the imported rentals
+     * @return the import report with per-row errors
+     * @throws com.openclassrooms.chatop.api.exception.BusinessValidationException if the file format is not supported
+     */
+    RentalImportResponse importRentals(MultipartFile rentals, MultipartFile pictures, UserDetails userDetails);
+}
@@ -0,0 +1,96 @@
+package com.openclassrooms.chatop.api.service.interfaces;
+
+import com.openclassrooms.chatop.api.util.AcceptEncoding;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service interface for the home page rental listings.
+ * Listings are precomputed and kept as serialized JSON, so serving one needs neither the database nor Jackson.
+ */
+public interface IRentalListingService {
+
+    /**
+     * Get the current snapshot of a listing. Never reads the database: listings are built in the background.
+     *
+     * @param listing the listing
+     * @return the snapshot
+     * @throws com.openclassrooms.chatop.api.exception.ServiceUnavailableException if the listing has not been built yet
+     */
+    ListingSnapshot getListing(Listing listing);
+
+    /**
+     * Rebuild listings after a write. Within a transaction, they are marked stale once it commits;
+     * stale listings are rebuilt in the background a moment later.
+     *
+     * @param listings the listings affected by the write
+     */
+    void markStale(Listing... listings);
+
+    /**
+     * Precomputed rental listings.
+     */
+    enum Listing {
+        /** Most recently created rentals. */
+        NEWEST("newest"),
+        /** Rentals that received the most messages. */
+        MOST_MESSAGED("most-messaged"),
+        /** Cheapest rentals per square meter. */
+        BEST_VALUE("best-value");
+
+        private final String slug;
+
+        Listing(String slug) {
+            this.slug = slug;
+        }
+
+        public String slug() {
+            return slug;
+        }
+
+        /**
+         * Find a listing by its URL name.
+         *
+         * @param slug the URL name, e.g. "most-messaged"
+         * @return the listing, empty if unknown
+         */
+        public static Optional<Listing> fromSlug(String slug) {
+            return Arrays.stream(values()).filter(listing -> listing.slug.equals(slug)).findFirst();
+        }
+    }
+
+    /**
+     * A serialized listing, replaced as a whole when rebuilt.
+     *
+     * @param body      the listing as a RentalListResponse JSON document, must not be modified
+     * @param etag      strong ETag derived from the body, identical across rebuilds and instances for identical content
+     * @param encodings the body precompressed in each content coding it can be served in, by preference
+     */
+    record ListingSnapshot(byte[] body, String etag, List<EncodedBody> encodings) {
+
+        /**
+         * Choose the representation to send: the first precompressed body the client accepts, else the plain body.
+         *
+         * @param acceptEncoding the Accept-Encoding request header, may be null
+         * @return the representation
+         */
+        public EncodedBody select(String acceptEncoding) {
+            return encodings.stream()
+                    .filter(encoded -> AcceptEncoding.accepts(acceptEncoding, encoded.coding()))
+                    .findFirst()
+                    .orElseGet(() -> new EncodedBody(null, body, etag));
+        }
+    }
+
+    /**
+     * A listing body in one content coding.
+     *
+     * @param coding the Content-Encoding, null for the plain body
+     * @param body   the encoded body, must not be modified
+     * @param etag   strong ETag of this representation, distinct from the other codings'
+     */
+    record EncodedBody(String coding, byte[] body, String etag) {
+    }
+}
@@ -1,8 +1,10 @@
 package com.openclassrooms.chatop.api.service.interfaces;
 
 import com.openclassrooms.chatop.api.dto.RentalDTO;
+import com.openclassrooms.chatop.api.dto.request.RentalRequest.CreateRentalFromUploadRequest;
 import com.openclassrooms.chatop.api.dto.request.RentalRequest.CreateRentalRequest;
 import com.openclassrooms.chatop.api.dto.request.RentalRequest.UpdateRentalRequest;
+import com.openclassrooms.chatop.api.dto.response.OwnerDashboardResponse;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.List;
@@ -21,6 +23,14 @@ public interface IRentalService {
      */
     List<RentalDTO> getAllRentals();
 
+    /**
+     * Get all rentals, most viewed first.
+     * View counts lag behind by up to one view counter flush.
+     *
+     * @return List of all rentals as DTOs, by descending view count
+     */
+    List<RentalDTO> getMostViewedRentals();
+
     /**
      * Get a rental by ID.
      *
@@ -29,6 +39,14 @@ public interface IRentalService {
      */
     Optional<RentalDTO> getRentalById(Long id);
 
+    /**
+     * Get the dashboard of an owner: its rentals with their message count and latest message date.
+     *
+     * @param userDetails the details of the authenticated owner
+     * @return the owner's rentals and totals
+     */
+    OwnerDashboardResponse getOwnerDashboard(UserDetails userDetails);
+
     /**
      * Create a new rental with an image.
      *
@@ -37,12 +55,37 @@ public interface IRentalService {
      */
     RentalDTO createRental(CreateRentalRequest request, UserDetails userDetails);
 
+    /**
+     * Create a new rental whose picture was uploaded directly to the object store.
+     *
+     * @param request the rental data, referencing the uploaded picture
+     * @param userDetails the details of the user creating the rental
+     * @return the created rental
+     */
+    RentalDTO createRental(CreateRentalFromUploadRequest request, UserDetails userDetails);
+
     /**
      * Update an existing rental.
+     * Only the columns that changed are written, and the update fails if another
+     * request modified the rental in the meantime.
+     *
+     * @param id              the rental ID to update
+     * @param request         the updated rental data
+     * @param expectedVersion the version the client last read (from If-Match), null to skip the check
+     * @return Optional containing the updated rental DTO if found, empty otherwise
+     * @throws com.openclassrooms.chatop.api.exception.PreconditionFailedException if the rental is not at the expected version
+     */
+    Optional<RentalDTO> updateRental(Long id, UpdateRentalRequest request, Long expectedVersion);
+
+    /**
+     * Replace the picture of a rental with one uploaded directly to the object store.
      *
-     * @param id      the rental ID to update
-     * @param request the updated rental data
+     * @param id              the rental ID to update
+     * @param pictureKey      the key of the uploaded picture
+     * @param expectedVersion the version the client last read (from If-Match), null to skip the check
+     * @param userDetails     the details of the user the picture key was issued to
      * @return Optional containing the updated rental DTO if found, empty otherwise
+     * @throws com.openclassrooms.chatop.api.exception.PreconditionFailedException if the rental is not at the expected version
      */
-    Optional<RentalDTO> updateRental(Long id, UpdateRentalRequest request);
+    Optional<RentalDTO> attachPicture(Long id, String pictureKey, Long expectedVersion, UserDetails userDetails);
 }
@@ -0,0 +1,20 @@
+package com.openclassrooms.chatop.api.service.interfaces;
+
+/**
+ * Service interface for rental view counting.
+ * Views are aggregated in memory and periodically added to the rentals' view count.
+ */
+public interface IRentalViewCounter {
+
+    /**
+     * Count a view of a rental. Never touches the database.
+     *
+     * @param rentalId the ID of the viewed rental
+     */
+    void recordView(Long rentalId);
+
+    /**
+     * Add the views counted since the last flush to the database.
+     */
+    void flush();
+}
@@ -0,0 +1,26 @@
+package com.openclassrooms.chatop.api.service.interfaces;
+
+import java.time.Instant;
+
+/**
+ * Service interface for access token revocation.
+ * Defines the contract for revoking JWTs before they expire and checking them on each request.
+ */
+public interface ITokenRevocationService {
+
+    /**
+     * Revoke an access token.
+     *
+     * @param jti       the token id (jti claim)
+     * @param expiresAt the token expiration, after which the revocation can be forgotten
+     */
+    void revoke(String jti, Instant expiresAt);
+
+    /**
+     * Check whether an access token has been revoked. Runs in memory, without database access.
+     *
+     * @param jti the token id (jti claim)
+     * @return true if the token has been revoked
+     */
+    boolean isRevoked(String jti);
+}
@@ -0,0 +1,372 @@
+package com.openclassrooms.chatop.api.storage;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.openclassrooms.chatop.api.exception.InvalidFileException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+/**
+ * Read-through local disk cache in front of a remote storage backend.
+ * Served files are downloaded once into the cache directory, then read from disk, within a
+ * byte budget: the least valuable files are evicted (Caffeine's size-based policy, which keeps
+ * recently and frequently read files) and deleted. Writes go to the remote backend only.
+ *
+ * <p>Concurrent reads of a missing file share a single download. Downloads go through a temporary
+ * file renamed into place, so the directory only holds complete files and is indexed again on startup.
+ * Files larger than the whole budget are streamed from the remote backend without caching.</p>
+ *
+ * <p>Served files are leased while a response reads them: a file evicted meanwhile is deleted when its
+ * last reader closes it (the directory can thus briefly exceed the budget), and a file evicted between
+ * {@link #open(String)} and the read is streamed from the remote backend instead.</p>
+ */
+@Slf4j
+public class CachingStorageBackend implements StorageBackend {
+
+    private static final String TEMP_DIRECTORY = ".tmp";
+
+    private final StorageBackend delegate;
+    private final Path directory;
+    private final Path tempDirectory;
+    private final long maxBytes;
+    private final AsyncCache<String, Path> cache;
+    // Files being read, deleted by their last reader once evicted
+    private final ConcurrentMap<Path, Lease> leases = new ConcurrentHashMap<>();
+
+    public CachingStorageBackend(StorageBackend delegate, Path directory, long maxBytes) {
+        this.delegate = delegate;
+        this.directory = directory.toAbsolutePath().normalize();
+        this.tempDirectory = this.directory.resolve(TEMP_DIRECTORY);
+        this.maxBytes = maxBytes;
+        this.cache = Caffeine.newBuilder()
+                // Weights are ints, KB keep budgets of several TB representable
+                .maximumWeight(Math.max(1, maxBytes / 1024))
+                .<String, Path>weigher((name, path) -> (int) Math.min(Integer.MAX_VALUE, (size(path) + 1023) / 1024))
+                // Same-thread executor: downloads run on the requesting thread, deletions happen before eviction returns
+                .executor(Runnable::run)
+                .<String, Path>removalListener((name, path, cause) -> {
+                    if (path != null && cause != RemovalCause.REPLACED) {
+                        evicted(path);
+                    }
+                })
+                .buildAsync();
+        try {
+            Files.createDirectories(this.tempDirectory);
+        } catch (IOException ex) {
+            throw new InvalidFileException("Failed to create storage cache directory", ex);
+        }
+        index();
+    }
+
+    @Override
+    public void store(String name, InputStream content, long length) {
+        delegate.store(name, content, length);
+    }
+
+    @Override
+    public void stage(String name, InputStream content, long length) {
+        delegate.stage(name, content, length);
+    }
+
+    @Override
+    public void promote(String name) {
+        delegate.promote(name);
+        cache.synchronous().invalidate(name);
+    }
+
+    @Override
+    public void discard(String name) {
+        delegate.discard(name);
+    }
+
+    @Override
+    public Optional<Resource> open(String name) {
+        Path target = resolve(name);
+        CompletableFuture<Path> download = new CompletableFuture<>();
+        CompletableFuture<Path> cached = cache.asMap().putIfAbsent(name, download);
+        if (cached == null) {
+            return download(name, target, download);
+        }
+        try {
+            Path path = cached.join();
+            Optional<Resource> file = path == null ? Optional.empty() : cachedFile(name, path);
+            if (file.isPresent()) {
+                return file;
+            }
+        } catch (CompletionException ex) {
+            // The download shared with another request failed, try again
+        }
+        // Evicted or deleted meanwhile
+        cache.asMap().remove(name, cached);
+        return delegate.open(name);
+    }
+
+    @Override
+    public String publicUrl(String name) {
+        return delegate.publicUrl(name);
+    }
+
+    @Override
+    public int purgeStaged(Instant cutoff) {
+        return delegate.purgeStaged(cutoff);
+    }
+
+    /**
+     * Bytes currently held by the cache, for tests and monitoring.
+     */
+    long cachedBytes() {
+        return cache.synchronous().policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0) * 1024)
+                .orElse(0L);
+    }
+
+    private Optional<Resource> download(String name, Path target, CompletableFuture<Path> download) {
+        Optional<Resource> remote;
+        try {
+            remote = delegate.open(name);
+        } catch (RuntimeException ex) {
+            download.completeExceptionally(ex);
+            throw ex;
+        }
+        if (remote.isEmpty()) {
+            // A null value removes the entry, misses are not cached
+            download.complete(null);
+            return remote;
+        }
+
+        Path temp = tempDirectory.resolve(UUID.randomUUID().toString());
+        try {
+            // An evicted copy still being read is deleted by its last reader, it must not be replaced meanwhile
+            if (remote.get().contentLength() > maxBytes || leases.containsKey(target)) {
+                download.complete(null);
+                return remote;
+            }
+            try (InputStream in = remote.get().getInputStream()) {
+                Files.copy(in, temp);
+            }
+            Files.createDirectories(target.getParent());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            download.complete(target);
+            // Completing the download weighs the file, which may evict it right away to stay in budget
+            return cachedFile(name, target).or(() -> remote);
+        } catch (IOException | UncheckedIOException ex) {
+            log.warn("Failed to cache {}, serving it from the remote backend", name, ex);
+            deleteQuietly(temp);
+            download.completeExceptionally(ex);
+            return remote;
+        } catch (RuntimeException ex) {
+            deleteQuietly(temp);
+            download.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private Optional<Resource> cachedFile(String name, Path path) {
+        try {
+            return Optional.of(new CachedFile(name, path));
+        } catch (IOException ex) {
+            // Evicted or deleted meanwhile
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Take a lease on a cached file for one reader.
+     *
+     * @return false if the file was evicted or deleted, it must then be read from the remote backend
+     */
+    private boolean acquire(Path path) {
+        Lease lease = leases.compute(path, (p, current) -> {
+            if (current == null) {
+                return Files.isRegularFile(p) ? new Lease(1, false) : null;
+            }
+            return current.evicted() ? current : new Lease(current.readers() + 1, false);
+        });
+        // Leases are replaced on each change, the returned one is the state this call left
+        return lease != null && !lease.evicted();
+    }
+
+    private void release(Path path) {
+        leases.computeIfPresent(path, (p, lease) -> {
+            if (lease.readers() > 1) {
+                return new Lease(lease.readers() - 1, lease.evicted());
+            }
+            if (lease.evicted()) {
+                deleteQuietly(p);
+            }
+            return null;
+        });
+    }
+
+    private void evicted(Path path) {
+        leases.compute(path, (p, lease) -> {
+            if (lease == null) {
+                deleteQuietly(p);
+                return null;
+            }
+            return new Lease(lease.readers(), true);
+        });
+    }
+
+    /**
+     * Register the files left by a previous run, oldest first so they are evicted first if over budget.
+     */
+    private void index() {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.filter(Files::isRegularFile)
+                    .filter(path -> !path.startsWith(tempDirectory))
+                    .sorted((a, b) -> lastModified(a).compareTo(lastModified(b)))
+                    .forEach(path -> cache.put(
+                            directory.relativize(path).toString().replace('\\', '/'),
+                            CompletableFuture.completedFuture(path)
+                    ));
+        } catch (IOException | UncheckedIOException ex) {
+            log.warn("Failed to index the storage cache directory", ex);
+        }
+        try (Stream<Path> temps = Files.list(tempDirectory)) {
+            temps.forEach(CachingStorageBackend::deleteQuietly);
+        } catch (IOException ex) {
+            log.warn("Failed to clean the storage cache temporary directory", ex);
+        }
+        cache.synchronous().cleanUp();
+    }
+
+    private Path resolve(String name) {
+        Path path = directory.resolve(name).normalize();
+        if (!path.startsWith(directory) || path.equals(directory) || path.startsWith(tempDirectory)) {
+            throw new InvalidFileException("Filename contains invalid characters.");
+        }
+        return path;
+    }
+
+    private static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+
+    private static Instant lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toInstant();
+        } catch (IOException ex) {
+            return Instant.EPOCH;
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Best effort, the file is no longer referenced
+        }
+    }
+
+    /**
+     * Readers of a cached file; an evicted file accepts no new readers.
+     */
+    private record Lease(int readers, boolean evicted) {
+    }
+
+    /**
+     * A cached file, read under a lease. Length and modification time are read when it is opened,
+     * so they stay available to the response if the file is evicted before its content is read.
+     */
+    private final class CachedFile extends FileSystemResource {
+
+        private final String name;
+        private final Path path;
+        private final long length;
+        private final long lastModified;
+
+        CachedFile(String name, Path path) throws IOException {
+            super(path);
+            this.name = name;
+            this.path = path;
+            this.length = Files.size(path);
+            this.lastModified = Files.getLastModifiedTime(path).toMillis();
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            if (!acquire(path)) {
+                return delegate.open(name).orElseThrow(() -> new FileNotFoundException(name)).getInputStream();
+            }
+            try {
+                return new LeasedInputStream(Files.newInputStream(path));
+            } catch (IOException | RuntimeException ex) {
+                release(path);
+                throw ex;
+            }
+        }
+
+        @Override
+        public ReadableByteChannel readableChannel() throws IOException {
+            return Channels.newChannel(getInputStream());
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public boolean isReadable() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return length;
+        }
+
+        @Override
+        public long lastModified() {
+            return lastModified;
+        }
+
+        private final class LeasedInputStream extends FilterInputStream {
+
+            private boolean closed;
+
+            LeasedInputStream(InputStream in) {
+                super(in);
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                try {
+                    super.close();
+                } finally {
+                    release(path);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.openclassrooms.chatop.api.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.ResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * In-process cache of the most viewed pictures, first in the /uploads/** resolver chain.
+ * Pictures resolved to local files (upload directory or storage disk cache) are memory-mapped
+ * and preloaded, so hot pictures are served from memory outside the Java heap, without a read
+ * call per request. Caffeine's size-weighted policy (W-TinyLFU) keeps the most frequently viewed
+ * pictures within the byte budget; a picture viewed once does not evict a popular one.
+ *
+ * <p>Misses are served by the next resolvers: a picture is only mapped once it has been requested
+ * {@code minRequests} times, so the long tail of rarely viewed pictures costs a counter rather than
+ * a mapping and a preload that the policy would most likely reject.</p>
+ *
+ * <p>Served files are immutable (names are random UUIDs), so mappings never need refreshing.
+ * The memory of an evicted mapping is released when its buffer is garbage collected, the budget
+ * can thus be briefly exceeded.</p>
+ */
+@Slf4j
+public class HotPictureResolver implements ResourceResolver {
+
+    private static final int TRANSFER_CHUNK = 64 * 1024;
+
+    // Pictures counted towards minRequests, least recently requested ones are forgotten first
+    private static final int MAX_CANDIDATES = 10_000;
+
+    private final long maxPictureSize;
+    private final int minRequests;
+    private final Cache<String, MappedPicture> cache;
+    private final Cache<String, Integer> requests;
+
+    public HotPictureResolver(long maxBytes, long maxPictureSize, int minRequests, MeterRegistry meterRegistry) {
+        this.maxPictureSize = maxPictureSize;
+        this.minRequests = Math.max(1, minRequests);
+        this.requests = Caffeine.newBuilder()
+                .maximumSize(MAX_CANDIDATES)
+                .build();
+        this.cache = Caffeine.newBuilder()
+                // Weights are ints, KB keep large budgets representable
+                .maximumWeight(Math.max(1, maxBytes / 1024))
+                .<String, MappedPicture>weigher((path, picture) -> (picture.buffer().capacity() + 1023) / 1024)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "hot_pictures");
+    }
+
+    @Override
+    @Nullable
+    public Resource resolveResource(
+            @Nullable HttpServletRequest request,
+            @NonNull String requestPath,
+            @NonNull List<? extends Resource> locations,
+            @NonNull ResourceResolverChain chain
+    ) {
+        MappedPicture hot = cache.getIfPresent(requestPath);
+        if (hot != null) {
+            return new MappedResource(hot);
+        }
+        Resource resource = chain.resolveResource(request, requestPath, locations);
+        if (resource == null || !resource.isFile()) {
+            return resource;
+        }
+        try {
+            if (resource.contentLength() > maxPictureSize || !requestedEnough(requestPath)) {
+                return resource;
+            }
+            // Concurrent requests wait for a single mapping; the policy may still reject it right away
+            // if it is less popular than the pictures it would evict
+            MappedPicture picture = cache.get(requestPath, path -> map(resource));
+            return new MappedResource(picture);
+        } catch (IOException | UncheckedIOException ex) {
+            log.debug("Failed to map {}, serving it from disk", requestPath, ex);
+            return resource;
+        }
+    }
+
+    @Override
+    @Nullable
+    public String resolveUrlPath(
+            @NonNull String resourcePath,
+            @NonNull List<? extends Resource> locations,
+            @NonNull ResourceResolverChain chain
+    ) {
+        return chain.resolveUrlPath(resourcePath, locations);
+    }
+
+    /**
+     * Pictures currently held, for tests and monitoring.
+     */
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Count a request of a picture that is not mapped yet.
+     *
+     * @return whether it has now been requested often enough to be mapped
+     */
+    private boolean requestedEnough(String requestPath) {
+        int count = requests.asMap().merge(requestPath, 1, Integer::sum);
+        if (count < minRequests) {
+            return false;
+        }
+        requests.invalidate(requestPath);
+        return true;
+    }
+
+    private static MappedPicture map(Resource resource) {
+        try {
+            Path path = resource.getFile().toPath();
+            long lastModified = resource.lastModified();
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                // The mapping outlives the channel; load() faults the pages in now rather than on the first requests
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                buffer.load();
+                return new MappedPicture(buffer, lastModified, resource.getFilename());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * A mapped picture; the buffer is shared, readers work on duplicates.
+     */
+    private record MappedPicture(MappedByteBuffer buffer, long lastModified, String filename) {
+    }
+
+    /**
+     * A picture served from its mapping. Ranges skip within the buffer without copying.
+     */
+    private static class MappedResource extends AbstractResource {
+
+        private final MappedPicture picture;
+
+        MappedResource(MappedPicture picture) {
+            this.picture = picture;
+        }
+
+        @Override
+        @NonNull
+        public InputStream getInputStream() {
+            return new BufferInputStream(picture.buffer().duplicate());
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return picture.buffer().capacity();
+        }
+
+        @Override
+        public long lastModified() {
+            return picture.lastModified();
+        }
+
+        @Override
+        public String getFilename() {
+            return picture.filename();
+        }
+
+        @Override
+        @NonNull
+        public String getDescription() {
+            return "mapped picture [" + picture.filename() + "]";
+        }
+    }
+
+    /**
+     * Input stream over a byte buffer. transferTo, used by Spring to write resources, copies
+     * in bounded chunks straight from the mapping.
+     */
+    private static class BufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(@NonNull byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public long transferTo(OutputStream out) throws IOException {
+            long transferred = buffer.remaining();
+            byte[] chunk = new byte[(int) Math.min(TRANSFER_CHUNK, transferred)];
+            while (buffer.hasRemaining()) {
+                int count = Math.min(chunk.length, buffer.remaining());
+                buffer.get(chunk, 0, count);
+                out.write(chunk, 0, count);
+            }
+            return transferred;
+        }
+    }
+}
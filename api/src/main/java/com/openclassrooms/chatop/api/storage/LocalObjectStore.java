@@ -0,0 +1,176 @@
+package com.openclassrooms.chatop.api.storage;
+
+import com.openclassrooms.chatop.api.exception.InvalidFileException;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Filesystem stand-in for an S3-compatible object store.
+ * Objects are files under the root directory, served under /uploads/**. Upload URLs are
+ * SigV4 presigned like S3 ones but point to /storage/** on this API, which verifies them
+ * and writes the body; the upload flow can thus be exercised without a real object store.
+ */
+public class LocalObjectStore implements ObjectStore {
+
+    private final Path root;
+    private final SigV4Signer signer;
+    private final Clock clock;
+
+    public LocalObjectStore(Path root, SigV4Signer signer, Clock clock) {
+        this.root = root.toAbsolutePath().normalize();
+        this.signer = signer;
+        this.clock = clock;
+        try {
+            Files.createDirectories(this.root);
+        } catch (IOException ex) {
+            throw new InvalidFileException("Failed to create file storage directory", ex);
+        }
+    }
+
+    @Override
+    public PresignedRequest presignPut(String key, String contentType, long contentLength, Duration ttl) {
+        Instant now = clock.instant();
+        URI object = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/storage/")
+                .path(key)
+                .build()
+                .toUri();
+        URI url = signer.presign("PUT", object,
+                Map.of("content-type", contentType, "content-length", String.valueOf(contentLength)), now, ttl);
+        return new PresignedRequest(url, "PUT", Map.of("Content-Type", contentType), now.plus(ttl));
+    }
+
+    @Override
+    public Optional<ObjectInfo> head(String key) {
+        Path path = resolve(key);
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try {
+            String contentType = MediaTypeFactory.getMediaType(path.getFileName().toString())
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                    .toString();
+            return Optional.of(new ObjectInfo(Files.size(path), contentType));
+        } catch (IOException ex) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void put(String key, InputStream content, long contentLength, String contentType) {
+        write(key, content, Long.MAX_VALUE);
+    }
+
+    @Override
+    public void copy(String sourceKey, String targetKey) {
+        Path target = resolve(targetKey);
+        try {
+            Files.createDirectories(target.getParent());
+            Files.copy(resolve(sourceKey), target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            throw new InvalidFileException("Failed to store file. Please try again.", ex);
+        }
+    }
+
+    @Override
+    public Optional<InputStream> get(String key) {
+        try {
+            return Optional.of(Files.newInputStream(resolve(key)));
+        } catch (IOException ex) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            Files.deleteIfExists(resolve(key));
+        } catch (IOException ignored) {
+            // Best effort, like an S3 DELETE on a missing key
+        }
+    }
+
+    @Override
+    public String publicUrl(String key) {
+        return ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/uploads/")
+                .path(key)
+                .toUriString();
+    }
+
+    /**
+     * Check that an upload request carries a valid presigned URL.
+     *
+     * @param method  the request method
+     * @param url     the request URL with its query string
+     * @param headers the request headers
+     * @return true if the URL was issued by this store and is still valid
+     */
+    public boolean isAuthorized(String method, URI url, SigV4Signer.HeaderLookup headers) {
+        return signer.verifyPresigned(method, url, headers, clock.instant());
+    }
+
+    /**
+     * Write an uploaded object. The body is written to a temporary file first,
+     * so {@link #head(String)} never sees a partial object.
+     *
+     * @param key     the object key
+     * @param content the request body
+     * @param maxSize the largest accepted body
+     * @throws InvalidFileException if the body exceeds {@code maxSize} or cannot be written
+     */
+    public void write(String key, InputStream content, long maxSize) {
+        Path target = resolve(key);
+        Path temporary = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temporary = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+            long written = 0;
+            byte[] buffer = new byte[8192];
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    written += read;
+                    if (written > maxSize) {
+                        throw new InvalidFileException("File size exceeds the maximum allowed limit of 10MB.");
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            throw new InvalidFileException("Failed to store file. Please try again.", ex);
+        } finally {
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException ignored) {
+                    // Best effort cleanup of a partially written file
+                }
+            }
+        }
+    }
+
+    private Path resolve(String key) {
+        Path path = root.resolve(Paths.get(key)).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new InvalidFileException("Invalid object key.");
+        }
+        return path;
+    }
+}
@@ -0,0 +1,130 @@
+package com.openclassrooms.chatop.api.storage;
+
+import com.openclassrooms.chatop.api.exception.InvalidFileException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Storage backend on the local filesystem: one directory for served files, one for staged files.
+ * Promotion is a rename, atomic when both directories are on the same file system.
+ * Files are only shared between API nodes if the directories are on shared storage.
+ */
+@Slf4j
+public class LocalStorageBackend implements StorageBackend {
+
+    private final Path root;
+    private final Path stagingRoot;
+
+    public LocalStorageBackend(Path root, Path stagingRoot) {
+        this.root = root.toAbsolutePath().normalize();
+        this.stagingRoot = stagingRoot.toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(this.root);
+            Files.createDirectories(this.stagingRoot);
+        } catch (IOException ex) {
+            throw new InvalidFileException("Failed to create file storage directory", ex);
+        }
+    }
+
+    @Override
+    public void store(String name, InputStream content, long length) {
+        write(resolve(root, name), content);
+    }
+
+    @Override
+    public void stage(String name, InputStream content, long length) {
+        write(resolve(stagingRoot, name), content);
+    }
+
+    @Override
+    public void promote(String name) {
+        Path source = resolve(stagingRoot, name);
+        Path target = resolve(root, name);
+        try {
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                // Staging and upload directories on different file systems (e.g. separate volumes)
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ex) {
+            throw new InvalidFileException("Failed to promote staged file " + name, ex);
+        }
+    }
+
+    @Override
+    public void discard(String name) {
+        deleteQuietly(resolve(stagingRoot, name));
+    }
+
+    @Override
+    public Optional<Resource> open(String name) {
+        Path path = resolve(root, name);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    @Override
+    public String publicUrl(String name) {
+        return ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/uploads/")
+                .path(name)
+                .toUriString();
+    }
+
+    @Override
+    public int purgeStaged(Instant cutoff) {
+        int deleted = 0;
+        try (DirectoryStream<Path> staged = Files.newDirectoryStream(stagingRoot)) {
+            for (Path path : staged) {
+                if (Files.getLastModifiedTime(path).toInstant().isBefore(cutoff) && Files.deleteIfExists(path)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException ex) {
+            log.warn("Failed to purge staged files", ex);
+        }
+        return deleted;
+    }
+
+    private void write(Path target, InputStream content) {
+        try {
+            Files.createDirectories(target.getParent());
+            try (OutputStream out = Files.newOutputStream(target)) {
+                content.transferTo(out);
+            }
+        } catch (IOException ex) {
+            deleteQuietly(target);
+            throw new InvalidFileException("Failed to store file. Please try again.", ex);
+        }
+    }
+
+    private static Path resolve(Path directory, String name) {
+        Path path = directory.resolve(name).normalize();
+        if (!path.startsWith(directory) || path.equals(directory)) {
+            throw new InvalidFileException("Filename contains invalid characters.");
+        }
+        return path;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Best effort cleanup of a partially written file
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.openclassrooms.chatop.api.storage;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * S3-compatible object store used for rental pictures.
+ * Clients upload directly to the store through presigned URLs, the API only signs
+ * the URLs and checks the uploaded objects. The API also reads and writes objects itself
+ * when it is the storage backend of multipart uploads and of /uploads/**.
+ */
+public interface ObjectStore {
+
+    /**
+     * Presign an upload URL for one object.
+     *
+     * @param key           the object key
+     * @param contentType   the content type the client must send
+     * @param contentLength the exact body size the client must send
+     * @param ttl           how long the URL stays valid
+     * @return the request the client must send
+     */
+    PresignedRequest presignPut(String key, String contentType, long contentLength, Duration ttl);
+
+    /**
+     * Read the metadata of an object.
+     *
+     * @param key the object key
+     * @return the object metadata, empty if the object does not exist
+     */
+    Optional<ObjectInfo> head(String key);
+
+    /**
+     * Write an object.
+     *
+     * @param key           the object key
+     * @param content       the object content, consumed but not closed
+     * @param contentLength the exact content length
+     * @param contentType   the content type stored with the object
+     */
+    void put(String key, InputStream content, long contentLength, String contentType);
+
+    /**
+     * Copy an object inside the store, without its bytes going through the API.
+     *
+     * @param sourceKey the existing object key
+     * @param targetKey the key of the copy
+     */
+    void copy(String sourceKey, String targetKey);
+
+    /**
+     * Read an object.
+     *
+     * @param key the object key
+     * @return the object content to close after use, empty if the object does not exist
+     */
+    Optional<InputStream> get(String key);
+
+    /**
+     * Delete an object. Does nothing if it does not exist.
+     *
+     * @param key the object key
+     */
+    void delete(String key);
+
+    /**
+     * Public URL of an object, as stored on rentals.
+     *
+     * @param key the object key
+     * @return the URL browsers load the object from
+     */
+    String publicUrl(String key);
+
+    /**
+     * A presigned request: the client sends {@code method} to {@code url} with {@code headers}.
+     *
+     * @param url       the presigned URL
+     * @param method    the HTTP method
+     * @param headers   the headers covered by the signature
+     * @param expiresAt when the URL stops being accepted
+     */
+    record PresignedRequest(URI url, String method, Map<String, String> headers, Instant expiresAt) {
+    }
+
+    /**
+     * Object metadata.
+     *
+     * @param size        the object size in bytes
+     * @param contentType the content type sent with the upload
+     */
+    record ObjectInfo(long size, String contentType) {
+    }
+}
@@ -0,0 +1,131 @@
+package com.openclassrooms.chatop.api.storage;
+
+import com.openclassrooms.chatop.api.exception.InvalidFileException;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.lang.NonNull;
+
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Storage backend on an object store. Staged files are objects under {@code staging/}, which
+ * are never served; promotion is a server-side copy followed by a delete of the staged object,
+ * so no picture bytes go through the API while the transaction's connection is still held.
+ *
+ * <p>Stale staged objects are not purged by the API: configure a lifecycle rule expiring
+ * {@code staging/} on the bucket instead. Reads go to the store on every call, wrap this
+ * backend in a {@link CachingStorageBackend} to serve /uploads/**.</p>
+ */
+public class ObjectStoreBackend implements StorageBackend {
+
+    static final String STAGING_PREFIX = "staging/";
+
+    private final ObjectStore objectStore;
+
+    public ObjectStoreBackend(ObjectStore objectStore) {
+        this.objectStore = objectStore;
+    }
+
+    @Override
+    public void store(String name, InputStream content, long length) {
+        objectStore.put(checkName(name), content, length, contentType(name));
+    }
+
+    @Override
+    public void stage(String name, InputStream content, long length) {
+        objectStore.put(STAGING_PREFIX + checkName(name), content, length, contentType(name));
+    }
+
+    @Override
+    public void promote(String name) {
+        objectStore.copy(STAGING_PREFIX + checkName(name), name);
+        objectStore.delete(STAGING_PREFIX + name);
+    }
+
+    @Override
+    public void discard(String name) {
+        objectStore.delete(STAGING_PREFIX + checkName(name));
+    }
+
+    @Override
+    public Optional<Resource> open(String name) {
+        if (name.startsWith(STAGING_PREFIX)) {
+            return Optional.empty();
+        }
+        return objectStore.head(checkName(name)).map(info -> new ObjectResource(name, info.size()));
+    }
+
+    @Override
+    public String publicUrl(String name) {
+        return objectStore.publicUrl(name);
+    }
+
+    @Override
+    public int purgeStaged(Instant cutoff) {
+        // Left to the bucket lifecycle rule on staging/
+        return 0;
+    }
+
+    private static String checkName(String name) {
+        if (name.isEmpty() || name.startsWith("/") || name.contains("..")) {
+            throw new InvalidFileException("Filename contains invalid characters.");
+        }
+        return name;
+    }
+
+    private static String contentType(String name) {
+        return MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+    }
+
+    /**
+     * An object read lazily: every {@link #getInputStream()} call is a new GET.
+     */
+    private class ObjectResource extends AbstractResource {
+
+        private final String key;
+        private final long size;
+
+        ObjectResource(String key, long size) {
+            this.key = key;
+            this.size = size;
+        }
+
+        @Override
+        @NonNull
+        public InputStream getInputStream() throws FileNotFoundException {
+            return objectStore.get(key).orElseThrow(() -> new FileNotFoundException(key));
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return size;
+        }
+
+        // No modification date without a HEAD per conditional request, the cache in front has one
+        @Override
+        public long lastModified() {
+            return -1;
+        }
+
+        @Override
+        public String getFilename() {
+            return key.substring(key.lastIndexOf('/') + 1);
+        }
+
+        @Override
+        @NonNull
+        public String getDescription() {
+            return "object [" + key + "]";
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.openclassrooms.chatop.api.storage;
+
+import com.openclassrooms.chatop.api.config.StorageProperties;
+import com.openclassrooms.chatop.api.exception.ServiceUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Object store client for S3-compatible services (AWS S3, MinIO, ...).
+ * Requests are signed with SigV4 and sent with the JDK HTTP client, no SDK needed
+ * for the few operations the API performs itself.
+ * Without a public URL (CDN, bucket website), the bucket can stay private: pictures are served
+ * by the API under /uploads/**.
+ */
+@Slf4j
+public class S3ObjectStore implements ObjectStore {
+
+    private static final long RETRY_AFTER_SECONDS = 5;
+
+    private final StorageProperties.S3 properties;
+    private final SigV4Signer signer;
+    private final HttpClient httpClient;
+    private final Clock clock;
+
+    public S3ObjectStore(StorageProperties.S3 properties, HttpClient httpClient, Clock clock) {
+        this.properties = properties;
+        this.signer = new SigV4Signer(properties.accessKey(), properties.secretKey(), properties.region());
+        this.httpClient = httpClient;
+        this.clock = clock;
+    }
+
+    @Override
+    public PresignedRequest presignPut(String key, String contentType, long contentLength, Duration ttl) {
+        Instant now = clock.instant();
+        URI url = signer.presign("PUT", objectUri(key),
+                Map.of("content-type", contentType, "content-length", String.valueOf(contentLength)), now, ttl);
+        return new PresignedRequest(url, "PUT", Map.of("Content-Type", contentType), now.plus(ttl));
+    }
+
+    @Override
+    public Optional<ObjectInfo> head(String key) {
+        HttpResponse<Void> response = send("HEAD", key);
+        if (response.statusCode() == 404) {
+            return Optional.empty();
+        }
+        expectSuccess(response, "HEAD", key);
+        long size = response.headers().firstValueAsLong("content-length").orElse(0);
+        String contentType = response.headers().firstValue("content-type").orElse(null);
+        return Optional.of(new ObjectInfo(size, contentType));
+    }
+
+    @Override
+    public void put(String key, InputStream content, long contentLength, String contentType) {
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.fromPublisher(
+                HttpRequest.BodyPublishers.ofInputStream(() -> content), contentLength);
+        HttpResponse<Void> response = send("PUT", objectUri(key), Map.of("content-type", contentType), body,
+                SigV4Signer.UNSIGNED_PAYLOAD, HttpResponse.BodyHandlers.discarding());
+        expectSuccess(response, "PUT", key);
+    }
+
+    @Override
+    public void copy(String sourceKey, String targetKey) {
+        HttpResponse<String> response = send("PUT", objectUri(targetKey),
+                Map.of("x-amz-copy-source", "/" + properties.bucket() + "/" + sourceKey),
+                HttpRequest.BodyPublishers.noBody(), SigV4Signer.EMPTY_PAYLOAD_SHA256,
+                HttpResponse.BodyHandlers.ofString());
+        expectSuccess(response, "COPY", sourceKey);
+        // A copy can fail after the 200 status line was sent, the error is then in the body
+        if (response.body().contains("<Error>")) {
+            log.warn("COPY {} failed: {}", sourceKey, response.body());
+            throw unavailable();
+        }
+    }
+
+    @Override
+    public Optional<InputStream> get(String key) {
+        HttpResponse<InputStream> response = send("GET", objectUri(key), Map.of(), HttpRequest.BodyPublishers.noBody(),
+                SigV4Signer.EMPTY_PAYLOAD_SHA256, HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() == 404) {
+            closeQuietly(response.body());
+            return Optional.empty();
+        }
+        if (response.statusCode() / 100 != 2) {
+            closeQuietly(response.body());
+            expectSuccess(response, "GET", key);
+        }
+        return Optional.of(response.body());
+    }
+
+    @Override
+    public void delete(String key) {
+        HttpResponse<Void> response = send("DELETE", key);
+        if (response.statusCode() != 404) {
+            expectSuccess(response, "DELETE", key);
+        }
+    }
+
+    @Override
+    public String publicUrl(String key) {
+        if (properties.publicUrl() != null && !properties.publicUrl().isBlank()) {
+            return stripTrailingSlash(properties.publicUrl()) + "/" + key;
+        }
+        // The bucket stays private, pictures are served by /uploads/** through the local disk cache
+        return ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/uploads/")
+                .path(key)
+                .toUriString();
+    }
+
+    URI objectUri(String key) {
+        URI endpoint = URI.create(stripTrailingSlash(properties.endpoint()));
+        if (properties.pathStyle()) {
+            return URI.create(endpoint + "/" + properties.bucket() + "/" + key);
+        }
+        return URI.create(endpoint.getScheme() + "://" + properties.bucket() + "." + endpoint.getRawAuthority() + "/" + key);
+    }
+
+    private HttpResponse<Void> send(String method, String key) {
+        return send(method, objectUri(key), Map.of(), HttpRequest.BodyPublishers.noBody(),
+                SigV4Signer.EMPTY_PAYLOAD_SHA256, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private <T> HttpResponse<T> send(
+            String method,
+            URI uri,
+            Map<String, String> headers,
+            HttpRequest.BodyPublisher body,
+            String payloadHash,
+            HttpResponse.BodyHandler<T> responseHandler
+    ) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(properties.timeout())
+                .method(method, body);
+        signer.sign(method, uri, headers, payloadHash, clock.instant()).forEach(request::header);
+        try {
+            return httpClient.send(request.build(), responseHandler);
+        } catch (IOException ex) {
+            log.warn("{} {} failed", method, uri, ex);
+            throw unavailable();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw unavailable();
+        }
+    }
+
+    private void expectSuccess(HttpResponse<?> response, String method, String key) {
+        if (response.statusCode() / 100 != 2) {
+            log.warn("{} {} answered {}", method, key, response.statusCode());
+            throw unavailable();
+        }
+    }
+
+    private ServiceUnavailableException unavailable() {
+        return new ServiceUnavailableException("Picture storage is unavailable. Please try again.", RETRY_AFTER_SECONDS);
+    }
+
+    private static void closeQuietly(InputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException ignored) {
+            // Nothing left to read
+        }
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,294 @@
+package com.openclassrooms.chatop.api.storage;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * AWS Signature Version 4 for the S3 protocol.
+ * Signs requests with an Authorization header, presigns URLs with X-Amz-* query parameters,
+ * and verifies presigned URLs (used by the local object store stand-in).
+ *
+ * @see <a href="https://docs.aws.amazon.com/AmazonS3/latest/API/sig-v4-authenticating-requests.html">SigV4 for S3</a>
+ */
+public class SigV4Signer {
+
+    public static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    public static final String EMPTY_PAYLOAD_SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String SERVICE = "s3";
+    private static final String TERMINATOR = "aws4_request";
+    private static final Duration MAX_EXPIRES = Duration.ofDays(7);
+    private static final Duration CLOCK_SKEW = Duration.ofMinutes(5);
+    private static final DateTimeFormatter AMZ_DATE =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter SCOPE_DATE =
+            DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+
+    private final String accessKey;
+    private final String secretKey;
+    private final String region;
+
+    public SigV4Signer(String accessKey, String secretKey, String region) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region = region;
+    }
+
+    /**
+     * Presign a URL. The client must send every given header with the same value.
+     *
+     * @param method  the HTTP method the URL is valid for
+     * @param uri     the object URL
+     * @param headers headers to sign besides host (lowercase names)
+     * @param now     the signing time
+     * @param expires how long the URL stays valid (at most 7 days)
+     * @return the presigned URL
+     */
+    public URI presign(String method, URI uri, Map<String, String> headers, Instant now, Duration expires) {
+        if (expires.compareTo(MAX_EXPIRES) > 0) {
+            throw new IllegalArgumentException("Presigned URLs are valid for 7 days at most");
+        }
+        SortedMap<String, String> signedHeaders = signedHeaders(uri, headers);
+        SortedMap<String, String> query = decodeQuery(uri.getRawQuery());
+        query.put("X-Amz-Algorithm", ALGORITHM);
+        query.put("X-Amz-Credential", accessKey + "/" + scope(now));
+        query.put("X-Amz-Date", AMZ_DATE.format(now));
+        query.put("X-Amz-Expires", String.valueOf(expires.toSeconds()));
+        query.put("X-Amz-SignedHeaders", String.join(";", signedHeaders.keySet()));
+
+        String signature = signature(method, uri, query, signedHeaders, UNSIGNED_PAYLOAD, now);
+        return URI.create(base(uri) + canonicalQuery(query) + "&X-Amz-Signature=" + signature);
+    }
+
+    /**
+     * Sign a request with an Authorization header.
+     *
+     * @param method      the HTTP method
+     * @param uri         the request URL
+     * @param headers     headers to sign besides host (lowercase names)
+     * @param payloadHash hex SHA-256 of the body, or {@link #UNSIGNED_PAYLOAD}
+     * @param now         the signing time
+     * @return the headers to send: the given ones plus x-amz-date, x-amz-content-sha256 and authorization
+     */
+    public Map<String, String> sign(String method, URI uri, Map<String, String> headers, String payloadHash, Instant now) {
+        Map<String, String> all = new LinkedHashMap<>(headers);
+        all.put("x-amz-date", AMZ_DATE.format(now));
+        all.put("x-amz-content-sha256", payloadHash);
+
+        SortedMap<String, String> signedHeaders = signedHeaders(uri, all);
+        String signature = signature(method, uri, decodeQuery(uri.getRawQuery()), signedHeaders, payloadHash, now);
+        all.put("authorization", ALGORITHM
+                + " Credential=" + accessKey + "/" + scope(now)
+                + ",SignedHeaders=" + String.join(";", signedHeaders.keySet())
+                + ",Signature=" + signature);
+        return all;
+    }
+
+    /**
+     * Verify a presigned request: credential, validity window and signature.
+     *
+     * @param method  the HTTP method of the request
+     * @param uri     the request URL, including the query string
+     * @param headers request header lookup by lowercase name
+     * @param now     the current time
+     * @return true if the URL was presigned with these credentials for this request and has not expired
+     */
+    public boolean verifyPresigned(String method, URI uri, HeaderLookup headers, Instant now) {
+        SortedMap<String, String> query = decodeQuery(uri.getRawQuery());
+        String signature = query.remove("X-Amz-Signature");
+        String signedHeaderNames = query.get("X-Amz-SignedHeaders");
+        if (signature == null || signedHeaderNames == null || !ALGORITHM.equals(query.get("X-Amz-Algorithm"))) {
+            return false;
+        }
+
+        Instant signedAt;
+        Duration expires;
+        try {
+            signedAt = Instant.from(AMZ_DATE.parse(query.getOrDefault("X-Amz-Date", "")));
+            expires = Duration.ofSeconds(Long.parseLong(query.getOrDefault("X-Amz-Expires", "")));
+        } catch (DateTimeParseException | NumberFormatException ex) {
+            return false;
+        }
+        if (expires.isNegative() || expires.compareTo(MAX_EXPIRES) > 0
+                || now.isBefore(signedAt.minus(CLOCK_SKEW)) || now.isAfter(signedAt.plus(expires))
+                || !(accessKey + "/" + scope(signedAt)).equals(query.get("X-Amz-Credential"))) {
+            return false;
+        }
+
+        SortedMap<String, String> signedHeaders = new TreeMap<>();
+        for (String name : signedHeaderNames.split(";")) {
+            String value = headers.get(name);
+            if (value == null) {
+                return false;
+            }
+            signedHeaders.put(name, value.trim().replaceAll("\\s+", " "));
+        }
+        if (!signedHeaders.containsKey("host")) {
+            return false;
+        }
+
+        String expected = signature(method, uri, query, signedHeaders, UNSIGNED_PAYLOAD, signedAt);
+        return MessageDigest.isEqual(
+                expected.getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII)
+        );
+    }
+
+    /**
+     * Hex SHA-256 of a payload, for {@link #sign}.
+     */
+    public static String sha256Hex(byte[] payload) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(payload));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private String signature(
+            String method,
+            URI uri,
+            SortedMap<String, String> query,
+            SortedMap<String, String> signedHeaders,
+            String payloadHash,
+            Instant now
+    ) {
+        StringBuilder canonicalHeaders = new StringBuilder();
+        signedHeaders.forEach((name, value) -> canonicalHeaders.append(name).append(':').append(value).append('\n'));
+
+        String canonicalRequest = method + "\n"
+                + canonicalPath(uri.getRawPath()) + "\n"
+                + canonicalQuery(query) + "\n"
+                + canonicalHeaders + "\n"
+                + String.join(";", signedHeaders.keySet()) + "\n"
+                + payloadHash;
+
+        String stringToSign = ALGORITHM + "\n"
+                + AMZ_DATE.format(now) + "\n"
+                + scope(now) + "\n"
+                + sha256Hex(canonicalRequest.getBytes(StandardCharsets.UTF_8));
+
+        byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), SCOPE_DATE.format(now));
+        key = hmac(key, region);
+        key = hmac(key, SERVICE);
+        key = hmac(key, TERMINATOR);
+        return HexFormat.of().formatHex(hmac(key, stringToSign));
+    }
+
+    private String scope(Instant now) {
+        return SCOPE_DATE.format(now) + "/" + region + "/" + SERVICE + "/" + TERMINATOR;
+    }
+
+    private static SortedMap<String, String> signedHeaders(URI uri, Map<String, String> headers) {
+        SortedMap<String, String> signed = new TreeMap<>();
+        signed.put("host", host(uri));
+        headers.forEach((name, value) -> signed.put(name.toLowerCase(Locale.ROOT), value.trim().replaceAll("\\s+", " ")));
+        return signed;
+    }
+
+    private static String host(URI uri) {
+        int port = uri.getPort();
+        boolean defaultPort = port == -1
+                || ("http".equals(uri.getScheme()) && port == 80)
+                || ("https".equals(uri.getScheme()) && port == 443);
+        return defaultPort ? uri.getHost() : uri.getHost() + ":" + port;
+    }
+
+    private static String base(URI uri) {
+        return uri.getScheme() + "://" + uri.getRawAuthority() + uri.getRawPath() + "?";
+    }
+
+    private static String canonicalPath(String rawPath) {
+        if (rawPath == null || rawPath.isEmpty()) {
+            return "/";
+        }
+        StringJoiner path = new StringJoiner("/");
+        for (String segment : rawPath.split("/", -1)) {
+            path.add(encode(URLDecoder.decode(segment.replace("+", "%2B"), StandardCharsets.UTF_8)));
+        }
+        String canonical = path.toString();
+        return canonical.startsWith("/") ? canonical : "/" + canonical;
+    }
+
+    private static String canonicalQuery(SortedMap<String, String> query) {
+        StringBuilder canonical = new StringBuilder();
+        query.forEach((name, value) -> {
+            if (!canonical.isEmpty()) {
+                canonical.append('&');
+            }
+            canonical.append(encode(name)).append('=').append(encode(value));
+        });
+        return canonical.toString();
+    }
+
+    private static SortedMap<String, String> decodeQuery(String rawQuery) {
+        SortedMap<String, String> query = new TreeMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals == -1 ? pair : pair.substring(0, equals);
+            String value = equals == -1 ? "" : pair.substring(equals + 1);
+            query.put(
+                    URLDecoder.decode(name.replace("+", "%2B"), StandardCharsets.UTF_8),
+                    URLDecoder.decode(value.replace("+", "%2B"), StandardCharsets.UTF_8)
+            );
+        }
+        return query;
+    }
+
+    /**
+     * URI-encode every byte except the unreserved characters (RFC 3986), as SigV4 requires.
+     */
+    private static String encode(String value) {
+        StringBuilder encoded = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~') {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(Character.toUpperCase(Character.forDigit((b >> 4) & 0xF, 16)))
+                        .append(Character.toUpperCase(Character.forDigit(b & 0xF, 16)));
+            }
+        }
+        return encoded.toString();
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HmacSHA256 not available", ex);
+        }
+    }
+
+    /**
+     * Request header access by lowercase name, so callers can adapt servlet requests or maps.
+     */
+    @FunctionalInterface
+    public interface HeaderLookup {
+        String get(String name);
+    }
+}
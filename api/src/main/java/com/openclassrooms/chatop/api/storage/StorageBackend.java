@@ -0,0 +1,73 @@
+package com.openclassrooms.chatop.api.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Storage SPI for rental pictures, behind IFileStorageService and the /uploads/** handler.
+ * Names are relative paths without "..", e.g. "3f2b8c1e-....jpg" or "pictures/3f2b8c1e-....jpg".
+ *
+ * <p>Staged files are written before the transaction that references them and are not served
+ * until promoted, so promotion must be cheap (a rename or a server-side copy).</p>
+ */
+public interface StorageBackend {
+
+    /**
+     * Write a file that is served right away.
+     *
+     * @param name    the file name
+     * @param content the file content, consumed but not closed
+     * @param length  the exact content length
+     */
+    void store(String name, InputStream content, long length);
+
+    /**
+     * Write a file that is not served until {@link #promote(String)} is called.
+     *
+     * @param name    the file name it will be served under
+     * @param content the file content, consumed but not closed
+     * @param length  the exact content length
+     */
+    void stage(String name, InputStream content, long length);
+
+    /**
+     * Make a staged file servable. Failures are thrown, callers decide how to report them.
+     *
+     * @param name the staged file name
+     */
+    void promote(String name);
+
+    /**
+     * Delete a staged file. Does nothing if it was already promoted or discarded.
+     *
+     * @param name the staged file name
+     */
+    void discard(String name);
+
+    /**
+     * Open a served file.
+     *
+     * @param name the file name
+     * @return a readable file resource, empty if there is no such file
+     */
+    Optional<Resource> open(String name);
+
+    /**
+     * Public URL of a file.
+     *
+     * @param name the file name
+     * @return the URL browsers load the file from
+     */
+    String publicUrl(String name);
+
+    /**
+     * Delete staged files older than the cutoff (left behind by a crash).
+     *
+     * @param cutoff files staged before this instant are deleted
+     * @return the number of deleted files
+     */
+    int purgeStaged(Instant cutoff);
+}
@@ -0,0 +1,44 @@
+package com.openclassrooms.chatop.api.storage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.ResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.util.List;
+
+/**
+ * Resolves /uploads/** paths against the storage backend instead of static locations,
+ * so Spring's resource handler keeps serving ranges, conditional requests and cache headers.
+ */
+public class StorageResourceResolver implements ResourceResolver {
+
+    private final StorageBackend storageBackend;
+
+    public StorageResourceResolver(StorageBackend storageBackend) {
+        this.storageBackend = storageBackend;
+    }
+
+    @Override
+    @Nullable
+    public Resource resolveResource(
+            @Nullable HttpServletRequest request,
+            @NonNull String requestPath,
+            @NonNull List<? extends Resource> locations,
+            @NonNull ResourceResolverChain chain
+    ) {
+        return storageBackend.open(requestPath).orElse(null);
+    }
+
+    @Override
+    @Nullable
+    public String resolveUrlPath(
+            @NonNull String resourcePath,
+            @NonNull List<? extends Resource> locations,
+            @NonNull ResourceResolverChain chain
+    ) {
+        return resourcePath;
+    }
+}
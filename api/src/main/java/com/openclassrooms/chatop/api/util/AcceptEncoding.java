@@ -0,0 +1,41 @@
+package com.openclassrooms.chatop.api.util;
+
+/**
+ * Accept-Encoding header matching, for responses compressed by the application rather than by Tomcat.
+ */
+public final class AcceptEncoding {
+
+    private AcceptEncoding() {
+    }
+
+    /**
+     * Check whether an Accept-Encoding header allows a content coding (listed with a non-zero quality).
+     *
+     * @param acceptEncoding the header value, may be null
+     * @param coding         the content coding, e.g. "gzip"
+     * @return whether the client accepts the coding
+     */
+    public static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase(coding)) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException ex) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
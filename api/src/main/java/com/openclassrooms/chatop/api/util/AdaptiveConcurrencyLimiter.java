@@ -0,0 +1,110 @@
+package com.openclassrooms.chatop.api.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limiter whose limit follows measured latency (AIMD).
+ * Each completed request is a sample: while latency stays close to the no-load baseline and the
+ * limit is actually used, the limit grows by one (additive increase); when latency exceeds the
+ * baseline by the tolerance factor, or a request failed from overload, it is cut by the backoff
+ * ratio (multiplicative decrease). The baseline is the lowest latency of the previous sample window,
+ * so it follows slow drifts (e.g. a warmer cache) instead of sticking to one lucky sample.
+ *
+ * <p>Latency is measured around the whole request, request body and response transfer included.
+ * When it mostly depends on the client (e.g. upload size and bandwidth), make min equal to max:
+ * the limit is then fixed, a plain bulkhead.</p>
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final int BASELINE_WINDOW = 500;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+    private double preciseLimit;
+    private long baselineNanos;
+    private long windowMinNanos = Long.MAX_VALUE;
+    private int windowSamples;
+
+    /**
+     * Create a limiter.
+     *
+     * @param initialLimit     the limit before any sample
+     * @param minLimit         the lowest limit
+     * @param maxLimit         the highest limit
+     * @param backoffRatio     factor applied to the limit on overload (e.g. 0.9)
+     * @param latencyTolerance latency over baseline ratio considered overload (e.g. 2.0)
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      double backoffRatio, double latencyTolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.preciseLimit = this.limit;
+    }
+
+    /**
+     * Try to start a request.
+     *
+     * @return true if the request may proceed (and must call {@link #release}), false if the limit is reached
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * End a request started with {@link #tryAcquire} and feed its latency to the limit.
+     *
+     * @param latencyNanos the request latency
+     * @param overloaded   true if the request failed because the server was overloaded
+     */
+    public void release(long latencyNanos, boolean overloaded) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (minLimit < maxLimit) {
+            update(latencyNanos, overloaded, inFlightBefore);
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long latencyNanos, boolean overloaded, int inFlightBefore) {
+        windowMinNanos = Math.min(windowMinNanos, latencyNanos);
+        if (++windowSamples >= BASELINE_WINDOW) {
+            baselineNanos = windowMinNanos;
+            windowMinNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+        if (baselineNanos == 0) {
+            // Still learning the first baseline
+            baselineNanos = latencyNanos;
+        }
+
+        if (overloaded || latencyNanos > baselineNanos * latencyTolerance) {
+            preciseLimit = Math.max(minLimit, preciseLimit * backoffRatio);
+        } else if (inFlightBefore * 2 >= limit) {
+            // Only grow a limit that is actually used, an idle server says nothing about capacity
+            preciseLimit = Math.min(maxLimit, preciseLimit + 1);
+        }
+        limit = (int) preciseLimit;
+    }
+}
@@ -0,0 +1,128 @@
+package com.openclassrooms.chatop.api.util;
+
+/**
+ * BlurHash encoder: a ~30 character string that clients decode into a blurred placeholder
+ * of the picture while the real one loads.
+ *
+ * @see <a href="https://github.com/woltapp/blurhash/blob/master/Algorithm.md">BlurHash algorithm</a>
+ */
+public final class BlurHash {
+
+    private static final String BASE83 =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    private BlurHash() {
+    }
+
+    /**
+     * Encode pixels into a BlurHash. Small inputs (e.g. 32x32) give nearly the same hash as full-size pictures
+     * for a fraction of the work, the components are very low frequency.
+     *
+     * @param rgb         pixels in row-major order, as 0xRRGGBB
+     * @param width       image width
+     * @param height      image height
+     * @param componentsX horizontal components, 1 to 9
+     * @param componentsY vertical components, 1 to 9
+     * @return the BlurHash
+     */
+    public static String encode(int[] rgb, int width, int height, int componentsX, int componentsY) {
+        if (componentsX < 1 || componentsX > 9 || componentsY < 1 || componentsY > 9) {
+            throw new IllegalArgumentException("BlurHash components must be between 1 and 9");
+        }
+        if (rgb.length != width * height || rgb.length == 0) {
+            throw new IllegalArgumentException("Pixel count does not match the image size");
+        }
+
+        // Linear RGB lookup, sRGB decoding is otherwise the hot spot
+        double[] linear = new double[256];
+        for (int i = 0; i < 256; i++) {
+            linear[i] = srgbToLinear(i);
+        }
+
+        double[][] factors = new double[componentsX * componentsY][3];
+        double[] cosX = new double[width];
+        double[] cosY = new double[height];
+        for (int j = 0; j < componentsY; j++) {
+            for (int y = 0; y < height; y++) {
+                cosY[y] = Math.cos(Math.PI * j * y / height);
+            }
+            for (int i = 0; i < componentsX; i++) {
+                for (int x = 0; x < width; x++) {
+                    cosX[x] = Math.cos(Math.PI * i * x / width);
+                }
+                double r = 0;
+                double g = 0;
+                double b = 0;
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        double basis = cosX[x] * cosY[y];
+                        int pixel = rgb[y * width + x];
+                        r += basis * linear[(pixel >> 16) & 0xFF];
+                        g += basis * linear[(pixel >> 8) & 0xFF];
+                        b += basis * linear[pixel & 0xFF];
+                    }
+                }
+                double scale = (i == 0 && j == 0 ? 1.0 : 2.0) / (width * height);
+                factors[j * componentsX + i] = new double[]{r * scale, g * scale, b * scale};
+            }
+        }
+
+        StringBuilder hash = new StringBuilder();
+        encode83(hash, (componentsX - 1) + (componentsY - 1) * 9, 1);
+
+        double maximumValue;
+        if (factors.length > 1) {
+            double actualMaximum = 0;
+            for (int k = 1; k < factors.length; k++) {
+                for (double component : factors[k]) {
+                    actualMaximum = Math.max(actualMaximum, Math.abs(component));
+                }
+            }
+            int quantisedMaximum = (int) Math.max(0, Math.min(82, Math.floor(actualMaximum * 166 - 0.5)));
+            maximumValue = (quantisedMaximum + 1) / 166.0;
+            encode83(hash, quantisedMaximum, 1);
+        } else {
+            maximumValue = 1;
+            encode83(hash, 0, 1);
+        }
+
+        double[] dc = factors[0];
+        encode83(hash, (linearToSrgb(dc[0]) << 16) + (linearToSrgb(dc[1]) << 8) + linearToSrgb(dc[2]), 4);
+        for (int k = 1; k < factors.length; k++) {
+            double[] ac = factors[k];
+            int value = quantiseAc(ac[0], maximumValue) * 19 * 19
+                    + quantiseAc(ac[1], maximumValue) * 19
+                    + quantiseAc(ac[2], maximumValue);
+            encode83(hash, value, 2);
+        }
+        return hash.toString();
+    }
+
+    private static int quantiseAc(double value, double maximumValue) {
+        double scaled = Math.copySign(Math.pow(Math.abs(value / maximumValue), 0.5), value);
+        return (int) Math.max(0, Math.min(18, Math.floor(scaled * 9 + 9.5)));
+    }
+
+    private static double srgbToLinear(int value) {
+        double v = value / 255.0;
+        return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+    }
+
+    private static int linearToSrgb(double value) {
+        double v = Math.max(0, Math.min(1, value));
+        return v <= 0.0031308
+                ? (int) (v * 12.92 * 255 + 0.5)
+                : (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+
+    private static void encode83(StringBuilder hash, int value, int length) {
+        int divisor = 1;
+        for (int i = 1; i < length; i++) {
+            divisor *= 83;
+        }
+        for (int i = 0; i < length; i++) {
+            hash.append(BASE83.charAt((value / divisor) % 83));
+            divisor /= 83;
+        }
+    }
+}
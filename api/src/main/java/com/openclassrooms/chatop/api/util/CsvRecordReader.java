@@ -0,0 +1,116 @@
+package com.openclassrooms.chatop.api.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming CSV reader (RFC 4180).
+ * Reads one record at a time so arbitrarily large files can be processed with constant memory.
+ * Supports quoted fields containing separators, escaped quotes ("") and line breaks.
+ */
+public class CsvRecordReader implements Closeable {
+
+    private static final int NO_PUSHBACK = -2;
+
+    private final Reader reader;
+    private int pushback = NO_PUSHBACK;
+    private long lineNumber = 1;
+    private long recordLineNumber;
+    private boolean firstChar = true;
+
+    public CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Read the next record.
+     *
+     * @return the fields of the record, or null at end of input
+     * @throws IOException if the underlying reader fails
+     */
+    public List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+        boolean empty = true;
+        recordLineNumber = lineNumber;
+
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                if (empty) {
+                    return null;
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            empty = false;
+
+            if (inQuotes) {
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                        pushback = next;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        pushback = next;
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } else if (c == '"' && field.isEmpty()) {
+                inQuotes = true;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    /**
+     * @return the line number on which the last record returned by {@link #readRecord()} started
+     */
+    public long getRecordLineNumber() {
+        return recordLineNumber;
+    }
+
+    private int read() throws IOException {
+        int c;
+        if (pushback != NO_PUSHBACK) {
+            c = pushback;
+            pushback = NO_PUSHBACK;
+            return c;
+        }
+        c = reader.read();
+        // Skip the UTF-8 byte order mark written by spreadsheet tools
+        if (firstChar) {
+            firstChar = false;
+            if (c == '\uFEFF') {
+                c = reader.read();
+            }
+        }
+        if (c == '\n') {
+            lineNumber++;
+        }
+        return c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,140 @@
+package com.openclassrooms.chatop.api.util;
+
+import com.openclassrooms.chatop.api.exception.InvalidFileException;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * Extracts picture metadata once, when a picture is stored, so no read path ever decodes an image.
+ * Dimensions come from the image header; the dominant color and BlurHash are computed from a
+ * subsampled decode (at most {@value #PREVIEW_SIZE} pixels a side), which keeps large pictures cheap.
+ *
+ * <p>Formats ImageIO cannot decode (WebP on a stock JDK) and corrupt files only get their format
+ * and size. Pictures above {@value #MAX_PIXELS} pixels are rejected from their header, before any
+ * decode: a small file can declare dimensions whose decoding would exhaust the heap.</p>
+ */
+public final class ImageMetadataExtractor {
+
+    private static final long MAX_PIXELS = 50_000_000L;
+    private static final int PREVIEW_SIZE = 64;
+    private static final int BLURHASH_COMPONENTS_X = 4;
+    private static final int BLURHASH_COMPONENTS_Y = 3;
+
+    private ImageMetadataExtractor() {
+    }
+
+    /**
+     * Extract the metadata of a picture.
+     *
+     * @param content   the picture content, consumed but not closed
+     * @param size      the picture size in bytes
+     * @param extension the file extension, used as format when the picture cannot be decoded
+     * @return the metadata, with null dimensions, color and hash if the picture cannot be decoded
+     * @throws InvalidFileException if the picture has more than {@value #MAX_PIXELS} pixels
+     */
+    public static ImageMetadata extract(InputStream content, long size, String extension) {
+        String fallbackFormat = normalizeFormat(extension);
+        try (ImageInputStream input = new MemoryCacheImageInputStream(content)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return new ImageMetadata(null, null, fallbackFormat, size, null, null);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    throw new InvalidFileException("Picture dimensions exceed the maximum allowed limit of 50 megapixels.");
+                }
+                String format = normalizeFormat(reader.getFormatName());
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / PREVIEW_SIZE);
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage preview = reader.read(0, param);
+
+                int[] rgb = preview.getRGB(0, 0, preview.getWidth(), preview.getHeight(), null, 0, preview.getWidth());
+                return new ImageMetadata(
+                        width,
+                        height,
+                        format,
+                        size,
+                        dominantColor(rgb),
+                        BlurHash.encode(rgb, preview.getWidth(), preview.getHeight(),
+                                BLURHASH_COMPONENTS_X, BLURHASH_COMPONENTS_Y)
+                );
+            } finally {
+                reader.dispose();
+            }
+        } catch (InvalidFileException ex) {
+            throw ex;
+        } catch (IOException | RuntimeException ex) {
+            return new ImageMetadata(null, null, fallbackFormat, size, null, null);
+        }
+    }
+
+    /**
+     * Most common color, as #rrggbb: pixels are grouped in 4-bit-per-channel buckets and the
+     * fullest bucket is averaged. Unlike the mean color, a red roof on a grey background stays grey.
+     */
+    static String dominantColor(int[] rgb) {
+        int[] counts = new int[4096];
+        long[] red = new long[4096];
+        long[] green = new long[4096];
+        long[] blue = new long[4096];
+        int best = 0;
+        for (int pixel : rgb) {
+            int r = (pixel >> 16) & 0xFF;
+            int g = (pixel >> 8) & 0xFF;
+            int b = pixel & 0xFF;
+            int bucket = (r >> 4) << 8 | (g >> 4) << 4 | (b >> 4);
+            counts[bucket]++;
+            red[bucket] += r;
+            green[bucket] += g;
+            blue[bucket] += b;
+            if (counts[bucket] > counts[best]) {
+                best = bucket;
+            }
+        }
+        int count = Math.max(1, counts[best]);
+        return String.format(Locale.ROOT, "#%02x%02x%02x", red[best] / count, green[best] / count, blue[best] / count);
+    }
+
+    private static String normalizeFormat(String format) {
+        if (format == null || format.isBlank()) {
+            return null;
+        }
+        String lower = format.toLowerCase(Locale.ROOT);
+        return "jpg".equals(lower) ? "jpeg" : lower;
+    }
+
+    /**
+     * Picture metadata.
+     *
+     * @param width         width in pixels, null if the picture could not be decoded
+     * @param height        height in pixels, null if the picture could not be decoded
+     * @param format        image format (jpeg, png, gif, webp)
+     * @param size          size in bytes
+     * @param dominantColor most common color as #rrggbb, null if the picture could not be decoded
+     * @param blurhash      BlurHash placeholder, null if the picture could not be decoded
+     */
+    public record ImageMetadata(
+            Integer width,
+            Integer height,
+            String format,
+            long size,
+            String dominantColor,
+            String blurhash
+    ) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.openclassrooms.chatop.api.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket implemented with the Generic Cell Rate Algorithm (GCRA).
+ * The whole bucket state is one "theoretical arrival time" updated by compare-and-set,
+ * so concurrent requests never block each other and an idle bucket needs no refill task.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * Create a full bucket.
+     *
+     * @param capacity   the maximum burst (tokens available when the bucket is full)
+     * @param period     the time to refill the whole bucket
+     * @param nowNanos   the current time, from System.nanoTime()
+     */
+    public TokenBucket(int capacity, Duration period, long nowNanos) {
+        this.emissionIntervalNanos = Math.max(1, period.toNanos() / capacity);
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Try to take one token.
+     *
+     * @param nowNanos the current time, from System.nanoTime()
+     * @return the outcome, with the remaining tokens or the wait before the next one
+     */
+    public Result tryConsume(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long wait = tat - burstToleranceNanos - nowNanos;
+            if (wait > 0) {
+                return new Result(false, 0, wait);
+            }
+
+            long newTat = Math.max(tat, nowNanos) + emissionIntervalNanos;
+            if (theoreticalArrival.compareAndSet(tat, newTat)) {
+                long remaining = (burstToleranceNanos - (newTat - emissionIntervalNanos - nowNanos)) / emissionIntervalNanos;
+                return new Result(true, remaining, 0);
+            }
+        }
+    }
+
+    /**
+     * Outcome of a consumption attempt.
+     *
+     * @param allowed     whether a token was taken
+     * @param remaining   tokens left after this one, when allowed
+     * @param waitNanos   time until a token is available, when rejected
+     */
+    public record Result(boolean allowed, long remaining, long waitNanos) {
+    }
+}
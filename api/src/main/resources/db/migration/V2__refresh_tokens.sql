@@ -0,0 +1,18 @@
+-- Rotating refresh tokens, stored as SHA-256 hashes and grouped by family for reuse detection.
+CREATE TABLE `REFRESH_TOKENS` (
+  `id` bigint PRIMARY KEY AUTO_INCREMENT,
+  `token_hash` char(64) NOT NULL,
+  `family_id` char(36) NOT NULL,
+  `user_id` integer NOT NULL,
+  `expires_at` timestamp NOT NULL,
+  `revoked` boolean NOT NULL DEFAULT false,
+  `created_at` timestamp
+);
+
+CREATE UNIQUE INDEX `REFRESH_TOKENS_hash_index` ON `REFRESH_TOKENS` (`token_hash`);
+
+CREATE INDEX `REFRESH_TOKENS_family_index` ON `REFRESH_TOKENS` (`family_id`);
+
+CREATE INDEX `REFRESH_TOKENS_expires_index` ON `REFRESH_TOKENS` (`expires_at`);
+
+ALTER TABLE `REFRESH_TOKENS` ADD FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`) ON DELETE CASCADE;
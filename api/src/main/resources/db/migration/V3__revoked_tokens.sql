@@ -0,0 +1,10 @@
+-- Revoked access tokens (by jti), kept until they expire.
+CREATE TABLE `REVOKED_TOKENS` (
+  `jti` char(36) PRIMARY KEY,
+  `expires_at` timestamp NOT NULL,
+  `revoked_at` timestamp NOT NULL
+);
+
+CREATE INDEX `REVOKED_TOKENS_expires_index` ON `REVOKED_TOKENS` (`expires_at`);
+
+CREATE INDEX `REVOKED_TOKENS_revoked_index` ON `REVOKED_TOKENS` (`revoked_at`);
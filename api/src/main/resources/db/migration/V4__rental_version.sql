@@ -0,0 +1,2 @@
+-- Optimistic locking of rentals, exposed as ETag.
+ALTER TABLE `RENTALS` ADD COLUMN `version` bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,11 @@
+-- Picture metadata, extracted once when a picture is stored.
+CREATE TABLE `PICTURE_METADATA` (
+  `url` varchar(255) PRIMARY KEY,
+  `width` integer,
+  `height` integer,
+  `format` varchar(16),
+  `size_bytes` bigint NOT NULL,
+  `dominant_color` char(7),
+  `blurhash` varchar(64),
+  `created_at` timestamp
+);
@@ -0,0 +1,14 @@
+-- Indexes for the repository access paths, checked at startup by QueryPlanVerifier.
+-- They replace the indexes MySQL created implicitly for the foreign keys on owner_id, rental_id and user_id.
+
+-- Rentals of an owner, newest first (owner dashboard)
+CREATE INDEX `RENTALS_owner_index` ON `RENTALS` (`owner_id`, `created_at`);
+
+-- Newest rentals, keyset pagination on (created_at, id)
+CREATE INDEX `RENTALS_created_index` ON `RENTALS` (`created_at`, `id`);
+
+-- Messages of a rental: count and latest date are read from the index alone
+CREATE INDEX `MESSAGES_rental_index` ON `MESSAGES` (`rental_id`, `created_at`);
+
+-- Messages of a user, newest first
+CREATE INDEX `MESSAGES_user_index` ON `MESSAGES` (`user_id`, `created_at`);
@@ -0,0 +1,5 @@
+-- View counts of the rentals, incremented in batches by RentalViewCounter (see RentalBatchRepository.addViews).
+ALTER TABLE `RENTALS` ADD COLUMN `view_count` bigint NOT NULL DEFAULT 0;
+
+-- Most viewed rentals
+CREATE INDEX `RENTALS_views_index` ON `RENTALS` (`view_count`, `id`);
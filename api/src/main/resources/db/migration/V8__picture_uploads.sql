@@ -0,0 +1,10 @@
+-- Picture keys issued for direct uploads, each usable once by the user it was issued to.
+CREATE TABLE `PICTURE_UPLOADS` (
+  `picture_key` varchar(64) PRIMARY KEY,
+  `user_id` integer NOT NULL,
+  `expires_at` timestamp NOT NULL
+);
+
+CREATE INDEX `PICTURE_UPLOADS_expires_index` ON `PICTURE_UPLOADS` (`expires_at`);
+
+ALTER TABLE `PICTURE_UPLOADS` ADD FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`) ON DELETE CASCADE;
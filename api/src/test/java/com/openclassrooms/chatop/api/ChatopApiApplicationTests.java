@@ -3,7 +3,11 @@ package com.openclassrooms.chatop.api;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// No database here: nothing to migrate or explain
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=false",
+        "app.query-plan-check.mode=off"
+})
 class ChatopApiApplicationTests {
 
     @Test
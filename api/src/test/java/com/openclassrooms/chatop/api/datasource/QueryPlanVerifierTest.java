@@ -0,0 +1,74 @@
+package com.openclassrooms.chatop.api.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for QueryPlanVerifier.
+ */
+class QueryPlanVerifierTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), anyString(), anyString())).thenReturn(1);
+        when(jdbcTemplate.queryForList(startsWith("EXPLAIN"))).thenReturn(List.of(plan("ALL", null, 5000)));
+    }
+
+    private static Map<String, Object> plan(String type, String key, long rows) {
+        Map<String, Object> plan = new HashMap<>();
+        plan.put("type", type);
+        plan.put("key", key);
+        plan.put("rows", rows);
+        plan.put("Extra", null);
+        return plan;
+    }
+
+    @Test
+    @DisplayName("Should report missing indexes and full scans of large tables")
+    void shouldReportProblems() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq("USERS"), eq("USERS_index"))).thenReturn(0);
+        when(jdbcTemplate.queryForList("EXPLAIN SELECT id FROM RENTALS ORDER BY created_at DESC, id DESC LIMIT 20"))
+                .thenReturn(List.of(plan("index", "RENTALS_created_index", 20)));
+
+        List<String> problems = new QueryPlanVerifier(jdbcTemplate, QueryPlanVerifier.Mode.WARN).findProblems();
+
+        assertThat(problems).hasSize(6);
+        assertThat(problems).anyMatch(problem -> problem.contains("USERS.USERS_index is missing"));
+        assertThat(problems).noneMatch(problem -> problem.startsWith("- newest rentals"));
+    }
+
+    @Test
+    @DisplayName("Should accept full scans of small tables")
+    void shouldAcceptSmallTables() {
+        when(jdbcTemplate.queryForList(startsWith("EXPLAIN"))).thenReturn(List.of(plan("ALL", null, 10)));
+
+        assertThat(new QueryPlanVerifier(jdbcTemplate, QueryPlanVerifier.Mode.WARN).findProblems()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should fail the startup in fail mode")
+    void shouldFailInFailMode() {
+        QueryPlanVerifier verifier = new QueryPlanVerifier(jdbcTemplate, QueryPlanVerifier.Mode.FAIL);
+
+        assertThatThrownBy(verifier::verify)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("rentals of an owner");
+    }
+}
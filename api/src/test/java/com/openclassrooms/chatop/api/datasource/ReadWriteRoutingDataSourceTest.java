@@ -0,0 +1,141 @@
+package com.openclassrooms.chatop.api.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ReadWriteRoutingDataSource.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private final AtomicReference<String> user = new AtomicReference<>();
+    private Connection primaryConnection;
+    private Connection replicaConnection;
+    private ResultSet replicaStatus;
+    private DataSource primary;
+    private DataSource replica;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primaryConnection = mock(Connection.class);
+        replicaConnection = mock(Connection.class);
+        replicaStatus = mock(ResultSet.class);
+        primary = mock(DataSource.class);
+        replica = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        Statement statement = mock(Statement.class);
+        when(replicaConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery("SHOW REPLICA STATUS")).thenReturn(replicaStatus);
+        when(replicaStatus.next()).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+
+    private ReadWriteRoutingDataSource routing(Duration maxLag) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+                primary, Map.of("replica-1", replica), maxLag, Duration.ofSeconds(10), user::get);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    private void replicaLag(long seconds) throws SQLException {
+        when(replicaStatus.getLong("Seconds_Behind_Source")).thenReturn(seconds);
+    }
+
+    private Connection read(ReadWriteRoutingDataSource routing) throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        return routing.getConnection();
+    }
+
+    private void commitWrite(ReadWriteRoutingDataSource routing) throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        TransactionSynchronizationManager.clear();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @Test
+    @DisplayName("Should send read-only transactions to a replica within the lag limit")
+    void shouldReadFromReplica() throws SQLException {
+        replicaLag(1);
+        ReadWriteRoutingDataSource routing = routing(Duration.ofSeconds(2));
+        routing.checkReplicas();
+
+        assertThat(read(routing)).isSameAs(replicaConnection);
+        assertThat(routing.replicaLag("replica-1")).contains(Duration.ofSeconds(1));
+    }
+
+    @Test
+    @DisplayName("Should read from the primary while no replica qualifies")
+    void shouldFallBackToPrimary() throws SQLException {
+        ReadWriteRoutingDataSource routing = routing(Duration.ofSeconds(2));
+
+        // Before the first check
+        assertThat(read(routing)).isSameAs(primaryConnection);
+
+        replicaLag(5);
+        routing.checkReplicas();
+        assertThat(read(routing)).isSameAs(primaryConnection);
+
+        // Replication stopped
+        when(replicaStatus.wasNull()).thenReturn(true);
+        routing.checkReplicas();
+        assertThat(read(routing)).isSameAs(primaryConnection);
+        assertThat(routing.replicaLag("replica-1")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep a user's reads on the primary after their own write")
+    void shouldReadYourWrites() throws SQLException {
+        replicaLag(0);
+        ReadWriteRoutingDataSource routing = routing(Duration.ZERO);
+        routing.checkReplicas();
+
+        user.set("alice@example.com");
+        commitWrite(routing);
+
+        assertThat(read(routing)).isSameAs(primaryConnection);
+        user.set("bob@example.com");
+        assertThat(read(routing)).isSameAs(replicaConnection);
+    }
+
+    @Test
+    @DisplayName("Should keep other users on the replicas after a write")
+    void shouldNotFenceOtherUsers() throws SQLException {
+        replicaLag(0);
+        ReadWriteRoutingDataSource routing = routing(Duration.ofMinutes(1));
+        routing.checkReplicas();
+
+        // e.g. a scheduled job
+        commitWrite(routing);
+        user.set("alice@example.com");
+        commitWrite(routing);
+
+        user.set("bob@example.com");
+        assertThat(read(routing)).isSameAs(replicaConnection);
+    }
+}
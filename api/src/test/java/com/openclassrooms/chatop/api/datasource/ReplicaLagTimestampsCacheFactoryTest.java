@@ -0,0 +1,55 @@
+package com.openclassrooms.chatop.api.datasource;
+
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.cache.spi.TimestampsRegion;
+import org.hibernate.cache.spi.support.SimpleTimestamper;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ReplicaLagTimestampsCacheFactory.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReplicaLagTimestampsCacheFactoryTest {
+
+    private static final long NOW = 1_000_000L * SimpleTimestamper.ONE_MS;
+
+    @Mock
+    private CacheImplementor cache;
+
+    @Mock
+    private RegionFactory regionFactory;
+
+    @Mock
+    private TimestampsRegion region;
+
+    @Mock
+    private SharedSessionContractImplementor session;
+
+    @Test
+    @DisplayName("Should record each written table as changed until the lag limit has passed")
+    void shouldInvalidateUntilReplicasCatchUp() {
+        when(cache.getRegionFactory()).thenReturn(regionFactory);
+        when(regionFactory.nextTimestamp()).thenReturn(NOW);
+        TimestampsCache timestamps = new ReplicaLagTimestampsCacheFactory(Duration.ofSeconds(2))
+                .buildTimestampsCache(cache, region);
+
+        timestamps.invalidate(new String[]{"RENTALS", "USERS"}, session);
+
+        // Cached query results over these tables are only served if computed after this time
+        long until = NOW + 2_000L * SimpleTimestamper.ONE_MS;
+        verify(region).putIntoCache("RENTALS", until, session);
+        verify(region).putIntoCache("USERS", until, session);
+    }
+}
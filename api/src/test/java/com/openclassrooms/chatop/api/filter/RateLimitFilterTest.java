@@ -0,0 +1,99 @@
+package com.openclassrooms.chatop.api.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.chatop.api.config.RateLimitProperties;
+import com.openclassrooms.chatop.api.security.JwtClaimsResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RateLimitFilter.
+ * Tests per-client buckets, the 429 response and the metrics.
+ */
+@ExtendWith(MockitoExtension.class)
+class RateLimitFilterTest {
+
+    @Mock
+    private JwtClaimsResolver jwtClaimsResolver;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        RateLimitProperties properties = new RateLimitProperties(true, 1000, Map.of(
+                EndpointGroup.AUTH, new RateLimitProperties.Limit(2, Duration.ofMinutes(1))
+        ));
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        filter = new RateLimitFilter(properties, jwtClaimsResolver, new ProblemResponseWriter(objectMapper), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should reject requests over the limit with 429 and Retry-After")
+    void shouldRejectOverLimit() throws Exception {
+        assertThat(login("10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(login("10.0.0.1").getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse rejected = login("10.0.0.1");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("30");
+        assertThat(rejected.getContentType()).isEqualTo("application/problem+json");
+        assertThat(rejected.getContentAsString()).contains("\"title\":\"Too Many Requests\"");
+        verify(filterChain, times(2)).doFilter(any(), any());
+        assertThat(meterRegistry.get("chatop.rate_limit.requests").tag("group", "auth").tag("outcome", "rejected").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep a separate bucket per client")
+    void shouldIsolateClients() throws Exception {
+        login("10.0.0.1");
+        login("10.0.0.1");
+
+        assertThat(login("10.0.0.1").getStatus()).isEqualTo(429);
+        assertThat(login("10.0.0.2").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should not limit groups without configured limits")
+    void shouldSkipUnlimitedGroups() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/rentals");
+            request.setContextPath("/api");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, filterChain);
+            assertThat(response.getStatus()).isEqualTo(200);
+        }
+    }
+
+    private MockHttpServletResponse login(String ip) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setContextPath("/api");
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, filterChain);
+        return response;
+    }
+}
@@ -0,0 +1,176 @@
+package com.openclassrooms.chatop.api.filter;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for ZstdCompressionFilter.
+ * Tests Accept-Encoding negotiation, the size threshold and the compressed body.
+ */
+class ZstdCompressionFilterTest {
+
+    private static final String LARGE_BODY = "{\"rentals\":[" + "{\"name\":\"Seaside apartment\"},".repeat(200) + "{}]}";
+
+    private final ZstdCompressionFilter filter = new ZstdCompressionFilter(
+            new String[]{"application/json", "application/x-ndjson"}, DataSize.ofBytes(1024));
+
+    @Nested
+    @DisplayName("Accept-Encoding negotiation")
+    class Negotiation {
+
+        @Test
+        @DisplayName("Should accept zstd unless its quality is zero")
+        void shouldParseAcceptEncoding() {
+            assertThat(ZstdCompressionFilter.acceptsZstd("gzip, deflate, br, zstd")).isTrue();
+            assertThat(ZstdCompressionFilter.acceptsZstd("zstd;q=0.5, gzip")).isTrue();
+            assertThat(ZstdCompressionFilter.acceptsZstd("zstd;q=0")).isFalse();
+            assertThat(ZstdCompressionFilter.acceptsZstd("gzip, br")).isFalse();
+            assertThat(ZstdCompressionFilter.acceptsZstd(null)).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("Compression")
+    class Compression {
+
+        @Test
+        @DisplayName("Should compress large JSON responses with zstd")
+        void shouldCompressLargeResponses() throws Exception {
+            MockHttpServletResponse response = execute("zstd", "application/json", LARGE_BODY);
+
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("zstd");
+            assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+            assertThat(response.getContentAsByteArray().length).isLessThan(LARGE_BODY.length());
+            assertThat(decompress(response.getContentAsByteArray())).isEqualTo(LARGE_BODY);
+        }
+
+        @Test
+        @DisplayName("Should send small responses unchanged")
+        void shouldNotCompressSmallResponses() throws Exception {
+            MockHttpServletResponse response = execute("zstd", "application/json", "{\"message\":\"ok\"}");
+
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+            assertThat(response.getContentAsString()).isEqualTo("{\"message\":\"ok\"}");
+            assertThat(response.getContentLength()).isEqualTo(16);
+        }
+
+        @Test
+        @DisplayName("Should send other content types unchanged")
+        void shouldNotCompressOtherTypes() throws Exception {
+            MockHttpServletResponse response = execute("zstd", "image/jpeg", LARGE_BODY);
+
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+            assertThat(response.getContentAsString()).isEqualTo(LARGE_BODY);
+        }
+
+        @Test
+        @DisplayName("Should not touch responses when zstd is not accepted")
+        void shouldSkipWhenNotAccepted() throws Exception {
+            MockHttpServletResponse response = execute("gzip", "application/json", LARGE_BODY);
+
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+            assertThat(response.getHeader(HttpHeaders.VARY)).isNull();
+            assertThat(response.getContentAsString()).isEqualTo(LARGE_BODY);
+        }
+    }
+
+    @Nested
+    @DisplayName("Non-blocking writes")
+    class NonBlocking {
+
+        @Test
+        @DisplayName("Should pass non-blocking writes through to the container's stream")
+        void shouldPassThroughNonBlockingWrites() throws Exception {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/rentals/export");
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, "zstd");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            NonBlockingOutputStream container = new NonBlockingOutputStream(response.getOutputStream());
+            HttpServletResponseWrapper containerResponse = new HttpServletResponseWrapper(response) {
+                @Override
+                public ServletOutputStream getOutputStream() {
+                    return container;
+                }
+            };
+            WriteListener listener = mock(WriteListener.class);
+
+            FilterChain chain = (req, res) -> {
+                res.setContentType("application/x-ndjson");
+                ServletOutputStream out = res.getOutputStream();
+                out.setWriteListener(listener);
+                assertThat(out.isReady()).isTrue();
+                out.write(LARGE_BODY.getBytes(StandardCharsets.UTF_8));
+            };
+            filter.doFilter(request, containerResponse, chain);
+
+            assertThat(container.listener).isSameAs(listener);
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+            assertThat(response.getContentAsString()).isEqualTo(LARGE_BODY);
+        }
+    }
+
+    /**
+     * Container stream supporting non-blocking writes.
+     */
+    private static final class NonBlockingOutputStream extends ServletOutputStream {
+
+        private final OutputStream out;
+        private WriteListener listener;
+
+        NonBlockingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+        }
+
+        @Override
+        public boolean isReady() {
+            return listener != null;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            this.listener = writeListener;
+        }
+    }
+
+    private MockHttpServletResponse execute(String acceptEncoding, String contentType, String body) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/rentals");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        FilterChain chain = (req, res) -> {
+            res.setContentType(contentType);
+            res.setCharacterEncoding("UTF-8");
+            res.getWriter().write(body);
+        };
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private String decompress(byte[] compressed) throws IOException {
+        try (ZstdInputStream in = new ZstdInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
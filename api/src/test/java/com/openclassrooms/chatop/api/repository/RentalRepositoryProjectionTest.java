@@ -0,0 +1,168 @@
+package com.openclassrooms.chatop.api.repository;
+
+import com.openclassrooms.chatop.api.dto.RentalDTO;
+import com.openclassrooms.chatop.api.model.Rental;
+import com.openclassrooms.chatop.api.model.User;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the rental DTO projection against the entity query it replaced
+ * ({@code SELECT r FROM Rental r JOIN FETCH r.owner}, whose entities were then mapped to DTOs).
+ * H2 stands in for MySQL: the query shape, the entities loaded and the allocations per read
+ * depend on Hibernate rather than on the database.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=org.hibernate.cache.internal.NoCachingRegionFactory",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.openclassrooms.chatop.api.repository.RentalRepositoryProjectionTest$RecordingInspector",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+})
+// Written by JDBC only, Hibernate leaves the column out of its inserts
+@Sql(statements = "ALTER TABLE RENTALS ALTER COLUMN view_count SET DEFAULT 0")
+@Slf4j
+class RentalRepositoryProjectionTest {
+
+    private static final int RENTALS = 500;
+    private static final int ROUNDS = 20;
+    private static final String ENTITY_QUERY = "SELECT r FROM Rental r JOIN FETCH r.owner";
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < RENTALS; i++) {
+            User owner = new User();
+            owner.setEmail("owner" + i + "@example.com");
+            owner.setName("Owner " + i);
+            owner.setPassword("$2a$10$" + "x".repeat(53));
+            entityManager.persist(owner);
+
+            Rental rental = new Rental();
+            rental.setName("Rental " + i);
+            rental.setSurface(BigDecimal.valueOf(50));
+            rental.setPrice(BigDecimal.valueOf(900));
+            rental.setPicture("http://localhost/uploads/" + i + ".jpg");
+            rental.setDescription("Description " + i);
+            rental.setOwner(owner);
+            entityManager.persist(rental);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        RecordingInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    @DisplayName("Should read rentals without joining USERS or loading entities")
+    void shouldSkipOwnersAndEntities() {
+        List<Rental> entities = entityManager.createQuery(ENTITY_QUERY, Rental.class).getResultList();
+        String entitySql = RecordingInspector.STATEMENTS.poll();
+
+        assertThat(entities).hasSize(RENTALS);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(2L * RENTALS);
+        assertThat(session().getStatistics().getEntityCount()).isEqualTo(2 * RENTALS);
+        assertThat(entitySql).containsIgnoringCase("join users").containsIgnoringCase("password");
+
+        entityManager.clear();
+        statistics.clear();
+
+        List<RentalDTO> projected = rentalRepository.findAllProjected();
+        String projectedSql = RecordingInspector.STATEMENTS.poll();
+
+        assertThat(projected).hasSize(RENTALS);
+        assertThat(projected.get(0).owner_id()).isNotNull();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(session().getStatistics().getEntityCount()).isZero();
+        assertThat(projectedSql).doesNotContainIgnoringCase("users").doesNotContainIgnoringCase("password");
+    }
+
+    @Test
+    @DisplayName("Should allocate less per read than loading entities")
+    void shouldAllocateLess() {
+        long entityBytes = allocatedPerRead(() -> entityManager.createQuery(ENTITY_QUERY, Rental.class).getResultList());
+        long projectedBytes = allocatedPerRead(rentalRepository::findAllProjected);
+
+        log.info("Rental listing of {} rows: entities {} KB, projection {} KB per read",
+                RENTALS, entityBytes / 1024, projectedBytes / 1024);
+        assertThat(projectedBytes).isLessThan(entityBytes);
+    }
+
+    /**
+     * Median bytes allocated by the current thread per read, each read with an empty persistence context.
+     */
+    private long allocatedPerRead(Supplier<List<?>> read) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long[] samples = new long[ROUNDS];
+        // Warm-up: query plans, JIT
+        for (int i = 0; i < ROUNDS; i++) {
+            read.get();
+            entityManager.clear();
+        }
+        for (int i = 0; i < ROUNDS; i++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            int rows = read.get().size();
+            // Flushing at commit dirty-checks every managed entity, part of the cost of a read
+            entityManager.flush();
+            samples[i] = threads.getThreadAllocatedBytes(threadId) - before;
+            entityManager.clear();
+            assertThat(rows).isEqualTo(RENTALS);
+        }
+        Arrays.sort(samples);
+        return samples[ROUNDS / 2];
+    }
+
+    private Session session() {
+        return entityManager.unwrap(Session.class);
+    }
+
+    /**
+     * Records the SQL Hibernate sends.
+     */
+    public static class RecordingInspector implements StatementInspector {
+
+        static final Queue<String> STATEMENTS = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.openclassrooms.chatop.api.repository;
+
+import com.openclassrooms.chatop.api.model.RevokedToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Repository tests for RevokedTokenRepository.
+ * Run without a test transaction: the scheduled prune calls the repository without one.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=org.hibernate.cache.internal.NoCachingRegionFactory"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RevokedTokenRepositoryTest {
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @AfterEach
+    void tearDown() {
+        revokedTokenRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should delete the revocations of expired tokens outside of any transaction")
+    void shouldDeleteExpired() {
+        // Given
+        Instant now = Instant.now();
+        revokedTokenRepository.saveAll(List.of(
+                new RevokedToken("expired", now.minus(Duration.ofMinutes(1)), now.minus(Duration.ofMinutes(20))),
+                new RevokedToken("valid", now.plus(Duration.ofMinutes(10)), now)
+        ));
+
+        // When
+        int deleted = revokedTokenRepository.deleteExpired(now);
+
+        // Then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(revokedTokenRepository.findAll())
+                .extracting(RevokedToken::getJti)
+                .containsExactly("valid");
+    }
+}
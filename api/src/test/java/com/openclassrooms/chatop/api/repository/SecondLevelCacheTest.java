@@ -0,0 +1,170 @@
+package com.openclassrooms.chatop.api.repository;
+
+import com.openclassrooms.chatop.api.config.HibernateCacheConfig;
+import com.openclassrooms.chatop.api.config.HibernateCacheProperties;
+import com.openclassrooms.chatop.api.config.ReadReplicaProperties;
+import com.openclassrooms.chatop.api.dto.RentalDTO;
+import com.openclassrooms.chatop.api.model.Rental;
+import com.openclassrooms.chatop.api.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Second-level and query cache behaviour, with the regions of HibernateCacheConfig.
+ * Run without a test transaction: each repository call has its own session, as in a request.
+ * H2 stands in for MySQL, statement counts come from Hibernate statistics.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.datasource.read-replicas.urls=",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+})
+@Import({HibernateCacheConfig.class, SecondLevelCacheTest.CacheConfig.class})
+// Written by JDBC only, Hibernate leaves the column out of its inserts
+@Sql(statements = "ALTER TABLE RENTALS ALTER COLUMN view_count SET DEFAULT 0")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(user("owner@example.com"));
+        rentalRepository.save(rental("Seaside apartment"));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        rentalRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should find a user by email again without querying the database")
+    void shouldCacheNaturalIdLookups() {
+        assertThat(userRepository.findByEmail("owner@example.com")).isPresent();
+        long statements = statistics.getPrepareStatementCount();
+        assertThat(statements).isPositive();
+
+        assertThat(userRepository.findByEmail("owner@example.com"))
+                .hasValueSatisfying(user -> assertThat(user.getId()).isEqualTo(owner.getId()));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(statistics.getNaturalIdCacheHitCount()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should find cached users and rentals by id without querying the database")
+    void shouldCacheEntities() {
+        Long rentalId = rentalRepository.findAll().get(0).getId();
+        assertThat(userRepository.findById(owner.getId())).isPresent();
+        assertThat(rentalRepository.findById(rentalId)).isPresent();
+        long statements = statistics.getPrepareStatementCount();
+
+        assertThat(userRepository.findById(owner.getId())).isPresent();
+        assertThat(rentalRepository.findById(rentalId)).isPresent();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(statistics.getDomainDataRegionStatistics("users").getHitCount()).isPositive();
+        assertThat(statistics.getDomainDataRegionStatistics("rentals").getHitCount()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should serve rental projections from the query cache until a rental is written")
+    void shouldInvalidateRentalQueriesOnWrite() {
+        assertThat(findAllProjected()).hasSize(1);
+        long statements = statistics.getPrepareStatementCount();
+
+        assertThat(findAllProjected()).hasSize(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(statistics.getQueryRegionStatistics(RentalRepository.QUERY_CACHE_REGION).getHitCount()).isEqualTo(1);
+
+        rentalRepository.save(rental("Mountain chalet"));
+        long afterWrite = statistics.getPrepareStatementCount();
+
+        assertThat(findAllProjected()).extracting(RentalDTO::name)
+                .containsExactlyInAnyOrder("Seaside apartment", "Mountain chalet");
+        assertThat(statistics.getPrepareStatementCount()).isGreaterThan(afterWrite);
+    }
+
+    // Read-only like the service methods calling it
+    private List<RentalDTO> findAllProjected() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> rentalRepository.findAllProjected());
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setName("Owner");
+        user.setPassword("$2a$10$" + "x".repeat(53));
+        return user;
+    }
+
+    private Rental rental(String name) {
+        Rental rental = new Rental();
+        rental.setName(name);
+        rental.setSurface(BigDecimal.valueOf(50));
+        rental.setPrice(BigDecimal.valueOf(900));
+        rental.setPicture("http://localhost/uploads/" + name.hashCode() + ".jpg");
+        rental.setOwner(owner);
+        return rental;
+    }
+
+    /**
+     * What the application context adds to the slice for HibernateCacheConfig.
+     */
+    @TestConfiguration
+    @EnableConfigurationProperties({HibernateCacheProperties.class, ReadReplicaProperties.class})
+    static class CacheConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
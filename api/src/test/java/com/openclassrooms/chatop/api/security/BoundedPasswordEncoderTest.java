@@ -0,0 +1,144 @@
+package com.openclassrooms.chatop.api.security;
+
+import com.openclassrooms.chatop.api.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for BoundedPasswordEncoder.
+ * Tests delegation to the hashing policy and load shedding when the executor is saturated.
+ */
+class BoundedPasswordEncoderTest {
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Nested
+    @DisplayName("Hashing policy")
+    class HashingPolicy {
+
+        @Test
+        @DisplayName("Should match legacy unprefixed BCrypt hashes and flag them for upgrade")
+        void shouldMatchAndUpgradeLegacyHashes() {
+            BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+            DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+            delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+            BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(delegating, executor, Duration.ofSeconds(5));
+
+            String legacyHash = bcrypt.encode("secret");
+            String currentHash = encoder.encode("secret");
+
+            assertThat(encoder.matches("secret", legacyHash)).isTrue();
+            assertThat(encoder.upgradeEncoding(legacyHash)).isTrue();
+            assertThat(currentHash).startsWith("{bcrypt}");
+            assertThat(encoder.matches("secret", currentHash)).isTrue();
+            assertThat(encoder.upgradeEncoding(currentHash)).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("Load shedding")
+    class LoadShedding {
+
+        @Test
+        @DisplayName("Should reject hashing with 503 when the executor and its queue are full")
+        void shouldRejectWhenSaturated() {
+            CountDownLatch release = new CountDownLatch(1);
+            BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+                    new BlockingEncoder(release), executor, Duration.ofSeconds(5));
+
+            // Occupy the single thread and the single queue slot
+            executor.submit(() -> release.await(5, TimeUnit.SECONDS));
+            executor.submit(() -> release.await(5, TimeUnit.SECONDS));
+
+            try {
+                assertThatThrownBy(() -> encoder.encode("secret"))
+                        .isInstanceOf(ServiceUnavailableException.class)
+                        .extracting("retryAfterSeconds").isEqualTo(5L);
+            } finally {
+                release.countDown();
+            }
+        }
+
+        @Test
+        @DisplayName("Should give up with 503 when hashing waits longer than the timeout")
+        void shouldTimeOut() {
+            CountDownLatch release = new CountDownLatch(1);
+            BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+                    new BlockingEncoder(release), executor, Duration.ofMillis(50));
+
+            try {
+                assertThatThrownBy(() -> encoder.matches("secret", "hash"))
+                        .isInstanceOf(ServiceUnavailableException.class)
+                        .extracting("retryAfterSeconds").isEqualTo(1L);
+            } finally {
+                release.countDown();
+            }
+        }
+
+        @Test
+        @DisplayName("Should free the queue slot of a hash that timed out before starting")
+        void shouldPurgeTimedOutHashes() {
+            CountDownLatch release = new CountDownLatch(1);
+            BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+                    new BlockingEncoder(release), executor, Duration.ofMillis(50));
+
+            // Occupy the single thread, the hash waits in the queue
+            executor.submit(() -> release.await(5, TimeUnit.SECONDS));
+
+            try {
+                assertThatThrownBy(() -> encoder.encode("secret"))
+                        .isInstanceOf(ServiceUnavailableException.class);
+                assertThat(executor.getQueue()).isEmpty();
+            } finally {
+                release.countDown();
+            }
+        }
+    }
+
+    /**
+     * Encoder blocking until released, standing in for a slow hash.
+     */
+    private record BlockingEncoder(CountDownLatch release) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            await();
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            await();
+            return rawPassword.toString().equals(encodedPassword);
+        }
+
+        private void await() {
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.openclassrooms.chatop.api.serialization;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.openclassrooms.chatop.api.config.JacksonConfig;
+import com.openclassrooms.chatop.api.dto.MessageDTO;
+import com.openclassrooms.chatop.api.dto.PictureMetadataDTO;
+import com.openclassrooms.chatop.api.dto.RentalDTO;
+import com.openclassrooms.chatop.api.dto.RentalSummaryDTO;
+import com.openclassrooms.chatop.api.dto.UserDTO;
+import com.openclassrooms.chatop.api.dto.response.OwnerDashboardResponse;
+import com.openclassrooms.chatop.api.dto.response.RentalListResponse;
+import com.openclassrooms.chatop.api.dto.response.SuccessResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the hand-written DTO serializers.
+ * Each serializer must produce exactly the JSON of the reflection-based serializer.
+ */
+class DtoSerializersTest {
+
+    private ObjectMapper reflectionMapper;
+    private ObjectMapper fastMapper;
+
+    @BeforeEach
+    void setUp() {
+        // Same setup as the Spring Boot auto-configured ObjectMapper
+        reflectionMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        fastMapper = reflectionMapper.copy()
+                .registerModule(new JacksonConfig().dtoSerializationModule());
+    }
+
+    @Test
+    @DisplayName("Should serialize RentalDTO like the reflection-based serializer")
+    void shouldSerializeRentalLikeReflection() throws Exception {
+        RentalDTO rental = new RentalDTO(
+                1L, "Seaside \"apartment\"", new BigDecimal("65.50"), new BigDecimal("150"),
+                "http://localhost:3001/api/uploads/a.jpg", "Ocean view\nfully equipped",
+                2L, LocalDateTime.of(2024, 1, 5, 10, 30), LocalDateTime.of(987, 12, 31, 0, 0), 4L,
+                new PictureMetadataDTO(1920, 1280, "jpeg", 348112L, "#8a9fb4", "LKO2?U%2Tw=w]~RBVZRi};RPxuwH")
+        );
+
+        assertThat(fastMapper.writeValueAsString(rental)).isEqualTo(reflectionMapper.writeValueAsString(rental));
+    }
+
+    @Test
+    @DisplayName("Should serialize null values like the reflection-based serializer")
+    void shouldSerializeNullsLikeReflection() throws Exception {
+        RentalDTO rental = new RentalDTO(null, null, null, null, null, null, null, null, null, null,
+                new PictureMetadataDTO(null, null, null, null, null, null));
+        RentalDTO withoutMetadata = new RentalDTO(null, null, null, null, null, null, null, null, null, null, null);
+        RentalListResponse list = new RentalListResponse(Arrays.asList(rental, withoutMetadata, null));
+
+        assertThat(fastMapper.writeValueAsString(list)).isEqualTo(reflectionMapper.writeValueAsString(list));
+        assertThat(fastMapper.writeValueAsString(new RentalListResponse(null)))
+                .isEqualTo(reflectionMapper.writeValueAsString(new RentalListResponse(null)));
+    }
+
+    @Test
+    @DisplayName("Should serialize UserDTO and MessageDTO like the reflection-based serializer")
+    void shouldSerializeUserAndMessageLikeReflection() throws Exception {
+        LocalDateTime date = LocalDateTime.of(2024, 11, 28, 23, 59);
+        UserDTO user = new UserDTO(3L, "John Doe", "user@example.com", date, date);
+        MessageDTO message = new MessageDTO(4L, "Is it available?", 1L, 3L, date, null);
+
+        assertThat(fastMapper.writeValueAsString(user)).isEqualTo(reflectionMapper.writeValueAsString(user));
+        assertThat(fastMapper.writeValueAsString(new SuccessResponse("Message sent", message)))
+                .isEqualTo(reflectionMapper.writeValueAsString(new SuccessResponse("Message sent", message)));
+    }
+
+    @Test
+    @DisplayName("Should serialize OwnerDashboardResponse like the reflection-based serializer")
+    void shouldSerializeOwnerDashboardLikeReflection() throws Exception {
+        OwnerDashboardResponse dashboard = new OwnerDashboardResponse(3, 7, Arrays.asList(
+                new RentalSummaryDTO(1L, "Seaside \"apartment\"", new BigDecimal("65.50"), "http://localhost:3001/api/uploads/a.jpg",
+                        LocalDateTime.of(2024, 1, 5, 10, 30), 7L, LocalDateTime.of(2024, 3, 2, 9, 0)),
+                new RentalSummaryDTO(null, null, null, null, null, null, null),
+                null));
+
+        assertThat(fastMapper.writeValueAsString(dashboard)).isEqualTo(reflectionMapper.writeValueAsString(dashboard));
+        assertThat(fastMapper.writeValueAsString(new OwnerDashboardResponse(0, 0, null)))
+                .isEqualTo(reflectionMapper.writeValueAsString(new OwnerDashboardResponse(0, 0, null)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = {RentalDTO.class, RentalSummaryDTO.class, UserDTO.class, MessageDTO.class})
+    @DisplayName("Should write every record component, including components added later")
+    void shouldWriteEveryComponent(Class<?> type) throws Exception {
+        Object dto = sample(type);
+
+        assertWritesEveryComponent(type, fastMapper.readTree(fastMapper.writeValueAsString(dto)));
+    }
+
+    private static void assertWritesEveryComponent(Class<?> type, JsonNode json) {
+        RecordComponent[] components = type.getRecordComponents();
+        assertThat(json.fieldNames()).toIterable()
+                .as("JSON fields of %s", type.getSimpleName())
+                .containsExactly(Arrays.stream(components).map(RecordComponent::getName).toArray(String[]::new));
+        for (RecordComponent component : components) {
+            if (component.getType().isRecord()) {
+                assertWritesEveryComponent(component.getType(), json.get(component.getName()));
+            }
+        }
+    }
+
+    /**
+     * Build a record with a non-null value in every component, so no component can be skipped as null.
+     */
+    private static Object sample(Class<?> type) throws ReflectiveOperationException {
+        if (type.isRecord()) {
+            RecordComponent[] components = type.getRecordComponents();
+            Object[] values = new Object[components.length];
+            for (int i = 0; i < components.length; i++) {
+                values[i] = sample(components[i].getType());
+            }
+            return type.getDeclaredConstructor(Arrays.stream(components).map(RecordComponent::getType).toArray(Class[]::new))
+                    .newInstance(values);
+        }
+        if (type == Long.class || type == long.class) {
+            return 1L;
+        }
+        if (type == Integer.class || type == int.class) {
+            return 1;
+        }
+        if (type == BigDecimal.class) {
+            return BigDecimal.ONE;
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.of(2024, 1, 5, 10, 30);
+        }
+        if (type == String.class) {
+            return "value";
+        }
+        throw new IllegalArgumentException("No sample value for " + type.getName());
+    }
+}
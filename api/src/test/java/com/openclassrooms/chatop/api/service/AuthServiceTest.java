@@ -0,0 +1,233 @@
+package com.openclassrooms.chatop.api.service;
+
+import com.openclassrooms.chatop.api.dto.request.AuthRequest.LoginRequest;
+import com.openclassrooms.chatop.api.dto.request.AuthRequest.RefreshRequest;
+import com.openclassrooms.chatop.api.dto.request.AuthRequest.RegisterRequest;
+import com.openclassrooms.chatop.api.dto.response.AuthResponse;
+import com.openclassrooms.chatop.api.exception.InvalidTokenException;
+import com.openclassrooms.chatop.api.exception.ResourceAlreadyExistsException;
+import com.openclassrooms.chatop.api.mapper.UserMapper;
+import com.openclassrooms.chatop.api.model.User;
+import com.openclassrooms.chatop.api.repository.UserRepository;
+import com.openclassrooms.chatop.api.security.AuthenticatedUser;
+import com.openclassrooms.chatop.api.service.implementations.AuthServiceImpl;
+import com.openclassrooms.chatop.api.service.interfaces.IJwtService;
+import com.openclassrooms.chatop.api.service.interfaces.IRefreshTokenService;
+import com.openclassrooms.chatop.api.service.interfaces.ITokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AuthServiceImpl.
+ * Tests that registration and login issue a single user query each, and the refresh flow.
+ */
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private IJwtService jwtService;
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private IRefreshTokenService refreshTokenService;
+
+    @Mock
+    private ITokenRevocationService tokenRevocationService;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @InjectMocks
+    private AuthServiceImpl authService;
+
+    @Nested
+    @DisplayName("register()")
+    class Register {
+
+        private final RegisterRequest request = new RegisterRequest("test@example.com", "Test User", "secret");
+
+        @Test
+        @DisplayName("Should insert the user and return a token")
+        void shouldRegisterUser() {
+            // Given
+            User user = new User();
+            user.setId(1L);
+            user.setEmail("test@example.com");
+            when(userMapper.toEntity(request)).thenReturn(user);
+            when(passwordEncoder.encode("secret")).thenReturn("encoded_password");
+            when(jwtService.generateToken(any(UserDetails.class))).thenReturn("jwt");
+            when(refreshTokenService.issue(1L)).thenReturn("refresh");
+
+            // When
+            AuthResponse response = authService.register(request);
+
+            // Then
+            assertThat(response.token()).isEqualTo("jwt");
+            assertThat(response.refresh_token()).isEqualTo("refresh");
+            assertThat(user.getPassword()).isEqualTo("encoded_password");
+            verify(userRepository).saveAndFlush(user);
+            verifyNoMoreInteractions(userRepository);
+        }
+
+        @Test
+        @DisplayName("Should translate the unique email violation into ResourceAlreadyExistsException")
+        void shouldRejectDuplicateEmail() {
+            // Given
+            when(userMapper.toEntity(request)).thenReturn(new User());
+            when(passwordEncoder.encode("secret")).thenReturn("encoded_password");
+            when(userRepository.saveAndFlush(any(User.class)))
+                    .thenThrow(integrityViolation("USERS.USERS_index"));
+
+            // When / Then
+            assertThatThrownBy(() -> authService.register(request))
+                    .isInstanceOf(ResourceAlreadyExistsException.class)
+                    .hasMessageContaining("test@example.com");
+            verifyNoInteractions(jwtService);
+        }
+
+        @Test
+        @DisplayName("Should rethrow violations of other constraints")
+        void shouldRethrowOtherViolations() {
+            // Given
+            when(userMapper.toEntity(request)).thenReturn(new User());
+            when(passwordEncoder.encode("secret")).thenReturn("encoded_password");
+            DataIntegrityViolationException violation = integrityViolation(null);
+            when(userRepository.saveAndFlush(any(User.class))).thenThrow(violation);
+
+            // When / Then
+            assertThatThrownBy(() -> authService.register(request)).isSameAs(violation);
+            verifyNoInteractions(jwtService);
+        }
+
+        private DataIntegrityViolationException integrityViolation(String constraintName) {
+            return new DataIntegrityViolationException("could not execute statement",
+                    new ConstraintViolationException("could not execute statement",
+                            new SQLException("constraint violated"), constraintName));
+        }
+    }
+
+    @Nested
+    @DisplayName("login()")
+    class Login {
+
+        @Test
+        @DisplayName("Should mint the token from the authenticated principal without querying the user again")
+        void shouldReuseAuthenticatedPrincipal() {
+            // Given
+            AuthenticatedUser principal = new AuthenticatedUser(1L, "test@example.com", "encoded_password");
+            when(authenticationManager.authenticate(any()))
+                    .thenReturn(new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+            when(jwtService.generateToken(principal)).thenReturn("jwt");
+            when(refreshTokenService.issue(1L)).thenReturn("refresh");
+
+            // When
+            AuthResponse response = authService.login(new LoginRequest("test@example.com", "secret"));
+
+            // Then
+            assertThat(response.token()).isEqualTo("jwt");
+            assertThat(response.refresh_token()).isEqualTo("refresh");
+            verifyNoInteractions(userRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("refresh()")
+    class Refresh {
+
+        @Test
+        @DisplayName("Should return a new token pair for a valid refresh token")
+        void shouldRotateTokens() {
+            // Given
+            User user = new User();
+            user.setId(1L);
+            user.setEmail("test@example.com");
+            user.setPassword("encoded_password");
+            when(refreshTokenService.rotate("refresh"))
+                    .thenReturn(new IRefreshTokenService.Rotation(1L, "refresh-2"));
+            when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+            when(jwtService.generateToken(any(UserDetails.class))).thenReturn("jwt");
+
+            // When
+            AuthResponse response = authService.refresh(new RefreshRequest("refresh"));
+
+            // Then
+            assertThat(response.token()).isEqualTo("jwt");
+            assertThat(response.refresh_token()).isEqualTo("refresh-2");
+        }
+
+        @Test
+        @DisplayName("Should reject the refresh when the user no longer exists")
+        void shouldRejectDeletedUser() {
+            when(refreshTokenService.rotate("refresh"))
+                    .thenReturn(new IRefreshTokenService.Rotation(1L, "refresh-2"));
+            when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> authService.refresh(new RefreshRequest("refresh")))
+                    .isInstanceOf(InvalidTokenException.class);
+            verifyNoInteractions(jwtService);
+        }
+    }
+
+    @Nested
+    @DisplayName("logout()")
+    class Logout {
+
+        @Test
+        @DisplayName("Should revoke the refresh token family and the current access token")
+        void shouldRevokeBothTokens() {
+            // Given
+            Instant expiration = Instant.parse("2030-01-01T10:15:00Z");
+            Claims claims = Jwts.claims().id("jti-1").expiration(Date.from(expiration)).build();
+            when(jwtService.extractClaim(eq("jwt"), any())).thenReturn(claims);
+
+            // When
+            authService.logout(new RefreshRequest("refresh"), "jwt");
+
+            // Then
+            verify(refreshTokenService).revoke("refresh");
+            verify(tokenRevocationService).revoke("jti-1", expiration);
+        }
+
+        @Test
+        @DisplayName("Should only revoke the refresh token when no access token is sent")
+        void shouldRevokeRefreshTokenOnly() {
+            authService.logout(new RefreshRequest("refresh"), null);
+
+            verify(refreshTokenService).revoke("refresh");
+            verifyNoInteractions(tokenRevocationService);
+        }
+    }
+}
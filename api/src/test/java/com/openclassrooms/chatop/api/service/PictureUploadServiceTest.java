@@ -0,0 +1,216 @@
+package com.openclassrooms.chatop.api.service;
+
+import com.openclassrooms.chatop.api.config.StorageProperties;
+import com.openclassrooms.chatop.api.dto.request.RentalRequest.PictureUploadRequest;
+import com.openclassrooms.chatop.api.dto.response.PictureUploadResponse;
+import com.openclassrooms.chatop.api.exception.InvalidFileException;
+import com.openclassrooms.chatop.api.model.PictureUpload;
+import com.openclassrooms.chatop.api.model.User;
+import com.openclassrooms.chatop.api.repository.PictureUploadRepository;
+import com.openclassrooms.chatop.api.repository.UserRepository;
+import com.openclassrooms.chatop.api.service.implementations.PictureUploadServiceImpl;
+import com.openclassrooms.chatop.api.service.interfaces.IFileStorageService.StoredFile;
+import com.openclassrooms.chatop.api.storage.ObjectStore;
+import com.openclassrooms.chatop.api.storage.ObjectStore.ObjectInfo;
+import com.openclassrooms.chatop.api.storage.ObjectStore.PresignedRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PictureUploadServiceImpl.
+ * Tests upload URL issuance, verification of uploaded objects and single use of picture keys.
+ */
+@ExtendWith(MockitoExtension.class)
+class PictureUploadServiceTest {
+
+    private static final String KEY = "pictures/3f2b8c1e-7d4a-4e0b-9a51-2c6d8e9f0a1b.jpg";
+
+    @Mock
+    private ObjectStore objectStore;
+
+    @Mock
+    private PictureUploadRepository pictureUploadRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final UserDetails userDetails = org.springframework.security.core.userdetails.User
+            .withUsername("test@example.com").password("").build();
+    private User user;
+    private PictureUploadServiceImpl pictureUploadService;
+
+    @BeforeEach
+    void setUp() {
+        StorageProperties properties = new StorageProperties(StorageProperties.Type.LOCAL, Duration.ofMinutes(15),
+                Duration.ofHours(1), null, null, null, null);
+        pictureUploadService = new PictureUploadServiceImpl(objectStore, properties, pictureUploadRepository, userRepository);
+        user = new User();
+        user.setId(1L);
+        user.setEmail("test@example.com");
+    }
+
+    @Nested
+    @DisplayName("createUpload()")
+    class CreateUpload {
+
+        @Test
+        @DisplayName("Should presign an upload for the normalized type and exact size")
+        void shouldPresignUpload() {
+            // Given
+            when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+            when(objectStore.presignPut(anyString(), eq("image/jpeg"), eq(2048L), eq(Duration.ofMinutes(15))))
+                    .thenReturn(new PresignedRequest(URI.create("http://localhost/upload"), "PUT",
+                            Map.of("Content-Type", "image/jpeg"), Instant.parse("2030-01-01T00:00:00Z")));
+
+            // When
+            PictureUploadResponse response = pictureUploadService.createUpload(
+                    new PictureUploadRequest("image/JPG", 2048L), userDetails);
+
+            // Then
+            assertThat(response.picture_key()).matches("pictures/[0-9a-f-]{36}\\.jpg");
+            assertThat(response.upload_url()).isEqualTo("http://localhost/upload");
+            ArgumentCaptor<PictureUpload> upload = ArgumentCaptor.forClass(PictureUpload.class);
+            verify(pictureUploadRepository).save(upload.capture());
+            assertThat(upload.getValue().getPictureKey()).isEqualTo(response.picture_key());
+            assertThat(upload.getValue().getUser()).isSameAs(user);
+            assertThat(upload.getValue().getExpiresAt()).isAfter(Instant.now().plus(Duration.ofMinutes(59)));
+        }
+
+        @Test
+        @DisplayName("Should reject non-image types and oversized pictures")
+        void shouldRejectInvalidUploads() {
+            assertThatThrownBy(() -> pictureUploadService.createUpload(new PictureUploadRequest("video/mp4", 2048L), userDetails))
+                    .isInstanceOf(InvalidFileException.class);
+            assertThatThrownBy(() -> pictureUploadService.createUpload(
+                    new PictureUploadRequest("image/png", 11L * 1024 * 1024), userDetails))
+                    .isInstanceOf(InvalidFileException.class);
+            verify(objectStore, never()).presignPut(anyString(), anyString(), anyLong(), any());
+            verifyNoInteractions(pictureUploadRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("verifyUpload()")
+    class VerifyUpload {
+
+        @Test
+        @DisplayName("Should return the public URL and metadata of a valid upload and use up its key")
+        void shouldReturnPublicUrl() {
+            when(objectStore.head(KEY)).thenReturn(Optional.of(new ObjectInfo(2048, "image/jpeg")));
+            when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+            when(pictureUploadRepository.consume(eq(KEY), eq(1L), any(Instant.class))).thenReturn(1);
+            when(objectStore.publicUrl(KEY)).thenReturn("http://localhost:3001/api/uploads/" + KEY);
+            when(objectStore.get(KEY)).thenReturn(Optional.of(new ByteArrayInputStream(new byte[2048])));
+
+            StoredFile picture = pictureUploadService.verifyUpload(KEY, userDetails);
+
+            assertThat(picture.url()).isEqualTo("http://localhost:3001/api/uploads/" + KEY);
+            assertThat(picture.metadata().size()).isEqualTo(2048);
+        }
+
+        @Test
+        @DisplayName("Should delete pictures whose dimensions exceed the limit")
+        void shouldRejectOversizedDimensions() {
+            when(objectStore.head(KEY)).thenReturn(Optional.of(new ObjectInfo(2048, "image/png")));
+            when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+            when(pictureUploadRepository.consume(eq(KEY), eq(1L), any(Instant.class))).thenReturn(1);
+            when(objectStore.get(KEY)).thenReturn(Optional.of(new ByteArrayInputStream(pngHeader(100_000, 100_000))));
+
+            assertThatThrownBy(() -> pictureUploadService.verifyUpload(KEY, userDetails))
+                    .isInstanceOf(InvalidFileException.class)
+                    .hasMessageContaining("megapixels");
+            verify(objectStore).delete(KEY);
+        }
+
+        @Test
+        @DisplayName("Should reject a key already used, expired or issued to another user")
+        void shouldRejectUnusableKey() {
+            when(objectStore.head(KEY)).thenReturn(Optional.of(new ObjectInfo(2048, "image/jpeg")));
+            when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+            when(pictureUploadRepository.consume(eq(KEY), eq(1L), any(Instant.class))).thenReturn(0);
+
+            assertThatThrownBy(() -> pictureUploadService.verifyUpload(KEY, userDetails))
+                    .isInstanceOf(InvalidFileException.class)
+                    .hasMessageContaining("Unknown picture key");
+            verify(objectStore, never()).publicUrl(KEY);
+            verify(objectStore, never()).delete(KEY);
+        }
+
+        @Test
+        @DisplayName("Should reject foreign keys and missing uploads, and delete invalid objects")
+        void shouldRejectInvalidObjects() {
+            when(objectStore.head(KEY)).thenReturn(Optional.empty(), Optional.of(new ObjectInfo(2048, "text/html")));
+            when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+            when(pictureUploadRepository.consume(eq(KEY), eq(1L), any(Instant.class))).thenReturn(1);
+
+            assertThatThrownBy(() -> pictureUploadService.verifyUpload("../users.sql", userDetails))
+                    .isInstanceOf(InvalidFileException.class);
+            assertThatThrownBy(() -> pictureUploadService.verifyUpload(KEY, userDetails))
+                    .isInstanceOf(InvalidFileException.class)
+                    .hasMessageContaining("not been uploaded");
+            assertThatThrownBy(() -> pictureUploadService.verifyUpload(KEY, userDetails))
+                    .isInstanceOf(InvalidFileException.class);
+            verify(objectStore, times(1)).delete(KEY);
+            // The key survives a check made before the upload completed
+            verify(pictureUploadRepository, times(1)).consume(eq(KEY), eq(1L), any(Instant.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("purgeExpired()")
+    class PurgeExpired {
+
+        @Test
+        @DisplayName("Should delete the pictures of expired keys, then the keys")
+        void shouldDeleteUnusedUploads() {
+            PictureUpload expired = new PictureUpload(KEY, user, Instant.now().minusSeconds(1));
+            when(pictureUploadRepository.findTop500ByExpiresAtBeforeOrderByExpiresAt(any(Instant.class)))
+                    .thenReturn(List.of(expired));
+
+            pictureUploadService.purgeExpired();
+
+            verify(objectStore).delete(KEY);
+            verify(pictureUploadRepository).deleteAllInBatch(List.of(expired));
+        }
+    }
+
+    /**
+     * PNG signature and header chunk declaring the given dimensions, without any pixel data.
+     */
+    private static byte[] pngHeader(int width, int height) {
+        ByteBuffer header = ByteBuffer.allocate(33);
+        header.put(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+        header.putInt(13).put("IHDR".getBytes(StandardCharsets.US_ASCII))
+                .putInt(width).putInt(height).put(new byte[]{8, 2, 0, 0, 0});
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), 12, 17);
+        header.putInt((int) crc.getValue());
+        return header.array();
+    }
+}
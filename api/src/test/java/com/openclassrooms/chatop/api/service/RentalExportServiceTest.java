@@ -0,0 +1,236 @@
+package com.openclassrooms.chatop.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.openclassrooms.chatop.api.config.JacksonConfig;
+import com.openclassrooms.chatop.api.dto.PictureMetadataDTO;
+import com.openclassrooms.chatop.api.dto.RentalDTO;
+import com.openclassrooms.chatop.api.repository.RentalRepository;
+import com.openclassrooms.chatop.api.service.implementations.RentalExportServiceImpl;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for RentalExportServiceImpl.
+ * Tests the NDJSON output, the periodic flushes and the read-only transaction around the stream.
+ */
+@ExtendWith(MockitoExtension.class)
+class RentalExportServiceTest {
+
+    @Mock
+    private RentalRepository rentalRepository;
+
+    private ObjectMapper objectMapper;
+    private RentalExportServiceImpl exportService;
+
+    @BeforeEach
+    void setUp() {
+        // Same setup as the Spring Boot auto-configured ObjectMapper
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new JacksonConfig().dtoSerializationModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new RentalExportServiceImpl(rentalRepository, objectMapper);
+    }
+
+    @Nested
+    @DisplayName("Export Tests")
+    class ExportTests {
+
+        @Test
+        @DisplayName("Should write one JSON object per line")
+        void shouldWriteNdjson() throws IOException {
+            // Given
+            RentalDTO withMetadata = new RentalDTO(
+                    1L, "Seaside apartment", new BigDecimal("65.50"), new BigDecimal("150"),
+                    "http://localhost:3001/api/uploads/a.jpg", "Ocean view", 2L,
+                    LocalDateTime.of(2024, 1, 5, 10, 30), LocalDateTime.of(2024, 2, 1, 8, 0), 3L,
+                    new PictureMetadataDTO(1920, 1280, "jpeg", 348112L, "#8a9fb4", "LKO2?U%2Tw=w]~RBVZRi};RPxuwH"));
+            when(rentalRepository.streamAllAfter(0L)).thenReturn(Stream.of(withMetadata, rental(2L)));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            // When
+            long count = exportService.exportRentals(0L, out);
+
+            // Then
+            String body = out.toString(StandardCharsets.UTF_8);
+            assertThat(count).isEqualTo(2);
+            assertThat(body).endsWith("\n");
+            String[] lines = body.split("\n");
+            assertThat(lines).hasSize(2);
+
+            JsonNode first = objectMapper.readTree(lines[0]);
+            assertThat(first.get("id").asLong()).isEqualTo(1L);
+            assertThat(first.get("name").asText()).isEqualTo("Seaside apartment");
+            assertThat(first.get("surface").decimalValue()).isEqualByComparingTo("65.50");
+            assertThat(first.get("owner_id").asLong()).isEqualTo(2L);
+            assertThat(first.get("created_at").asText()).isEqualTo("2024/01/05");
+            assertThat(first.get("updated_at").asText()).isEqualTo("2024/02/01");
+            assertThat(first.get("version").asLong()).isEqualTo(3L);
+            assertThat(first.get("picture_metadata").get("format").asText()).isEqualTo("jpeg");
+            assertThat(lines[0]).isEqualTo(objectMapper.writeValueAsString(withMetadata));
+
+            JsonNode second = objectMapper.readTree(lines[1]);
+            assertThat(second.get("id").asLong()).isEqualTo(2L);
+            assertThat(second.get("picture_metadata").isNull()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should write nothing when no rental follows the given id")
+        void shouldWriteNothingWhenEmpty() throws IOException {
+            // Given
+            when(rentalRepository.streamAllAfter(42L)).thenReturn(Stream.empty());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            // When
+            long count = exportService.exportRentals(42L, out);
+
+            // Then
+            assertThat(count).isZero();
+            assertThat(out.size()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should flush every 500 rows and at the end")
+        void shouldFlushEvery500Rows() throws IOException {
+            // Given
+            when(rentalRepository.streamAllAfter(0L))
+                    .thenReturn(LongStream.rangeClosed(1, 1234).mapToObj(RentalExportServiceTest::rental));
+            FlushRecordingStream out = new FlushRecordingStream();
+
+            // When
+            long count = exportService.exportRentals(0L, out);
+
+            // Then
+            assertThat(count).isEqualTo(1234);
+            assertThat(out.linesAtFlush).containsExactly(500L, 1000L, 1234L);
+            assertThat(out.closed).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("Transaction Tests")
+    class TransactionTests {
+
+        @Test
+        @DisplayName("Should read and close the stream inside a read-only transaction")
+        void shouldReadInsideReadOnlyTransaction() throws IOException {
+            // Given
+            RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+            List<Boolean> readOnlyPerRow = new ArrayList<>();
+            AtomicBoolean closedInTransaction = new AtomicBoolean();
+            when(rentalRepository.streamAllAfter(0L)).thenReturn(
+                    LongStream.rangeClosed(1, 3).mapToObj(RentalExportServiceTest::rental)
+                            .peek(rental -> readOnlyPerRow.add(
+                                    TransactionSynchronizationManager.isActualTransactionActive()
+                                            && TransactionSynchronizationManager.isCurrentTransactionReadOnly()))
+                            .onClose(() -> closedInTransaction.set(
+                                    TransactionSynchronizationManager.isActualTransactionActive())));
+
+            // When
+            long count = transactional(exportService, transactionManager)
+                    .exportRentals(0L, new ByteArrayOutputStream());
+
+            // Then
+            assertThat(count).isEqualTo(3);
+            assertThat(readOnlyPerRow).containsExactly(true, true, true);
+            assertThat(closedInTransaction).isTrue();
+            assertThat(transactionManager.definitions).singleElement()
+                    .satisfies(definition -> assertThat(definition.isReadOnly()).isTrue());
+            assertThat(transactionManager.commits).isEqualTo(1);
+            assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+        }
+    }
+
+    /**
+     * The service behind the same @Transactional interceptor Spring puts in front of the bean.
+     */
+    private static IRentalExportService transactional(
+            IRentalExportService service, RecordingTransactionManager transactionManager) {
+        ProxyFactory proxyFactory = new ProxyFactory(service);
+        proxyFactory.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        return (IRentalExportService) proxyFactory.getProxy();
+    }
+
+    private static RentalDTO rental(long id) {
+        return new RentalDTO(id, "Rental " + id, BigDecimal.valueOf(50), BigDecimal.valueOf(900),
+                "http://localhost:3001/api/uploads/" + id + ".jpg", "Description " + id, 1L,
+                LocalDateTime.of(2024, 1, 15, 0, 0), LocalDateTime.of(2024, 1, 15, 0, 0), 0L, null);
+    }
+
+    /**
+     * Records how many complete lines the client had received at each flush.
+     */
+    private static class FlushRecordingStream extends ByteArrayOutputStream {
+
+        private final List<Long> linesAtFlush = new ArrayList<>();
+        private boolean closed;
+
+        @Override
+        public void flush() {
+            linesAtFlush.add(toString(StandardCharsets.UTF_8).chars().filter(c -> c == '\n').count());
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    /**
+     * Transaction manager without a resource: binds the transaction state to the thread as a real one does.
+     */
+    private static class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+
+        private final List<TransactionDefinition> definitions = new ArrayList<>();
+        private int commits;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            definitions.add(definition);
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            commits++;
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
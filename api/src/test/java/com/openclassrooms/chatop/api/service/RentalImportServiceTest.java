@@ -0,0 +1,372 @@
+package com.openclassrooms.chatop.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.chatop.api.dto.response.RentalImportResponse;
+import com.openclassrooms.chatop.api.exception.BusinessValidationException;
+import com.openclassrooms.chatop.api.exception.InvalidFileException;
+import com.openclassrooms.chatop.api.model.Rental;
+import com.openclassrooms.chatop.api.model.User;
+import com.openclassrooms.chatop.api.repository.RentalBatchRepository;
+import com.openclassrooms.chatop.api.repository.UserRepository;
+import com.openclassrooms.chatop.api.service.implementations.RentalImportServiceImpl;
+import com.openclassrooms.chatop.api.service.interfaces.IFileStorageService;
+import com.openclassrooms.chatop.api.service.interfaces.IFileStorageService.StagedFile;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalListingService;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RentalImportServiceImpl.
+ * Tests CSV/NDJSON parsing, row validation, picture resolution and batching.
+ */
+@ExtendWith(MockitoExtension.class)
+class RentalImportServiceTest {
+
+    private static final StagedFile STAGED_A =
+            new StagedFile("stored-a.jpg", "http://localhost:3001/api/uploads/stored-a.jpg", null);
+
+    @Mock
+    private RentalBatchRepository rentalBatchRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private IFileStorageService fileStorageService;
+
+    @Mock
+    private UserDetails userDetails;
+
+    @Mock
+    private IRentalListingService rentalListingService;
+
+    private ValidatorFactory validatorFactory;
+    private RentalImportServiceImpl importService;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        importService = new RentalImportServiceImpl(
+                rentalBatchRepository,
+                userRepository,
+                fileStorageService,
+                validatorFactory.getValidator(),
+                new ObjectMapper(),
+                rentalListingService,
+                TransactionOperations.withoutTransaction()
+        );
+        ReflectionTestUtils.setField(importService, "batchSize", 2);
+
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setEmail("test@example.com");
+
+        lenient().when(userDetails.getUsername()).thenReturn("test@example.com");
+        lenient().when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Nested
+    @DisplayName("CSV import")
+    class CsvImport {
+
+        @Test
+        @DisplayName("Should insert valid rows in batches")
+        void shouldInsertValidRowsInBatches() {
+            // Given
+            MockMultipartFile csv = csv("""
+                    name,surface,price,picture,description
+                    Seaside apartment,65.5,150,https://cdn.example.com/a.jpg,"Ocean view, 2 bedrooms"
+                    Mountain chalet,80,200,https://cdn.example.com/b.jpg,
+                    City studio,25,90,https://cdn.example.com/c.jpg,"Quoted ""studio""\"
+                    """);
+
+            // When
+            RentalImportResponse response = importService.importRentals(csv, null, userDetails);
+
+            // Then
+            assertThat(response.imported()).isEqualTo(3);
+            assertThat(response.failed()).isZero();
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<List<Rental>> captor = ArgumentCaptor.forClass(List.class);
+            verify(rentalBatchRepository, times(2)).insertAll(captor.capture());
+            assertThat(captor.getAllValues().get(0)).hasSize(2);
+            assertThat(captor.getAllValues().get(1)).hasSize(1);
+
+            Rental first = captor.getAllValues().get(0).get(0);
+            assertThat(first.getDescription()).isEqualTo("Ocean view, 2 bedrooms");
+            assertThat(first.getOwner()).isEqualTo(testUser);
+            assertThat(captor.getAllValues().get(1).get(0).getDescription()).isEqualTo("Quoted \"studio\"");
+        }
+
+        @Test
+        @DisplayName("Should report invalid rows with their line number and keep valid ones")
+        void shouldReportInvalidRows() {
+            // Given
+            MockMultipartFile csv = csv("""
+                    name,surface,price,picture
+                    ,65.5,150,https://cdn.example.com/a.jpg
+                    Mountain chalet,abc,-1,https://cdn.example.com/b.jpg
+                    City studio,25,90,https://cdn.example.com/c.jpg
+                    """);
+
+            // When
+            RentalImportResponse response = importService.importRentals(csv, null, userDetails);
+
+            // Then
+            assertThat(response.imported()).isEqualTo(1);
+            assertThat(response.failed()).isEqualTo(2);
+            assertThat(response.errors())
+                    .extracting(RentalImportResponse.RowError::line, RentalImportResponse.RowError::field)
+                    .containsExactlyInAnyOrder(
+                            org.assertj.core.groups.Tuple.tuple(2L, "name"),
+                            org.assertj.core.groups.Tuple.tuple(3L, "surface"),
+                            org.assertj.core.groups.Tuple.tuple(3L, "price")
+                    );
+        }
+
+        @Test
+        @DisplayName("Should reject a header without required columns")
+        void shouldRejectMissingColumns() {
+            MockMultipartFile csv = csv("name,surface\nFoo,12\n");
+
+            assertThatThrownBy(() -> importService.importRentals(csv, null, userDetails))
+                    .isInstanceOf(BusinessValidationException.class)
+                    .hasMessageContaining("price");
+            verifyNoInteractions(rentalBatchRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("NDJSON import")
+    class NdjsonImport {
+
+        @Test
+        @DisplayName("Should import rows and report malformed lines")
+        void shouldImportAndReportMalformedLines() {
+            // Given
+            MockMultipartFile ndjson = new MockMultipartFile("rentals", "rentals.ndjson", "application/x-ndjson", """
+                    {"name":"Seaside apartment","surface":65.5,"price":150,"picture":"https://cdn.example.com/a.jpg"}
+                    {"name":"Broken",
+                    {"name":"Chalet","surface":"big","price":200,"picture":"https://cdn.example.com/b.jpg"}
+                    """.getBytes(StandardCharsets.UTF_8));
+
+            // When
+            RentalImportResponse response = importService.importRentals(ndjson, null, userDetails);
+
+            // Then
+            assertThat(response.imported()).isEqualTo(1);
+            assertThat(response.failed()).isEqualTo(2);
+            assertThat(response.errors()).extracting(RentalImportResponse.RowError::line).containsExactly(2L, 3L);
+            assertThat(response.errors().get(1).field()).isEqualTo("surface");
+        }
+
+        @Test
+        @DisplayName("Should reject unsupported formats")
+        void shouldRejectUnsupportedFormat() {
+            MockMultipartFile xml = new MockMultipartFile("rentals", "rentals.xml", "application/xml", "<x/>".getBytes());
+
+            assertThatThrownBy(() -> importService.importRentals(xml, null, userDetails))
+                    .isInstanceOf(BusinessValidationException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Pictures archive")
+    class PicturesArchive {
+
+        @Test
+        @DisplayName("Should resolve pictures from the ZIP archive by filename")
+        void shouldResolvePicturesFromArchive() throws IOException {
+            // Given
+            MockMultipartFile zip = new MockMultipartFile("pictures", "pictures.zip", "application/zip",
+                    zip("photos/a.jpg", "__MACOSX/photos/._a.jpg"));
+            when(fileStorageService.stageFile(eq("a.jpg"), any(InputStream.class))).thenReturn(STAGED_A);
+
+            MockMultipartFile csv = csv("""
+                    name,surface,price,picture
+                    Seaside apartment,65.5,150,a.jpg
+                    Chalet,80,200,missing.jpg
+                    """);
+
+            // When
+            RentalImportResponse response = importService.importRentals(csv, zip, userDetails);
+
+            // Then
+            assertThat(response.imported()).isEqualTo(1);
+            assertThat(response.failed()).isEqualTo(1);
+            assertThat(response.errors().get(0).reason()).contains("missing.jpg");
+            verify(fileStorageService, times(1)).stageFile(any(String.class), any(InputStream.class));
+            verify(rentalBatchRepository).insertAll(argThat(rentals ->
+                    rentals.get(0).getPicture().equals("http://localhost:3001/api/uploads/stored-a.jpg")));
+            verify(rentalBatchRepository, times(1)).insertAll(anyList());
+        }
+
+        @Test
+        @DisplayName("Should only stage the pictures of accepted rows, once each")
+        void shouldStorePicturesOfAcceptedRowsOnly() throws IOException {
+            // Given
+            MockMultipartFile zip = new MockMultipartFile("pictures", "pictures.zip", "application/zip",
+                    zip("a.jpg", "b.jpg", "unused.jpg"));
+            when(fileStorageService.stageFile(eq("a.jpg"), any(InputStream.class))).thenReturn(STAGED_A);
+
+            MockMultipartFile csv = csv("""
+                    name,surface,price,picture
+                    Seaside apartment,65.5,150,a.jpg
+                    Chalet,-80,200,b.jpg
+                    Same pictures,30,90,a.jpg
+                    """);
+
+            // When
+            RentalImportResponse response = importService.importRentals(csv, zip, userDetails);
+
+            // Then
+            assertThat(response.imported()).isEqualTo(2);
+            assertThat(response.failed()).isEqualTo(1);
+            verify(fileStorageService, times(1)).stageFile(eq("a.jpg"), any(InputStream.class));
+            // Promoted once, with the batch of the first row referencing it
+            verify(fileStorageService, times(1)).promoteOnCommit(STAGED_A);
+            verify(fileStorageService, never()).discard(any());
+        }
+
+        @Test
+        @DisplayName("Should stage the pictures of a rejected batch again for later rows")
+        void shouldStageAgainAfterRejectedBatch() throws IOException {
+            // Given: the first batch is rejected, its staged pictures are discarded when it rolls back
+            MockMultipartFile zip = new MockMultipartFile("pictures", "pictures.zip", "application/zip", zip("a.jpg"));
+            when(fileStorageService.stageFile(eq("a.jpg"), any(InputStream.class))).thenReturn(STAGED_A);
+            doThrow(new DataIntegrityViolationException("Data too long"))
+                    .doNothing()
+                    .when(rentalBatchRepository).insertAll(anyList());
+
+            MockMultipartFile csv = csv("""
+                    name,surface,price,picture
+                    Seaside apartment,65.5,150,a.jpg
+                    Chalet,80,200,a.jpg
+                    Studio,30,90,a.jpg
+                    """);
+
+            // When
+            RentalImportResponse response = importService.importRentals(csv, zip, userDetails);
+
+            // Then
+            assertThat(response.imported()).isEqualTo(1);
+            assertThat(response.failed()).isEqualTo(2);
+            verify(fileStorageService, times(2)).stageFile(eq("a.jpg"), any(InputStream.class));
+            verify(fileStorageService, times(2)).promoteOnCommit(STAGED_A);
+        }
+
+        @Test
+        @DisplayName("Should discard the staged pictures of a batch never written")
+        void shouldDiscardPendingPicturesOnFailure() throws IOException {
+            // Given: the rentals file fails to read after the first row
+            MockMultipartFile zip = new MockMultipartFile("pictures", "pictures.zip", "application/zip", zip("a.jpg"));
+            when(fileStorageService.stageFile(eq("a.jpg"), any(InputStream.class))).thenReturn(STAGED_A);
+            MultipartFile csv = mock(MultipartFile.class);
+            when(csv.getOriginalFilename()).thenReturn("rentals.csv");
+            when(csv.getContentType()).thenReturn("text/csv");
+            when(csv.getInputStream()).thenReturn(new SequenceInputStream(
+                    new ByteArrayInputStream("name,surface,price,picture\nSeaside apartment,65.5,150,a.jpg\n"
+                            .getBytes(StandardCharsets.UTF_8)),
+                    new InputStream() {
+                        @Override
+                        public int read() throws IOException {
+                            throw new IOException("Connection reset");
+                        }
+                    }));
+
+            // When & Then
+            assertThatThrownBy(() -> importService.importRentals(csv, zip, userDetails))
+                    .isInstanceOf(BusinessValidationException.class);
+            verify(fileStorageService).discard(STAGED_A);
+            verify(fileStorageService, never()).promoteOnCommit(any());
+            verifyNoInteractions(rentalBatchRepository);
+        }
+
+        @Test
+        @DisplayName("Should reject archives with too many entries before storing anything")
+        void shouldRejectTooManyEntries() throws IOException {
+            // Given
+            ReflectionTestUtils.setField(importService, "maxArchiveEntries", 2);
+            MockMultipartFile zip = new MockMultipartFile("pictures", "pictures.zip", "application/zip",
+                    zip("a.jpg", "b.jpg", "c.jpg"));
+
+            // When & Then
+            assertThatThrownBy(() -> importService.importRentals(csv("name,surface,price,picture\n"), zip, userDetails))
+                    .isInstanceOf(InvalidFileException.class)
+                    .hasMessageContaining("more than 2 entries");
+            verifyNoInteractions(fileStorageService, rentalBatchRepository);
+        }
+
+        @Test
+        @DisplayName("Should stop extracting pictures beyond the archive size limit")
+        void shouldCapExtractedBytes() throws IOException {
+            // Given: each entry holds 5 bytes
+            ReflectionTestUtils.setField(importService, "maxArchiveSize", DataSize.ofBytes(4));
+            MockMultipartFile zip = new MockMultipartFile("pictures", "pictures.zip", "application/zip",
+                    zip("a.jpg"));
+
+            // When & Then
+            assertThatThrownBy(() -> importService.importRentals(csv("name,surface,price,picture\n"), zip, userDetails))
+                    .isInstanceOf(InvalidFileException.class)
+                    .hasMessageContaining("once extracted");
+            verifyNoInteractions(fileStorageService);
+        }
+    }
+
+    private MockMultipartFile csv(String content) {
+        return new MockMultipartFile("rentals", "rentals.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private byte[] zip(String... entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+            for (String entry : entries) {
+                out.putNextEntry(new ZipEntry(entry));
+                out.write("image".getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,215 @@
+package com.openclassrooms.chatop.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.openclassrooms.chatop.api.config.ReadReplicaProperties;
+import com.openclassrooms.chatop.api.config.RentalListingProperties;
+import com.openclassrooms.chatop.api.dto.RentalDTO;
+import com.openclassrooms.chatop.api.dto.response.RentalListResponse;
+import com.openclassrooms.chatop.api.exception.ServiceUnavailableException;
+import com.openclassrooms.chatop.api.repository.MessageRepository;
+import com.openclassrooms.chatop.api.repository.RentalRepository;
+import com.openclassrooms.chatop.api.service.implementations.RentalListingServiceImpl;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalListingService.EncodedBody;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalListingService.Listing;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalListingService.ListingSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RentalListingServiceImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+class RentalListingServiceTest {
+
+    @Mock
+    private RentalRepository rentalRepository;
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ObjectMapper objectMapper;
+    private RentalListingServiceImpl listingService;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        listingService = new RentalListingServiceImpl(rentalRepository, messageRepository, objectMapper,
+                transactionManager, new RentalListingProperties(2, Duration.ofMinutes(1), Duration.ofSeconds(2)),
+                replicas(Duration.ofSeconds(2)), true, true);
+    }
+
+    private static ReadReplicaProperties replicas(Duration maxLag) {
+        return new ReadReplicaProperties(List.of("jdbc:mysql://replica:3306/chatop"), "root", "",
+                10, maxLag, Duration.ofSeconds(5), Duration.ofSeconds(10));
+    }
+
+    private static RentalDTO rental(long id) {
+        return new RentalDTO(id, "Rental " + id, new BigDecimal("50"), new BigDecimal("100"), null, null,
+                1L, LocalDateTime.of(2024, 1, 5, 10, 30), null, 0L, null);
+    }
+
+    @Test
+    @DisplayName("Should serve the serialized listing without reading the database again")
+    void shouldServeSnapshot() throws Exception {
+        List<RentalDTO> newest = List.of(rental(2), rental(1));
+        when(rentalRepository.findNewestProjected(PageRequest.of(0, 2))).thenReturn(newest);
+        listingService.refresh();
+
+        ListingSnapshot first = listingService.getListing(Listing.NEWEST);
+        ListingSnapshot second = listingService.getListing(Listing.NEWEST);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.body()).isEqualTo(objectMapper.writeValueAsBytes(new RentalListResponse(newest)));
+        assertThat(first.etag()).startsWith("\"").endsWith("\"");
+        verify(rentalRepository, times(1)).findNewestProjected(any());
+        // One read-only transaction per listing, routed to a replica
+        verify(transactionManager, times(Listing.values().length))
+                .getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    @DisplayName("Should rebuild listings on the primary until the replicas have caught up with a write")
+    void shouldRebuildOnPrimaryAfterWrite() {
+        when(rentalRepository.findNewestProjected(any())).thenReturn(List.of(rental(1)));
+        listingService.refresh();
+        clearInvocations(transactionManager);
+
+        // When: a write marks the listing stale, replicas may lag for 2s
+        listingService.markStale(Listing.NEWEST);
+        listingService.rebuildStale();
+        listingService.refresh();
+
+        // Then: the rebuild and the next refresh of that listing read the primary, the others a replica
+        verify(transactionManager, times(2)).getTransaction(argThat(definition -> !definition.isReadOnly()));
+        verify(transactionManager, times(Listing.values().length - 1))
+                .getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    @DisplayName("Should rebuild listings on a replica once the lag limit has passed since the write")
+    void shouldRebuildOnReplicaAfterLagLimit() {
+        listingService = new RentalListingServiceImpl(rentalRepository, messageRepository, objectMapper,
+                transactionManager, new RentalListingProperties(2, Duration.ofMinutes(1), Duration.ofSeconds(2)),
+                replicas(Duration.ZERO), true, true);
+        when(rentalRepository.findNewestProjected(any())).thenReturn(List.of(rental(1)));
+
+        listingService.markStale(Listing.NEWEST);
+        listingService.rebuildStale();
+
+        verify(transactionManager, never()).getTransaction(argThat(definition -> !definition.isReadOnly()));
+    }
+
+    @Test
+    @DisplayName("Should answer with 503 until a listing is built, and build missing listings with the stale ones")
+    void shouldRejectUntilBuilt() {
+        when(rentalRepository.findNewestProjected(any()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(List.of(rental(1)));
+        listingService.refresh();
+
+        assertThatThrownBy(() -> listingService.getListing(Listing.NEWEST))
+                .isInstanceOf(ServiceUnavailableException.class);
+
+        listingService.rebuildStale();
+
+        assertThat(listingService.getListing(Listing.NEWEST).body()).isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("Should precompress listings and serve the encoding the client prefers")
+    void shouldPrecompress() throws Exception {
+        when(rentalRepository.findNewestProjected(any())).thenReturn(List.of(rental(2), rental(1)));
+        listingService.rebuildStale();
+        ListingSnapshot snapshot = listingService.getListing(Listing.NEWEST);
+
+        EncodedBody zstd = snapshot.select("gzip, deflate, br, zstd");
+        EncodedBody gzip = snapshot.select("gzip");
+        EncodedBody plain = snapshot.select(null);
+
+        assertThat(zstd.coding()).isEqualTo("zstd");
+        assertThat(zstd.body().length).isLessThan(snapshot.body().length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.body()))) {
+            assertThat(in.readAllBytes()).isEqualTo(snapshot.body());
+        }
+        assertThat(plain.coding()).isNull();
+        assertThat(plain.body()).isSameAs(snapshot.body());
+        assertThat(List.of(zstd.etag(), gzip.etag(), plain.etag())).doesNotHaveDuplicates();
+        // An empty listing does not compress
+        assertThat(listingService.getListing(Listing.BEST_VALUE).encodings()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should order the most messaged rentals by message count")
+    void shouldOrderMostMessaged() throws Exception {
+        when(messageRepository.findMostMessagedRentalIds(PageRequest.of(0, 2))).thenReturn(List.of(3L, 1L));
+        when(rentalRepository.findProjectedByIdIn(List.of(3L, 1L))).thenReturn(List.of(rental(1), rental(3)));
+        listingService.refresh();
+
+        ListingSnapshot snapshot = listingService.getListing(Listing.MOST_MESSAGED);
+
+        assertThat(snapshot.body()).isEqualTo(
+                objectMapper.writeValueAsBytes(new RentalListResponse(List.of(rental(3), rental(1)))));
+    }
+
+    @Test
+    @DisplayName("Should only rebuild the listings marked stale")
+    void shouldRebuildStaleListings() {
+        when(rentalRepository.findNewestProjected(any())).thenReturn(List.of(rental(1)));
+        when(rentalRepository.findBestValueProjected(any())).thenReturn(List.of(rental(1)));
+        when(messageRepository.findMostMessagedRentalIds(any())).thenReturn(List.of());
+        listingService.refresh();
+        String previousEtag = listingService.getListing(Listing.NEWEST).etag();
+        clearInvocations(rentalRepository, messageRepository);
+        when(rentalRepository.findNewestProjected(any())).thenReturn(List.of(rental(2), rental(1)));
+
+        listingService.markStale(Listing.NEWEST);
+        listingService.rebuildStale();
+        listingService.rebuildStale();
+
+        verify(rentalRepository, times(1)).findNewestProjected(any());
+        verifyNoMoreInteractions(rentalRepository, messageRepository);
+        assertThat(listingService.getListing(Listing.NEWEST).etag()).isNotEqualTo(previousEtag);
+    }
+
+    @Test
+    @DisplayName("Should keep the previous snapshot when a rebuild fails")
+    void shouldKeepSnapshotOnFailure() {
+        when(rentalRepository.findBestValueProjected(any()))
+                .thenReturn(List.of(rental(1)))
+                .thenThrow(new QueryTimeoutException("timeout"));
+        listingService.refresh();
+        ListingSnapshot snapshot = listingService.getListing(Listing.BEST_VALUE);
+
+        listingService.markStale(Listing.BEST_VALUE);
+        listingService.rebuildStale();
+
+        assertThat(listingService.getListing(Listing.BEST_VALUE)).isSameAs(snapshot);
+    }
+}
@@ -1,15 +1,25 @@
 package com.openclassrooms.chatop.api.service;
 
 import com.openclassrooms.chatop.api.dto.RentalDTO;
+import com.openclassrooms.chatop.api.dto.RentalSummaryDTO;
+import com.openclassrooms.chatop.api.dto.request.RentalRequest.CreateRentalFromUploadRequest;
 import com.openclassrooms.chatop.api.dto.request.RentalRequest.CreateRentalRequest;
 import com.openclassrooms.chatop.api.dto.request.RentalRequest.UpdateRentalRequest;
+import com.openclassrooms.chatop.api.dto.response.OwnerDashboardResponse;
+import com.openclassrooms.chatop.api.exception.InvalidFileException;
+import com.openclassrooms.chatop.api.exception.PreconditionFailedException;
 import com.openclassrooms.chatop.api.mapper.RentalMapper;
 import com.openclassrooms.chatop.api.model.Rental;
 import com.openclassrooms.chatop.api.model.User;
+import com.openclassrooms.chatop.api.repository.PictureMetadataRepository;
 import com.openclassrooms.chatop.api.repository.RentalRepository;
 import com.openclassrooms.chatop.api.repository.UserRepository;
 import com.openclassrooms.chatop.api.service.implementations.RentalServiceImpl;
 import com.openclassrooms.chatop.api.service.interfaces.IFileStorageService;
+import com.openclassrooms.chatop.api.service.interfaces.IFileStorageService.StagedFile;
+import com.openclassrooms.chatop.api.service.interfaces.IFileStorageService.StoredFile;
+import com.openclassrooms.chatop.api.service.interfaces.IPictureUploadService;
+import com.openclassrooms.chatop.api.service.interfaces.IRentalListingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -17,9 +27,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
@@ -56,6 +68,18 @@ class RentalServiceTest {
     @Mock
     private UserDetails userDetails;
 
+    @Mock
+    private IPictureUploadService pictureUploadService;
+
+    @Mock
+    private PictureMetadataRepository pictureMetadataRepository;
+
+    @Mock
+    private IRentalListingService rentalListingService;
+
+    @Spy
+    private TransactionOperations transactionOperations = TransactionOperations.withoutTransaction();
+
     @InjectMocks
     private RentalServiceImpl rentalService;
 
@@ -83,6 +107,7 @@ class RentalServiceTest {
         testRental.setOwner(testUser);
         testRental.setCreatedAt(LocalDateTime.now());
         testRental.setUpdatedAt(LocalDateTime.now());
+        testRental.setVersion(3L);
 
         // Setup test image file
         testImageFile = new MockMultipartFile(
@@ -96,7 +121,7 @@ class RentalServiceTest {
         lenient().when(userDetails.getUsername()).thenReturn("test@example.com");
 
         // Setup RentalMapper mock behaviors
-        lenient().when(rentalMapper.toDto(any(Rental.class))).thenAnswer(invocation -> {
+        lenient().when(rentalMapper.toDto(any(Rental.class), any())).thenAnswer(invocation -> {
             Rental rental = invocation.getArgument(0);
             return new RentalDTO(
                     rental.getId(),
@@ -107,7 +132,9 @@ class RentalServiceTest {
                     rental.getDescription(),
                     rental.getOwner() != null ? rental.getOwner().getId() : null,
                     rental.getCreatedAt(),
-                    rental.getUpdatedAt()
+                    rental.getUpdatedAt(),
+                    rental.getVersion(),
+                    null
             );
         });
 
@@ -123,7 +150,9 @@ class RentalServiceTest {
                             rental.getDescription(),
                             rental.getOwner() != null ? rental.getOwner().getId() : null,
                             rental.getCreatedAt(),
-                            rental.getUpdatedAt()
+                            rental.getUpdatedAt(),
+                            rental.getVersion(),
+                            null
                     ))
                     .toList();
         });
@@ -172,7 +201,7 @@ class RentalServiceTest {
             rental2.setPrice(BigDecimal.valueOf(200.00));
             rental2.setOwner(testUser);
 
-            when(rentalRepository.findAllWithOwner()).thenReturn(Arrays.asList(testRental, rental2));
+            when(rentalRepository.findAllProjected()).thenReturn(Arrays.asList(toDto(testRental), toDto(rental2)));
 
             // When
             List<RentalDTO> result = rentalService.getAllRentals();
@@ -181,21 +210,23 @@ class RentalServiceTest {
             assertThat(result).hasSize(2);
             assertThat(result.get(0).name()).isEqualTo("Charming seaside apartment");
             assertThat(result.get(1).name()).isEqualTo("Mountain chalet");
-            verify(rentalRepository, times(1)).findAllWithOwner();
+            assertThat(result.get(1).owner_id()).isEqualTo(1L);
+            verify(rentalRepository, times(1)).findAllProjected();
+            verifyNoInteractions(rentalMapper);
         }
 
         @Test
         @DisplayName("Should return empty list when no rentals exist")
         void shouldReturnEmptyListWhenNoRentals() {
             // Given
-            when(rentalRepository.findAllWithOwner()).thenReturn(List.of());
+            when(rentalRepository.findAllProjected()).thenReturn(List.of());
 
             // When
             List<RentalDTO> result = rentalService.getAllRentals();
 
             // Then
             assertThat(result).isEmpty();
-            verify(rentalRepository, times(1)).findAllWithOwner();
+            verify(rentalRepository, times(1)).findAllProjected();
         }
     }
 
@@ -207,7 +238,7 @@ class RentalServiceTest {
         @DisplayName("Should return rental when found")
         void shouldReturnRentalWhenFound() {
             // Given
-            when(rentalRepository.findByIdWithOwner(1L)).thenReturn(Optional.of(testRental));
+            when(rentalRepository.findProjectedById(1L)).thenReturn(Optional.of(toDto(testRental)));
 
             // When
             Optional<RentalDTO> result = rentalService.getRentalById(1L);
@@ -216,21 +247,50 @@ class RentalServiceTest {
             assertThat(result).isPresent();
             assertThat(result.get().id()).isEqualTo(1L);
             assertThat(result.get().name()).isEqualTo("Charming seaside apartment");
-            verify(rentalRepository, times(1)).findByIdWithOwner(1L);
+            verify(rentalRepository, times(1)).findProjectedById(1L);
         }
 
         @Test
         @DisplayName("Should return empty Optional when rental not found")
         void shouldReturnEmptyWhenNotFound() {
             // Given
-            when(rentalRepository.findByIdWithOwner(999L)).thenReturn(Optional.empty());
+            when(rentalRepository.findProjectedById(999L)).thenReturn(Optional.empty());
 
             // When
             Optional<RentalDTO> result = rentalService.getRentalById(999L);
 
             // Then
             assertThat(result).isEmpty();
-            verify(rentalRepository, times(1)).findByIdWithOwner(999L);
+            verify(rentalRepository, times(1)).findProjectedById(999L);
+        }
+    }
+
+    @Nested
+    @DisplayName("getOwnerDashboard()")
+    class GetOwnerDashboard {
+
+        @Test
+        @DisplayName("Should return the owner's rentals with message totals from a single query")
+        void shouldReturnDashboard() {
+            // Given
+            LocalDateTime lastMessage = LocalDateTime.of(2024, 3, 2, 9, 0);
+            List<RentalSummaryDTO> summaries = List.of(
+                    new RentalSummaryDTO(2L, "Mountain chalet", BigDecimal.valueOf(200), null,
+                            LocalDateTime.now(), 5L, lastMessage),
+                    new RentalSummaryDTO(1L, "Charming seaside apartment", BigDecimal.valueOf(150), null,
+                            LocalDateTime.now(), 0L, null)
+            );
+            when(rentalRepository.findOwnerSummaries("test@example.com")).thenReturn(summaries);
+
+            // When
+            OwnerDashboardResponse result = rentalService.getOwnerDashboard(userDetails);
+
+            // Then
+            assertThat(result.rental_count()).isEqualTo(2);
+            assertThat(result.message_count()).isEqualTo(5);
+            assertThat(result.rentals()).isEqualTo(summaries);
+            verify(rentalRepository, times(1)).findOwnerSummaries("test@example.com");
+            verifyNoInteractions(userRepository);
         }
     }
 
@@ -251,7 +311,7 @@ class RentalServiceTest {
             );
 
             when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-            when(fileStorageService.storeFile(testImageFile)).thenReturn("http://localhost:3001/api/uploads/new.jpg");
+            when(fileStorageService.stageFile(testImageFile)).thenReturn(new StagedFile("new.jpg", "http://localhost:3001/api/uploads/new.jpg", null));
             when(rentalRepository.save(any(Rental.class))).thenAnswer(invocation -> {
                 Rental rental = invocation.getArgument(0);
                 rental.setId(2L);
@@ -272,7 +332,7 @@ class RentalServiceTest {
             assertThat(result.owner_id()).isEqualTo(1L);
 
             verify(userRepository, times(1)).findByEmail("test@example.com");
-            verify(fileStorageService, times(1)).storeFile(testImageFile);
+            verify(fileStorageService, times(1)).stageFile(testImageFile);
             verify(rentalRepository, times(1)).save(any(Rental.class));
         }
 
@@ -289,7 +349,7 @@ class RentalServiceTest {
             );
 
             when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-            when(fileStorageService.storeFile(testImageFile)).thenReturn("http://localhost:3001/api/uploads/new.jpg");
+            when(fileStorageService.stageFile(testImageFile)).thenReturn(new StagedFile("new.jpg", "http://localhost:3001/api/uploads/new.jpg", null));
             when(rentalRepository.save(any(Rental.class))).thenAnswer(invocation -> {
                 Rental rental = invocation.getArgument(0);
                 rental.setId(2L);
@@ -308,7 +368,7 @@ class RentalServiceTest {
         }
 
         @Test
-        @DisplayName("Should throw exception when user not found")
+        @DisplayName("Should throw exception and discard the staged picture when user not found")
         void shouldThrowExceptionWhenUserNotFound() {
             // Given
             CreateRentalRequest request = new CreateRentalRequest(
@@ -319,6 +379,8 @@ class RentalServiceTest {
                     "A nice place"
             );
 
+            StagedFile picture = new StagedFile("new.jpg", "http://localhost:3001/api/uploads/new.jpg", null);
+            when(fileStorageService.stageFile(testImageFile)).thenReturn(picture);
             when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.empty());
 
             // When & Then
@@ -326,7 +388,7 @@ class RentalServiceTest {
                     .isInstanceOf(IllegalArgumentException.class)
                     .hasMessage("User not found");
 
-            verify(fileStorageService, never()).storeFile(any());
+            verify(fileStorageService, times(1)).discard(picture);
             verify(rentalRepository, never()).save(any());
         }
 
@@ -343,14 +405,16 @@ class RentalServiceTest {
             );
 
             when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-            when(fileStorageService.storeFile(testImageFile)).thenReturn("http://localhost:3001/api/uploads/new.jpg");
+            when(fileStorageService.stageFile(testImageFile)).thenReturn(new StagedFile("new.jpg", "http://localhost:3001/api/uploads/new.jpg", null));
             when(rentalRepository.save(any(Rental.class))).thenReturn(testRental);
 
             // When
             rentalService.createRental(request, userDetails);
 
             // Then
-            verify(fileStorageService, times(1)).storeFile(testImageFile);
+            verify(fileStorageService, times(1)).stageFile(testImageFile);
+            verify(fileStorageService, times(1)).promoteOnCommit(any(StagedFile.class));
+            verify(fileStorageService, never()).discard(any());
         }
     }
 
@@ -371,17 +435,17 @@ class RentalServiceTest {
             );
 
             when(rentalRepository.findById(1L)).thenReturn(Optional.of(testRental));
-            when(fileStorageService.storeFile(testImageFile)).thenReturn("http://localhost:3001/api/uploads/updated.jpg");
-            when(rentalRepository.save(any(Rental.class))).thenAnswer(invocation -> invocation.getArgument(0));
+            when(fileStorageService.stageFile(testImageFile)).thenReturn(new StagedFile("updated.jpg", "http://localhost:3001/api/uploads/updated.jpg", null));
+            when(rentalRepository.saveAndFlush(any(Rental.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
             // When
-            Optional<RentalDTO> result = rentalService.updateRental(1L, request);
+            Optional<RentalDTO> result = rentalService.updateRental(1L, request, null);
 
             // Then
             assertThat(result).isPresent();
             verify(rentalRepository, times(1)).findById(1L);
-            verify(fileStorageService, times(1)).storeFile(testImageFile);
-            verify(rentalRepository, times(1)).save(any(Rental.class));
+            verify(fileStorageService, times(1)).stageFile(testImageFile);
+            verify(rentalRepository, times(1)).saveAndFlush(any(Rental.class));
         }
 
         @Test
@@ -397,16 +461,16 @@ class RentalServiceTest {
             );
 
             when(rentalRepository.findById(1L)).thenReturn(Optional.of(testRental));
-            when(rentalRepository.save(any(Rental.class))).thenAnswer(invocation -> invocation.getArgument(0));
+            when(rentalRepository.saveAndFlush(any(Rental.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
             // When
-            Optional<RentalDTO> result = rentalService.updateRental(1L, request);
+            Optional<RentalDTO> result = rentalService.updateRental(1L, request, null);
 
             // Then
             assertThat(result).isPresent();
             verify(rentalRepository, times(1)).findById(1L);
-            verify(fileStorageService, never()).storeFile(any());
-            verify(rentalRepository, times(1)).save(any(Rental.class));
+            verify(fileStorageService, never()).stageFile(any());
+            verify(rentalRepository, times(1)).saveAndFlush(any(Rental.class));
         }
 
         @Test
@@ -422,13 +486,13 @@ class RentalServiceTest {
             );
 
             when(rentalRepository.findById(1L)).thenReturn(Optional.of(testRental));
-            when(rentalRepository.save(any(Rental.class))).thenAnswer(invocation -> invocation.getArgument(0));
+            when(rentalRepository.saveAndFlush(any(Rental.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
             // When
-            rentalService.updateRental(1L, request);
+            rentalService.updateRental(1L, request, null);
 
             // Then
-            verify(fileStorageService, never()).storeFile(any());
+            verify(fileStorageService, never()).stageFile(any());
         }
 
         @Test
@@ -444,14 +508,14 @@ class RentalServiceTest {
             );
 
             when(rentalRepository.findById(1L)).thenReturn(Optional.of(testRental));
-            when(fileStorageService.storeFile(testImageFile)).thenReturn("http://localhost:3001/api/uploads/new-picture.jpg");
-            when(rentalRepository.save(any(Rental.class))).thenAnswer(invocation -> invocation.getArgument(0));
+            when(fileStorageService.stageFile(testImageFile)).thenReturn(new StagedFile("new-picture.jpg", "http://localhost:3001/api/uploads/new-picture.jpg", null));
+            when(rentalRepository.saveAndFlush(any(Rental.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
             // When
-            rentalService.updateRental(1L, request);
+            rentalService.updateRental(1L, request, null);
 
             // Then
-            verify(fileStorageService, times(1)).storeFile(testImageFile);
+            verify(fileStorageService, times(1)).stageFile(testImageFile);
         }
 
         @Test
@@ -469,13 +533,162 @@ class RentalServiceTest {
             when(rentalRepository.findById(999L)).thenReturn(Optional.empty());
 
             // When
-            Optional<RentalDTO> result = rentalService.updateRental(999L, request);
+            Optional<RentalDTO> result = rentalService.updateRental(999L, request, null);
 
             // Then
             assertThat(result).isEmpty();
             verify(rentalRepository, times(1)).findById(999L);
-            verify(fileStorageService, never()).storeFile(any());
-            verify(rentalRepository, never()).save(any());
+            verify(fileStorageService, never()).stageFile(any());
+            verify(rentalRepository, never()).saveAndFlush(any());
+        }
+
+        @Test
+        @DisplayName("Should discard the staged picture when rental not found")
+        void shouldDiscardPictureWhenRentalNotFound() {
+            // Given
+            UpdateRentalRequest request = new UpdateRentalRequest(null, null, null, testImageFile, null);
+            StagedFile picture = new StagedFile("new.jpg", "http://localhost:3001/api/uploads/new.jpg", null);
+            when(fileStorageService.stageFile(testImageFile)).thenReturn(picture);
+            when(rentalRepository.findById(999L)).thenReturn(Optional.empty());
+
+            // When
+            Optional<RentalDTO> result = rentalService.updateRental(999L, request, null);
+
+            // Then
+            assertThat(result).isEmpty();
+            verify(fileStorageService, never()).promoteOnCommit(any());
+            verify(fileStorageService, times(1)).discard(picture);
+        }
+    }
+
+    @Nested
+    @DisplayName("updateRental() with If-Match")
+    class ConditionalUpdateRental {
+
+        @Test
+        @DisplayName("Should update rental when the expected version matches")
+        void shouldUpdateWhenVersionMatches() {
+            // Given
+            UpdateRentalRequest request = new UpdateRentalRequest("Updated Name", null, null, null, null);
+            when(rentalRepository.findById(1L)).thenReturn(Optional.of(testRental));
+            when(rentalRepository.saveAndFlush(any(Rental.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            // When
+            Optional<RentalDTO> result = rentalService.updateRental(1L, request, 3L);
+
+            // Then
+            assertThat(result).isPresent();
+            assertThat(result.get().name()).isEqualTo("Updated Name");
         }
+
+        @Test
+        @DisplayName("Should reject a stale version and discard the staged picture")
+        void shouldRejectStaleVersion() {
+            // Given
+            UpdateRentalRequest request = new UpdateRentalRequest("Updated Name", null, null, testImageFile, null);
+            when(rentalRepository.findById(1L)).thenReturn(Optional.of(testRental));
+
+            StagedFile picture = new StagedFile("new.jpg", "http://localhost:3001/api/uploads/new.jpg", null);
+            when(fileStorageService.stageFile(testImageFile)).thenReturn(picture);
+
+            // When & Then
+            assertThatThrownBy(() -> rentalService.updateRental(1L, request, 2L))
+                    .isInstanceOf(PreconditionFailedException.class)
+                    .hasMessageContaining("version 3");
+            assertThat(testRental.getName()).isEqualTo("Charming seaside apartment");
+            verify(fileStorageService, times(1)).discard(picture);
+            verify(rentalRepository, never()).saveAndFlush(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Direct picture uploads")
+    class DirectPictureUploads {
+
+        @Test
+        @DisplayName("Should create rental with the verified picture URL and save its metadata")
+        void shouldCreateRentalFromUpload() {
+            // Given
+            CreateRentalFromUploadRequest request = new CreateRentalFromUploadRequest(
+                    "New Rental", BigDecimal.valueOf(50.00), BigDecimal.valueOf(100.00), "pictures/key.jpg", null);
+            Rental mapped = new Rental();
+            mapped.setName(request.name());
+            when(pictureUploadService.verifyUpload("pictures/key.jpg", userDetails)).thenReturn(new StoredFile("http://localhost:3001/api/uploads/pictures/key.jpg", null));
+            when(rentalMapper.toEntity(request)).thenReturn(mapped);
+            when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+            when(rentalRepository.save(any(Rental.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            // When
+            RentalDTO result = rentalService.createRental(request, userDetails);
+
+            // Then
+            assertThat(result.picture()).isEqualTo("http://localhost:3001/api/uploads/pictures/key.jpg");
+            assertThat(result.owner_id()).isEqualTo(1L);
+            // Saved in the rental transaction
+            verify(fileStorageService).saveMetadata("http://localhost:3001/api/uploads/pictures/key.jpg", null);
+        }
+
+        @Test
+        @DisplayName("Should not open a transaction when the picture was not uploaded")
+        void shouldRejectMissingUpload() {
+            // Given
+            when(pictureUploadService.verifyUpload("pictures/key.jpg", userDetails))
+                    .thenThrow(new InvalidFileException("Picture has not been uploaded yet."));
+
+            // When & Then
+            assertThatThrownBy(() -> rentalService.attachPicture(1L, "pictures/key.jpg", null, userDetails))
+                    .isInstanceOf(InvalidFileException.class);
+            verify(transactionOperations, never()).execute(any());
+            verifyNoInteractions(rentalRepository);
+        }
+
+        @Test
+        @DisplayName("Should delete the uploaded picture when the rental cannot be created")
+        void shouldDiscardUploadOnRollback() {
+            // Given
+            CreateRentalFromUploadRequest request = new CreateRentalFromUploadRequest(
+                    "New Rental", BigDecimal.valueOf(50.00), BigDecimal.valueOf(100.00), "pictures/key.jpg", null);
+            when(pictureUploadService.verifyUpload("pictures/key.jpg", userDetails)).thenReturn(new StoredFile("http://localhost:3001/api/uploads/pictures/key.jpg", null));
+            when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.empty());
+
+            // When & Then
+            assertThatThrownBy(() -> rentalService.createRental(request, userDetails))
+                    .isInstanceOf(IllegalArgumentException.class);
+            verify(pictureUploadService, times(1)).discardUpload("pictures/key.jpg");
+        }
+
+        @Test
+        @DisplayName("Should delete the uploaded picture when the rental is not found")
+        void shouldDiscardUploadForUnknownRental() {
+            // Given
+            when(pictureUploadService.verifyUpload("pictures/key.jpg", userDetails)).thenReturn(new StoredFile("http://localhost:3001/api/uploads/pictures/key.jpg", null));
+            when(rentalRepository.findById(999L)).thenReturn(Optional.empty());
+
+            // When
+            Optional<RentalDTO> result = rentalService.attachPicture(999L, "pictures/key.jpg", null, userDetails);
+
+            // Then
+            assertThat(result).isEmpty();
+            verify(pictureUploadService, times(1)).discardUpload("pictures/key.jpg");
+        }
+    }
+
+    /**
+     * Build the DTO the repository projection would return for the given rental.
+     */
+    private RentalDTO toDto(Rental rental) {
+        return new RentalDTO(
+                rental.getId(),
+                rental.getName(),
+                rental.getSurface(),
+                rental.getPrice(),
+                rental.getPicture(),
+                rental.getDescription(),
+                rental.getOwner() != null ? rental.getOwner().getId() : null,
+                rental.getCreatedAt(),
+                rental.getUpdatedAt(),
+                rental.getVersion(),
+                null
+        );
     }
 }
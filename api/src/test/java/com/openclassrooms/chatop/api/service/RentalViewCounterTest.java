@@ -0,0 +1,88 @@
+package com.openclassrooms.chatop.api.service;
+
+import com.openclassrooms.chatop.api.config.RentalViewProperties;
+import com.openclassrooms.chatop.api.repository.RentalBatchRepository;
+import com.openclassrooms.chatop.api.service.implementations.RentalViewCounterImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RentalViewCounterImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+class RentalViewCounterTest {
+
+    @Mock
+    private RentalBatchRepository rentalBatchRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RentalViewCounterImpl counter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        counter = new RentalViewCounterImpl(rentalBatchRepository,
+                new RentalViewProperties(Duration.ofSeconds(5), 2), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should add the views counted by concurrent requests in a single flush")
+    void shouldFlushAggregatedViews() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            long rentalId = i % 4 == 0 ? 2L : 1L;
+            executor.execute(() -> counter.recordView(rentalId));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        counter.flush();
+        counter.flush();
+
+        verify(rentalBatchRepository, times(1)).addViews(Map.of(1L, 750L, 2L, 250L));
+    }
+
+    @Test
+    @DisplayName("Should drop views of new rentals once too many are pending")
+    void shouldBoundPendingRentals() {
+        counter.recordView(1L);
+        counter.recordView(2L);
+        counter.recordView(3L);
+        counter.recordView(1L);
+
+        counter.flush();
+
+        verify(rentalBatchRepository).addViews(Map.of(1L, 2L, 2L, 1L));
+        assertThat(meterRegistry.get("rental.views.dropped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep the views of a failed flush for the next one")
+    void shouldRetryFailedFlush() {
+        doThrow(new QueryTimeoutException("timeout")).doNothing().when(rentalBatchRepository).addViews(anyMap());
+        counter.recordView(1L);
+
+        counter.flush();
+        counter.recordView(1L);
+        counter.flush();
+
+        verify(rentalBatchRepository).addViews(Map.of(1L, 1L));
+        verify(rentalBatchRepository).addViews(Map.of(1L, 2L));
+    }
+}
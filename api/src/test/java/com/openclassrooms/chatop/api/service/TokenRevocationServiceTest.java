@@ -0,0 +1,60 @@
+package com.openclassrooms.chatop.api.service;
+
+import com.openclassrooms.chatop.api.model.RevokedToken;
+import com.openclassrooms.chatop.api.repository.RevokedTokenRepository;
+import com.openclassrooms.chatop.api.service.implementations.TokenRevocationServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for TokenRevocationServiceImpl.
+ */
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocationServiceImpl tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationService = new TokenRevocationServiceImpl(revokedTokenRepository, 1000);
+    }
+
+    @Test
+    @DisplayName("Should reject every token until the revocations are loaded")
+    void shouldFailClosedUntilLoaded() {
+        // Given: the database is unavailable at startup
+        Instant expiresAt = Instant.now().plus(Duration.ofMinutes(10));
+        when(revokedTokenRepository.findByExpiresAtAfter(any(Instant.class)))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(List.of(new RevokedToken("revoked", expiresAt, Instant.now())));
+
+        // When
+        tokenRevocationService.synchronize();
+
+        // Then
+        assertThat(tokenRevocationService.isRevoked("valid")).isTrue();
+
+        // When: the next sync succeeds
+        tokenRevocationService.synchronize();
+
+        // Then
+        assertThat(tokenRevocationService.isRevoked("valid")).isFalse();
+        assertThat(tokenRevocationService.isRevoked("revoked")).isTrue();
+    }
+}
@@ -0,0 +1,197 @@
+package com.openclassrooms.chatop.api.storage;
+
+import com.openclassrooms.chatop.api.exception.InvalidFileException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for CachingStorageBackend.
+ */
+class CachingStorageBackendTest {
+
+    private static final int KB = 1024;
+
+    @TempDir
+    Path cacheDir;
+
+    private StorageBackend remote;
+
+    @BeforeEach
+    void setUp() {
+        remote = mock(StorageBackend.class);
+    }
+
+    private void remoteHas(String name, int size) {
+        byte[] content = new byte[size];
+        when(remote.open(name)).thenAnswer(invocation -> Optional.of(new ByteArrayResource(content)));
+    }
+
+    private static byte[] read(Optional<Resource> resource) throws IOException {
+        try (InputStream in = resource.orElseThrow().getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Nested
+    @DisplayName("Read-through")
+    class ReadThrough {
+
+        @Test
+        @DisplayName("Should download a file once, then serve it from disk")
+        void shouldDownloadOnce() throws IOException {
+            remoteHas("a.jpg", 4 * KB);
+            CachingStorageBackend backend = new CachingStorageBackend(remote, cacheDir, 64 * KB);
+
+            assertThat(read(backend.open("a.jpg"))).hasSize(4 * KB);
+            Optional<Resource> second = backend.open("a.jpg");
+
+            assertThat(second.orElseThrow().getFile().toPath()).isEqualTo(cacheDir.resolve("a.jpg"));
+            verify(remote, times(1)).open("a.jpg");
+        }
+
+        @Test
+        @DisplayName("Should not cache missing files")
+        void shouldNotCacheMisses() {
+            when(remote.open("missing.jpg")).thenReturn(Optional.empty());
+            CachingStorageBackend backend = new CachingStorageBackend(remote, cacheDir, 64 * KB);
+
+            assertThat(backend.open("missing.jpg")).isEmpty();
+            assertThat(backend.open("missing.jpg")).isEmpty();
+
+            verify(remote, times(2)).open("missing.jpg");
+        }
+
+        @Test
+        @DisplayName("Should stream files larger than the budget without caching them")
+        void shouldNotCacheOversizedFiles() throws IOException {
+            remoteHas("huge.jpg", 128 * KB);
+            CachingStorageBackend backend = new CachingStorageBackend(remote, cacheDir, 64 * KB);
+
+            assertThat(read(backend.open("huge.jpg"))).hasSize(128 * KB);
+
+            assertThat(cacheDir.resolve("huge.jpg")).doesNotExist();
+        }
+
+        @Test
+        @DisplayName("Should reject names escaping the cache directory")
+        void shouldRejectTraversal() {
+            CachingStorageBackend backend = new CachingStorageBackend(remote, cacheDir, 64 * KB);
+
+            assertThatThrownBy(() -> backend.open("../outside.jpg"))
+                    .isInstanceOf(InvalidFileException.class);
+            verify(remote, never()).open("../outside.jpg");
+        }
+    }
+
+    @Nested
+    @DisplayName("Size budget")
+    class SizeBudget {
+
+        @Test
+        @DisplayName("Should evict and delete files beyond the budget")
+        void shouldEvictBeyondBudget() throws IOException {
+            CachingStorageBackend backend = new CachingStorageBackend(remote, cacheDir, 16 * KB);
+            for (int i = 0; i < 10; i++) {
+                remoteHas(i + ".jpg", 4 * KB);
+                read(backend.open(i + ".jpg"));
+            }
+
+            assertThat(backend.cachedBytes()).isLessThanOrEqualTo(16 * KB);
+            try (var files = Files.list(cacheDir)) {
+                assertThat(files.filter(Files::isRegularFile).count()).isLessThanOrEqualTo(4);
+            }
+        }
+
+        @Test
+        @DisplayName("Should index files left by a previous run")
+        void shouldIndexExistingFiles() throws IOException {
+            Files.createDirectories(cacheDir.resolve("pictures"));
+            Files.write(cacheDir.resolve("pictures/a.jpg"), new byte[KB]);
+
+            CachingStorageBackend backend = new CachingStorageBackend(remote, cacheDir, 64 * KB);
+
+            assertThat(read(backend.open("pictures/a.jpg"))).hasSize(KB);
+            verify(remote, never()).open("pictures/a.jpg");
+        }
+    }
+
+    @Nested
+    @DisplayName("Eviction while serving")
+    class EvictionWhileServing {
+
+        @Test
+        @DisplayName("Should keep an evicted file until its last reader closes it")
+        void shouldDeleteAfterLastReader() throws IOException {
+            remoteHas("a.jpg", 4 * KB);
+            CachingStorageBackend backend = new CachingStorageBackend(remote, cacheDir, 64 * KB);
+            Resource resource = backend.open("a.jpg").orElseThrow();
+
+            try (InputStream in = resource.getInputStream()) {
+                backend.promote("a.jpg");
+
+                assertThat(cacheDir.resolve("a.jpg")).exists();
+                assertThat(in.readAllBytes()).hasSize(4 * KB);
+            }
+
+            assertThat(cacheDir.resolve("a.jpg")).doesNotExist();
+        }
+
+        @Test
+        @DisplayName("Should stream a file evicted before it is read from the remote backend")
+        void shouldFallBackToRemote() throws IOException {
+            remoteHas("a.jpg", 4 * KB);
+            CachingStorageBackend backend = new CachingStorageBackend(remote, cacheDir, 64 * KB);
+            read(backend.open("a.jpg"));
+            Resource resource = backend.open("a.jpg").orElseThrow();
+
+            backend.promote("a.jpg");
+
+            assertThat(resource.contentLength()).isEqualTo(4 * KB);
+            try (InputStream in = resource.getInputStream()) {
+                assertThat(in.readAllBytes()).hasSize(4 * KB);
+            }
+            verify(remote, times(2)).open("a.jpg");
+        }
+    }
+
+    @Nested
+    @DisplayName("Writes")
+    class Writes {
+
+        @Test
+        @DisplayName("Should write to the remote backend and invalidate promoted files")
+        void shouldDelegateWrites() throws IOException {
+            remoteHas("a.jpg", KB);
+            CachingStorageBackend backend = new CachingStorageBackend(remote, cacheDir, 64 * KB);
+            read(backend.open("a.jpg"));
+            ByteArrayInputStream content = new ByteArrayInputStream(new byte[KB]);
+
+            backend.stage("a.jpg", content, KB);
+            backend.promote("a.jpg");
+
+            verify(remote).stage("a.jpg", content, KB);
+            verify(remote).promote("a.jpg");
+            assertThat(cacheDir.resolve("a.jpg")).doesNotExist();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.openclassrooms.chatop.api.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for HotPictureResolver.
+ */
+class HotPictureResolverTest {
+
+    @TempDir
+    Path uploads;
+
+    private ResourceResolverChain chain;
+    private HotPictureResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        chain = mock(ResourceResolverChain.class);
+        resolver = new HotPictureResolver(64 * 1024, 16 * 1024, 2, new SimpleMeterRegistry());
+    }
+
+    private byte[] picture(String name, int size) throws IOException {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) i;
+        }
+        Path path = uploads.resolve(name);
+        Files.write(path, content);
+        when(chain.resolveResource(any(), eq(name), any())).thenReturn(new FileSystemResource(path));
+        return content;
+    }
+
+    @Test
+    @DisplayName("Should serve a picture from disk until it has been requested enough")
+    void shouldServeMissesFromChain() throws IOException {
+        picture("a.jpg", 8 * 1024);
+
+        Resource first = resolver.resolveResource(null, "a.jpg", List.of(), chain);
+
+        assertThat(first).isInstanceOf(FileSystemResource.class);
+        assertThat(resolver.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should serve a picture from its mapping once requested enough")
+    void shouldServeFromMapping() throws IOException {
+        byte[] content = picture("a.jpg", 8 * 1024);
+
+        resolver.resolveResource(null, "a.jpg", List.of(), chain);
+        resolver.resolveResource(null, "a.jpg", List.of(), chain);
+        Resource hot = resolver.resolveResource(null, "a.jpg", List.of(), chain);
+
+        verify(chain, times(2)).resolveResource(any(), eq("a.jpg"), any());
+        assertThat(hot).isNotInstanceOf(FileSystemResource.class);
+        assertThat(hot.contentLength()).isEqualTo(content.length);
+        assertThat(hot.getFilename()).isEqualTo("a.jpg");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = hot.getInputStream()) {
+            in.transferTo(out);
+        }
+        assertThat(out.toByteArray()).isEqualTo(content);
+    }
+
+    @Test
+    @DisplayName("Should skip within the mapping for range requests")
+    void shouldSkipForRanges() throws IOException {
+        byte[] content = picture("a.jpg", 1024);
+
+        resolver.resolveResource(null, "a.jpg", List.of(), chain);
+        Resource hot = resolver.resolveResource(null, "a.jpg", List.of(), chain);
+
+        try (InputStream in = hot.getInputStream()) {
+            assertThat(in.skip(1000)).isEqualTo(1000);
+            assertThat(in.readAllBytes()).isEqualTo(Arrays.copyOfRange(content, 1000, 1024));
+        }
+    }
+
+    @Test
+    @DisplayName("Should leave large pictures and non-file resources to the next resolvers")
+    void shouldPassThroughUncacheable() throws IOException {
+        picture("large.jpg", 32 * 1024);
+        ByteArrayResource remote = new ByteArrayResource(new byte[10]);
+        when(chain.resolveResource(any(), eq("remote.jpg"), any())).thenReturn(remote);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(resolver.resolveResource(null, "large.jpg", List.of(), chain)).isInstanceOf(FileSystemResource.class);
+            assertThat(resolver.resolveResource(null, "remote.jpg", List.of(), chain)).isSameAs(remote);
+        }
+        assertThat(resolver.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should stay within the memory budget")
+    void shouldStayWithinBudget() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            picture(i + ".jpg", 8 * 1024);
+            resolver.resolveResource(null, i + ".jpg", List.of(), chain);
+            resolver.resolveResource(null, i + ".jpg", List.of(), chain);
+        }
+
+        assertThat(resolver.size()).isLessThanOrEqualTo(8);
+    }
+}
@@ -0,0 +1,140 @@
+package com.openclassrooms.chatop.api.storage;
+
+import com.openclassrooms.chatop.api.config.StorageProperties;
+import com.openclassrooms.chatop.api.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for S3ObjectStore and ObjectStoreBackend.
+ * Runs against an in-memory S3 stand-in that checks request signatures.
+ */
+class S3ObjectStoreTest {
+
+    private static final byte[] PICTURE = "not really a jpeg".getBytes(StandardCharsets.UTF_8);
+
+    private S3StandInServer server;
+    private S3ObjectStore objectStore;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new S3StandInServer("pictures", "minio", "minio-secret", "us-east-1");
+        objectStore = store("minio-secret");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private S3ObjectStore store(String secretKey) {
+        StorageProperties.S3 properties = new StorageProperties.S3(server.endpoint(), "us-east-1", "pictures",
+                "minio", secretKey, true, "https://cdn.example.com", Duration.ofSeconds(5));
+        return new S3ObjectStore(properties, HttpClient.newHttpClient(), Clock.systemUTC());
+    }
+
+    @Nested
+    @DisplayName("Object operations")
+    class ObjectOperations {
+
+        @Test
+        @DisplayName("Should put, head and get an object")
+        void shouldPutHeadAndGet() throws IOException {
+            objectStore.put("a.jpg", new ByteArrayInputStream(PICTURE), PICTURE.length, "image/jpeg");
+
+            assertThat(objectStore.head("a.jpg")).contains(new ObjectStore.ObjectInfo(PICTURE.length, "image/jpeg"));
+            Optional<InputStream> content = objectStore.get("a.jpg");
+            assertThat(content).isPresent();
+            try (InputStream in = content.get()) {
+                assertThat(in.readAllBytes()).isEqualTo(PICTURE);
+            }
+        }
+
+        @Test
+        @DisplayName("Should report missing objects as empty")
+        void shouldReportMissingObjects() {
+            assertThat(objectStore.head("missing.jpg")).isEmpty();
+            assertThat(objectStore.get("missing.jpg")).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should copy and delete objects inside the store")
+        void shouldCopyAndDelete() {
+            objectStore.put("a.jpg", new ByteArrayInputStream(PICTURE), PICTURE.length, "image/jpeg");
+
+            objectStore.copy("a.jpg", "b.jpg");
+            objectStore.delete("a.jpg");
+
+            assertThat(server.objects()).containsOnlyKeys("b.jpg");
+            assertThat(server.objects().get("b.jpg").content()).isEqualTo(PICTURE);
+        }
+
+        @Test
+        @DisplayName("Should fail as unavailable when the signature is rejected")
+        void shouldFailOnRejectedSignature() {
+            S3ObjectStore wrongCredentials = store("wrong-secret");
+
+            assertThatThrownBy(() -> wrongCredentials.head("a.jpg"))
+                    .isInstanceOf(ServiceUnavailableException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("ObjectStoreBackend")
+    class Backend {
+
+        private ObjectStoreBackend backend;
+
+        @BeforeEach
+        void setUp() {
+            backend = new ObjectStoreBackend(objectStore);
+        }
+
+        @Test
+        @DisplayName("Should only serve staged files once promoted")
+        void shouldServeStagedFilesOncePromoted() throws IOException {
+            backend.stage("a.jpg", new ByteArrayInputStream(PICTURE), PICTURE.length);
+
+            assertThat(backend.open("a.jpg")).isEmpty();
+            assertThat(backend.open("staging/a.jpg")).isEmpty();
+
+            backend.promote("a.jpg");
+
+            assertThat(server.objects()).containsOnlyKeys("a.jpg");
+            try (InputStream in = backend.open("a.jpg").orElseThrow().getInputStream()) {
+                assertThat(in.readAllBytes()).isEqualTo(PICTURE);
+            }
+        }
+
+        @Test
+        @DisplayName("Should delete discarded staged files")
+        void shouldDeleteDiscardedFiles() {
+            backend.stage("a.jpg", new ByteArrayInputStream(PICTURE), PICTURE.length);
+
+            backend.discard("a.jpg");
+
+            assertThat(server.objects()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should use the configured public URL")
+        void shouldUsePublicUrl() {
+            assertThat(backend.publicUrl("a.jpg")).isEqualTo("https://cdn.example.com/a.jpg");
+        }
+    }
+}
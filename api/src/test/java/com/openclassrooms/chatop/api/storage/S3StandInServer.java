@@ -0,0 +1,165 @@
+package com.openclassrooms.chatop.api.storage;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory stand-in for a MinIO-style S3 server (path-style bucket), for tests.
+ * Supports PUT (with x-amz-copy-source for copies), GET, HEAD and DELETE of objects, and
+ * rejects requests whose SigV4 Authorization header does not match the configured credentials.
+ */
+class S3StandInServer implements AutoCloseable {
+
+    private static final DateTimeFormatter AMZ_DATE =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private final String bucket;
+    private final SigV4Signer signer;
+    private final HttpServer server;
+    private final Map<String, StoredObject> objects = new ConcurrentHashMap<>();
+    private final AtomicInteger gets = new AtomicInteger();
+
+    S3StandInServer(String bucket, String accessKey, String secretKey, String region) throws IOException {
+        this.bucket = bucket;
+        this.signer = new SigV4Signer(accessKey, secretKey, region);
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    Map<String, StoredObject> objects() {
+        return objects;
+    }
+
+    int gets() {
+        return gets.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            if (!authorized(exchange)) {
+                respond(exchange, 403, "<Error><Code>SignatureDoesNotMatch</Code></Error>");
+                return;
+            }
+            String prefix = "/" + bucket + "/";
+            String path = exchange.getRequestURI().getPath();
+            if (!path.startsWith(prefix)) {
+                respond(exchange, 404, "<Error><Code>NoSuchBucket</Code></Error>");
+                return;
+            }
+            String key = path.substring(prefix.length());
+            switch (exchange.getRequestMethod()) {
+                case "PUT" -> put(exchange, key, body);
+                case "GET", "HEAD" -> get(exchange, key);
+                case "DELETE" -> {
+                    objects.remove(key);
+                    exchange.sendResponseHeaders(204, -1);
+                }
+                default -> respond(exchange, 405, "<Error><Code>MethodNotAllowed</Code></Error>");
+            }
+        }
+    }
+
+    private void put(HttpExchange exchange, String key, byte[] body) throws IOException {
+        String copySource = exchange.getRequestHeaders().getFirst("x-amz-copy-source");
+        if (copySource == null) {
+            objects.put(key, new StoredObject(body, exchange.getRequestHeaders().getFirst("content-type")));
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+        StoredObject source = objects.get(copySource.substring(bucket.length() + 2));
+        if (source == null) {
+            respond(exchange, 404, "<Error><Code>NoSuchKey</Code></Error>");
+            return;
+        }
+        objects.put(key, source);
+        respond(exchange, 200, "<CopyObjectResult></CopyObjectResult>");
+    }
+
+    private void get(HttpExchange exchange, String key) throws IOException {
+        StoredObject object = objects.get(key);
+        boolean head = "HEAD".equals(exchange.getRequestMethod());
+        if (object == null) {
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+        if (!head) {
+            gets.incrementAndGet();
+        }
+        exchange.getResponseHeaders().set("Content-Type", object.contentType());
+        if (head) {
+            exchange.getResponseHeaders().set("Content-Length", String.valueOf(object.content().length));
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(200, object.content().length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(object.content());
+        }
+    }
+
+    /**
+     * Recompute the Authorization header from the signed headers the request carries.
+     */
+    private boolean authorized(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("authorization");
+        String date = exchange.getRequestHeaders().getFirst("x-amz-date");
+        String payloadHash = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        if (authorization == null || date == null || payloadHash == null || !authorization.contains("SignedHeaders=")) {
+            return false;
+        }
+        String signedHeaderNames = authorization.substring(authorization.indexOf("SignedHeaders=") + 14);
+        signedHeaderNames = signedHeaderNames.substring(0, signedHeaderNames.indexOf(','));
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String name : signedHeaderNames.split(";")) {
+            if (!name.equals("host") && !name.equals("x-amz-date") && !name.equals("x-amz-content-sha256")) {
+                String value = exchange.getRequestHeaders().getFirst(name);
+                if (value == null) {
+                    return false;
+                }
+                headers.put(name.toLowerCase(Locale.ROOT), value);
+            }
+        }
+        URI uri = URI.create("http://" + exchange.getRequestHeaders().getFirst("host") + exchange.getRequestURI());
+        Instant signedAt = Instant.from(AMZ_DATE.parse(date));
+        String expected = signer.sign(exchange.getRequestMethod(), uri, headers, payloadHash, signedAt).get("authorization");
+        return authorization.equals(expected);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    record StoredObject(byte[] content, String contentType) {
+    }
+}
@@ -0,0 +1,97 @@
+package com.openclassrooms.chatop.api.util;
+
+import com.openclassrooms.chatop.api.exception.InvalidFileException;
+import com.openclassrooms.chatop.api.util.ImageMetadataExtractor.ImageMetadata;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for ImageMetadataExtractor and BlurHash.
+ */
+class ImageMetadataExtractorTest {
+
+    @Test
+    @DisplayName("Should extract dimensions, format, dominant color and BlurHash")
+    void shouldExtractMetadata() throws IOException {
+        // Three quarters grey, one quarter red
+        BufferedImage image = new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(0x80, 0x80, 0x80));
+        graphics.fillRect(0, 0, 400, 200);
+        graphics.setColor(Color.RED);
+        graphics.fillRect(0, 0, 100, 200);
+        graphics.dispose();
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+
+        ImageMetadata metadata = ImageMetadataExtractor.extract(
+                new ByteArrayInputStream(png.toByteArray()), png.size(), "png");
+
+        assertThat(metadata.width()).isEqualTo(400);
+        assertThat(metadata.height()).isEqualTo(200);
+        assertThat(metadata.format()).isEqualTo("png");
+        assertThat(metadata.size()).isEqualTo(png.size());
+        assertThat(metadata.dominantColor()).isEqualTo("#808080");
+        assertThat(metadata.blurhash()).hasSize(28).startsWith("L");
+    }
+
+    @Test
+    @DisplayName("Should keep format and size of pictures that cannot be decoded")
+    void shouldFallBackForUndecodablePictures() {
+        ImageMetadata metadata = ImageMetadataExtractor.extract(
+                new ByteArrayInputStream("RIFF....WEBPVP8 ".getBytes()), 16, "jpg");
+
+        assertThat(metadata).isEqualTo(new ImageMetadata(null, null, "jpeg", 16, null, null));
+    }
+
+    @Test
+    @DisplayName("Should reject pictures whose dimensions exceed the limit before decoding them")
+    void shouldRejectOversizedDimensions() {
+        // Header only: decoding would fail on the missing pixel data, the dimensions are checked first
+        byte[] png = pngHeader(100_000, 100_000);
+
+        assertThatThrownBy(() -> ImageMetadataExtractor.extract(new ByteArrayInputStream(png), png.length, "png"))
+                .isInstanceOf(InvalidFileException.class)
+                .hasMessageContaining("50 megapixels");
+    }
+
+    @Test
+    @DisplayName("Should encode a uniform picture like the reference BlurHash implementation")
+    void shouldEncodeUniformPicture() {
+        int[] black = new int[16];
+        int[] white = new int[16];
+        Arrays.fill(white, 0xFFFFFF);
+
+        assertThat(BlurHash.encode(black, 4, 4, 4, 3)).isEqualTo("L00000fQfQfQfQfQfQfQfQfQfQfQ");
+        assertThat(BlurHash.encode(white, 4, 4, 1, 1)).isEqualTo("00TSUA");
+    }
+
+    /**
+     * PNG signature and header chunk declaring the given dimensions, without any pixel data.
+     */
+    private static byte[] pngHeader(int width, int height) {
+        ByteBuffer header = ByteBuffer.allocate(33);
+        header.put(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+        header.putInt(13).put("IHDR".getBytes(StandardCharsets.US_ASCII))
+                .putInt(width).putInt(height).put(new byte[]{8, 2, 0, 0, 0});
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), 12, 17);
+        header.putInt((int) crc.getValue());
+        return header.array();
+    }
+}
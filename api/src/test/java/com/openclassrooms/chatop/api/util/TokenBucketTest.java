@@ -0,0 +1,56 @@
+package com.openclassrooms.chatop.api.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for TokenBucket.
+ * Tests burst capacity, refill and the wait reported on rejection.
+ */
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("Should allow a full burst then reject")
+    void shouldAllowBurstThenReject() {
+        TokenBucket bucket = new TokenBucket(3, Duration.ofSeconds(3), 0);
+
+        assertThat(bucket.tryConsume(0).remaining()).isEqualTo(2);
+        assertThat(bucket.tryConsume(0).remaining()).isEqualTo(1);
+        assertThat(bucket.tryConsume(0).remaining()).isZero();
+
+        TokenBucket.Result rejected = bucket.tryConsume(0);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.waitNanos()).isEqualTo(SECOND);
+    }
+
+    @Test
+    @DisplayName("Should refill one token per emission interval")
+    void shouldRefillOverTime() {
+        TokenBucket bucket = new TokenBucket(3, Duration.ofSeconds(3), 0);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryConsume(0);
+        }
+
+        assertThat(bucket.tryConsume(SECOND / 2).allowed()).isFalse();
+        assertThat(bucket.tryConsume(SECOND).allowed()).isTrue();
+        assertThat(bucket.tryConsume(SECOND).allowed()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should not accumulate more than the capacity while idle")
+    void shouldCapAtCapacity() {
+        TokenBucket bucket = new TokenBucket(2, Duration.ofSeconds(2), 0);
+
+        long later = 100 * SECOND;
+        assertThat(bucket.tryConsume(later).allowed()).isTrue();
+        assertThat(bucket.tryConsume(later).allowed()).isTrue();
+        assertThat(bucket.tryConsume(later).allowed()).isFalse();
+    }
+}
@@ -1,3 +1,6 @@
+-- Baseline schema, identical to the Flyway migration V1 (api/src/main/resources/db/migration).
+-- Later schema changes are migrations the API applies at startup, on top of this script.
+
 CREATE TABLE `USERS` (
   `id` integer PRIMARY KEY AUTO_INCREMENT,
   `email` varchar(255),
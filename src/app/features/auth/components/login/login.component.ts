@@ -31,6 +31,7 @@ export class LoginComponent  {
     this.authService.login(loginRequest).subscribe(
       (response: AuthSuccess) => {
         localStorage.setItem('token', response.token);
+        localStorage.setItem('refresh_token', response.refresh_token);
         this.authService.me().subscribe((user: User) => {
           this.sessionService.logIn(user);
           this.router.navigate(['/rentals'])
@@ -32,6 +32,7 @@ export class RegisterComponent {
     this.authService.register(registerRequest).subscribe(
       (response: AuthSuccess) => {
         localStorage.setItem('token', response.token);
+        localStorage.setItem('refresh_token', response.refresh_token);
         this.authService.me().subscribe((user: User) => {
           this.sessionService.logIn(user);
           this.router.navigate(['/rentals'])
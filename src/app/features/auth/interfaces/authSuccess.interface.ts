@@ -1,3 +1,4 @@
 export interface AuthSuccess {
     token: string;
-}
\ No newline at end of file
+    refresh_token: string;
+}
@@ -1,4 +1,4 @@
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpHeaders } from '@angular/common/http';
 import { Injectable } from '@angular/core';
 import { Observable } from 'rxjs';
 import { LoginRequest } from '../interfaces/loginRequest.interface';
@@ -23,6 +23,12 @@ export class AuthService {
     return this.httpClient.post<AuthSuccess>(`${this.pathService}/login`, loginRequest);
   }
 
+  // Revokes the refresh token family and, when given, the access token
+  public logout(refreshToken: string, token: string | null): Observable<void> {
+    const headers = token ? new HttpHeaders({ Authorization: `Bearer ${token}` }) : undefined;
+    return this.httpClient.post<void>(`${this.pathService}/logout`, { refresh_token: refreshToken }, { headers });
+  }
+
   public me(): Observable<User> {
     return this.httpClient.get<User>(`${this.pathService}/me`);
   }
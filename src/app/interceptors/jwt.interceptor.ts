@@ -1,19 +1,68 @@
-import { HttpHandler, HttpInterceptor, HttpRequest } from "@angular/common/http";
+import { HttpErrorResponse, HttpEvent, HttpHandler, HttpInterceptor, HttpRequest, HttpResponse } from "@angular/common/http";
 import { Injectable } from "@angular/core";
+import { Observable, filter, finalize, map, shareReplay, switchMap, take, throwError, catchError } from "rxjs";
+import { AuthSuccess } from "../features/auth/interfaces/authSuccess.interface";
 
 @Injectable({ providedIn: 'root' })
 export class JwtInterceptor implements HttpInterceptor {
+
+  // Authentication endpoints answer 401 for bad credentials or tokens, never retried
+  private static readonly AUTH_ENDPOINTS = /api\/auth\/(login|register|refresh|logout)$/;
+
+  // Shared by the requests that fail while a refresh is in flight: a refresh token can only be used once
+  private refreshing$: Observable<string> | null = null;
+
   constructor() {}
 
-  public intercept(request: HttpRequest<any>, next: HttpHandler) {
-    const token = localStorage.getItem('token');
-    if (token) {
-      request = request.clone({
-        setHeaders: {
-          Authorization: `Bearer ${token}`,
-        },
-      });
+  public intercept(request: HttpRequest<any>, next: HttpHandler): Observable<HttpEvent<any>> {
+    if (request.url.includes('api/auth/refresh')) {
+      return next.handle(request);
+    }
+    return next.handle(this.withToken(request, localStorage.getItem('token'))).pipe(
+      catchError((error: HttpErrorResponse) => {
+        const refreshToken = localStorage.getItem('refresh_token');
+        if (error.status !== 401 || !refreshToken || JwtInterceptor.AUTH_ENDPOINTS.test(request.url)) {
+          return throwError(() => error);
+        }
+        return this.refresh(refreshToken, next).pipe(
+          switchMap(token => next.handle(this.withToken(request, token)))
+        );
+      })
+    );
+  }
+
+  private refresh(refreshToken: string, next: HttpHandler): Observable<string> {
+    if (!this.refreshing$) {
+      const refreshRequest = new HttpRequest<any>('POST', 'api/auth/refresh', { refresh_token: refreshToken });
+      this.refreshing$ = next.handle(refreshRequest).pipe(
+        filter((event): event is HttpResponse<AuthSuccess> => event instanceof HttpResponse),
+        take(1),
+        map(response => {
+          localStorage.setItem('token', response.body!.token);
+          localStorage.setItem('refresh_token', response.body!.refresh_token);
+          return response.body!.token;
+        }),
+        catchError((error: HttpErrorResponse) => {
+          // Expired, revoked or reused: the session is over
+          localStorage.removeItem('token');
+          localStorage.removeItem('refresh_token');
+          return throwError(() => error);
+        }),
+        finalize(() => this.refreshing$ = null),
+        shareReplay(1)
+      );
+    }
+    return this.refreshing$;
+  }
+
+  private withToken(request: HttpRequest<any>, token: string | null): HttpRequest<any> {
+    if (!token) {
+      return request;
     }
-    return next.handle(request);
+    return request.clone({
+      setHeaders: {
+        Authorization: `Bearer ${token}`,
+      },
+    });
   }
-}
\ No newline at end of file
+}
@@ -13,6 +13,8 @@ export class SessionService {
 
   private isLoggedSubject = new BehaviorSubject<boolean>(this.isLogged);
 
+  constructor(private authService: AuthService) { }
+
   public $isLogged(): Observable<boolean> {
     return this.isLoggedSubject.asObservable();
   }
@@ -24,7 +26,14 @@ export class SessionService {
   }
 
   public logOut(): void {
+    const token = localStorage.getItem('token');
+    const refreshToken = localStorage.getItem('refresh_token');
+    if (refreshToken) {
+      // Tokens are sent explicitly as they are cleared below; the local session ends even if this fails
+      this.authService.logout(refreshToken, token).subscribe({ error: () => {} });
+    }
     localStorage.removeItem('token');
+    localStorage.removeItem('refresh_token');
     this.user = undefined;
     this.isLogged = false;
     this.next();